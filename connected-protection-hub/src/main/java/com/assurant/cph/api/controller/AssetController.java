@@ -1,10 +1,12 @@
 package com.assurant.cph.api.controller;
 
 import com.assurant.cph.api.dto.AssetDTO;
+import com.assurant.cph.api.dto.CursorPage;
 import com.assurant.cph.core.domain.ElectronicDevice;
 import com.assurant.cph.core.domain.ProtectedAsset;
 import com.assurant.cph.core.domain.Vehicle;
 import com.assurant.cph.core.service.AssetRegistrationService;
+import com.assurant.cph.core.service.PageQuery;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -68,11 +70,20 @@ public class AssetController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all assets", description = "Retrieves a list of all protected assets")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved all assets")
-    public ResponseEntity<List<ProtectedAsset>> getAllAssets() {
-        log.info("Fetching all protected assets");
-        List<ProtectedAsset> assets = assetRegistrationService.getAllAssets();
+    @Operation(summary = "Get all assets", description = "Lists protected assets in creation order, one page at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of protected assets"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or direction")
+    })
+    public ResponseEntity<CursorPage<ProtectedAsset>> getAllAssets(
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items, 1 to " + PageQuery.MAX_LIMIT + " (default " + PageQuery.DEFAULT_LIMIT + ")")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "asc for oldest first (default), desc for newest first")
+            @RequestParam(required = false) String direction) {
+        log.info("Fetching page of protected assets");
+        CursorPage<ProtectedAsset> assets = assetRegistrationService.getAssetPage(PageQuery.of(cursor, limit, direction));
         return ResponseEntity.ok(assets);
     }
 
@@ -120,20 +131,38 @@ public class AssetController {
     }
 
     @GetMapping("/electronic-devices")
-    @Operation(summary = "Get all electronic devices", description = "Retrieves all electronic devices")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved electronic devices")
-    public ResponseEntity<List<ElectronicDevice>> getAllElectronicDevices() {
-        log.info("Fetching all electronic devices");
-        List<ElectronicDevice> devices = assetRegistrationService.getAllElectronicDevices();
+    @Operation(summary = "Get all electronic devices", description = "Lists electronic devices in creation order, one page at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of electronic devices"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or direction")
+    })
+    public ResponseEntity<CursorPage<ElectronicDevice>> getAllElectronicDevices(
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items, 1 to " + PageQuery.MAX_LIMIT + " (default " + PageQuery.DEFAULT_LIMIT + ")")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "asc for oldest first (default), desc for newest first")
+            @RequestParam(required = false) String direction) {
+        log.info("Fetching page of electronic devices");
+        CursorPage<ElectronicDevice> devices = assetRegistrationService.getElectronicDevicePage(PageQuery.of(cursor, limit, direction));
         return ResponseEntity.ok(devices);
     }
 
     @GetMapping("/vehicles")
-    @Operation(summary = "Get all vehicles", description = "Retrieves all vehicles")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved vehicles")
-    public ResponseEntity<List<Vehicle>> getAllVehicles() {
-        log.info("Fetching all vehicles");
-        List<Vehicle> vehicles = assetRegistrationService.getAllVehicles();
+    @Operation(summary = "Get all vehicles", description = "Lists vehicles in creation order, one page at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of vehicles"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or direction")
+    })
+    public ResponseEntity<CursorPage<Vehicle>> getAllVehicles(
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items, 1 to " + PageQuery.MAX_LIMIT + " (default " + PageQuery.DEFAULT_LIMIT + ")")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "asc for oldest first (default), desc for newest first")
+            @RequestParam(required = false) String direction) {
+        log.info("Fetching page of vehicles");
+        CursorPage<Vehicle> vehicles = assetRegistrationService.getVehiclePage(PageQuery.of(cursor, limit, direction));
         return ResponseEntity.ok(vehicles);
     }
 
@@ -0,0 +1,118 @@
+package com.assurant.cph.api.controller;
+
+import com.assurant.cph.core.cache.CacheEvictionEngine;
+import com.assurant.cph.core.cache.CacheRegionStats;
+import com.assurant.cph.core.cache.CacheSnapshotStore;
+import com.assurant.cph.core.cache.CacheStatistics;
+import com.assurant.cph.core.cache.NaturalKeyIndex;
+import com.assurant.cph.core.cache.QueryResultCache;
+import com.assurant.cph.core.cache.cluster.ClusterInvalidationBus;
+import com.assurant.cph.core.cache.partition.PartitionedCacheCluster;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/admin/caches")
+@RequiredArgsConstructor
+@Tag(name = "Cache Administration", description = "Cache inspection APIs")
+public class CacheAdminController {
+
+    private final CacheEvictionEngine cacheEvictionEngine;
+    private final CacheSnapshotStore cacheSnapshotStore;
+    private final NaturalKeyIndex naturalKeyIndex;
+    private final QueryResultCache queryResultCache;
+    private final CacheStatistics cacheStatistics;
+    private final ClusterInvalidationBus clusterInvalidationBus;
+    private final ObjectProvider<PartitionedCacheCluster> partitionedCacheCluster;
+
+    @GetMapping
+    @Operation(summary = "Get cache statistics", description = "Retrieves, per region, hits, misses, load time, evictions by cause, size, estimated retained bytes and the hottest keys")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved cache statistics")
+    public ResponseEntity<Map<String, CacheRegionStats>> getCacheStats() {
+        log.info("Fetching cache statistics");
+        return ResponseEntity.ok(cacheStatistics.getStats());
+    }
+
+    @GetMapping("/{region}")
+    @Operation(summary = "Get cache region statistics", description = "Retrieves the statistics of a single cache region")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Region found"),
+            @ApiResponse(responseCode = "404", description = "Region not found")
+    })
+    public ResponseEntity<CacheRegionStats> getCacheRegionStats(
+            @Parameter(description = "Cache region name")
+            @PathVariable String region) {
+
+        log.info("Fetching statistics of cache region: {}", region);
+
+        return cacheStatistics.statsFor(region)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/evictions")
+    @Operation(summary = "Get eviction counters", description = "Retrieves, per write operation, how many cache entries its writes evicted")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved eviction counters")
+    public ResponseEntity<Map<String, CacheEvictionEngine.EvictionStats>> getEvictionStats() {
+        log.info("Fetching cache eviction counters");
+        return ResponseEntity.ok(cacheEvictionEngine.getEvictionStats());
+    }
+
+    @GetMapping("/warmup")
+    @Operation(summary = "Get cache warm-up statistics", description = "Retrieves, per region, how many entries were restored from the startup snapshot and the time from startup to the first cache hit")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved warm-up statistics")
+    public ResponseEntity<Map<String, CacheSnapshotStore.WarmupStats>> getWarmupStats() {
+        log.info("Fetching cache warm-up statistics");
+        return ResponseEntity.ok(cacheSnapshotStore.getWarmupStats());
+    }
+
+    @GetMapping("/natural-keys")
+    @Operation(summary = "Get natural-key index statistics", description = "Retrieves, per natural key, how many lookups were answered by the Bloom filter, the cache or the database")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved natural-key statistics")
+    public ResponseEntity<Map<String, NaturalKeyIndex.NaturalKeyStats>> getNaturalKeyStats() {
+        log.info("Fetching natural-key index statistics");
+        return ResponseEntity.ok(naturalKeyIndex.getStats());
+    }
+
+    @GetMapping("/queries")
+    @Operation(summary = "Get query result cache statistics", description = "Retrieves hits, misses, entries discarded because a table they read changed, calls that bypassed the cache, the tables each cached repository method reads and the current table versions")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved query result cache statistics")
+    public ResponseEntity<QueryResultCache.QueryCacheStats> getQueryCacheStats() {
+        log.info("Fetching query result cache statistics");
+        return ResponseEntity.ok(queryResultCache.getStats());
+    }
+
+    @GetMapping("/cluster")
+    @Operation(summary = "Get cluster invalidation statistics", description = "Retrieves how many invalidations this node published and applied from its peers, and how often lost messages forced a full resync")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved cluster invalidation statistics")
+    public ResponseEntity<ClusterInvalidationBus.ClusterStats> getClusterStats() {
+        log.info("Fetching cluster cache invalidation statistics");
+        return ResponseEntity.ok(clusterInvalidationBus.getStats());
+    }
+
+    @GetMapping("/partitions")
+    @Operation(summary = "Get partitioned cache statistics", description = "Retrieves the hash ring members, the share of keys each one owns and, per partitioned region, owned and near-cache entries, remote reads and entries moved by rebalancing")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved partitioned cache statistics"),
+            @ApiResponse(responseCode = "404", description = "Partitioned caching is not enabled")
+    })
+    public ResponseEntity<PartitionedCacheCluster.PartitionStats> getPartitionStats() {
+        log.info("Fetching partitioned cache statistics");
+        PartitionedCacheCluster cluster = partitionedCacheCluster.getIfAvailable();
+        return cluster != null ? ResponseEntity.ok(cluster.getStats()) : ResponseEntity.notFound().build();
+    }
+}
@@ -1,14 +1,23 @@
 package com.assurant.cph.api.controller;
 
 import com.assurant.cph.api.dto.ClaimDTO;
+import com.assurant.cph.api.dto.ClaimSnapshot;
+import com.assurant.cph.api.dto.ClaimSummary;
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.core.cache.RenderedResponseCache;
 import com.assurant.cph.core.domain.Claim;
 import com.assurant.cph.core.mapper.ClaimMapper;
 import com.assurant.cph.core.service.ClaimService;
+import com.assurant.cph.core.service.PageQuery;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +25,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,6 +40,7 @@ public class ClaimController {
 
     private final ClaimService claimService;
     private final ClaimMapper claimMapper;
+    private final RenderedResponseCache renderedResponseCache;
 
     @PostMapping
     @Operation(summary = "Create a new claim", description = "Creates a new claim for a protection plan")
@@ -53,33 +64,39 @@ public class ClaimController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all claims", description = "Retrieves a list of all claims")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved all claims")
-    public ResponseEntity<List<ClaimDTO>> getAllClaims() {
-        log.info("Fetching all claims");
-
-        List<ClaimDTO> claims = claimService.getAllClaims().stream()
-                .map(claimMapper::toDTO)
-                .collect(Collectors.toList());
-
+    @Operation(summary = "Get all claims", description = "Lists claims in creation order, one page at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of claims"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or direction")
+    })
+    public ResponseEntity<CursorPage<ClaimSnapshot>> getAllClaims(
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items, 1 to " + PageQuery.MAX_LIMIT + " (default " + PageQuery.DEFAULT_LIMIT + ")")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "asc for oldest first (default), desc for newest first")
+            @RequestParam(required = false) String direction) {
+        log.info("Fetching page of claims");
+        CursorPage<ClaimSnapshot> claims = claimService.getClaimPage(PageQuery.of(cursor, limit, direction));
         return ResponseEntity.ok(claims);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get claim by ID", description = "Retrieves a specific claim by its unique identifier")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Claim found"),
+            @ApiResponse(responseCode = "200", description = "Claim found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ClaimSnapshot.class))),
+            @ApiResponse(responseCode = "304", description = "Claim unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Claim not found")
     })
-    public ResponseEntity<ClaimDTO> getClaimById(
+    public void getClaimById(
             @Parameter(description = "Claim ID")
-            @PathVariable UUID id) {
+            @PathVariable UUID id,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
 
         log.info("Fetching claim by ID: {}", id);
 
-        Optional<Claim> claim = claimService.getClaimById(id);
-        return claim.map(c -> ResponseEntity.ok(claimMapper.toDTO(c)))
-                .orElse(ResponseEntity.notFound().build());
+        renderedResponseCache.write("claimResponse", id, () -> claimService.getClaimById(id), request, response);
     }
 
     @GetMapping("/number/{claimNumber}")
@@ -88,30 +105,27 @@ public class ClaimController {
             @ApiResponse(responseCode = "200", description = "Claim found"),
             @ApiResponse(responseCode = "404", description = "Claim not found")
     })
-    public ResponseEntity<ClaimDTO> getClaimByClaimNumber(
+    public ResponseEntity<ClaimSnapshot> getClaimByClaimNumber(
             @Parameter(description = "Claim number")
             @PathVariable String claimNumber) {
 
         log.info("Fetching claim by number: {}", claimNumber);
 
-        Optional<Claim> claim = claimService.getClaimByClaimNumber(claimNumber);
-        return claim.map(c -> ResponseEntity.ok(claimMapper.toDTO(c)))
+        Optional<ClaimSnapshot> claim = claimService.getClaimByClaimNumber(claimNumber);
+        return claim.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/customer/{customerId}")
     @Operation(summary = "Get claims by customer", description = "Retrieves all claims for a specific customer")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved claims")
-    public ResponseEntity<List<ClaimDTO>> getClaimsByCustomerId(
+    public ResponseEntity<List<ClaimSnapshot>> getClaimsByCustomerId(
             @Parameter(description = "Customer ID")
             @PathVariable UUID customerId) {
 
         log.info("Fetching claims for customer: {}", customerId);
 
-        List<ClaimDTO> claims = claimService.getClaimsByCustomerId(customerId).stream()
-                .map(claimMapper::toDTO)
-                .collect(Collectors.toList());
-
+        List<ClaimSnapshot> claims = claimService.getClaimsByCustomerId(customerId);
         return ResponseEntity.ok(claims);
     }
 
@@ -147,6 +161,14 @@ public class ClaimController {
         return ResponseEntity.ok(claims);
     }
 
+    @GetMapping("/statistics/by-status-and-type")
+    @Operation(summary = "Get claim summary", description = "Counts claims and totals their claimed and approved amounts per status and type")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved summary")
+    public ResponseEntity<List<ClaimSummary>> getClaimSummary() {
+        log.info("Generating claim summary by status and type");
+        return ResponseEntity.ok(claimService.getClaimSummary());
+    }
+
     @PatchMapping("/{id}/status")
     @Operation(summary = "Update claim status", description = "Updates the status of a specific claim")
     @ApiResponses({
@@ -1,14 +1,22 @@
 package com.assurant.cph.api.controller;
 
+import com.assurant.cph.api.dto.CursorPage;
 import com.assurant.cph.api.dto.CustomerDTO;
+import com.assurant.cph.api.dto.CustomerSnapshot;
+import com.assurant.cph.core.cache.RenderedResponseCache;
 import com.assurant.cph.core.domain.Customer;
 import com.assurant.cph.core.mapper.CustomerMapper;
 import com.assurant.cph.core.service.CustomerService;
+import com.assurant.cph.core.service.PageQuery;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +24,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,6 +39,7 @@ public class CustomerController {
 
     private final CustomerService customerService;
     private final CustomerMapper customerMapper;
+    private final RenderedResponseCache renderedResponseCache;
 
     @PostMapping
     @Operation(summary = "Create a new customer", description = "Creates a new customer with the provided details")
@@ -52,33 +62,39 @@ public class CustomerController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all customers", description = "Retrieves a list of all customers")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved all customers")
-    public ResponseEntity<List<CustomerDTO>> getAllCustomers() {
-        log.info("Fetching all customers");
-
-        List<CustomerDTO> customers = customerService.getAllCustomers().stream()
-                .map(customerMapper::toDTO)
-                .collect(Collectors.toList());
-
+    @Operation(summary = "Get all customers", description = "Lists customers in creation order, one page at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of customers"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or direction")
+    })
+    public ResponseEntity<CursorPage<CustomerSnapshot>> getAllCustomers(
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items, 1 to " + PageQuery.MAX_LIMIT + " (default " + PageQuery.DEFAULT_LIMIT + ")")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "asc for oldest first (default), desc for newest first")
+            @RequestParam(required = false) String direction) {
+        log.info("Fetching page of customers");
+        CursorPage<CustomerSnapshot> customers = customerService.getCustomerPage(PageQuery.of(cursor, limit, direction));
         return ResponseEntity.ok(customers);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get customer by ID", description = "Retrieves a specific customer by their unique identifier")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Customer found"),
+            @ApiResponse(responseCode = "200", description = "Customer found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CustomerSnapshot.class))),
+            @ApiResponse(responseCode = "304", description = "Customer unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Customer not found")
     })
-    public ResponseEntity<CustomerDTO> getCustomerById(
+    public void getCustomerById(
             @Parameter(description = "Customer ID")
-            @PathVariable UUID id) {
+            @PathVariable UUID id,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
 
         log.info("Fetching customer by ID: {}", id);
 
-        Optional<Customer> customer = customerService.getCustomerById(id);
-        return customer.map(c -> ResponseEntity.ok(customerMapper.toDTO(c)))
-                .orElse(ResponseEntity.notFound().build());
+        renderedResponseCache.write("customerResponse", id, () -> customerService.getCustomerById(id), request, response);
     }
 
     @PutMapping("/{id}")
@@ -140,14 +156,14 @@ public class CustomerController {
             @ApiResponse(responseCode = "200", description = "Customer found"),
             @ApiResponse(responseCode = "404", description = "Customer not found")
     })
-    public ResponseEntity<CustomerDTO> getCustomerByEmail(
+    public ResponseEntity<CustomerSnapshot> getCustomerByEmail(
             @Parameter(description = "Email address")
             @PathVariable String email) {
 
         log.info("Fetching customer by email: {}", email);
 
-        Optional<Customer> customer = customerService.getCustomerByEmail(email);
-        return customer.map(c -> ResponseEntity.ok(customerMapper.toDTO(c)))
+        Optional<CustomerSnapshot> customer = customerService.getCustomerByEmail(email);
+        return customer.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -1,22 +1,44 @@
 package com.assurant.cph.api.controller;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.PaymentBatchJobSnapshot;
+import com.assurant.cph.api.dto.PaymentBatchResult;
+import com.assurant.cph.api.dto.PaymentMethodRevenue;
+import com.assurant.cph.api.dto.PaymentRecordSnapshot;
+import com.assurant.cph.api.dto.PaymentStatistics;
+import com.assurant.cph.api.dto.PaymentStatusSummary;
 import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.service.PageQuery;
+import com.assurant.cph.core.service.PaymentBatchJobService;
+import com.assurant.cph.core.service.PaymentExportFormat;
+import com.assurant.cph.core.service.PaymentFilter;
+import com.assurant.cph.core.service.PaymentGroupCommitter;
 import com.assurant.cph.core.service.PaymentRecordService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -29,6 +51,8 @@ import java.util.UUID;
 public class PaymentController {
 
     private final PaymentRecordService paymentRecordService;
+    private final PaymentBatchJobService paymentBatchJobService;
+    private final PaymentGroupCommitter paymentGroupCommitter;
 
     @PostMapping
     @Operation(summary = "Process a new payment", description = "Creates and processes a new payment for a protection plan")
@@ -44,16 +68,27 @@ public class PaymentController {
 
         log.info("Processing new payment for protection plan: {}", paymentRecord.getProtectionPlan().getId());
 
-        PaymentRecord processedPayment = paymentRecordService.processPayment(paymentRecord);
+        PaymentRecord processedPayment = paymentGroupCommitter.isEnabled()
+                ? paymentGroupCommitter.process(paymentRecord)
+                : paymentRecordService.processPayment(paymentRecord);
         return ResponseEntity.status(HttpStatus.CREATED).body(processedPayment);
     }
 
     @GetMapping
-    @Operation(summary = "Get all payments", description = "Retrieves a list of all payment records")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved all payments")
-    public ResponseEntity<List<PaymentRecord>> getAllPayments() {
-        log.info("Fetching all payment records");
-        List<PaymentRecord> payments = paymentRecordService.getAllPayments();
+    @Operation(summary = "Get all payments", description = "Lists payment records in creation order, one page at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of payment records"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or direction")
+    })
+    public ResponseEntity<CursorPage<PaymentRecordSnapshot>> getAllPayments(
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items, 1 to " + PageQuery.MAX_LIMIT + " (default " + PageQuery.DEFAULT_LIMIT + ")")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "asc for oldest first (default), desc for newest first")
+            @RequestParam(required = false) String direction) {
+        log.info("Fetching page of payment records");
+        CursorPage<PaymentRecordSnapshot> payments = paymentRecordService.getPaymentPage(PageQuery.of(cursor, limit, direction));
         return ResponseEntity.ok(payments);
     }
 
@@ -63,13 +98,13 @@ public class PaymentController {
             @ApiResponse(responseCode = "200", description = "Payment found"),
             @ApiResponse(responseCode = "404", description = "Payment not found")
     })
-    public ResponseEntity<PaymentRecord> getPaymentById(
+    public ResponseEntity<PaymentRecordSnapshot> getPaymentById(
             @Parameter(description = "Payment ID")
             @PathVariable UUID id) {
 
         log.info("Fetching payment by ID: {}", id);
 
-        Optional<PaymentRecord> payment = paymentRecordService.getPaymentById(id);
+        Optional<PaymentRecordSnapshot> payment = paymentRecordService.getPaymentById(id);
         return payment.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -145,26 +180,26 @@ public class PaymentController {
     @GetMapping("/protection-plan/{protectionPlanId}")
     @Operation(summary = "Get payments by protection plan", description = "Retrieves all payments for a specific protection plan")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved payments")
-    public ResponseEntity<List<PaymentRecord>> getPaymentsByProtectionPlanId(
+    public ResponseEntity<List<PaymentRecordSnapshot>> getPaymentsByProtectionPlanId(
             @Parameter(description = "Protection plan ID")
             @PathVariable UUID protectionPlanId) {
 
         log.info("Fetching payments for protection plan: {}", protectionPlanId);
 
-        List<PaymentRecord> payments = paymentRecordService.getPaymentsByProtectionPlanId(protectionPlanId);
+        List<PaymentRecordSnapshot> payments = paymentRecordService.getPaymentsByProtectionPlanId(protectionPlanId);
         return ResponseEntity.ok(payments);
     }
 
     @GetMapping("/customer/{customerId}")
     @Operation(summary = "Get payments by customer", description = "Retrieves all payments for a specific customer")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved payments")
-    public ResponseEntity<List<PaymentRecord>> getPaymentsByCustomerId(
+    public ResponseEntity<List<PaymentRecordSnapshot>> getPaymentsByCustomerId(
             @Parameter(description = "Customer ID")
             @PathVariable UUID customerId) {
 
         log.info("Fetching payments for customer: {}", customerId);
 
-        List<PaymentRecord> payments = paymentRecordService.getPaymentsByCustomerId(customerId);
+        List<PaymentRecordSnapshot> payments = paymentRecordService.getPaymentsByCustomerId(customerId);
         return ResponseEntity.ok(payments);
     }
 
@@ -195,20 +230,68 @@ public class PaymentController {
     }
 
     @GetMapping("/date-range")
-    @Operation(summary = "Get payments by date range", description = "Retrieves all payments within a specific date range")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved payments")
-    public ResponseEntity<List<PaymentRecord>> getPaymentsByDateRange(
+    @Operation(summary = "Get payments by date range",
+            description = "Lists the payments within a date range by payment date, one page at a time, optionally by status and method")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of payments"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range, cursor, limit or direction")
+    })
+    public ResponseEntity<CursorPage<PaymentRecordSnapshot>> getPaymentsByDateRange(
             @Parameter(description = "Start date (yyyy-MM-dd HH:mm:ss)")
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
             @Parameter(description = "End date (yyyy-MM-dd HH:mm:ss)")
-            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate) {
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate,
+            @Parameter(description = "Payment status")
+            @RequestParam(required = false) PaymentRecord.PaymentStatus status,
+            @Parameter(description = "Payment method")
+            @RequestParam(required = false) PaymentRecord.PaymentMethod paymentMethod,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items, 1 to " + PageQuery.MAX_LIMIT + " (default " + PageQuery.DEFAULT_LIMIT + ")")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "asc for earliest payment first (default), desc for latest first")
+            @RequestParam(required = false) String direction) {
 
         log.info("Fetching payments between {} and {}", startDate, endDate);
 
-        List<PaymentRecord> payments = paymentRecordService.getPaymentsByDateRange(startDate, endDate);
+        CursorPage<PaymentRecordSnapshot> payments = paymentRecordService.getPaymentsByDateRange(
+                new PaymentFilter(status, paymentMethod, startDate, endDate), PageQuery.of(cursor, limit, direction));
         return ResponseEntity.ok(payments);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export payments",
+            description = "Streams the matching payments oldest first, as NDJSON (one JSON object per line) or CSV")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Payments streamed",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "400", description = "Invalid format or date range")
+    })
+    public void exportPayments(
+            @Parameter(description = "Output format: ndjson (default) or csv")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Payment status")
+            @RequestParam(required = false) PaymentRecord.PaymentStatus status,
+            @Parameter(description = "Payment method")
+            @RequestParam(required = false) PaymentRecord.PaymentMethod paymentMethod,
+            @Parameter(description = "Start date (yyyy-MM-dd HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
+            @Parameter(description = "End date (yyyy-MM-dd HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate,
+            HttpServletResponse response) throws IOException {
+
+        PaymentExportFormat exportFormat = PaymentExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        PaymentFilter filter = new PaymentFilter(status, paymentMethod, startDate, endDate);
+        log.info("Exporting payments as {}", exportFormat);
+
+        // No Content-Length: the container sends the body chunked as the buffer fills
+        response.setContentType(exportFormat.getMediaType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("payments." + exportFormat.getExtension()).build().toString());
+        paymentRecordService.exportPayments(filter, exportFormat, response.getOutputStream());
+    }
+
     @PatchMapping("/{id}/status")
     @Operation(summary = "Update payment status", description = "Updates the status of a specific payment")
     @ApiResponses({
@@ -297,33 +380,33 @@ public class PaymentController {
     @GetMapping("/customer/{customerId}/statistics")
     @Operation(summary = "Get payment statistics for customer", description = "Retrieves comprehensive payment statistics for a specific customer")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved statistics")
-    public ResponseEntity<Map<String, Object>> getPaymentStatistics(
+    public ResponseEntity<PaymentStatistics> getPaymentStatistics(
             @Parameter(description = "Customer ID")
             @PathVariable UUID customerId) {
 
         log.info("Generating payment statistics for customer: {}", customerId);
 
-        Map<String, Object> statistics = paymentRecordService.getPaymentStatistics(customerId);
+        PaymentStatistics statistics = paymentRecordService.getPaymentStatistics(customerId);
         return ResponseEntity.ok(statistics);
     }
 
     @GetMapping("/statistics/count-by-status")
-    @Operation(summary = "Get payment count by status", description = "Retrieves count of payments grouped by status")
+    @Operation(summary = "Get payment count by status", description = "Retrieves count and total amount of payments grouped by status")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved counts")
-    public ResponseEntity<Map<String, Long>> getPaymentCountByStatus() {
+    public ResponseEntity<List<PaymentStatusSummary>> getPaymentCountByStatus() {
         log.info("Generating payment count by status");
 
-        Map<String, Long> counts = paymentRecordService.getPaymentCountByStatus();
+        List<PaymentStatusSummary> counts = paymentRecordService.getPaymentCountByStatus();
         return ResponseEntity.ok(counts);
     }
 
     @GetMapping("/statistics/revenue-by-method")
     @Operation(summary = "Get revenue by payment method", description = "Retrieves total revenue grouped by payment method")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved revenue data")
-    public ResponseEntity<Map<String, Double>> getRevenueByPaymentMethod() {
+    public ResponseEntity<List<PaymentMethodRevenue>> getRevenueByPaymentMethod() {
         log.info("Generating revenue by payment method");
 
-        Map<String, Double> revenue = paymentRecordService.getRevenueByPaymentMethod();
+        List<PaymentMethodRevenue> revenue = paymentRecordService.getRevenueByPaymentMethod();
         return ResponseEntity.ok(revenue);
     }
 
@@ -366,18 +449,70 @@ public class PaymentController {
     }
 
     @PostMapping("/batch")
-    @Operation(summary = "Process batch payments", description = "Processes multiple payments in a single batch")
+    @Operation(summary = "Process batch payments",
+            description = "Processes multiple payments in a single batch, accepting or rejecting each one on its own")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Batch payments processed successfully"),
+            @ApiResponse(responseCode = "200", description = "Batch processed; see each item for its outcome"),
             @ApiResponse(responseCode = "400", description = "Invalid input data in batch")
     })
-    public ResponseEntity<List<PaymentRecord>> processBatchPayments(
+    public ResponseEntity<PaymentBatchResult> processBatchPayments(
             @Parameter(description = "List of payments to process")
             @Valid @RequestBody List<PaymentRecord> payments) {
 
         log.info("Processing batch of {} payments", payments.size());
 
-        List<PaymentRecord> processedPayments = paymentRecordService.processBatchPayments(payments);
-        return ResponseEntity.ok(processedPayments);
+        return ResponseEntity.ok(paymentRecordService.processBatchPayments(payments));
+    }
+
+    @PostMapping(value = "/batch-jobs", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Submit a batch payment job",
+            description = "Stores a JSON array of payments of any size and processes it in the background; " +
+                    "poll the returned job for progress")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job accepted and queued")
+    })
+    public ResponseEntity<PaymentBatchJobSnapshot> submitBatchJob(HttpServletRequest request) throws IOException {
+        // Read straight from the request, never binding the whole array in memory
+        PaymentBatchJobSnapshot job = paymentBatchJobService.submit(request.getInputStream());
+        log.info("Accepted batch payment job {}", job.id());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/payments/batch-jobs/" + job.id()))
+                .body(job);
+    }
+
+    @GetMapping("/batch-jobs/{id}")
+    @Operation(summary = "Get batch payment job", description = "Retrieves the status and progress of a batch payment job")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Job found"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    public ResponseEntity<PaymentBatchJobSnapshot> getBatchJob(
+            @Parameter(description = "Job ID")
+            @PathVariable UUID id) {
+
+        return paymentBatchJobService.getJob(id).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/batch-jobs/{id}/rejections")
+    @Operation(summary = "Get rejected payments of a batch job",
+            description = "Lists the payments a batch job rejected in file order, continuing after the given item index")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Rejections retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    public ResponseEntity<List<PaymentBatchResult.Item>> getBatchJobRejections(
+            @Parameter(description = "Job ID")
+            @PathVariable UUID id,
+            @Parameter(description = "Item index of the last rejection already seen")
+            @RequestParam(required = false) Integer after,
+            @Parameter(description = "Maximum number of rejections to return")
+            @RequestParam(required = false) Integer limit) {
+
+        if (paymentBatchJobService.getJob(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(paymentBatchJobService.getRejections(id, after, limit));
     }
 }
\ No newline at end of file
@@ -1,14 +1,22 @@
 package com.assurant.cph.api.controller;
 
+import com.assurant.cph.api.dto.CursorPage;
 import com.assurant.cph.api.dto.ProtectionPlanDTO;
+import com.assurant.cph.api.dto.ProtectionPlanSnapshot;
+import com.assurant.cph.core.cache.RenderedResponseCache;
 import com.assurant.cph.core.domain.ProtectionPlan;
 import com.assurant.cph.core.mapper.ProtectionPlanMapper;
+import com.assurant.cph.core.service.PageQuery;
 import com.assurant.cph.core.service.ProtectionPlanService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,8 +24,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -30,6 +38,7 @@ public class ProtectionPlanController {
 
     private final ProtectionPlanService protectionPlanService;
     private final ProtectionPlanMapper protectionPlanMapper;
+    private final RenderedResponseCache renderedResponseCache;
 
     @PostMapping
     @Operation(summary = "Create a new protection plan", description = "Creates a new protection plan for a customer and asset")
@@ -52,48 +61,51 @@ public class ProtectionPlanController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all protection plans", description = "Retrieves a list of all protection plans")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved all protection plans")
-    public ResponseEntity<List<ProtectionPlanDTO>> getAllProtectionPlans() {
-        log.info("Fetching all protection plans");
-
-        List<ProtectionPlanDTO> plans = protectionPlanService.getAllProtectionPlans().stream()
-                .map(protectionPlanMapper::toDTO)
-                .collect(Collectors.toList());
-
+    @Operation(summary = "Get all protection plans", description = "Lists protection plans in creation order, one page at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of protection plans"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or direction")
+    })
+    public ResponseEntity<CursorPage<ProtectionPlanSnapshot>> getAllProtectionPlans(
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items, 1 to " + PageQuery.MAX_LIMIT + " (default " + PageQuery.DEFAULT_LIMIT + ")")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "asc for oldest first (default), desc for newest first")
+            @RequestParam(required = false) String direction) {
+        log.info("Fetching page of protection plans");
+        CursorPage<ProtectionPlanSnapshot> plans = protectionPlanService.getProtectionPlanPage(PageQuery.of(cursor, limit, direction));
         return ResponseEntity.ok(plans);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get protection plan by ID", description = "Retrieves a specific protection plan by its unique identifier")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Protection plan found"),
+            @ApiResponse(responseCode = "200", description = "Protection plan found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProtectionPlanSnapshot.class))),
+            @ApiResponse(responseCode = "304", description = "Protection plan unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Protection plan not found")
     })
-    public ResponseEntity<ProtectionPlanDTO> getProtectionPlanById(
+    public void getProtectionPlanById(
             @Parameter(description = "Protection plan ID")
-            @PathVariable UUID id) {
+            @PathVariable UUID id,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
 
         log.info("Fetching protection plan by ID: {}", id);
 
-        Optional<ProtectionPlan> plan = protectionPlanService.getProtectionPlanById(id);
-        return plan.map(p -> ResponseEntity.ok(protectionPlanMapper.toDTO(p)))
-                .orElse(ResponseEntity.notFound().build());
+        renderedResponseCache.write("protectionPlanResponse", id, () -> protectionPlanService.getProtectionPlanById(id), request, response);
     }
 
     @GetMapping("/customer/{customerId}")
     @Operation(summary = "Get protection plans by customer", description = "Retrieves all protection plans for a specific customer")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved protection plans")
-    public ResponseEntity<List<ProtectionPlanDTO>> getProtectionPlansByCustomerId(
+    public ResponseEntity<List<ProtectionPlanSnapshot>> getProtectionPlansByCustomerId(
             @Parameter(description = "Customer ID")
             @PathVariable UUID customerId) {
 
         log.info("Fetching protection plans for customer: {}", customerId);
 
-        List<ProtectionPlanDTO> plans = protectionPlanService.getProtectionPlansByCustomerId(customerId).stream()
-                .map(protectionPlanMapper::toDTO)
-                .collect(Collectors.toList());
-
+        List<ProtectionPlanSnapshot> plans = protectionPlanService.getProtectionPlansByCustomerId(customerId);
         return ResponseEntity.ok(plans);
     }
 
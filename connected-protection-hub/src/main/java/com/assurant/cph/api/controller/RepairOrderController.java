@@ -1,6 +1,9 @@
 package com.assurant.cph.api.controller;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.RepairProviderSummary;
 import com.assurant.cph.core.domain.RepairOrder;
+import com.assurant.cph.core.service.PageQuery;
 import com.assurant.cph.core.service.RepairOrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -45,11 +48,20 @@ public class RepairOrderController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all repair orders", description = "Retrieves a list of all repair orders")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved all repair orders")
-    public ResponseEntity<List<RepairOrder>> getAllRepairOrders() {
-        log.info("Fetching all repair orders");
-        List<RepairOrder> orders = repairOrderService.getAllRepairOrders();
+    @Operation(summary = "Get all repair orders", description = "Lists repair orders in creation order, one page at a time")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved a page of repair orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or direction")
+    })
+    public ResponseEntity<CursorPage<RepairOrder>> getAllRepairOrders(
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items, 1 to " + PageQuery.MAX_LIMIT + " (default " + PageQuery.DEFAULT_LIMIT + ")")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "asc for oldest first (default), desc for newest first")
+            @RequestParam(required = false) String direction) {
+        log.info("Fetching page of repair orders");
+        CursorPage<RepairOrder> orders = repairOrderService.getRepairOrderPage(PageQuery.of(cursor, limit, direction));
         return ResponseEntity.ok(orders);
     }
 
@@ -145,4 +157,12 @@ public class RepairOrderController {
         List<RepairOrder> orders = repairOrderService.getRepairOrdersByProvider(provider);
         return ResponseEntity.ok(orders);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/statistics/by-provider")
+    @Operation(summary = "Get repair order summary by provider", description = "Counts repair orders and totals their costs per provider and status")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved summary")
+    public ResponseEntity<List<RepairProviderSummary>> getProviderSummary() {
+        log.info("Generating repair order summary by provider and status");
+        return ResponseEntity.ok(repairOrderService.getProviderSummary());
+    }
+}
@@ -0,0 +1,25 @@
+package com.assurant.cph.api.dto;
+
+import com.assurant.cph.core.domain.Claim;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Immutable read model held by the claim caches in place of the JPA entity
+@Schema(description = "Claim read model")
+public record ClaimSnapshot(
+        UUID id,
+        String claimNumber,
+        LocalDateTime incidentDate,
+        String description,
+        Claim.ClaimStatus status,
+        Claim.ClaimType claimType,
+        Double claimedAmount,
+        Double approvedAmount,
+        UUID protectionPlanId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) implements Serializable {
+}
@@ -0,0 +1,17 @@
+package com.assurant.cph.api.dto;
+
+import com.assurant.cph.core.domain.Claim;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+
+@Schema(description = "Claims of one type in one status")
+public record ClaimSummary(
+        Claim.ClaimStatus status,
+        Claim.ClaimType claimType,
+        Long claims,
+        Double claimedAmount,
+        @Schema(description = "Sum of the approved amounts, 0 when none has been approved yet")
+        Double approvedAmount
+) implements Serializable {
+}
@@ -0,0 +1,16 @@
+package com.assurant.cph.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One page of a listing in creation order")
+public record CursorPage<T>(
+        @Schema(description = "Items of this page")
+        List<T> items,
+        @Schema(description = "Token for the next page, passed back as the cursor parameter; absent on the last page")
+        String nextCursor,
+        @Schema(description = "Maximum number of items per page")
+        int limit
+) {
+}
@@ -0,0 +1,33 @@
+package com.assurant.cph.api.dto;
+
+import com.assurant.cph.core.domain.Customer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Immutable read model held by the customer caches in place of the JPA entity
+@Schema(description = "Customer read model")
+public record CustomerSnapshot(
+        UUID id,
+        String fullName,
+        String email,
+        String phoneNumber,
+        String documentNumber,
+        Customer.DocumentType documentType,
+        Address address,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) implements Serializable {
+
+    @Schema(description = "Address information")
+    public record Address(
+            String street,
+            String city,
+            String state,
+            String postalCode,
+            String country
+    ) implements Serializable {
+    }
+}
@@ -0,0 +1,26 @@
+package com.assurant.cph.api.dto;
+
+import com.assurant.cph.core.domain.PaymentBatchJob;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Progress of a payment batch job")
+public record PaymentBatchJobSnapshot(
+        UUID id,
+        PaymentBatchJob.JobStatus status,
+        @Schema(description = "Size of the uploaded file")
+        Long uploadBytes,
+        @Schema(description = "Payments read from the file and committed so far, accepted or rejected")
+        Long processedItems,
+        Long acceptedItems,
+        Long rejectedItems,
+        @Schema(description = "Why the job stopped, present only when it failed")
+        String failureReason,
+        LocalDateTime createdAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt
+) implements Serializable {
+}
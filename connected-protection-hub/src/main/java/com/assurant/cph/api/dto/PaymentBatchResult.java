@@ -0,0 +1,45 @@
+package com.assurant.cph.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Outcome of a payment batch, one item per submitted payment in submission order")
+public record PaymentBatchResult(
+        int accepted,
+        int rejected,
+        List<Item> items
+) implements Serializable {
+
+    public static PaymentBatchResult of(List<Item> items) {
+        int accepted = (int) items.stream().filter(item -> item.outcome() == Outcome.ACCEPTED).count();
+        return new PaymentBatchResult(accepted, items.size() - accepted, items);
+    }
+
+    public enum Outcome {
+        ACCEPTED,
+        REJECTED
+    }
+
+    public record Item(
+            @Schema(description = "Position of the payment in the submitted batch")
+            int index,
+            String paymentReference,
+            @Schema(description = "Id of the stored payment, absent when rejected")
+            UUID paymentId,
+            Outcome outcome,
+            @Schema(description = "Why the payment was rejected, absent when accepted")
+            String reason
+    ) implements Serializable {
+
+        public static Item accepted(int index, String paymentReference, UUID paymentId) {
+            return new Item(index, paymentReference, paymentId, Outcome.ACCEPTED, null);
+        }
+
+        public static Item rejected(int index, String paymentReference, String reason) {
+            return new Item(index, paymentReference, null, Outcome.REJECTED, reason);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.assurant.cph.api.dto;
+
+import com.assurant.cph.core.domain.PaymentRecord;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+
+@Schema(description = "Revenue from the completed payments made with one payment method")
+public record PaymentMethodRevenue(
+        PaymentRecord.PaymentMethod paymentMethod,
+        Long completedPayments,
+        Double revenue
+) implements Serializable {
+}
@@ -0,0 +1,37 @@
+package com.assurant.cph.api.dto;
+
+import com.assurant.cph.core.domain.PaymentRecord;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Immutable read model held by the payment caches in place of the JPA entity
+@Schema(description = "Payment record read model")
+public record PaymentRecordSnapshot(
+        UUID id,
+        String paymentReference,
+        Double amount,
+        LocalDateTime paymentDate,
+        PaymentRecord.PaymentMethod paymentMethod,
+        PaymentRecord.PaymentStatus status,
+        String transactionId,
+        String payerInfo,
+        String paymentDetails,
+        UUID protectionPlanId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) implements Serializable {
+
+    // Same rules as PaymentRecord, evaluated against the cached state
+    public boolean isRefundable() {
+        return status == PaymentRecord.PaymentStatus.COMPLETED &&
+                paymentDate != null &&
+                paymentDate.isAfter(LocalDateTime.now().minusDays(30));
+    }
+
+    public boolean canRetry() {
+        return status == PaymentRecord.PaymentStatus.FAILED || status == PaymentRecord.PaymentStatus.PENDING;
+    }
+}
@@ -0,0 +1,27 @@
+package com.assurant.cph.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Schema(description = "Payment totals for one customer")
+public record PaymentStatistics(
+        UUID customerId,
+        @Schema(description = "Sum of completed payments")
+        Double totalPaid,
+        Long completedPayments,
+        Long pendingPayments,
+        @Schema(description = "Payments in any status")
+        Long totalTransactions,
+        @Schema(description = "Mean amount of the completed payments, 0 when there are none")
+        Double averagePayment,
+        @Schema(description = "Payment date of the latest completed payment, absent when there are none")
+        LocalDateTime lastPaymentDate
+) implements Serializable {
+
+    public static PaymentStatistics none(UUID customerId) {
+        return new PaymentStatistics(customerId, 0.0, 0L, 0L, 0L, 0.0, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.assurant.cph.api.dto;
+
+import com.assurant.cph.core.domain.PaymentRecord;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+
+@Schema(description = "Number and total amount of the payments in one status")
+public record PaymentStatusSummary(
+        PaymentRecord.PaymentStatus status,
+        Long payments,
+        Double totalAmount
+) implements Serializable {
+}
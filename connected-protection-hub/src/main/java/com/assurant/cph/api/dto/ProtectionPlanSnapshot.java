@@ -0,0 +1,27 @@
+package com.assurant.cph.api.dto;
+
+import com.assurant.cph.core.domain.ProtectionPlan;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Immutable read model held by the protection plan caches in place of the JPA entity
+@Schema(description = "Protection plan read model")
+public record ProtectionPlanSnapshot(
+        UUID id,
+        String name,
+        String description,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        Double premiumAmount,
+        Double coverageLimit,
+        Double deductible,
+        ProtectionPlan.PlanStatus status,
+        UUID customerId,
+        UUID assetId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) implements Serializable {
+}
@@ -0,0 +1,18 @@
+package com.assurant.cph.api.dto;
+
+import com.assurant.cph.core.domain.RepairOrder;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+
+@Schema(description = "Repair orders of one provider in one status")
+public record RepairProviderSummary(
+        String repairProvider,
+        RepairOrder.RepairStatus status,
+        Long repairOrders,
+        @Schema(description = "Sum of the final repair costs recorded so far")
+        Double totalRepairCost,
+        @Schema(description = "Mean final repair cost, absent when no order has one")
+        Double averageRepairCost
+) implements Serializable {
+}
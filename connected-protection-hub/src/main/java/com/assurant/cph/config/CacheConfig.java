@@ -1,28 +1,192 @@
 package com.assurant.cph.config;
 
+import com.assurant.cph.core.cache.CacheRegionMetrics;
+import com.assurant.cph.core.cache.CoalescingCache;
+import com.assurant.cph.core.cache.RefreshPolicy;
+import com.assurant.cph.core.cache.TieredCache;
+import com.assurant.cph.core.cache.partition.PartitionedCacheCluster;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+@Slf4j
 @Configuration
-@EnableCaching
-public class CacheConfig {
+// Cache advice runs outside the transaction so hits and coalesced waiters never hold a connection
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig implements DisposableBean {
+
+    // Reloads beyond this backlog are skipped; the entries stay cached and a later read retries
+    private static final int REFRESH_QUEUE_CAPACITY = 1024;
+
+    public static final List<String> CACHE_REGIONS = List.of(
+            "customers", "customer", "customerPlans", "customerClaims", "customerAssets",
+            "protectionPlans", "protectionPlan",
+            "claims", "claim",
+            "assets", "asset", "electronicDevices", "vehicles",
+            "repairOrders", "repairOrder", "claimRepairOrder", "claimRepairOrders", "customerRepairOrders",
+            "payments", "payment", "customerPayments", "planPayments", "paymentStats",
+            // Natural key -> id, see NaturalKeyIndex
+            "customerEmails", "customerDocumentNumbers", "assetSerialNumbers", "vehicleLicensePlates",
+            "paymentReferences", "claimNumbers",
+            // Serialized GET bodies, see RenderedResponseCache
+            "customerResponse", "protectionPlanResponse", "claimResponse",
+            // Results of @CachedQueries repository methods, see QueryResultCache
+            "queryResults"
+    );
+
+    private ThreadPoolExecutor refreshExecutor;
 
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(List.of(
-                "customers", "customer", "customerPlans", "customerClaims", "customerAssets",
-                "protectionPlans", "protectionPlan",
-                "claims", "claim",
-                "assets", "asset", "electronicDevices", "vehicles",
-                "repairOrders", "repairOrder", "claimRepairOrder",
-                "payments", "payment"
-        ));
+    public CacheManager cacheManager(CacheProperties cacheProperties, ObjectProvider<PartitionedCacheCluster> partitionedCacheCluster) {
+        List<String> unknownRegions = cacheProperties.getRegions().keySet().stream()
+                .filter(region -> !CACHE_REGIONS.contains(region))
+                .toList();
+        if (!unknownRegions.isEmpty()) {
+            throw new IllegalStateException("Cache configuration refers to undeclared regions: " + unknownRegions);
+        }
+
+        refreshExecutor = newRefreshExecutor(cacheProperties.getRefreshThreads());
+        PartitionedCacheCluster cluster = partitionedCacheCluster.getIfAvailable();
+        List<Cache> caches = new ArrayList<>();
+        for (String region : CACHE_REGIONS) {
+            CacheProperties.RegionSpec spec = cacheProperties.specFor(region);
+            CacheRegionMetrics metrics = new CacheRegionMetrics(cacheProperties.getHotKeys());
+            RefreshPolicy refreshPolicy = refreshPolicy(region, spec);
+            Cache cache = buildCache(region, spec, metrics);
+            if (spec.getOffHeapCapacity() != null) {
+                // Expire-after-access cannot be tracked without writing to direct memory on every read,
+                // so the off-heap tier treats it as a write age
+                Duration offHeapExpiry = spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : spec.getExpireAfterAccess();
+                cache = new TieredCache(cache, spec.getOffHeapCapacity().toBytes(), offHeapExpiry);
+            }
+            if (Boolean.TRUE.equals(spec.getPartitioned())) {
+                validatePartitionable(region, spec);
+                if (cluster != null) {
+                    cache = cluster.partition(cache);
+                }
+            }
+            caches.add(new CoalescingCache(cache, Boolean.TRUE.equals(spec.getServeStaleWhileReloading()), metrics, refreshPolicy));
+        }
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
         return cacheManager;
     }
+
+    @Override
+    public void destroy() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    private CaffeineCache buildCache(String region, CacheProperties.RegionSpec spec, CacheRegionMetrics metrics) {
+        if (spec.getMaximumSize() == null && spec.getMaximumWeight() == null) {
+            throw new IllegalStateException("Cache region '" + region + "' has no maximum-size or maximum-weight bound");
+        }
+        if (spec.getMaximumSize() != null && spec.getMaximumWeight() != null) {
+            throw new IllegalStateException("Cache region '" + region + "' sets both maximum-size and maximum-weight");
+        }
+
+        // Only size, expiry and GC removals reach the listener; explicit evictions are counted by CoalescingCache
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .evictionListener((key, value, cause) -> metrics.recordEviction(cause));
+        if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        } else {
+            builder.maximumWeight(spec.getMaximumWeight())
+                    .weigher((key, value) -> entityCount(value));
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            // Stale-while-revalidate keeps entries past their freshness; CoalescingCache tells the two apart by age
+            builder.expireAfterWrite(spec.getStaleWhileRevalidate() != null
+                    ? spec.getExpireAfterWrite().plus(spec.getStaleWhileRevalidate())
+                    : spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+
+        log.debug("Cache region '{}' configured with {}", region, spec);
+        return new CaffeineCache(region, builder.build());
+    }
+
+    // Reloads run with the loader of the @Cacheable call that found the entry ageing, so no CacheLoader is needed
+    private RefreshPolicy refreshPolicy(String region, CacheProperties.RegionSpec spec) {
+        if (spec.getRefreshAfterWrite() == null && spec.getStaleWhileRevalidate() == null) {
+            return RefreshPolicy.NONE;
+        }
+        if (spec.getExpireAfterWrite() == null) {
+            throw new IllegalStateException("Cache region '" + region
+                    + "' sets refresh-after-write or stale-while-revalidate without expire-after-write");
+        }
+        if (spec.getOffHeapCapacity() != null) {
+            // An entry promoted from off-heap would look freshly written and never be reloaded in time
+            throw new IllegalStateException("Cache region '" + region
+                    + "' cannot combine refresh-after-write or stale-while-revalidate with an off-heap tier");
+        }
+        if (spec.getRefreshAfterWrite() != null && spec.getRefreshAfterWrite().compareTo(spec.getExpireAfterWrite()) >= 0) {
+            throw new IllegalStateException("Cache region '" + region + "' sets refresh-after-write no shorter than expire-after-write");
+        }
+        Duration staleAfter = spec.getStaleWhileRevalidate() != null ? spec.getExpireAfterWrite() : null;
+        return new RefreshPolicy(spec.getRefreshAfterWrite(), staleAfter, refreshExecutor);
+    }
+
+    private static void validatePartitionable(String region, CacheProperties.RegionSpec spec) {
+        // Entry ages and off-heap bytes are only known on the owner, so neither combines with partitioning
+        if (spec.getOffHeapCapacity() != null) {
+            throw new IllegalStateException("Cache region '" + region + "' cannot combine partitioning with an off-heap tier");
+        }
+        if (spec.getRefreshAfterWrite() != null || spec.getStaleWhileRevalidate() != null) {
+            throw new IllegalStateException("Cache region '" + region
+                    + "' cannot combine partitioning with refresh-after-write or stale-while-revalidate");
+        }
+    }
+
+    private static ThreadPoolExecutor newRefreshExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Whole-table regions hold lists, so weigh them by the number of entities they keep alive
+    private static int entityCount(Object value) {
+        int count = 1;
+        if (value instanceof Collection<?> collection) {
+            count = collection.size();
+        } else if (value instanceof Map<?, ?> map) {
+            count = map.size();
+        } else if (value instanceof Optional<?> optional) {
+            count = optional.isPresent() ? 1 : 0;
+        }
+        return Math.max(count, 1);
+    }
 }
@@ -0,0 +1,189 @@
+package com.assurant.cph.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "cph.cache")
+public class CacheProperties {
+
+    // Policy applied to every region unless overridden below
+    private RegionSpec defaults = new RegionSpec();
+
+    // Per-region overrides, keyed by cache name
+    private Map<String, RegionSpec> regions = new HashMap<>();
+
+    // Snapshot of the persisted regions written on shutdown and restored on startup
+    private Persistence persistence = new Persistence();
+
+    // Hibernate second-level cache regions, keyed by region name; applied as written, without the defaults
+    private Map<String, RegionSpec> secondLevel = new HashMap<>();
+
+    // Most accessed keys reported per region by the cache admin endpoint
+    private int hotKeys = 10;
+
+    // Threads shared by all regions for refresh-ahead and stale-while-revalidate reloads
+    private int refreshThreads = 2;
+
+    // Invalidations exchanged with the other nodes of a multi-node deployment
+    private Cluster cluster = new Cluster();
+
+    // Regions marked partitioned are spread over the nodes instead of copied to each of them
+    private Partitioning partitioning = new Partitioning();
+
+    // JSON bodies of the single-entity GET endpoints, kept already serialized
+    private Responses responses = new Responses();
+
+    public RegionSpec specFor(String region) {
+        RegionSpec override = regions.get(region);
+        return override != null ? defaults.mergedWith(override) : defaults;
+    }
+
+    @Data
+    public static class RegionSpec {
+
+        // Maximum number of cached entries
+        private Long maximumSize;
+
+        // Maximum total weight, where a cached list weighs as many entities as it holds
+        private Long maximumWeight;
+
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+
+        // Entries read after this age are reloaded in the background while the cached value is returned
+        private Duration refreshAfterWrite;
+
+        // How long past expire-after-write an entry may still be served, marked stale, while it reloads
+        private Duration staleWhileRevalidate;
+
+        // Callers arriving while an evicted key reloads get the evicted value instead of waiting
+        private Boolean serveStaleWhileReloading;
+
+        // Written to the snapshot file on graceful shutdown and restored on the next startup
+        private Boolean persist;
+
+        // Natural-key regions only: size of the Bloom filter that proves a key absent without a lookup
+        private Long bloomFilterExpectedInsertions;
+        private Double bloomFilterFalsePositiveRate;
+
+        // Direct memory for a second tier behind the on-heap cache; no off-heap tier when unset
+        private DataSize offHeapCapacity;
+
+        // Each key cached on one node only, chosen by consistent hashing, when partitioning is enabled
+        private Boolean partitioned;
+
+        RegionSpec mergedWith(RegionSpec override) {
+            RegionSpec merged = new RegionSpec();
+            // A region that sets its own bound replaces the default bound instead of combining with it
+            boolean ownBound = override.maximumSize != null || override.maximumWeight != null;
+            merged.setMaximumSize(ownBound ? override.maximumSize : maximumSize);
+            merged.setMaximumWeight(ownBound ? override.maximumWeight : maximumWeight);
+            merged.setExpireAfterWrite(override.expireAfterWrite != null ? override.expireAfterWrite : expireAfterWrite);
+            merged.setExpireAfterAccess(override.expireAfterAccess != null ? override.expireAfterAccess : expireAfterAccess);
+            merged.setRefreshAfterWrite(override.refreshAfterWrite != null ? override.refreshAfterWrite : refreshAfterWrite);
+            merged.setStaleWhileRevalidate(override.staleWhileRevalidate != null ? override.staleWhileRevalidate : staleWhileRevalidate);
+            merged.setServeStaleWhileReloading(override.serveStaleWhileReloading != null ? override.serveStaleWhileReloading : serveStaleWhileReloading);
+            merged.setPersist(override.persist != null ? override.persist : persist);
+            merged.setBloomFilterExpectedInsertions(override.bloomFilterExpectedInsertions != null
+                    ? override.bloomFilterExpectedInsertions : bloomFilterExpectedInsertions);
+            merged.setBloomFilterFalsePositiveRate(override.bloomFilterFalsePositiveRate != null
+                    ? override.bloomFilterFalsePositiveRate : bloomFilterFalsePositiveRate);
+            merged.setOffHeapCapacity(override.offHeapCapacity != null ? override.offHeapCapacity : offHeapCapacity);
+            merged.setPartitioned(override.partitioned != null ? override.partitioned : partitioned);
+            return merged;
+        }
+    }
+
+    @Data
+    public static class Persistence {
+
+        private boolean enabled;
+
+        private Path file;
+
+        // Snapshots older than this are ignored on startup
+        private Duration maxAge = Duration.ofHours(6);
+
+        // Hottest entries written per region
+        private int maxEntriesPerRegion = 20000;
+    }
+
+    @Data
+    public static class Cluster {
+
+        // none, in-jvm, multicast or jdbc
+        private String transport = "none";
+
+        // How long the first invalidation of a burst waits for the rest before they are sent together
+        private Duration batchWindow = Duration.ofMillis(20);
+
+        private int maxBatchSize = 256;
+
+        // Idle interval after which unreliable transports announce the last batch sent, exposing lost ones
+        private Duration heartbeatInterval = Duration.ofSeconds(5);
+
+        private String inJvmChannel = "cph";
+
+        private String multicastGroup = "239.255.27.1";
+        private int multicastPort = 45566;
+        private String multicastInterface;
+        private int multicastTimeToLive = 1;
+
+        private Duration jdbcPollInterval = Duration.ofMillis(250);
+        private Duration jdbcRetention = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Partitioning {
+
+        private boolean enabled;
+
+        // Interface the partition port listens on; unset, the advertised host, so it is not open on every interface
+        private String bindAddress;
+
+        // Shared by every node and proved when a peer connects; partitioning refuses to start without it
+        private String secret;
+
+        // This node's name on the ring, host:port as its peers reach it
+        private String advertisedHost = "127.0.0.1";
+        private int port = 7450;
+
+        // Peers as host:port; this node may be listed too. Nodes not listed join by pinging a listed one
+        private List<String> members = new ArrayList<>();
+
+        // Points per member on the hash ring; more points spread the keys more evenly
+        private int virtualNodes = 160;
+
+        private Duration heartbeatInterval = Duration.ofSeconds(1);
+
+        // Missed heartbeats after which a member's keys move to the others
+        private int failureThreshold = 3;
+
+        private Duration requestTimeout = Duration.ofMillis(500);
+
+        // Copies of keys owned elsewhere, kept briefly; 0 disables the near-cache
+        private long nearCacheMaximumSize = 1000;
+        private Duration nearCacheExpireAfterWrite = Duration.ofSeconds(5);
+
+        // Entries per message when handing keys to a new owner
+        private int transferBatchSize = 256;
+    }
+
+    @Data
+    public static class Responses {
+
+        private boolean enabled = true;
+
+        // Bodies at least this large also keep a gzip copy for clients that accept it
+        private DataSize gzipMinSize = DataSize.ofKilobytes(1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.assurant.cph.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.interceptor.CacheOperation;
+import org.springframework.cache.interceptor.CacheOperationSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheRegionValidator implements SmartInitializingSingleton {
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final CacheManager cacheManager;
+    private final CacheOperationSource cacheOperationSource = new AnnotationCacheOperationSource();
+
+    // Fail startup on a misspelled region instead of on the first call that touches it
+    @Override
+    public void afterSingletonsInstantiated() {
+        Collection<String> declaredRegions = cacheManager.getCacheNames();
+        List<String> applicationPackages = AutoConfigurationPackages.get(beanFactory);
+        Map<String, Set<String>> unknownRegions = new TreeMap<>();
+
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType = beanFactory.getType(beanName);
+            if (beanType == null) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(beanType);
+            if (applicationPackages.stream().noneMatch(pkg -> userClass.getName().startsWith(pkg + "."))) {
+                continue;
+            }
+
+            ReflectionUtils.doWithMethods(userClass, method -> {
+                Collection<CacheOperation> operations = cacheOperationSource.getCacheOperations(method, userClass);
+                if (operations == null) {
+                    return;
+                }
+                for (CacheOperation operation : operations) {
+                    for (String region : operation.getCacheNames()) {
+                        if (!declaredRegions.contains(region)) {
+                            unknownRegions.computeIfAbsent(region, r -> new TreeSet<>())
+                                    .add(userClass.getSimpleName() + "." + method.getName());
+                        }
+                    }
+                }
+            });
+        }
+
+        if (!unknownRegions.isEmpty()) {
+            throw new IllegalStateException("Caching annotations refer to undeclared cache regions: " + unknownRegions);
+        }
+        log.info("Validated cache annotations against {} declared regions", declaredRegions.size());
+    }
+}
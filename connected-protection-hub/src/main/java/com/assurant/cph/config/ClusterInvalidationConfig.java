@@ -0,0 +1,42 @@
+package com.assurant.cph.config;
+
+import com.assurant.cph.core.cache.cluster.InJvmInvalidationTransport;
+import com.assurant.cph.core.cache.cluster.InvalidationTransport;
+import com.assurant.cph.core.cache.cluster.JdbcInvalidationTransport;
+import com.assurant.cph.core.cache.cluster.MulticastInvalidationTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Transport for {@link com.assurant.cph.core.cache.cluster.ClusterInvalidationBus}, chosen with
+ * {@code cph.cache.cluster.transport}. No transport bean, the default, keeps every cache node-local.
+ * The bus starts and closes the transport.
+ */
+@Configuration
+public class ClusterInvalidationConfig {
+
+    private static final String TRANSPORT = "cph.cache.cluster.transport";
+
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT, havingValue = "in-jvm")
+    public InvalidationTransport inJvmInvalidationTransport(CacheProperties cacheProperties) {
+        return new InJvmInvalidationTransport(cacheProperties.getCluster().getInJvmChannel());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT, havingValue = "multicast")
+    public InvalidationTransport multicastInvalidationTransport(CacheProperties cacheProperties) {
+        CacheProperties.Cluster cluster = cacheProperties.getCluster();
+        return new MulticastInvalidationTransport(cluster.getMulticastGroup(), cluster.getMulticastPort(),
+                cluster.getMulticastInterface(), cluster.getMulticastTimeToLive());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = TRANSPORT, havingValue = "jdbc")
+    public InvalidationTransport jdbcInvalidationTransport(CacheProperties cacheProperties, JdbcTemplate jdbcTemplate) {
+        CacheProperties.Cluster cluster = cacheProperties.getCluster();
+        return new JdbcInvalidationTransport(jdbcTemplate, cluster.getJdbcPollInterval(), cluster.getJdbcRetention());
+    }
+}
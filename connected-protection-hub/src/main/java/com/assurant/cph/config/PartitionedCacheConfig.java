@@ -0,0 +1,20 @@
+package com.assurant.cph.config;
+
+import com.assurant.cph.core.cache.partition.PartitionedCacheCluster;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cluster membership for the regions marked {@code partitioned}, enabled with
+ * {@code cph.cache.partitioning.enabled}. Without it every region is a full copy on each node.
+ */
+@Configuration
+public class PartitionedCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "cph.cache.partitioning.enabled", havingValue = "true")
+    public PartitionedCacheCluster partitionedCacheCluster(CacheProperties cacheProperties) {
+        return new PartitionedCacheCluster(cacheProperties.getPartitioning());
+    }
+}
@@ -0,0 +1,24 @@
+package com.assurant.cph.config;
+
+import com.assurant.cph.core.cache.cluster.ClusterInvalidationBus;
+import com.assurant.cph.core.service.PaymentCounters;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Live payment totals for the dashboard endpoints, rebuilt from the database on startup and checked
+ * against it every {@code cph.payments.counters.consistency-check-interval}.
+ */
+@Configuration
+@EnableConfigurationProperties(PaymentProperties.class)
+public class PaymentCountersConfig {
+
+    @Bean
+    public PaymentCounters paymentCounters(PaymentProperties paymentProperties, EntityManager entityManager,
+                                           PlatformTransactionManager transactionManager, ClusterInvalidationBus clusterBus) {
+        return new PaymentCounters(paymentProperties.getCounters(), entityManager, transactionManager, clusterBus);
+    }
+}
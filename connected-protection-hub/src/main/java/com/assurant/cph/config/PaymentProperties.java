@@ -0,0 +1,97 @@
+package com.assurant.cph.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "cph.payments")
+public class PaymentProperties {
+
+    // In-memory totals behind the payment dashboard endpoints
+    private Counters counters = new Counters();
+
+    // Nightly expiry of payments left pending
+    private Expiry expiry = new Expiry();
+
+    // Partner payment batches
+    private Batch batch = new Batch();
+
+    // Payment files uploaded for background processing
+    private Jobs jobs = new Jobs();
+
+    // Single payment requests committed together
+    private GroupCommit groupCommit = new GroupCommit();
+
+    // Parallel lanes for work keyed by protection plan
+    private Lanes lanes = new Lanes();
+
+    @Data
+    public static class Counters {
+
+        // How often the totals are compared with the database; a difference seen twice in a row is corrected
+        private Duration consistencyCheckInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Expiry {
+
+        // Payments expired per transaction; each chunk holds its row locks only until it commits
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Batch {
+
+        // Payments inserted per flush, after which they are detached so the persistence context stays small.
+        // Best kept equal to hibernate.jdbc.batch_size so every flush is one JDBC batch
+        private int flushSize = 500;
+    }
+
+    @Data
+    public static class Jobs {
+
+        // Where uploads wait until their job completes; must survive a restart for jobs to resume
+        private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "cph-payment-jobs");
+
+        // Jobs processed at the same time; further uploads queue behind them
+        private int concurrency = 2;
+
+        // Payments read from the file and committed together; a resumed job restarts after the last chunk
+        private int chunkSize = 1000;
+    }
+
+    @Data
+    public static class GroupCommit {
+
+        // Off by default: every request then commits on its own, as processPayment does
+        private boolean enabled = false;
+
+        // How long the first payment of a group waits for others before the group commits anyway.
+        // Added to every request's latency, in exchange for one commit per group instead of one per request
+        private Duration window = Duration.ofMillis(2);
+
+        // A group this size commits without waiting out the window
+        private int maxItems = 64;
+
+        // Payments waiting beyond this are processed on the caller's thread instead
+        private int queueCapacity = 10_000;
+
+        // How long a caller waits for its group. One still queued by then is processed on the caller's
+        // thread; one whose group is committing gets as long again before the request fails
+        private Duration callerTimeout = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Lanes {
+
+        // Threads, each owning the plans that hash to it. A lane holds a database connection while it
+        // works, so this is capped at one less than the Hikari maximum-pool-size
+        private int count = Runtime.getRuntime().availableProcessors();
+
+        // Tasks waiting per lane before submitters block
+        private int capacity = 1000;
+    }
+}
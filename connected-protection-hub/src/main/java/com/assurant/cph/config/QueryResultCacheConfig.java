@@ -0,0 +1,38 @@
+package com.assurant.cph.config;
+
+import com.assurant.cph.core.cache.QueryResultCache;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.function.Supplier;
+
+/**
+ * Puts {@link QueryResultCache} in front of every repository: query methods of {@code @CachedQueries}
+ * repositories are cached, and bulk updates of any repository advance the versions of the tables they write.
+ */
+@Configuration
+public class QueryResultCacheConfig {
+
+    // Static and resolved lazily: post-processors are created before the repositories, and the cache
+    // depends on the entity manager factory they share
+    @Bean
+    public static BeanPostProcessor queryResultCacheRepositoryCustomizer(ObjectProvider<QueryResultCache> queryResultCache) {
+        Supplier<QueryResultCache> cache = SingletonSupplier.of(queryResultCache::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repository) -> proxyFactory.addAdvice(
+                                    (MethodInterceptor) invocation -> cache.get().invoke(invocation, repository))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.assurant.cph.config;
+
+import com.assurant.cph.core.domain.ReferenceNumberAssigner;
+import com.assurant.cph.core.domain.ReferenceSequence;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Business numbers generated for payments, claims, repair orders and support interactions, unique across
+ * nodes through {@code cph.references.node-id}. Nodes that share invalidations or partitions are assumed
+ * to share a database too, so they must each be given an ID rather than all defaulting to the same one.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties({ReferenceProperties.class, CacheProperties.class})
+public class ReferenceConfig {
+
+    @Bean
+    public ReferenceSequence referenceSequence(ReferenceProperties referenceProperties, CacheProperties cacheProperties) {
+        Integer nodeId = referenceProperties.getNodeId();
+        if (nodeId == null) {
+            if (isMultiNode(cacheProperties)) {
+                throw new IllegalStateException("cph.references.node-id must be set to an ID unique among the nodes, " +
+                        "from 0 to " + ReferenceSequence.MAX_NODE_ID + ", when running with other nodes");
+            }
+            nodeId = 0;
+        }
+        ReferenceSequence sequence = new ReferenceSequence(nodeId);
+        log.info("Generating business references as node {}", sequence.getNodeId());
+        return sequence;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer referenceNumberCustomizer(ReferenceSequence referenceSequence) {
+        return properties -> SecondLevelCacheConfig.addIntegrators(properties,
+                List.of(new ReferenceNumberAssigner(referenceSequence)));
+    }
+
+    private static boolean isMultiNode(CacheProperties cacheProperties) {
+        return !"none".equalsIgnoreCase(cacheProperties.getCluster().getTransport())
+                || cacheProperties.getPartitioning().isEnabled();
+    }
+}
@@ -0,0 +1,13 @@
+package com.assurant.cph.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "cph.references")
+public class ReferenceProperties {
+
+    // Must differ between the nodes writing to one database, from 0 to ReferenceSequence.MAX_NODE_ID.
+    // Unset, 0 on a single node; a node configured to run alongside others refuses to start without it
+    private Integer nodeId;
+}
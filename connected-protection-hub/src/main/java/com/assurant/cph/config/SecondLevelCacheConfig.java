@@ -0,0 +1,85 @@
+package com.assurant.cph.config;
+
+import com.assurant.cph.core.cache.OwnedCollectionEvictor;
+import com.assurant.cph.core.cache.TableVersionListener;
+import com.assurant.cph.core.cache.TableVersions;
+import com.assurant.cph.core.cache.cluster.ClusterInvalidationBus;
+import com.assurant.cph.core.cache.cluster.ClusterSecondLevelCacheInvalidator;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache regions, built from {@code cph.cache.second-level} in the same way as the
+ * application cache regions. Hibernate is told to fail on any region not declared there, so every entity,
+ * collection and query region carries an explicit bound.
+ */
+@Slf4j
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(CacheProperties cacheProperties) {
+        // A URI of its own per application context, so test contexts never share or close each other's regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("cph://hibernate/" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheProperties.getSecondLevel().forEach((region, spec) -> {
+            if (spec.getMaximumSize() == null) {
+                throw new IllegalStateException("Second-level cache region '" + region + "' has no maximum-size bound");
+            }
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(spec.getMaximumSize()));
+            if (spec.getExpireAfterWrite() != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(spec.getExpireAfterWrite().toNanos()));
+            }
+            if (spec.getExpireAfterAccess() != null) {
+                configuration.setExpireAfterAccess(OptionalLong.of(spec.getExpireAfterAccess().toNanos()));
+            }
+            cacheManager.createCache(region, configuration);
+            log.debug("Second-level cache region '{}' configured with {}", region, spec);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager,
+                                                                    ClusterInvalidationBus clusterBus,
+                                                                    TableVersions tableVersions) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            addIntegrators(properties, List.of(new OwnedCollectionEvictor(clusterBus),
+                    new ClusterSecondLevelCacheInvalidator(clusterBus), new TableVersionListener(tableVersions)));
+        };
+    }
+
+    /**
+     * Registers integrators next to those other customizers have registered already; Hibernate takes a
+     * single provider, and the customizers run in no particular order.
+     */
+    static void addIntegrators(Map<String, Object> properties, List<Integrator> integrators) {
+        IntegratorProvider others = (IntegratorProvider) properties.get(JpaSettings.INTEGRATOR_PROVIDER);
+        properties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> {
+            List<Integrator> all = new ArrayList<>(others != null ? others.getIntegrators() : List.of());
+            all.addAll(integrators);
+            return all;
+        });
+    }
+}
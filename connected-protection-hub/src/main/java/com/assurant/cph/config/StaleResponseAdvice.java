@@ -0,0 +1,40 @@
+package com.assurant.cph.config;
+
+import com.assurant.cph.core.cache.StaleReads;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks responses built from stale cache entries with {@code Warning: 110} and an {@code Age} header,
+ * so clients can tell a value served during a slow or failed reload from a fresh one.
+ */
+@RestControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        OptionalLong ageNanos = StaleReads.ageNanos();
+        if (ageNanos.isPresent()) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set(HttpHeaders.WARNING, StaleReads.WARNING);
+            headers.set(HttpHeaders.AGE, Long.toString(TimeUnit.NANOSECONDS.toSeconds(ageNanos.getAsLong())));
+        }
+        return body;
+    }
+}
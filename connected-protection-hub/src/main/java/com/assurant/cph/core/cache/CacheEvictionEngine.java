@@ -0,0 +1,256 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.core.cache.cluster.ClusterInvalidationBus;
+import com.assurant.cph.core.cache.cluster.Invalidation;
+import com.assurant.cph.core.domain.Claim;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.domain.RepairOrder;
+import com.assurant.cph.core.domain.Vehicle;
+import com.assurant.cph.core.repository.ClaimRepository;
+import com.assurant.cph.core.repository.PaymentRef;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evicts only the cache entries a write touches, walking repair order -> claim -> plan -> customer
+ * to find the per-owner keys. A region whose owner cannot be resolved is cleared instead. The same
+ * evictions are published to the other nodes of the cluster.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheEvictionEngine {
+
+    // Key Spring's SimpleKeyGenerator assigns to no-argument @Cacheable methods such as getAllClaims()
+    private static final Object WHOLE_TABLE = SimpleKey.EMPTY;
+
+    private final CacheManager cacheManager;
+    private final ClusterInvalidationBus clusterBus;
+    private final ProtectionPlanRepository protectionPlanRepository;
+    private final ClaimRepository claimRepository;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public void customerChanged(String operation, Customer customer) {
+        EvictionTargets targets = new EvictionTargets();
+        addCustomer(targets, customer.getId());
+        evict(operation, targets);
+    }
+
+    public void protectionPlanChanged(String operation, ProtectionPlan protectionPlan) {
+        EvictionTargets targets = new EvictionTargets();
+        addProtectionPlan(targets, protectionPlan.getId(), customerIdOf(protectionPlan));
+        evict(operation, targets);
+    }
+
+    public void claimChanged(String operation, Claim claim) {
+        EvictionTargets targets = new EvictionTargets();
+        addClaim(targets, claim);
+        evict(operation, targets);
+    }
+
+    public void paymentChanged(String operation, PaymentRecord payment) {
+        EvictionTargets targets = new EvictionTargets();
+        addPayment(targets, payment);
+        evict(operation, targets);
+    }
+
+    // Bulk updates know the owners of what they changed without loading the payments
+    public void paymentsChanged(String operation, Collection<PaymentRef> payments) {
+        EvictionTargets targets = new EvictionTargets();
+        targets.key("payments", WHOLE_TABLE);
+        for (PaymentRef payment : payments) {
+            targets.key("payment", payment.id());
+            targets.ownerKey("planPayments", payment.protectionPlanId());
+            targets.ownerKey("customerPayments", payment.customerId());
+            targets.ownerKey("paymentStats", payment.customerId());
+        }
+        evict(operation, targets);
+    }
+
+    public void assetChanged(String operation, ProtectedAsset asset) {
+        EvictionTargets targets = new EvictionTargets();
+        UUID customerId = asset.getCustomer() != null ? asset.getCustomer().getId() : null;
+
+        targets.key("asset", asset.getId());
+        targets.key("assets", WHOLE_TABLE);
+        targets.ownerKey("customerAssets", customerId);
+
+        Class<?> assetType = Hibernate.getClass(asset);
+        if (!Vehicle.class.isAssignableFrom(assetType)) {
+            targets.key("electronicDevices", WHOLE_TABLE);
+        }
+        if (!ElectronicDevice.class.isAssignableFrom(assetType)) {
+            targets.key("vehicles", WHOLE_TABLE);
+        }
+        evict(operation, targets);
+    }
+
+    public void repairOrderChanged(String operation, RepairOrder repairOrder) {
+        EvictionTargets targets = new EvictionTargets();
+        Claim claim = resolveClaim(repairOrder.getClaim());
+
+        targets.key("repairOrder", repairOrder.getId());
+        targets.key("repairOrders", WHOLE_TABLE);
+        targets.ownerKey("claimRepairOrder", claim != null ? claim.getId() : null);
+        targets.ownerKey("customerRepairOrders", claim != null ? customerIdOf(claim.getProtectionPlan()) : null);
+        evict(operation, targets);
+    }
+
+    public Map<String, EvictionStats> getEvictionStats() {
+        Map<String, EvictionStats> stats = new TreeMap<>();
+        counters.forEach((operation, counter) -> stats.put(operation, counter.snapshot()));
+        return stats;
+    }
+
+    private void addCustomer(EvictionTargets targets, UUID customerId) {
+        targets.key("customer", customerId);
+        targets.key("customerResponse", customerId);
+        targets.key("customers", WHOLE_TABLE);
+    }
+
+    private void addProtectionPlan(EvictionTargets targets, UUID planId, UUID customerId) {
+        targets.key("protectionPlan", planId);
+        targets.key("protectionPlanResponse", planId);
+        targets.key("protectionPlans", WHOLE_TABLE);
+        targets.ownerKey("customerPlans", customerId);
+    }
+
+    private void addClaim(EvictionTargets targets, Claim claim) {
+        ProtectionPlan protectionPlan = resolvePlan(claim.getProtectionPlan());
+
+        targets.key("claim", claim.getId());
+        targets.key("claimResponse", claim.getId());
+        targets.key("claims", WHOLE_TABLE);
+        targets.ownerKey("customerClaims", customerIdOf(protectionPlan));
+    }
+
+    private void addPayment(EvictionTargets targets, PaymentRecord payment) {
+        ProtectionPlan protectionPlan = resolvePlan(payment.getProtectionPlan());
+        UUID customerId = customerIdOf(protectionPlan);
+
+        targets.key("payment", payment.getId());
+        targets.key("payments", WHOLE_TABLE);
+        targets.ownerKey("planPayments", protectionPlan != null ? protectionPlan.getId() : null);
+        targets.ownerKey("customerPayments", customerId);
+        targets.ownerKey("paymentStats", customerId);
+    }
+
+    // Request payloads often carry a bare {id} stub for the parent; load it so the walk can continue
+    private ProtectionPlan resolvePlan(ProtectionPlan protectionPlan) {
+        if (protectionPlan == null || protectionPlan.getId() == null || protectionPlan.getCustomer() != null) {
+            return protectionPlan;
+        }
+        return protectionPlanRepository.findById(protectionPlan.getId()).orElse(protectionPlan);
+    }
+
+    private Claim resolveClaim(Claim claim) {
+        if (claim == null || claim.getId() == null || claim.getProtectionPlan() != null) {
+            return claim;
+        }
+        return claimRepository.findById(claim.getId()).orElse(claim);
+    }
+
+    private UUID customerIdOf(ProtectionPlan protectionPlan) {
+        ProtectionPlan resolved = resolvePlan(protectionPlan);
+        if (resolved == null || resolved.getCustomer() == null) {
+            return null;
+        }
+        return resolved.getCustomer().getId();
+    }
+
+    private void evict(String operation, EvictionTargets targets) {
+        AfterCommit.run(() -> apply(operation, targets));
+    }
+
+    private void apply(String operation, EvictionTargets targets) {
+        int evicted = 0;
+
+        for (Map.Entry<String, Set<Object>> entry : targets.keys.entrySet()) {
+            Cache cache = cacheManager.getCache(entry.getKey());
+            if (cache == null) {
+                continue;
+            }
+            for (Object key : entry.getValue()) {
+                if (cache.evictIfPresent(key)) {
+                    evicted++;
+                }
+                // Peers are told even when this node held no entry; theirs may well be cached
+                clusterBus.publish(Invalidation.cacheKey(entry.getKey(), key));
+            }
+        }
+
+        for (String region : targets.clears) {
+            Cache cache = cacheManager.getCache(region);
+            if (cache != null && cache.invalidate()) {
+                evicted++;
+            }
+            clusterBus.publish(Invalidation.cacheRegion(region));
+        }
+
+        counters.computeIfAbsent(operation, op -> new Counter()).record(evicted, targets.clears.size());
+        log.debug("Write {} evicted {} cache entries (region-wide clears: {})", operation, evicted, targets.clears);
+    }
+
+    public record EvictionStats(long writes, long entriesEvicted, long lastWriteEvicted, long regionWideClears) {
+    }
+
+    private static class EvictionTargets {
+        private final Map<String, Set<Object>> keys = new LinkedHashMap<>();
+        private final Set<String> clears = new LinkedHashSet<>();
+
+        void key(String region, Object key) {
+            if (key != null) {
+                keys.computeIfAbsent(region, r -> new LinkedHashSet<>()).add(key);
+            }
+        }
+
+        // Per-owner region: evict the owner's entry, or the whole region if the owner is unknown
+        void ownerKey(String region, UUID ownerId) {
+            if (ownerId != null) {
+                key(region, ownerId);
+            } else {
+                clears.add(region);
+            }
+        }
+    }
+
+    private static class Counter {
+        private final LongAdder writes = new LongAdder();
+        private final LongAdder entriesEvicted = new LongAdder();
+        private final AtomicLong lastWriteEvicted = new AtomicLong();
+        private final LongAdder regionWideClears = new LongAdder();
+
+        void record(int evicted, int clears) {
+            writes.increment();
+            entriesEvicted.add(evicted);
+            lastWriteEvicted.set(evicted);
+            regionWideClears.add(clears);
+        }
+
+        EvictionStats snapshot() {
+            return new EvictionStats(writes.sum(), entriesEvicted.sum(), lastWriteEvicted.get(), regionWideClears.sum());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.assurant.cph.core.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one cache region. Hits, misses, loads and explicit evictions are recorded by
+ * {@link CoalescingCache}; size and expiry evictions come from the Caffeine eviction listener.
+ */
+public class CacheRegionMetrics {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final Map<RemovalCause, LongAdder> evictions;
+    private final HotKeySketch hotKeys;
+
+    public CacheRegionMetrics(int hotKeyCount) {
+        Map<RemovalCause, LongAdder> counters = new EnumMap<>(RemovalCause.class);
+        for (RemovalCause cause : RemovalCause.values()) {
+            counters.put(cause, new LongAdder());
+        }
+        this.evictions = Collections.unmodifiableMap(counters);
+        this.hotKeys = new HotKeySketch(hotKeyCount);
+    }
+
+    void recordHit(Object key) {
+        hits.increment();
+        hotKeys.record(key);
+    }
+
+    void recordMiss(Object key) {
+        misses.increment();
+        hotKeys.record(key);
+    }
+
+    void recordStaleHit(Object key) {
+        staleHits.increment();
+        hotKeys.record(key);
+    }
+
+    void recordLoad(long nanos, boolean success) {
+        (success ? loadSuccesses : loadFailures).increment();
+        loadNanos.add(nanos);
+    }
+
+    void recordRefresh(boolean success) {
+        (success ? refreshes : refreshFailures).increment();
+    }
+
+    public void recordEviction(RemovalCause cause) {
+        evictions.get(cause).increment();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long staleHits() {
+        return staleHits.sum();
+    }
+
+    public long loadSuccesses() {
+        return loadSuccesses.sum();
+    }
+
+    public long loadFailures() {
+        return loadFailures.sum();
+    }
+
+    public long refreshes() {
+        return refreshes.sum();
+    }
+
+    public long refreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    public long totalLoadNanos() {
+        return loadNanos.sum();
+    }
+
+    public long evictions(RemovalCause cause) {
+        return evictions.get(cause).sum();
+    }
+
+    List<CacheRegionStats.HotKey> hotKeys() {
+        return hotKeys.top();
+    }
+}
@@ -0,0 +1,29 @@
+package com.assurant.cph.core.cache;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point-in-time view of one cache region, as reported by {@code /api/v1/admin/caches}.
+ */
+public record CacheRegionStats(
+        long hits,
+        long misses,
+        long staleHits,
+        double hitRate,
+        long loads,
+        long loadFailures,
+        double averageLoadMillis,
+        // Background reloads by refresh-ahead and stale-while-revalidate; also counted in loads
+        long refreshes,
+        long refreshFailures,
+        Map<String, Long> evictions,
+        long size,
+        long estimatedRetainedBytes,
+        List<HotKey> hotKeys,
+        // Null unless the region has an off-heap tier
+        TieredCache.OffHeapStats offHeap) {
+
+    public record HotKey(String key, long estimatedAccesses) {
+    }
+}
@@ -0,0 +1,307 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.api.dto.CustomerSnapshot;
+import com.assurant.cph.api.dto.ProtectionPlanSnapshot;
+import com.assurant.cph.config.CacheConfig;
+import com.assurant.cph.config.CacheProperties;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.EntityVersion;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Writes the hottest entries of the regions marked {@code persist} to a binary file on graceful shutdown and
+ * restores them, memory-mapped, before the web server starts taking traffic. Restored entries are checked
+ * against the rows' current {@code updatedAt}, so anything modified or deleted while the node was down is
+ * dropped instead of served.
+ */
+@Slf4j
+@Component
+public class CacheSnapshotStore implements SmartLifecycle {
+
+    private static final int MAGIC = 0x43504843; // "CPHC"
+    private static final short FORMAT_VERSION = 1;
+    private static final int VERSION_QUERY_BATCH = 500;
+
+    private final CacheManager cacheManager;
+    private final CacheProperties cacheProperties;
+    private final Map<String, PersistentRegion<?>> persistentRegions;
+
+    private final Map<String, RestoreStats> restoreStats = new ConcurrentHashMap<>();
+    private volatile long readyNanos;
+    private volatile boolean running;
+
+    public CacheSnapshotStore(CacheManager cacheManager, CacheProperties cacheProperties,
+                              CustomerRepository customerRepository, ProtectionPlanRepository protectionPlanRepository) {
+        this.cacheManager = cacheManager;
+        this.cacheProperties = cacheProperties;
+        this.persistentRegions = Map.of(
+                "customer", new PersistentRegion<>(RecordCodec.of(CustomerSnapshot.class),
+                        CustomerSnapshot::id, CustomerSnapshot::updatedAt, customerRepository::findVersionsByIdIn),
+                "protectionPlan", new PersistentRegion<>(RecordCodec.of(ProtectionPlanSnapshot.class),
+                        ProtectionPlanSnapshot::id, ProtectionPlanSnapshot::updatedAt, protectionPlanRepository::findVersionsByIdIn)
+        );
+    }
+
+    // Starts before and stops after the web server, so caches are warm for the first request
+    // and the snapshot is taken once in-flight requests have drained
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    @Override
+    public void start() {
+        List<String> regions = persistedRegions();
+        running = true;
+        if (cacheProperties.getPersistence().isEnabled() && !regions.isEmpty()) {
+            restoreSnapshot();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (cacheProperties.getPersistence().isEnabled() && !persistedRegions().isEmpty()) {
+            writeSnapshot();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        readyNanos = System.nanoTime();
+    }
+
+    public Map<String, WarmupStats> getWarmupStats() {
+        Map<String, WarmupStats> stats = new TreeMap<>();
+        for (String region : CacheConfig.CACHE_REGIONS) {
+            RestoreStats restored = restoreStats.get(region);
+            stats.put(region, new WarmupStats(
+                    restored != null ? restored.restoredEntries() : null,
+                    restored != null ? restored.discardedEntries() : null,
+                    restored != null ? restored.restoreMillis() : null,
+                    timeToFirstHitMillis(cacheManager.getCache(region))));
+        }
+        return stats;
+    }
+
+    void writeSnapshot() {
+        Path file = cacheProperties.getPersistence().getFile();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long started = System.nanoTime();
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            List<String> regions = persistedRegions();
+            int written = 0;
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(regions.size());
+                for (String region : regions) {
+                    written += writeRegion(out, region, persistentRegions.get(region));
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            log.info("Wrote cache snapshot of {} entries from {} to {} in {} ms",
+                    written, regions, file, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException | RuntimeException ex) {
+            // A failed snapshot only costs the next startup its warm caches; never block shutdown on it
+            log.warn("Could not write cache snapshot to {}", file, ex);
+        }
+    }
+
+    void restoreSnapshot() {
+        Path file = cacheProperties.getPersistence().getFile();
+        if (!Files.isRegularFile(file)) {
+            log.info("No cache snapshot at {}, starting with empty caches", file);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getShort() != FORMAT_VERSION) {
+                log.warn("Ignoring cache snapshot {}: unknown format", file);
+                return;
+            }
+
+            Instant writtenAt = Instant.ofEpochMilli(buffer.getLong());
+            if (writtenAt.plus(cacheProperties.getPersistence().getMaxAge()).isBefore(Instant.now())) {
+                log.info("Ignoring cache snapshot {} written at {}: older than {}", file, writtenAt, cacheProperties.getPersistence().getMaxAge());
+                return;
+            }
+
+            List<String> regions = persistedRegions();
+            int regionCount = buffer.getInt();
+            for (int i = 0; i < regionCount; i++) {
+                String region = readString(buffer);
+                long fingerprint = buffer.getLong();
+                int entries = buffer.getInt();
+                int length = buffer.getInt();
+                ByteBuffer regionBytes = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+
+                PersistentRegion<?> descriptor = persistentRegions.get(region);
+                if (!regions.contains(region) || descriptor.codec().fingerprint() != fingerprint) {
+                    log.info("Skipping cache snapshot region '{}': no longer persisted or its record shape changed", region);
+                    continue;
+                }
+                restoreRegion(region, descriptor, regionBytes, entries);
+            }
+        } catch (IOException | RuntimeException ex) {
+            // A corrupt or truncated snapshot only means a cold start
+            log.warn("Could not restore cache snapshot from {}", file, ex);
+        }
+    }
+
+    private List<String> persistedRegions() {
+        List<String> regions = CacheConfig.CACHE_REGIONS.stream()
+                .filter(region -> Boolean.TRUE.equals(cacheProperties.specFor(region).getPersist()))
+                .toList();
+
+        List<String> unsupported = regions.stream().filter(region -> !persistentRegions.containsKey(region)).toList();
+        if (!unsupported.isEmpty()) {
+            throw new IllegalStateException("Cache regions marked persist have no snapshot encoding: " + unsupported);
+        }
+        return regions;
+    }
+
+    private <V extends Record> int writeRegion(DataOutputStream out, String region, PersistentRegion<V> descriptor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream entriesOut = new DataOutputStream(bytes);
+        int entries = 0;
+
+        for (Object value : hottest(cacheManager.getCache(region))) {
+            // Skips cached "not found" markers
+            if (descriptor.codec().type().isInstance(value)) {
+                descriptor.codec().write(entriesOut, descriptor.codec().type().cast(value));
+                entries++;
+            }
+        }
+
+        writeString(out, region);
+        out.writeLong(descriptor.codec().fingerprint());
+        out.writeInt(entries);
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+        return entries;
+    }
+
+    private <V extends Record> void restoreRegion(String region, PersistentRegion<V> descriptor, ByteBuffer in, int entries) {
+        long started = System.nanoTime();
+
+        List<V> values = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            values.add(descriptor.codec().read(in));
+        }
+
+        Map<UUID, LocalDateTime> currentVersions = new HashMap<>();
+        List<UUID> ids = values.stream().map(descriptor.id()).toList();
+        for (int from = 0; from < ids.size(); from += VERSION_QUERY_BATCH) {
+            List<UUID> batch = ids.subList(from, Math.min(from + VERSION_QUERY_BATCH, ids.size()));
+            descriptor.versions().apply(batch).forEach(version -> currentVersions.put(version.id(), version.updatedAt()));
+        }
+
+        Cache cache = cacheManager.getCache(region);
+        int restored = 0;
+        for (V value : values) {
+            UUID id = descriptor.id().apply(value);
+            if (sameVersion(descriptor.updatedAt().apply(value), currentVersions.get(id))) {
+                cache.put(id, value);
+                restored++;
+            }
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        restoreStats.put(region, new RestoreStats(restored, values.size() - restored, elapsedMillis));
+        log.info("Restored {} of {} snapshot entries into cache region '{}' in {} ms",
+                restored, values.size(), region, elapsedMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Object> hottest(Cache cache) {
+        var nativeCache = (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        int limit = cacheProperties.getPersistence().getMaxEntriesPerRegion();
+        return nativeCache.policy().eviction()
+                .map(eviction -> eviction.hottest(limit).values())
+                .orElseGet(() -> nativeCache.asMap().values().stream().limit(limit).toList());
+    }
+
+    // The database rounds to microseconds, while an entity saved in this JVM (and served from the
+    // second-level cache) may still carry nanoseconds
+    private static boolean sameVersion(LocalDateTime cached, LocalDateTime current) {
+        return cached != null && current != null
+                && Math.abs(ChronoUnit.NANOS.between(cached, current)) < 1_000;
+    }
+
+    private Long timeToFirstHitMillis(Cache cache) {
+        if (!(cache instanceof CoalescingCache coalescingCache) || readyNanos == 0 || coalescingCache.getFirstHitNanos() == 0) {
+            return null;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, coalescingCache.getFirstHitNanos() - readyNanos));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public record WarmupStats(Integer restoredEntries, Integer discardedEntries, Long restoreMillis, Long timeToFirstHitMillis) {
+    }
+
+    private record RestoreStats(int restoredEntries, int discardedEntries, long restoreMillis) {
+    }
+
+    private record PersistentRegion<V extends Record>(RecordCodec<V> codec,
+                                                      Function<V, UUID> id,
+                                                      Function<V, LocalDateTime> updatedAt,
+                                                      Function<Collection<UUID>, List<EntityVersion>> versions) {
+    }
+}
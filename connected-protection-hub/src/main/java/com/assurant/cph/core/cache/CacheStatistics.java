@@ -0,0 +1,191 @@
+package com.assurant.cph.core.cache;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-region cache statistics, published to Micrometer under the standard {@code cache.*} meter names and
+ * served by the cache admin endpoint together with the hot-key report, which is too high-cardinality for
+ * a metrics backend.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheStatistics implements MeterBinder {
+
+    // Entries walked to estimate a region's average entry size, and how long that average is reused
+    private static final int RETAINED_SIZE_SAMPLE = 64;
+    private static final long RETAINED_SIZE_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final CacheManager cacheManager;
+    private final ConcurrentMap<String, EntrySize> entrySizes = new ConcurrentHashMap<>();
+
+    public Map<String, CacheRegionStats> getStats() {
+        Map<String, CacheRegionStats> stats = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            statsFor(name).ifPresent(regionStats -> stats.put(name, regionStats));
+        }
+        return stats;
+    }
+
+    public Optional<CacheRegionStats> statsFor(String region) {
+        if (!(cacheManager.getCache(region) instanceof CoalescingCache cache)) {
+            return Optional.empty();
+        }
+        CacheRegionMetrics metrics = cache.getMetrics();
+        long lookups = metrics.hits() + metrics.misses();
+        long loads = metrics.loadSuccesses() + metrics.loadFailures();
+
+        Map<String, Long> evictions = new LinkedHashMap<>();
+        for (RemovalCause cause : RemovalCause.values()) {
+            if (cause != RemovalCause.REPLACED) {
+                evictions.put(cause.name().toLowerCase(Locale.ROOT), metrics.evictions(cause));
+            }
+        }
+
+        return Optional.of(new CacheRegionStats(
+                metrics.hits(),
+                metrics.misses(),
+                metrics.staleHits(),
+                lookups == 0 ? 0 : (double) metrics.hits() / lookups,
+                loads,
+                metrics.loadFailures(),
+                loads == 0 ? 0 : metrics.totalLoadNanos() / 1_000_000.0 / loads,
+                metrics.refreshes(),
+                metrics.refreshFailures(),
+                evictions,
+                nativeCache(cache).estimatedSize(),
+                retainedBytes(cache),
+                metrics.hotKeys(),
+                cache.delegate() instanceof TieredCache tiered ? tiered.getOffHeapStats() : null));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : cacheManager.getCacheNames()) {
+            if (!(cacheManager.getCache(name) instanceof CoalescingCache cache)) {
+                continue;
+            }
+            CacheRegionMetrics metrics = cache.getMetrics();
+            Tags tags = Tags.of("cache", name, "cache.manager", "cacheManager");
+
+            FunctionCounter.builder("cache.gets", metrics, CacheRegionMetrics::hits)
+                    .tags(tags).tag("result", "hit")
+                    .description("Lookups answered from the cache")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", metrics, CacheRegionMetrics::misses)
+                    .tags(tags).tag("result", "miss")
+                    .description("Lookups that found no entry")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", metrics, CacheRegionMetrics::staleHits)
+                    .tags(tags).tag("result", "stale")
+                    .description("Lookups answered with an evicted or expired value while the key reloaded")
+                    .register(registry);
+
+            FunctionTimer.builder("cache.loads", metrics,
+                            m -> m.loadSuccesses() + m.loadFailures(), CacheRegionMetrics::totalLoadNanos, TimeUnit.NANOSECONDS)
+                    .tags(tags)
+                    .description("Loads run on a miss and the time they took")
+                    .register(registry);
+            FunctionCounter.builder("cache.load.failures", metrics, CacheRegionMetrics::loadFailures)
+                    .tags(tags)
+                    .register(registry);
+            FunctionCounter.builder("cache.refreshes", metrics, CacheRegionMetrics::refreshes)
+                    .tags(tags).tag("result", "success")
+                    .description("Background reloads of ageing or stale entries")
+                    .register(registry);
+            FunctionCounter.builder("cache.refreshes", metrics, CacheRegionMetrics::refreshFailures)
+                    .tags(tags).tag("result", "failure")
+                    .description("Background reloads of ageing or stale entries")
+                    .register(registry);
+
+            for (RemovalCause cause : RemovalCause.values()) {
+                if (cause == RemovalCause.REPLACED) {
+                    continue;
+                }
+                FunctionCounter.builder("cache.evictions", metrics, m -> m.evictions(cause))
+                        .tags(tags).tag("cause", cause.name().toLowerCase(Locale.ROOT))
+                        .description("Entries removed by writes (explicit) or by the size and expiry policy")
+                        .register(registry);
+            }
+
+            Gauge.builder("cache.size", cache, c -> nativeCache(c).estimatedSize())
+                    .tags(tags)
+                    .description("Approximate number of entries")
+                    .register(registry);
+            Gauge.builder("cache.retained.bytes", cache, this::retainedBytes)
+                    .tags(tags)
+                    .baseUnit("bytes")
+                    .description("Estimated heap retained by the entries, extrapolated from a sample")
+                    .register(registry);
+
+            if (cache.delegate() instanceof TieredCache tiered) {
+                bindOffHeap(registry, tiered, tags);
+            }
+        }
+    }
+
+    private static void bindOffHeap(MeterRegistry registry, TieredCache tiered, Tags tags) {
+        FunctionCounter.builder("cache.offheap.gets", tiered, t -> t.getOffHeapStats().hits())
+                .tags(tags).tag("result", "hit")
+                .description("Heap-tier misses answered by the off-heap tier")
+                .register(registry);
+        FunctionCounter.builder("cache.offheap.gets", tiered, t -> t.getOffHeapStats().misses())
+                .tags(tags).tag("result", "miss")
+                .register(registry);
+        Gauge.builder("cache.offheap.size", tiered, t -> t.getOffHeapStats().entries())
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("cache.offheap.used.bytes", tiered, t -> t.getOffHeapStats().usedBytes())
+                .tags(tags)
+                .baseUnit("bytes")
+                .description("Direct memory holding entries, including superseded ones awaiting segment reuse")
+                .register(registry);
+    }
+
+    private long retainedBytes(CoalescingCache cache) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(cache);
+        long now = System.nanoTime();
+        EntrySize measured = entrySizes.get(cache.getName());
+        if (measured == null || now - measured.measuredAt() >= RETAINED_SIZE_TTL_NANOS) {
+            long sampledBytes = 0;
+            int sampled = 0;
+            Iterator<Object> values = nativeCache.asMap().values().iterator();
+            while (sampled < RETAINED_SIZE_SAMPLE && values.hasNext()) {
+                sampledBytes += RetainedSizeEstimator.estimate(values.next());
+                sampled++;
+            }
+            if (sampled == 0) {
+                return 0;
+            }
+            measured = new EntrySize(sampledBytes / sampled, now);
+            entrySizes.put(cache.getName(), measured);
+        }
+        return measured.averageBytes() * nativeCache.estimatedSize();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(Cache cache) {
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+    }
+
+    private record EntrySize(long averageBytes, long measuredAt) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.assurant.cph.core.cache;
+
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes cache keys and values for other nodes. Keys are the types the services cache under; values
+ * are snapshot records, lists of them, ids and strings. Unlike the off-heap codec, records are named by
+ * class and fingerprint, so a node running a build with a different record shape rejects the bytes
+ * instead of misreading them.
+ */
+public final class CacheWireCodec {
+
+    private static final String RECORD_PACKAGE = "com.assurant.cph.";
+
+    private static final byte NO_KEY = 0;
+    private static final byte UUID_KEY = 1;
+    private static final byte STRING_KEY = 2;
+    private static final byte LONG_KEY = 3;
+    private static final byte INTEGER_KEY = 4;
+    private static final byte EMPTY_SIMPLE_KEY = 5;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte RECORD_VALUE = 1;
+    private static final byte LIST_VALUE = 2;
+    private static final byte UUID_VALUE = 3;
+    private static final byte STRING_VALUE = 4;
+
+    private final Map<String, RecordCodec<?>> codecs = new ConcurrentHashMap<>();
+
+    public static boolean encodableKey(Object key) {
+        return key == null || key instanceof UUID || key instanceof String || key instanceof Long
+                || key instanceof Integer || SimpleKey.EMPTY.equals(key);
+    }
+
+    public static void writeKey(DataOutput out, Object key) throws IOException {
+        if (key == null) {
+            out.writeByte(NO_KEY);
+        } else if (key instanceof UUID uuid) {
+            out.writeByte(UUID_KEY);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else if (key instanceof String string) {
+            out.writeByte(STRING_KEY);
+            out.writeUTF(string);
+        } else if (key instanceof Long number) {
+            out.writeByte(LONG_KEY);
+            out.writeLong(number);
+        } else if (key instanceof Integer number) {
+            out.writeByte(INTEGER_KEY);
+            out.writeInt(number);
+        } else if (SimpleKey.EMPTY.equals(key)) {
+            out.writeByte(EMPTY_SIMPLE_KEY);
+        } else {
+            throw new IllegalArgumentException("Cache key type " + key.getClass().getName() + " has no wire encoding");
+        }
+    }
+
+    public static Object readKey(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NO_KEY -> null;
+            case UUID_KEY -> new UUID(in.readLong(), in.readLong());
+            case STRING_KEY -> in.readUTF();
+            case LONG_KEY -> in.readLong();
+            case INTEGER_KEY -> in.readInt();
+            case EMPTY_SIMPLE_KEY -> SimpleKey.EMPTY;
+            default -> throw new IOException("Unknown key tag " + tag);
+        };
+    }
+
+    // Returns null when the value has no encoding
+    @SuppressWarnings("unchecked")
+    public byte[] encodeValue(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            if (value == null) {
+                out.writeByte(NULL_VALUE);
+            } else if (value instanceof UUID uuid) {
+                out.writeByte(UUID_VALUE);
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            } else if (value instanceof String string) {
+                out.writeByte(STRING_VALUE);
+                writeString(out, string);
+            } else if (value instanceof Record record) {
+                RecordCodec<Record> codec = (RecordCodec<Record>) codecFor(record.getClass());
+                if (codec == null) {
+                    return null;
+                }
+                out.writeByte(RECORD_VALUE);
+                writeType(out, codec);
+                codec.write(out, record);
+            } else if (value instanceof List<?> list) {
+                Class<?> elementType = list.isEmpty() || list.get(0) == null ? null : list.get(0).getClass();
+                RecordCodec<Record> codec = elementType != null ? (RecordCodec<Record>) codecFor(elementType) : null;
+                if (!list.isEmpty() && (codec == null || list.stream().anyMatch(element -> element == null || element.getClass() != elementType))) {
+                    return null;
+                }
+                out.writeByte(LIST_VALUE);
+                out.writeInt(list.size());
+                if (codec != null) {
+                    writeType(out, codec);
+                    for (Object element : list) {
+                        codec.write(out, (Record) element);
+                    }
+                }
+            } else {
+                return null;
+            }
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot encode " + value.getClass().getSimpleName(), ex);
+        }
+    }
+
+    public Object decodeValue(byte[] bytes) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte tag = in.get();
+        switch (tag) {
+            case NULL_VALUE:
+                return null;
+            case UUID_VALUE:
+                return new UUID(in.getLong(), in.getLong());
+            case STRING_VALUE:
+                return readString(in);
+            case RECORD_VALUE:
+                return readType(in).read(in);
+            case LIST_VALUE:
+                Object[] elements = new Object[in.getInt()];
+                if (elements.length > 0) {
+                    RecordCodec<?> codec = readType(in);
+                    for (int i = 0; i < elements.length; i++) {
+                        elements[i] = codec.read(in);
+                    }
+                }
+                return List.of(elements);
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    private static void writeType(DataOutput out, RecordCodec<?> codec) throws IOException {
+        writeString(out, codec.type().getName());
+        out.writeLong(codec.fingerprint());
+    }
+
+    // Length-prefixed UTF-8, as RecordCodec writes strings
+    private static void writeString(DataOutput out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private RecordCodec<?> readType(ByteBuffer in) throws IOException {
+        String typeName = readString(in);
+        long fingerprint = in.getLong();
+        RecordCodec<?> codec = null;
+        if (typeName.startsWith(RECORD_PACKAGE)) {
+            try {
+                codec = codecFor(Class.forName(typeName, false, CacheWireCodec.class.getClassLoader()));
+            } catch (ClassNotFoundException ex) {
+                throw new IOException("Unknown record type " + typeName, ex);
+            }
+        }
+        if (codec == null || codec.fingerprint() != fingerprint) {
+            throw new IOException("Record type " + typeName + " has a different shape on this node");
+        }
+        return codec;
+    }
+
+    // Null for anything but a record of this application whose components all have an encoding
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private RecordCodec<?> codecFor(Class<?> type) {
+        if (!type.isRecord() || !type.getName().startsWith(RECORD_PACKAGE)) {
+            return null;
+        }
+        RecordCodec<?> codec = codecs.get(type.getName());
+        if (codec == null) {
+            try {
+                codec = RecordCodec.of((Class) type);
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+            codecs.putIfAbsent(type.getName(), codec);
+        }
+        return codec;
+    }
+}
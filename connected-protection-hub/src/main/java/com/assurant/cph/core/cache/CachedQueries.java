@@ -0,0 +1,26 @@
+package com.assurant.cph.core.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the results of the query methods of a repository in the {@code queryResults} region, keyed by
+ * method and arguments. An entry stays valid while no table it read has been written since, so no
+ * eviction has to be declared anywhere. The tables read are those of the repository's entity and of
+ * every entity reachable from it through to-one associations, which covers the joins a query can
+ * express through property paths. Entities returned are kept as ids and loaded afresh for each caller.
+ *
+ * <p>Calls inside a read-write transaction, calls with arguments other than plain values, and methods
+ * returning streams always reach the database.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedQueries {
+
+    // Entities read by some query but not reachable through to-one associations, e.g. in a subquery
+    Class<?>[] alsoReads() default {};
+}
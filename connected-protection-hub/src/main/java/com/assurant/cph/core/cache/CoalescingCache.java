@@ -0,0 +1,316 @@
+package com.assurant.cph.core.cache;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs at most one loader per key for {@code @Cacheable(sync = true)} methods; concurrent callers for the
+ * same key wait for that load instead of each querying the database. With serve-stale enabled, callers
+ * that arrive while a key is being reloaded after an eviction get the evicted value instead of waiting.
+ * A {@link RefreshPolicy} adds refresh-ahead and stale-while-revalidate: ageing entries are reloaded in
+ * the background with the caller's own loader, and stale ones keep being served while that runs or fails.
+ * Every lookup, load and explicit eviction is counted in the region's {@link CacheRegionMetrics}.
+ */
+@Slf4j
+public class CoalescingCache implements Cache {
+
+    private final Cache delegate;
+    private final boolean serveStaleWhileReloading;
+    private final CacheRegionMetrics metrics;
+    private final RefreshPolicy refreshPolicy;
+
+    // Age of an entry since it was last written; null unless the refresh policy needs it
+    private final Policy.FixedExpiration<Object, Object> writeAge;
+
+    private final ConcurrentMap<Object, Flight> inFlight = new ConcurrentHashMap<>();
+
+    // Last evicted value per key, kept only until the load that replaces it completes
+    private final ConcurrentMap<Object, ValueWrapper> previous = new ConcurrentHashMap<>();
+
+    // System.nanoTime() of the first lookup answered from the cache, 0 until then
+    private volatile long firstHitNanos;
+
+    // After a failed background reload the region waits this long before trying again, sparing a struggling database
+    private static final long REFRESH_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private volatile long refreshBackoffUntilNanos;
+
+    public CoalescingCache(Cache delegate, boolean serveStaleWhileReloading, CacheRegionMetrics metrics) {
+        this(delegate, serveStaleWhileReloading, metrics, RefreshPolicy.NONE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public CoalescingCache(Cache delegate, boolean serveStaleWhileReloading, CacheRegionMetrics metrics,
+                           RefreshPolicy refreshPolicy) {
+        this.delegate = delegate;
+        this.serveStaleWhileReloading = serveStaleWhileReloading;
+        this.metrics = metrics;
+        this.refreshPolicy = refreshPolicy;
+        if (refreshPolicy.enabled()) {
+            if (!(delegate.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+                throw new IllegalStateException("Cache region '" + getName() + "' needs a Caffeine cache to refresh entries");
+            }
+            this.writeAge = ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).policy()
+                    .expireAfterWrite()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Cache region '" + getName() + "' needs expire-after-write to refresh entries"));
+        } else {
+            this.writeAge = null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    public long getFirstHitNanos() {
+        return firstHitNanos;
+    }
+
+    public CacheRegionMetrics getMetrics() {
+        return metrics;
+    }
+
+    Cache delegate() {
+        return delegate;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null && isStale(key)) {
+            return cached;
+        }
+        return recordLookup(key, cached);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        // Going through the wrapper tells a cached null apart from a miss
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            if (!isStale(key)) {
+                recordLookup(key, cached);
+            }
+            refreshIfAgeing(key, valueLoader);
+            return (T) cached.get();
+        }
+        recordLookup(key, null);
+
+        Flight flight = new Flight();
+        Flight leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            ValueWrapper stale = serveStaleWhileReloading ? previous.get(key) : null;
+            if (stale != null) {
+                log.debug("Serving previous value of {}[{}] while it reloads", getName(), key);
+                metrics.recordStaleHit(key);
+                StaleReads.record(0);
+                return (T) stale.get();
+            }
+            Object result = leader.await(key, valueLoader);
+            // The background reload this caller joined never ran, so it loads like any other miss
+            return result == Flight.ABANDONED ? get(key, valueLoader) : (T) result;
+        }
+
+        try {
+            // Another leader may have stored the value between our miss and claiming the flight
+            cached = delegate.get(key);
+            T value = cached != null ? (T) cached.get() : load(key, valueLoader, flight);
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            // Waiters must never be left parked on a flight whose leader failed
+            flight.result.completeExceptionally(ex instanceof ValueRetrievalException ? ex.getCause() : ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private <T> T load(Object key, Callable<T> valueLoader, Flight flight) {
+        T value;
+        long started = System.nanoTime();
+        try {
+            value = valueLoader.call();
+        } catch (Throwable ex) {
+            metrics.recordLoad(System.nanoTime() - started, false);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        metrics.recordLoad(System.nanoTime() - started, true);
+        // A write evicted the key mid-load, so the value may predate it: hand it to the waiting callers only
+        if (!flight.invalidated) {
+            delegate.put(key, value);
+            previous.remove(key);
+        }
+        return value;
+    }
+
+    /**
+     * Counts and flags a read of an entry past its freshness. The caller still returns the value; only
+     * the region's expiry, set past the freshness by the staleness bound, ever drops it.
+     */
+    private boolean isStale(Object key) {
+        if (refreshPolicy.staleAfter() == null) {
+            return false;
+        }
+        long age = ageNanos(key);
+        if (age < refreshPolicy.staleAfter().toNanos()) {
+            return false;
+        }
+        metrics.recordStaleHit(key);
+        StaleReads.record(age);
+        return true;
+    }
+
+    private void refreshIfAgeing(Object key, Callable<?> valueLoader) {
+        if (!refreshPolicy.enabled() || ageNanos(key) < refreshPolicy.reloadAfterNanos()
+                || System.nanoTime() - refreshBackoffUntilNanos < 0) {
+            return;
+        }
+        Flight flight = new Flight();
+        if (inFlight.putIfAbsent(key, flight) != null) {
+            return;
+        }
+        try {
+            refreshPolicy.executor().execute(() -> refresh(key, valueLoader, flight));
+        } catch (RejectedExecutionException ex) {
+            // The refresh pool is saturated; the entry stays cached and a later read tries again
+            inFlight.remove(key, flight);
+            flight.result.complete(Flight.ABANDONED);
+        }
+    }
+
+    private void refresh(Object key, Callable<?> valueLoader, Flight flight) {
+        try {
+            flight.result.complete(load(key, valueLoader, flight));
+            metrics.recordRefresh(true);
+        } catch (ValueRetrievalException ex) {
+            // The old value stays in place and keeps being served until the region's expiry drops it
+            flight.result.completeExceptionally(ex.getCause());
+            metrics.recordRefresh(false);
+            refreshBackoffUntilNanos = System.nanoTime() + REFRESH_BACKOFF_NANOS;
+            log.warn("Background reload of {}[{}] failed, still serving the cached value: {}", getName(), key,
+                    ex.getCause().toString());
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // Zero when the entry is gone or its age is unknown, so a missing age never looks stale
+    private long ageNanos(Object key) {
+        return writeAge.ageOf(key, TimeUnit.NANOSECONDS).orElse(0);
+    }
+
+    // A load already under way read the database before this value existed, so it must not store over it
+    @Override
+    public void put(Object key, Object value) {
+        invalidateFlight(key);
+        delegate.put(key, value);
+        previous.remove(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            invalidateFlight(key);
+            previous.remove(key);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        invalidateFlight(key);
+        if (serveStaleWhileReloading) {
+            ValueWrapper current = delegate.get(key);
+            if (current != null) {
+                previous.put(key, new SimpleValueWrapper(current.get()));
+            }
+        }
+        boolean evicted = delegate.evictIfPresent(key);
+        if (evicted) {
+            metrics.recordEviction(RemovalCause.EXPLICIT);
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        invalidate();
+    }
+
+    @Override
+    public boolean invalidate() {
+        inFlight.values().forEach(flight -> flight.invalidated = true);
+        previous.clear();
+        return delegate.invalidate();
+    }
+
+    private ValueWrapper recordLookup(Object key, ValueWrapper found) {
+        if (found == null) {
+            metrics.recordMiss(key);
+            return null;
+        }
+        metrics.recordHit(key);
+        if (firstHitNanos == 0) {
+            firstHitNanos = System.nanoTime();
+        }
+        return found;
+    }
+
+    private void invalidateFlight(Object key) {
+        Flight flight = inFlight.get(key);
+        if (flight != null) {
+            flight.invalidated = true;
+        }
+    }
+
+    private static class Flight {
+        private static final Object ABANDONED = new Object();
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile boolean invalidated;
+
+        Object await(Object key, Callable<?> valueLoader) {
+            try {
+                return result.join();
+            } catch (CompletionException ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.assurant.cph.core.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate top-N of the most accessed keys: a count-min sketch estimates every key's frequency and a
+ * small candidate set keeps the keys with the highest estimates. Counts are halved periodically, so the
+ * report follows the current workload rather than everything since startup.
+ */
+final class HotKeySketch {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1 << 12;
+    private static final long AGING_INTERVAL = WIDTH * 10L;
+
+    private final AtomicLongArray counters = new AtomicLongArray(DEPTH * WIDTH);
+    private final AtomicLong additions = new AtomicLong();
+    private final Map<Object, Long> candidates = new ConcurrentHashMap<>();
+    private final int topN;
+    private final int capacity;
+
+    // Lowest estimate in a full candidate set; keys below it cannot enter, so most accesses skip the scan
+    private volatile long floor;
+
+    HotKeySketch(int topN) {
+        this.topN = topN;
+        this.capacity = topN * 2;
+    }
+
+    void record(Object key) {
+        if (topN <= 0 || key == null) {
+            return;
+        }
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(row * WIDTH + slot(hash, row)));
+        }
+
+        if (candidates.containsKey(key) || candidates.size() < capacity) {
+            candidates.put(key, estimate);
+        } else if (estimate > floor) {
+            admit(key, estimate);
+        }
+
+        if (additions.incrementAndGet() % AGING_INTERVAL == 0) {
+            age();
+        }
+    }
+
+    List<CacheRegionStats.HotKey> top() {
+        return candidates.entrySet().stream()
+                .sorted(Map.Entry.<Object, Long>comparingByValue().reversed())
+                .limit(topN)
+                .map(entry -> new CacheRegionStats.HotKey(String.valueOf(entry.getKey()), entry.getValue()))
+                .toList();
+    }
+
+    private synchronized void admit(Object key, long estimate) {
+        Map.Entry<Object, Long> coldest = candidates.entrySet().stream()
+                .min(Comparator.comparingLong(Map.Entry::getValue))
+                .orElse(null);
+        if (coldest != null && estimate > coldest.getValue()) {
+            candidates.remove(coldest.getKey());
+            candidates.put(key, estimate);
+        }
+        floor = candidates.values().stream().mapToLong(Long::longValue).min().orElse(0);
+    }
+
+    private synchronized void age() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+        candidates.replaceAll((key, count) -> count >>> 1);
+        floor >>>= 1;
+    }
+
+    private static int slot(int hash, int row) {
+        int mixed = (hash + row) * 0x9E3779B9;
+        mixed ^= mixed >>> 16;
+        mixed *= 0x85EBCA6B;
+        mixed ^= mixed >>> 13;
+        return mixed & (WIDTH - 1);
+    }
+}
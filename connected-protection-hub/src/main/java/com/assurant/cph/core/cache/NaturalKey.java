@@ -0,0 +1,31 @@
+package com.assurant.cph.core.cache;
+
+/**
+ * Unique business keys resolved through {@link NaturalKeyIndex}. Each key has its own region mapping the
+ * key to the entity id, and names the by-id region holding the entity itself.
+ */
+public enum NaturalKey {
+
+    CUSTOMER_EMAIL("customerEmails", "customer"),
+    CUSTOMER_DOCUMENT_NUMBER("customerDocumentNumbers", "customer"),
+    ASSET_SERIAL_NUMBER("assetSerialNumbers", "asset"),
+    VEHICLE_LICENSE_PLATE("vehicleLicensePlates", "asset"),
+    PAYMENT_REFERENCE("paymentReferences", "payment"),
+    CLAIM_NUMBER("claimNumbers", "claim");
+
+    private final String region;
+    private final String entityRegion;
+
+    NaturalKey(String region, String entityRegion) {
+        this.region = region;
+        this.entityRegion = entityRegion;
+    }
+
+    public String region() {
+        return region;
+    }
+
+    public String entityRegion() {
+        return entityRegion;
+    }
+}
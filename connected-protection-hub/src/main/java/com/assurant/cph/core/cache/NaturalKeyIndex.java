@@ -0,0 +1,247 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.config.CacheProperties;
+import com.assurant.cph.core.cache.cluster.ClusterInvalidationBus;
+import com.assurant.cph.core.cache.cluster.Invalidation;
+import com.assurant.cph.core.repository.ClaimRepository;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.VehicleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Resolves unique business keys (email, serial number, payment reference, ...) to entity ids. Both found
+ * and missing keys are cached, so repeated uniqueness checks and natural-key lookups skip the database.
+ * Keys with a Bloom filter answer "definitely absent" for never-seen values without a cache entry at all,
+ * which is what makes bulk onboarding of new customers and assets cheap.
+ *
+ * <p>Writes keep the index coherent: the Bloom filter learns a key as soon as it is saved, while the cached
+ * id entries change after commit. The unique constraints in the database remain the final guard. Peers
+ * hear about every changed key through the cluster bus, evict their entry and teach it to their filter.
+ */
+@Slf4j
+@Component
+public class NaturalKeyIndex {
+
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    private final CacheManager cacheManager;
+    private final ClusterInvalidationBus clusterBus;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<NaturalKey, Source> sources = new EnumMap<>(NaturalKey.class);
+    private final Map<NaturalKey, Filter> filters = new EnumMap<>(NaturalKey.class);
+    private final Map<NaturalKey, Counters> counters = new EnumMap<>(NaturalKey.class);
+
+    public NaturalKeyIndex(CacheManager cacheManager,
+                           CacheProperties cacheProperties,
+                           ClusterInvalidationBus clusterBus,
+                           PlatformTransactionManager transactionManager,
+                           CustomerRepository customerRepository,
+                           ProtectedAssetRepository protectedAssetRepository,
+                           VehicleRepository vehicleRepository,
+                           PaymentRecordRepository paymentRecordRepository,
+                           ClaimRepository claimRepository) {
+        this.cacheManager = cacheManager;
+        this.clusterBus = clusterBus;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        sources.put(NaturalKey.CUSTOMER_EMAIL,
+                new Source(customerRepository::findIdByEmail, customerRepository::streamAllEmails));
+        sources.put(NaturalKey.CUSTOMER_DOCUMENT_NUMBER,
+                new Source(customerRepository::findIdByDocumentNumber, customerRepository::streamAllDocumentNumbers));
+        sources.put(NaturalKey.ASSET_SERIAL_NUMBER,
+                new Source(protectedAssetRepository::findIdBySerialNumber, protectedAssetRepository::streamAllSerialNumbers));
+        sources.put(NaturalKey.VEHICLE_LICENSE_PLATE,
+                new Source(vehicleRepository::findIdByLicensePlate, vehicleRepository::streamAllLicensePlates));
+        sources.put(NaturalKey.PAYMENT_REFERENCE,
+                new Source(paymentRecordRepository::findIdByPaymentReference, paymentRecordRepository::streamAllPaymentReferences));
+        sources.put(NaturalKey.CLAIM_NUMBER,
+                new Source(claimRepository::findIdByClaimNumber, claimRepository::streamAllClaimNumbers));
+
+        for (NaturalKey naturalKey : NaturalKey.values()) {
+            counters.put(naturalKey, new Counters());
+            CacheProperties.RegionSpec spec = cacheProperties.specFor(naturalKey.region());
+            if (spec.getBloomFilterExpectedInsertions() != null) {
+                double falsePositiveRate = spec.getBloomFilterFalsePositiveRate() != null
+                        ? spec.getBloomFilterFalsePositiveRate() : DEFAULT_FALSE_POSITIVE_RATE;
+                filters.put(naturalKey, new Filter(new BloomFilter(spec.getBloomFilterExpectedInsertions(), falsePositiveRate)));
+            }
+        }
+
+        clusterBus.subscribe(Invalidation.Kind.NATURAL_KEY, this::peerChanged);
+        // Lost messages may have hidden keys from the filters, so they learn every key again
+        clusterBus.subscribe(Invalidation.Kind.ALL, invalidation -> seedBloomFilters());
+    }
+
+    public Optional<UUID> findId(NaturalKey naturalKey, String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        Counters stats = counters.get(naturalKey);
+        stats.lookups.increment();
+
+        Filter filter = filters.get(naturalKey);
+        if (filter != null && filter.ready && !filter.bloom.mightContain(value)) {
+            stats.bloomRejections.increment();
+            return Optional.empty();
+        }
+
+        // Missing keys are cached as null, so the negative answer is reused until an insert claims the key
+        UUID id = region(naturalKey).get(value, () -> {
+            stats.databaseLookups.increment();
+            return sources.get(naturalKey).idLoader().apply(value).orElse(null);
+        });
+        return Optional.ofNullable(id);
+    }
+
+    public boolean exists(NaturalKey naturalKey, String value) {
+        return findId(naturalKey, value).isPresent();
+    }
+
+    /**
+     * Resolves the key and reads the entity through its by-id region, so a natural-key lookup and a
+     * by-id lookup of the same entity share one cache entry and one eviction path.
+     */
+    public <V> Optional<V> find(NaturalKey naturalKey, String value, Function<UUID, Optional<V>> loader) {
+        Cache entities = cacheManager.getCache(naturalKey.entityRegion());
+        return findId(naturalKey, value)
+                .map(id -> entities.get(id, () -> loader.apply(id).orElse(null)));
+    }
+
+    public void registered(NaturalKey naturalKey, String value, UUID id) {
+        if (value == null) {
+            return;
+        }
+        learn(naturalKey, value);
+        AfterCommit.run(() -> {
+            region(naturalKey).put(value, id);
+            publish(naturalKey, value);
+        });
+    }
+
+    public void changed(NaturalKey naturalKey, String previousValue, String value, UUID id) {
+        if (Objects.equals(previousValue, value)) {
+            return;
+        }
+        if (value != null) {
+            learn(naturalKey, value);
+        }
+        AfterCommit.run(() -> {
+            Cache region = region(naturalKey);
+            if (previousValue != null) {
+                region.put(previousValue, null);
+                publish(naturalKey, previousValue);
+            }
+            if (value != null) {
+                region.put(value, id);
+                publish(naturalKey, value);
+            }
+        });
+    }
+
+    public void removed(NaturalKey naturalKey, String value) {
+        if (value == null) {
+            return;
+        }
+        // The Bloom filter keeps the key; that only costs a cache lookup for it later
+        AfterCommit.run(() -> {
+            region(naturalKey).put(value, null);
+            publish(naturalKey, value);
+        });
+    }
+
+    // Until a filter has seen every existing key it cannot prove absence, so lookups bypass it meanwhile
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedBloomFilters() {
+        filters.forEach((naturalKey, filter) -> {
+            long started = System.nanoTime();
+            Long seeded = readOnlyTransaction.execute(status -> {
+                try (Stream<String> keys = sources.get(naturalKey).allKeys().get()) {
+                    return keys.filter(Objects::nonNull).peek(filter.bloom::put).count();
+                }
+            });
+            filter.ready = true;
+            log.info("Seeded {} Bloom filter with {} keys ({} bits) in {} ms", naturalKey, seeded,
+                    filter.bloom.bitCount(), (System.nanoTime() - started) / 1_000_000);
+        });
+    }
+
+    public Map<String, NaturalKeyStats> getStats() {
+        Map<String, NaturalKeyStats> stats = new LinkedHashMap<>();
+        counters.forEach((naturalKey, counter) -> {
+            Filter filter = filters.get(naturalKey);
+            stats.put(naturalKey.region(), new NaturalKeyStats(
+                    counter.lookups.sum(),
+                    counter.bloomRejections.sum(),
+                    counter.databaseLookups.sum(),
+                    filter != null && filter.ready));
+        });
+        return stats;
+    }
+
+    private void publish(NaturalKey naturalKey, String value) {
+        clusterBus.publish(Invalidation.naturalKey(naturalKey.region(), value));
+    }
+
+    // Peers only say the key changed; the entry is dropped and reloaded here on the next lookup
+    private void peerChanged(Invalidation invalidation) {
+        for (NaturalKey naturalKey : NaturalKey.values()) {
+            if (naturalKey.region().equals(invalidation.region()) && invalidation.key() instanceof String value) {
+                learn(naturalKey, value);
+                region(naturalKey).evictIfPresent(value);
+            }
+        }
+    }
+
+    private void learn(NaturalKey naturalKey, String value) {
+        Filter filter = filters.get(naturalKey);
+        if (filter != null) {
+            filter.bloom.put(value);
+        }
+    }
+
+    private Cache region(NaturalKey naturalKey) {
+        return cacheManager.getCache(naturalKey.region());
+    }
+
+    public record NaturalKeyStats(long lookups, long bloomRejections, long databaseLookups, boolean bloomFilterReady) {
+    }
+
+    private record Source(Function<String, Optional<UUID>> idLoader, Supplier<Stream<String>> allKeys) {
+    }
+
+    private static class Filter {
+        private final BloomFilter bloom;
+        private volatile boolean ready;
+
+        Filter(BloomFilter bloom) {
+            this.bloom = bloom;
+        }
+    }
+
+    private static class Counters {
+        private final LongAdder lookups = new LongAdder();
+        private final LongAdder bloomRejections = new LongAdder();
+        private final LongAdder databaseLookups = new LongAdder();
+    }
+}
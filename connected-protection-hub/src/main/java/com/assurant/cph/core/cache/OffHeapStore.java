@@ -0,0 +1,148 @@
+package com.assurant.cph.core.cache;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Serialized entries in direct memory, outside the garbage-collected heap. Entries are appended to a ring
+ * of fixed-size segments, allocated on first use; when the ring is full the oldest segment is recycled
+ * and every entry in it is dropped (FIFO by segment). Only the key index lives on the heap. Reads never lock: a read that races with
+ * the recycling of its segment notices the generation change and reports a miss.
+ */
+final class OffHeapStore {
+
+    private static final int SEGMENTS = 16;
+
+    // Written under the lock, read by lock-free readers only through locations published in the index
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int segmentBytes;
+    private final long expireAfterWriteNanos;
+    private final ConcurrentMap<Object, Location> index = new ConcurrentHashMap<>();
+
+    // Segment receiving appends, guarded by this
+    private int active;
+
+    // An expireAfterWriteNanos of 0 keeps entries until their segment is recycled
+    OffHeapStore(long capacityBytes, long expireAfterWriteNanos) {
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.segmentBytes = (int) Math.min(capacityBytes / SEGMENTS, Integer.MAX_VALUE - 8);
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("Off-heap capacity of " + capacityBytes + " bytes is too small");
+        }
+        segments[0] = new Segment(ByteBuffer.allocateDirect(segmentBytes));
+    }
+
+    Entry read(Object key) {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        if (expireAfterWriteNanos > 0 && System.nanoTime() - location.writtenAt() > expireAfterWriteNanos) {
+            index.remove(key, location);
+            return null;
+        }
+        Segment segment = segments[location.segment()];
+        byte[] bytes = new byte[location.length()];
+        segment.buffer.get(location.offset(), bytes);
+        // The copy must complete before the generation check, or a recycled segment could go unnoticed
+        VarHandle.acquireFence();
+        if (segment.generation != location.generation()) {
+            index.remove(key, location);
+            return null;
+        }
+        return new Entry(location, bytes);
+    }
+
+    boolean isCurrent(Object key, Entry entry) {
+        return index.get(key) == entry.location();
+    }
+
+    // Returns false when the entry cannot fit in a segment; any older copy is dropped either way
+    synchronized boolean write(Object key, byte[] bytes) {
+        if (bytes.length > segmentBytes) {
+            index.remove(key);
+            return false;
+        }
+        Segment segment = segments[active];
+        if (segment.used + bytes.length > segmentBytes) {
+            active = (active + 1) % SEGMENTS;
+            if (segments[active] == null) {
+                segments[active] = new Segment(ByteBuffer.allocateDirect(segmentBytes));
+            }
+            segment = segments[active];
+            recycle(active, segment);
+        }
+        int offset = segment.used;
+        segment.buffer.put(offset, bytes);
+        segment.used += bytes.length;
+        segment.keys.add(key);
+        index.put(key, new Location(active, segment.generation, offset, bytes.length, System.nanoTime()));
+        return true;
+    }
+
+    // The bytes stay in their segment until it is recycled
+    boolean remove(Object key) {
+        return index.remove(key) != null;
+    }
+
+    synchronized void clear() {
+        index.clear();
+        for (int i = 0; i < SEGMENTS; i++) {
+            if (segments[i] != null) {
+                recycle(i, segments[i]);
+            }
+        }
+        active = 0;
+    }
+
+    long entries() {
+        return index.size();
+    }
+
+    synchronized long usedBytes() {
+        long used = 0;
+        for (Segment segment : segments) {
+            if (segment != null) {
+                used += segment.used;
+            }
+        }
+        return used;
+    }
+
+    long capacityBytes() {
+        return (long) segmentBytes * SEGMENTS;
+    }
+
+    private void recycle(int number, Segment segment) {
+        // Bumped before any byte is overwritten, so readers of the old contents fail their check
+        int generation = segment.generation;
+        segment.generation = generation + 1;
+        for (Object key : segment.keys) {
+            index.computeIfPresent(key, (k, location) ->
+                    location.segment() == number && location.generation() == generation ? null : location);
+        }
+        segment.keys.clear();
+        segment.used = 0;
+    }
+
+    record Entry(Location location, byte[] bytes) {
+    }
+
+    private record Location(int segment, int generation, int offset, int length, long writtenAt) {
+    }
+
+    private static class Segment {
+        private final ByteBuffer buffer;
+        private final List<Object> keys = new ArrayList<>();
+        private volatile int generation;
+        private int used;
+
+        Segment(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.core.cache.cluster.ClusterInvalidationBus;
+import com.assurant.cph.core.cache.cluster.Invalidation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.metamodel.mapping.EntityValuedModelPart;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drops the cached inverse collection of the owner whenever a child is inserted, deleted or moved to another
+ * owner, e.g. {@code Customer.protectedAssets} when an asset is registered directly through its repository.
+ *
+ * <p>Hibernate's own {@code auto_evict_collection_cache} skips children mapped as subclasses (every
+ * concrete asset type) and owners that are still uninitialized proxies, which is how services usually
+ * reference them; this evictor handles both. Committed evictions are repeated on the other nodes.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OwnedCollectionEvictor implements Integrator,
+        PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final ClusterInvalidationBus clusterBus;
+
+    // Entity name -> cached collections holding it, resolved on first use because persisters are not ready yet
+    private final Map<String, List<OwnedCollection>> collectionsByEntity = new ConcurrentHashMap<>();
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        for (OwnedCollection collection : collectionsOf(event.getPersister())) {
+            evict(event.getSession(), collection, event.getPersister().getValue(event.getEntity(), collection.ownerProperty()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object[] oldState = event.getOldState();
+        for (OwnedCollection collection : collectionsOf(event.getPersister())) {
+            Object owner = event.getState()[collection.ownerProperty()];
+            Object previousOwner = oldState != null ? oldState[collection.ownerProperty()] : null;
+            // Without the old state the owner may have changed unseen, so both sides are dropped
+            if (oldState == null || !Objects.equals(ownerId(event.getSession(), owner), ownerId(event.getSession(), previousOwner))) {
+                evict(event.getSession(), collection, owner);
+                evict(event.getSession(), collection, previousOwner);
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object[] deletedState = event.getDeletedState();
+        for (OwnedCollection collection : collectionsOf(event.getPersister())) {
+            Object owner = deletedState != null
+                    ? deletedState[collection.ownerProperty()]
+                    : event.getPersister().getValue(event.getEntity(), collection.ownerProperty());
+            evict(event.getSession(), collection, owner);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private List<OwnedCollection> collectionsOf(EntityPersister persister) {
+        return collectionsByEntity.computeIfAbsent(persister.getEntityName(), entityName -> {
+            List<OwnedCollection> collections = new ArrayList<>();
+            persister.getFactory().getMappingMetamodel().forEachCollectionDescriptor(collection -> {
+                String mappedBy = collection.getMappedByProperty();
+                if (collection.hasCache() && !collection.isManyToMany() && mappedBy != null && !mappedBy.isEmpty()
+                        && collection.getAttributeMapping().getElementDescriptor() instanceof EntityValuedModelPart element
+                        && holds(persister, element.getEntityMappingType().getEntityName())) {
+                    collections.add(new OwnedCollection(collection, persister.getEntityMetamodel().getPropertyIndex(mappedBy)));
+                }
+            });
+            return List.copyOf(collections);
+        });
+    }
+
+    private static boolean holds(EntityPersister persister, String elementEntityName) {
+        return persister.getEntityName().equals(elementEntityName)
+                || persister.getFactory().getMappingMetamodel().getEntityDescriptor(elementEntityName)
+                        .isSubclassEntityName(persister.getEntityName());
+    }
+
+    // Evicted after completion, so a reader racing the transaction cannot leave the old collection behind
+    private void evict(EventSource session, OwnedCollection collection, Object owner) {
+        Object ownerId = ownerId(session, owner);
+        if (ownerId == null) {
+            return;
+        }
+        String role = collection.persister().getRole();
+        session.getActionQueue().registerProcess((success, completedSession) -> {
+            completedSession.getFactory().getCache().evictCollectionData(role, ownerId);
+            log.trace("Evicted cached collection {}#{}", role, ownerId);
+            if (success) {
+                clusterBus.publish(Invalidation.collection(role, ownerId));
+            }
+        });
+    }
+
+    private static Object ownerId(EventSource session, Object owner) {
+        if (owner == null) {
+            return null;
+        }
+        return session.getFactory().getPersistenceUnitUtil().getIdentifier(owner);
+    }
+
+    private record OwnedCollection(CollectionPersister persister, int ownerProperty) {
+    }
+}
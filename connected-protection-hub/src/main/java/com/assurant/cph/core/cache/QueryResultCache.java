@@ -0,0 +1,276 @@
+package com.assurant.cph.core.cache;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.EntityMappingType;
+import org.hibernate.metamodel.mapping.internal.ToOneAttributeMapping;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.util.Streamable;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.BaseStream;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the query methods of {@link CachedQueries} repositories from the {@code queryResults} region.
+ * Each entry carries the versions of the tables its query read, taken just before it ran; a read that
+ * finds any of them advanced discards the entry and queries again. Bulk {@link Modifying} statements on
+ * any repository advance the versions of their entity's tables once they commit.
+ *
+ * <p>Entities in a result are cached as their ids and loaded again on every hit, from the entity regions
+ * where they have one, into the caller's persistence context when it has one. Callers never share an
+ * instance, nor a lazy proxy bound to a session that has since closed.
+ */
+@Slf4j
+@Component
+public class QueryResultCache {
+
+    static final String REGION = "queryResults";
+
+    private static final Object GONE = new Object();
+    private static final Object UNCACHEABLE = new Object();
+
+    private final CacheManager cacheManager;
+    private final TableVersions tableVersions;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Map<Method, QueryPlan> plans = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleEntries = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    public QueryResultCache(CacheManager cacheManager, TableVersions tableVersions, EntityManagerFactory entityManagerFactory) {
+        this.cacheManager = cacheManager;
+        this.tableVersions = tableVersions;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public Object invoke(MethodInvocation invocation, RepositoryInformation repository) throws Throwable {
+        QueryPlan plan = plans.computeIfAbsent(invocation.getMethod(), method -> plan(method, repository));
+        if (plan.writes() != null) {
+            Object result = invocation.proceed();
+            AfterCommit.run(() -> tableVersions.advance(plan.writes()));
+            return result;
+        }
+        if (plan.reads() == null) {
+            return invocation.proceed();
+        }
+        // A read-write transaction must see its own uncommitted writes, and may modify what it reads
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !Arrays.stream(invocation.getArguments()).allMatch(QueryResultCache::plainValue)) {
+            bypassed.increment();
+            return invocation.proceed();
+        }
+
+        Cache cache = cacheManager.getCache(REGION);
+        QueryKey key = new QueryKey(invocation.getMethod(), Arrays.asList(invocation.getArguments()));
+        VersionedResult cached = cache.get(key, VersionedResult.class);
+        if (cached != null) {
+            Object result = tableVersions.current(plan.reads(), cached.versions()) ? rehydrate(cached.result()) : GONE;
+            if (result != GONE) {
+                hits.increment();
+                return result;
+            }
+            staleEntries.increment();
+        }
+
+        // Concurrent misses each query; loads are not coalesced because every caller runs in its own transaction
+        misses.increment();
+        long[] versions = tableVersions.snapshot(plan.reads());
+        Object result = invocation.proceed();
+        Object cacheable = dehydrate(result);
+        if (cacheable != UNCACHEABLE) {
+            cache.put(key, new VersionedResult(versions, cacheable));
+        }
+        return result;
+    }
+
+    public QueryCacheStats getStats() {
+        Map<String, List<String>> tablesRead = plans.entrySet().stream()
+                .filter(entry -> entry.getValue().reads() != null)
+                .collect(Collectors.toMap(entry -> QueryKey.methodName(entry.getKey()),
+                        entry -> List.of(entry.getValue().reads()), (a, b) -> a, TreeMap::new));
+        return new QueryCacheStats(hits.sum(), misses.sum(), staleEntries.sum(), bypassed.sum(),
+                tablesRead, tableVersions.getVersions());
+    }
+
+    private QueryPlan plan(Method method, RepositoryInformation repository) {
+        if (AnnotatedElementUtils.hasAnnotation(method, Modifying.class)) {
+            return new QueryPlan(null, List.of(tablesOf(persister(repository.getDomainType()))));
+        }
+        CachedQueries cachedQueries = AnnotatedElementUtils.findMergedAnnotation(repository.getRepositoryInterface(), CachedQueries.class);
+        if (cachedQueries == null || !repository.isQueryMethod(method)
+                || BaseStream.class.isAssignableFrom(method.getReturnType()) || method.getReturnType() == void.class
+                || method.getName().startsWith("delete") || method.getName().startsWith("remove")
+                || AnnotatedElementUtils.hasAnnotation(method, Lock.class)) {
+            return new QueryPlan(null, null);
+        }
+
+        Set<String> reads = new TreeSet<>();
+        Set<String> visited = new HashSet<>();
+        Deque<EntityMappingType> pending = new ArrayDeque<>();
+        pending.add(persister(repository.getDomainType()));
+        for (Class<?> extra : cachedQueries.alsoReads()) {
+            pending.add(persister(extra));
+        }
+        while (!pending.isEmpty()) {
+            EntityMappingType entity = pending.poll();
+            if (!visited.add(entity.getEntityName())) {
+                continue;
+            }
+            reads.addAll(Arrays.asList(tablesOf(entity.getEntityPersister())));
+            // Subclass attributes may be joined too when the query returns the whole hierarchy
+            pending.addAll(entity.getSubMappingTypes());
+            entity.forEachAttributeMapping(attribute -> {
+                if (attribute instanceof ToOneAttributeMapping toOne) {
+                    pending.add(toOne.getAssociatedEntityMappingType());
+                }
+            });
+        }
+        log.debug("Caching results of {}, reading tables {}", QueryKey.methodName(method), reads);
+        return new QueryPlan(reads.toArray(String[]::new), null);
+    }
+
+    // Lists, optionals and single entities become their ids; results without entities are kept as they are
+    private Object dehydrate(Object result) {
+        List<?> items = result instanceof Optional<?> optional ? optional.stream().toList()
+                : result instanceof Iterable<?> iterable ? Streamable.of(iterable).toList()
+                : Collections.singletonList(result);
+        if (items.stream().noneMatch(item -> entityDescriptor(item) != null)) {
+            return result;
+        }
+        Shape shape = result instanceof Optional<?> ? Shape.OPTIONAL : result instanceof List<?> ? Shape.LIST
+                : result instanceof Iterable<?> ? null : Shape.SINGLE;
+        Class<?> rootType = null;
+        List<Object> ids = new ArrayList<>(items.size());
+        for (Object item : items) {
+            EntityPersister descriptor = entityDescriptor(item);
+            // Rows mixing entities with other values, or entities of several hierarchies, are not cached
+            if (shape == null || descriptor == null
+                    || rootType != null && rootType != descriptor.getRootEntityDescriptor().getEntityPersister().getMappedClass()) {
+                return UNCACHEABLE;
+            }
+            rootType = descriptor.getRootEntityDescriptor().getEntityPersister().getMappedClass();
+            ids.add(entityManagerFactory.getPersistenceUnitUtil().getIdentifier(item));
+        }
+        return new EntityIds(rootType, ids, shape);
+    }
+
+    private Object rehydrate(Object cached) {
+        if (!(cached instanceof EntityIds entityIds)) {
+            return cached;
+        }
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager != null) {
+            return entityIds.load(entityManager);
+        }
+        // No transaction nor open session: detached on return, as the query's own result would have been
+        try (EntityManager ownEntityManager = entityManagerFactory.createEntityManager()) {
+            return entityIds.load(ownEntityManager);
+        }
+    }
+
+    private EntityPersister entityDescriptor(Object item) {
+        if (item == null) {
+            return null;
+        }
+        Class<?> type = item instanceof HibernateProxy proxy ? proxy.getHibernateLazyInitializer().getPersistentClass() : item.getClass();
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel().findEntityDescriptor(type);
+    }
+
+    private EntityPersister persister(Class<?> entityType) {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel().getEntityDescriptor(entityType);
+    }
+
+    // Query spaces: for the root of a hierarchy, the tables of every subclass as well
+    private static String[] tablesOf(EntityPersister persister) {
+        return Arrays.stream(persister.getQuerySpaces()).map(String::valueOf).toArray(String[]::new);
+    }
+
+    // Arguments with value equality; anything else, entities above all, would make a key that never matches
+    private static boolean plainValue(Object argument) {
+        if (argument instanceof Collection<?> collection) {
+            return collection.stream().allMatch(QueryResultCache::plainValue);
+        }
+        return argument == null || argument instanceof CharSequence || argument instanceof Number
+                || argument instanceof Boolean || argument instanceof Enum<?> || argument instanceof UUID
+                || argument instanceof TemporalAccessor || argument instanceof Pageable || argument instanceof Sort;
+    }
+
+    // Either reads to check or writes to record; neither for methods that are passed straight through
+    private record QueryPlan(String[] reads, List<String> writes) {
+    }
+
+    private record QueryKey(Method method, List<Object> arguments) {
+
+        static String methodName(Method method) {
+            return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        }
+
+        @Override
+        public String toString() {
+            return methodName(method) + arguments;
+        }
+    }
+
+    private record VersionedResult(long[] versions, Object result) {
+    }
+
+    private enum Shape { SINGLE, OPTIONAL, LIST }
+
+    private record EntityIds(Class<?> rootType, List<Object> ids, Shape shape) {
+
+        // GONE when an entity no longer exists, which its delete will have made stale anyway
+        Object load(EntityManager entityManager) {
+            List<?> entities = entityManager.unwrap(Session.class).byMultipleIds(rootType).multiLoad(ids);
+            if (entities.contains(null)) {
+                return GONE;
+            }
+            return switch (shape) {
+                case SINGLE -> entities.get(0);
+                case OPTIONAL -> Optional.of(entities.get(0));
+                case LIST -> new ArrayList<>(entities);
+            };
+        }
+    }
+
+    public record QueryCacheStats(long hits, long misses, long staleEntries, long bypassed,
+                                  Map<String, List<String>> tablesReadByMethod, Map<String, Long> tableVersions) {
+    }
+}
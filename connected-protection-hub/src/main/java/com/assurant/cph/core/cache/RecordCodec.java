@@ -0,0 +1,161 @@
+package com.assurant.cph.core.cache;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary encoding for the snapshot records: one presence byte per component followed by its raw
+ * value. The fingerprint covers component names, types and enum constants, so a file written by a build
+ * with a different record shape is detected and skipped rather than misread.
+ */
+final class RecordCodec<R extends Record> {
+
+    private final Class<R> type;
+    private final RecordComponent[] components;
+    private final RecordCodec<?>[] nested;
+    private final Constructor<R> constructor;
+    private final long fingerprint;
+
+    private RecordCodec(Class<R> type) {
+        this.type = type;
+        this.components = type.getRecordComponents();
+        this.nested = new RecordCodec<?>[components.length];
+        StringBuilder signature = new StringBuilder(type.getName());
+
+        for (int i = 0; i < components.length; i++) {
+            Class<?> fieldType = components[i].getType();
+            signature.append('|').append(components[i].getName()).append(':').append(fieldType.getName());
+            if (fieldType.isRecord()) {
+                nested[i] = of(fieldType.asSubclass(Record.class));
+                signature.append('#').append(nested[i].fingerprint);
+            } else if (fieldType.isEnum()) {
+                signature.append(Arrays.toString(fieldType.getEnumConstants()));
+            } else if (!isSupportedValue(fieldType)) {
+                throw new IllegalArgumentException("Cannot encode " + type.getSimpleName() + "." + components[i].getName()
+                        + " of type " + fieldType.getName());
+            }
+        }
+
+        try {
+            Class<?>[] parameterTypes = Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+            this.constructor = type.getDeclaredConstructor(parameterTypes);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalArgumentException("Record " + type.getName() + " has no canonical constructor", ex);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(signature.toString().getBytes(StandardCharsets.UTF_8));
+        this.fingerprint = crc.getValue();
+    }
+
+    static <R extends Record> RecordCodec<R> of(Class<R> type) {
+        return new RecordCodec<>(type);
+    }
+
+    Class<R> type() {
+        return type;
+    }
+
+    long fingerprint() {
+        return fingerprint;
+    }
+
+    void write(DataOutput out, R value) throws IOException {
+        for (int i = 0; i < components.length; i++) {
+            Object field;
+            try {
+                field = components[i].getAccessor().invoke(value);
+            } catch (ReflectiveOperationException ex) {
+                throw new IllegalStateException("Cannot read " + components[i].getName() + " of " + type.getSimpleName(), ex);
+            }
+
+            if (field == null) {
+                out.writeByte(0);
+                continue;
+            }
+            out.writeByte(1);
+            writeValue(out, i, field);
+        }
+    }
+
+    R read(ByteBuffer in) {
+        Object[] fields = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            if (in.get() != 0) {
+                fields[i] = readValue(in, i);
+            }
+        }
+        try {
+            return constructor.newInstance(fields);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot construct " + type.getSimpleName(), ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeValue(DataOutput out, int index, Object value) throws IOException {
+        if (nested[index] != null) {
+            ((RecordCodec<Record>) nested[index]).write(out, (Record) value);
+        } else if (value instanceof String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof UUID uuid) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+        } else if (value instanceof Enum<?> constant) {
+            out.writeShort(constant.ordinal());
+        } else if (value instanceof Double number) {
+            out.writeDouble(number);
+        } else if (value instanceof Long number) {
+            out.writeLong(number);
+        } else if (value instanceof Integer number) {
+            out.writeInt(number);
+        } else if (value instanceof Boolean flag) {
+            out.writeBoolean(flag);
+        }
+    }
+
+    private Object readValue(ByteBuffer in, int index) {
+        Class<?> fieldType = components[index].getType();
+        if (nested[index] != null) {
+            return nested[index].read(in);
+        } else if (fieldType == String.class) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } else if (fieldType == UUID.class) {
+            return new UUID(in.getLong(), in.getLong());
+        } else if (fieldType == LocalDateTime.class) {
+            return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+        } else if (fieldType.isEnum()) {
+            return fieldType.getEnumConstants()[in.getShort()];
+        } else if (fieldType == Double.class) {
+            return in.getDouble();
+        } else if (fieldType == Long.class) {
+            return in.getLong();
+        } else if (fieldType == Integer.class) {
+            return in.getInt();
+        } else {
+            return in.get() != 0;
+        }
+    }
+
+    private static boolean isSupportedValue(Class<?> fieldType) {
+        return fieldType == String.class || fieldType == UUID.class || fieldType == LocalDateTime.class
+                || fieldType == Double.class || fieldType == Long.class || fieldType == Integer.class
+                || fieldType == Boolean.class;
+    }
+}
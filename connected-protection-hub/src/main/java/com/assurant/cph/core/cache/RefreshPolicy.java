@@ -0,0 +1,27 @@
+package com.assurant.cph.core.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Background reload settings for one region. An entry read after {@code refreshAfter} is reloaded in the
+ * background while the caller gets the cached value (refresh-ahead). An entry read after {@code staleAfter}
+ * is served as stale while that reload runs, and for as long as reloads keep failing, until the region's
+ * expiry finally drops it (stale-while-revalidate). Either may be null.
+ */
+public record RefreshPolicy(Duration refreshAfter, Duration staleAfter, Executor executor) {
+
+    public static final RefreshPolicy NONE = new RefreshPolicy(null, null, null);
+
+    public boolean enabled() {
+        return refreshAfter != null || staleAfter != null;
+    }
+
+    // A stale entry is always worth reloading, even when no earlier refresh-ahead point is set
+    long reloadAfterNanos() {
+        if (refreshAfter == null) {
+            return staleAfter.toNanos();
+        }
+        return staleAfter == null ? refreshAfter.toNanos() : Math.min(refreshAfter.toNanos(), staleAfter.toNanos());
+    }
+}
@@ -0,0 +1,142 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.config.CacheProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the JSON bodies of single-entity GET endpoints already serialized, with a gzip copy and an ETag,
+ * and writes them straight to the servlet response. A hit skips Jackson entirely, and a client holding
+ * the current ETag gets a 304 without a body. The regions are evicted by CacheEvictionEngine under the
+ * same ids as the entity regions the bodies are rendered from, so both change together on every node.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RenderedResponseCache {
+
+    private final CacheManager cacheManager;
+    private final CacheProperties cacheProperties;
+    private final ObjectMapper objectMapper;
+
+    // Answers 404 when the loader finds nothing; absent ids are cached like the entity regions cache them
+    public void write(String region, UUID id, Supplier<? extends Optional<?>> loader,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Rendered rendered;
+        if (cacheProperties.getResponses().isEnabled()) {
+            Cache cache = cacheManager.getCache(region);
+            if (cache == null) {
+                throw new IllegalStateException("Undeclared response cache region '" + region + "'");
+            }
+            rendered = cache.get(id, () -> loader.get().map(this::render).orElse(null));
+            if (StaleReads.ageNanos().isPresent()) {
+                // Rendered from a stale entity: serve it marked as such, but let the next request render afresh
+                cache.evictIfPresent(id);
+            }
+        } else {
+            rendered = loader.get().map(this::render).orElse(null);
+        }
+
+        if (rendered == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        markStale(response);
+        if (rendered.gzip() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        // Sets the ETag header, and the 304 status when the client's copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(rendered.etag())) {
+            return;
+        }
+
+        byte[] body = rendered.json();
+        if (rendered.gzip() != null && acceptsGzip(request)) {
+            body = rendered.gzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    Rendered render(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            byte[] gzip = json.length >= cacheProperties.getResponses().getGzipMinSize().toBytes() ? gzip(json) : null;
+            // Quoted strong validator over the identity encoding; the gzip copy is equivalent content
+            return new Rendered(json, gzip, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot render " + value.getClass().getSimpleName(), ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 2 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        }
+        byte[] compressed = bytes.toByteArray();
+        // Small or already dense bodies can come out larger; serve those uncompressed
+        return compressed.length < json.length ? compressed : null;
+    }
+
+    private static void markStale(HttpServletResponse response) {
+        OptionalLong ageNanos = StaleReads.ageNanos();
+        if (ageNanos.isPresent()) {
+            response.setHeader(HttpHeaders.WARNING, StaleReads.WARNING);
+            response.setHeader(HttpHeaders.AGE, Long.toString(TimeUnit.NANOSECONDS.toSeconds(ageNanos.getAsLong())));
+        }
+    }
+
+    // gzip or *, unless given a zero quality
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (String coding : header.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(parameter.substring(2)) <= 0;
+                    } catch (NumberFormatException ex) {
+                        refused = true;
+                    }
+                }
+            }
+            return !refused;
+        }
+        return false;
+    }
+
+    record Rendered(byte[] json, byte[] gzip, String etag) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.assurant.cph.core.cache;
+
+import org.hibernate.Hibernate;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rough retained size of a cached value, assuming a 64-bit JVM with compressed oops. Fields are walked by
+ * reflection; JDK types cannot be opened, so common ones use fixed sizes and collections are sampled and
+ * scaled. Uninitialised Hibernate proxies and collections count as their shell only, so the walk never
+ * triggers a lazy load on a detached entity.
+ */
+final class RetainedSizeEstimator {
+
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int COLLECTION_SAMPLE = 32;
+    private static final int MAX_OBJECTS = 20_000;
+
+    private static final ClassValue<List<Field>> REFERENCE_FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            return referenceFields(type);
+        }
+    };
+
+    private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return shallowSize(type);
+        }
+    };
+
+    private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private RetainedSizeEstimator() {
+    }
+
+    static long estimate(Object value) {
+        return new RetainedSizeEstimator().sizeOf(value);
+    }
+
+    private long sizeOf(Object value) {
+        if (value == null || seen.size() >= MAX_OBJECTS || !seen.add(value)) {
+            return 0;
+        }
+        if (value instanceof String string) {
+            // Latin-1 compact strings; multi-byte text takes up to twice the array
+            return align(HEADER + 12) + align(16 + string.length());
+        }
+        if (value instanceof UUID) {
+            return 32;
+        }
+        if (value instanceof LocalDateTime) {
+            return 72;
+        }
+        if (value instanceof LocalDate || value instanceof LocalTime) {
+            return 24;
+        }
+        if (value instanceof Enum<?>) {
+            // Constants are shared by every entry
+            return 0;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return 16;
+        }
+        if (!Hibernate.isInitialized(value)) {
+            return 16;
+        }
+        if (value instanceof Collection<?> collection) {
+            return align(HEADER + 16) + align(16 + (long) REFERENCE * collection.size())
+                    + sampled(collection, collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return align(HEADER + 36) + align(16 + (long) REFERENCE * map.size()) + 32L * map.size()
+                    + sampled(map.keySet(), map.size()) + sampled(map.values(), map.size());
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            return arraySize(value);
+        }
+        if (type.getModule() == Object.class.getModule()) {
+            return 24;
+        }
+
+        long size = SHALLOW_SIZES.get(type);
+        for (Field field : REFERENCE_FIELDS.get(type)) {
+            try {
+                size += sizeOf(field.get(value));
+            } catch (IllegalAccessException ex) {
+                // Counted in the shallow size only
+            }
+        }
+        return size;
+    }
+
+    private long sampled(Collection<?> values, int total) {
+        long sampledSize = 0;
+        int sampled = 0;
+        for (Object element : values) {
+            if (sampled == COLLECTION_SAMPLE) {
+                break;
+            }
+            sampledSize += sizeOf(element);
+            sampled++;
+        }
+        return sampled == 0 ? 0 : sampledSize * total / sampled;
+    }
+
+    private long arraySize(Object array) {
+        int length = Array.getLength(array);
+        Class<?> component = array.getClass().getComponentType();
+        if (component.isPrimitive()) {
+            return align(16 + (long) primitiveSize(component) * length);
+        }
+        List<Object> elements = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            elements.add(Array.get(array, i));
+        }
+        return align(16 + (long) REFERENCE * length) + sampled(elements, length);
+    }
+
+    private static long shallowSize(Class<?> type) {
+        long size = HEADER;
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += field.getType().isPrimitive() ? primitiveSize(field.getType()) : REFERENCE;
+                }
+            }
+        }
+        return align(size);
+    }
+
+    private static List<Field> referenceFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            if (current.getModule() == Object.class.getModule()) {
+                break;
+            }
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive() && field.trySetAccessible()) {
+                    fields.add(field);
+                }
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,100 @@
+package com.assurant.cph.core.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Encodes cached values for the off-heap tier: a snapshot record, a list of snapshot records, or null.
+ * Record types are numbered in the order they are first seen, which is fine because the bytes never
+ * leave the process. Anything else, such as a JPA entity, has no encoding and stays on the heap.
+ */
+final class SnapshotValueCodec {
+
+    private static final byte NULL = 0;
+    private static final byte RECORD = 1;
+    private static final byte LIST = 2;
+    private static final int UNSUPPORTED = -1;
+
+    private final Map<Class<?>, Integer> typeIds = new ConcurrentHashMap<>();
+    private final List<RecordCodec<?>> codecs = new CopyOnWriteArrayList<>();
+
+    // Returns null when the value has no encoding
+    @SuppressWarnings("unchecked")
+    byte[] encode(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof Record record) {
+                int typeId = typeId(record.getClass());
+                if (typeId == UNSUPPORTED) {
+                    return null;
+                }
+                out.writeByte(RECORD);
+                out.writeShort(typeId);
+                ((RecordCodec<Record>) codecs.get(typeId)).write(out, record);
+            } else if (value instanceof List<?> list) {
+                Class<?> elementType = list.isEmpty() || list.get(0) == null ? Record.class : list.get(0).getClass();
+                int typeId = list.isEmpty() ? 0 : typeId(elementType);
+                if (typeId == UNSUPPORTED || list.stream().anyMatch(element -> element == null || element.getClass() != elementType)) {
+                    return null;
+                }
+                out.writeByte(LIST);
+                out.writeShort(typeId);
+                out.writeInt(list.size());
+                for (Object element : list) {
+                    ((RecordCodec<Record>) codecs.get(typeId)).write(out, (Record) element);
+                }
+            } else {
+                return null;
+            }
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot encode " + value.getClass().getSimpleName(), ex);
+        }
+    }
+
+    Object decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte kind = in.get();
+        if (kind == NULL) {
+            return null;
+        }
+        int typeId = in.getShort();
+        if (kind == RECORD) {
+            return codecs.get(typeId).read(in);
+        }
+        Object[] elements = new Object[in.getInt()];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = codecs.get(typeId).read(in);
+        }
+        return List.of(elements);
+    }
+
+    private int typeId(Class<?> type) {
+        return typeIds.computeIfAbsent(type, this::register);
+    }
+
+    // Runs inside computeIfAbsent, so each type is registered once
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private int register(Class<?> type) {
+        if (!type.isRecord()) {
+            return UNSUPPORTED;
+        }
+        try {
+            synchronized (codecs) {
+                codecs.add(RecordCodec.of((Class) type));
+                return codecs.size() - 1;
+            }
+        } catch (IllegalArgumentException ex) {
+            return UNSUPPORTED;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.assurant.cph.core.cache;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.OptionalLong;
+
+/**
+ * Remembers, per web request, that a cache answered with a stale value, so the response can say so.
+ * Reads outside a request (scheduled jobs, tests calling services directly) are not tracked.
+ */
+public final class StaleReads {
+
+    // Warning header value for responses carrying stale data (RFC 7234, section 5.5.1)
+    public static final String WARNING = "110 - \"Response is Stale\"";
+
+    private static final String ATTRIBUTE = StaleReads.class.getName() + ".AGE_NANOS";
+
+    private StaleReads() {
+    }
+
+    // Keeps the oldest value served, since that is how stale the response as a whole may be
+    static void record(long ageNanos) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        Long recorded = (Long) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (recorded == null || ageNanos > recorded) {
+            attributes.setAttribute(ATTRIBUTE, ageNanos, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Age of the oldest stale value served in the current request, or empty when every read was fresh.
+     * Values served from an evicted entry have no known age and are reported as zero.
+     */
+    public static OptionalLong ageNanos() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Long recorded = attributes != null ? (Long) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) : null;
+        return recorded != null ? OptionalLong.of(recorded) : OptionalLong.empty();
+    }
+}
@@ -0,0 +1,68 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.core.cache.cluster.ClusterInvalidationBus;
+import com.assurant.cph.core.cache.cluster.Invalidation;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One counter per table, advanced after every committed write to it, here and on the other nodes.
+ * A cached query result remembers the counters of the tables it read; any of them having moved on
+ * means the result may no longer be what the database would return.
+ */
+@Component
+public class TableVersions {
+
+    private final ClusterInvalidationBus clusterBus;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public TableVersions(ClusterInvalidationBus clusterBus) {
+        this.clusterBus = clusterBus;
+        clusterBus.subscribe(Invalidation.Kind.TABLE, invalidation -> advanceLocally(invalidation.region()));
+    }
+
+    // Taken before the query runs: a write committing meanwhile then leaves the result already stale
+    long[] snapshot(String[] tables) {
+        long[] snapshot = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            snapshot[i] = counter(tables[i]).get();
+        }
+        return snapshot;
+    }
+
+    boolean current(String[] tables, long[] snapshot) {
+        for (int i = 0; i < tables.length; i++) {
+            if (counter(tables[i]).get() != snapshot[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Called once the write has committed, so a reader can never pair the new counter with the old rows
+    public void advance(Collection<String> tables) {
+        for (String table : tables) {
+            advanceLocally(table);
+            clusterBus.publish(Invalidation.table(table));
+        }
+    }
+
+    public Map<String, Long> getVersions() {
+        Map<String, Long> current = new TreeMap<>();
+        versions.forEach((table, version) -> current.put(table, version.get()));
+        return current;
+    }
+
+    private void advanceLocally(String table) {
+        counter(table).incrementAndGet();
+    }
+
+    private AtomicLong counter(String table) {
+        return versions.computeIfAbsent(table, t -> new AtomicLong());
+    }
+}
@@ -0,0 +1,145 @@
+package com.assurant.cph.core.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A small on-heap cache in front of an {@link OffHeapStore}. Writes go to both tiers, so the heap tier
+ * can evict freely; a heap miss that finds the key off-heap decodes it and promotes it back. Values
+ * without an off-heap encoding are kept on the heap only.
+ */
+public class TieredCache implements Cache {
+
+    private final Cache heap;
+    private final OffHeapStore offHeap;
+    private final SnapshotValueCodec codec = new SnapshotValueCodec();
+
+    private final LongAdder offHeapHits = new LongAdder();
+    private final LongAdder offHeapMisses = new LongAdder();
+    private final LongAdder heapOnlyWrites = new LongAdder();
+
+    // The heap tier's expiry is passed on so off-heap copies never outlive it; null means no expiry
+    public TieredCache(Cache heap, long offHeapCapacityBytes, Duration expireAfterWrite) {
+        this.heap = heap;
+        this.offHeap = new OffHeapStore(offHeapCapacityBytes, expireAfterWrite != null ? expireAfterWrite.toNanos() : 0);
+    }
+
+    @Override
+    public String getName() {
+        return heap.getName();
+    }
+
+    // The heap tier's Caffeine cache, so size and hottest-entry lookups keep working on tiered regions
+    @Override
+    public Object getNativeCache() {
+        return heap.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = heap.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        OffHeapStore.Entry entry = offHeap.read(key);
+        if (entry == null) {
+            offHeapMisses.increment();
+            return null;
+        }
+        offHeapHits.increment();
+        Object value = codec.decode(entry.bytes());
+        heap.put(key, value);
+        // Evictions remove the off-heap copy first, so a promotion that raced one is undone here
+        if (!offHeap.isCurrent(key, entry)) {
+            heap.evict(key);
+        }
+        return new SimpleValueWrapper(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Throwable ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        heap.put(key, value);
+        writeOffHeap(key, value);
+    }
+
+    // Not atomic across the two tiers; the application itself never calls it
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean removedOffHeap = offHeap.remove(key);
+        return heap.evictIfPresent(key) || removedOffHeap;
+    }
+
+    @Override
+    public void clear() {
+        invalidate();
+    }
+
+    @Override
+    public boolean invalidate() {
+        offHeap.clear();
+        return heap.invalidate();
+    }
+
+    public OffHeapStats getOffHeapStats() {
+        return new OffHeapStats(offHeapHits.sum(), offHeapMisses.sum(), offHeap.entries(),
+                offHeap.usedBytes(), offHeap.capacityBytes(), heapOnlyWrites.sum());
+    }
+
+    private void writeOffHeap(Object key, Object value) {
+        byte[] bytes = codec.encode(value);
+        if (bytes == null || !offHeap.write(key, bytes)) {
+            offHeap.remove(key);
+            heapOnlyWrites.increment();
+        }
+    }
+
+    public record OffHeapStats(long hits, long misses, long entries, long usedBytes, long capacityBytes, long heapOnlyWrites) {
+    }
+}
@@ -0,0 +1,277 @@
+package com.assurant.cph.core.cache.cluster;
+
+import com.assurant.cph.config.CacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts this node's cache invalidations to its peers and applies theirs. Writes publish after
+ * commit; a background flusher waits out a short batch window so a burst of writes leaves as one
+ * deduplicated message. Spring cache regions are invalidated here, while natural-key and Hibernate
+ * invalidations go to the handlers that own those caches.
+ *
+ * <p>Every batch carries a per-node sequence number. A node that sees a gap, because a message was lost
+ * or arrived late, cannot tell what it missed and drops everything it caches instead. Without a
+ * transport configured the bus is a no-op, which is what a single-node deployment wants.
+ */
+@Slf4j
+@Component
+public class ClusterInvalidationBus implements SmartLifecycle {
+
+    private final CacheManager cacheManager;
+    private final CacheProperties.Cluster settings;
+    private final InvalidationTransport transport;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final BlockingQueue<Invalidation> pending = new LinkedBlockingQueue<>();
+    private final Map<Invalidation.Kind, List<Consumer<Invalidation>>> handlers = new EnumMap<>(Invalidation.Kind.class);
+    private final Map<String, Long> lastSequenceByOrigin = new HashMap<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    private final LongAdder batchesReceived = new LongAdder();
+    private final LongAdder invalidationsApplied = new LongAdder();
+    private final LongAdder gapsDetected = new LongAdder();
+
+    // Written by the flusher thread only
+    private long sequence;
+    private Thread flusher;
+    private volatile boolean running;
+
+    public ClusterInvalidationBus(CacheManager cacheManager, CacheProperties cacheProperties,
+                                  ObjectProvider<InvalidationTransport> transport) {
+        this.cacheManager = cacheManager;
+        this.settings = cacheProperties.getCluster();
+        this.transport = transport.getIfAvailable();
+        for (Invalidation.Kind kind : Invalidation.Kind.values()) {
+            handlers.put(kind, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    public boolean isEnabled() {
+        return transport != null;
+    }
+
+    /**
+     * Queues an invalidation for the peers. Call it once the change is committed; the local caches are
+     * the caller's business.
+     */
+    public void publish(Invalidation invalidation) {
+        if (transport == null) {
+            return;
+        }
+        if (!InvalidationCodec.encodable(invalidation.key())) {
+            invalidation = new Invalidation(invalidation.kind(), invalidation.region(), null);
+        }
+        pending.add(invalidation);
+        published.increment();
+    }
+
+    // Handlers for ALL are also run when a gap forces this node to drop everything
+    public void subscribe(Invalidation.Kind kind, Consumer<Invalidation> handler) {
+        handlers.get(kind).add(handler);
+    }
+
+    // Up before the snapshot store and the web server, so no committed write goes unannounced
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (transport == null) {
+            return;
+        }
+        transport.start(this::receive);
+        flusher = new Thread(this::flushLoop, "cache-invalidation-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Cluster cache invalidation started on node {} over {}", nodeId, transport.name());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (transport == null) {
+            return;
+        }
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever the last writes queued still goes out before the transport closes
+        List<Invalidation> remaining = new ArrayList<>();
+        pending.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            send(deduplicate(remaining));
+        }
+        transport.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public ClusterStats getStats() {
+        return new ClusterStats(nodeId, transport != null ? transport.name() : "none", published.sum(),
+                batchesSent.sum(), sendFailures.sum(), batchesReceived.sum(), invalidationsApplied.sum(), gapsDetected.sum());
+    }
+
+    private void flushLoop() {
+        long batchWindowNanos = settings.getBatchWindow().toNanos();
+        long heartbeatNanos = settings.getHeartbeatInterval().toNanos();
+        long nextHeartbeat = System.nanoTime() + heartbeatNanos;
+        while (running) {
+            try {
+                Invalidation first = pending.poll(Math.max(1, nextHeartbeat - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    if (!transport.reliable()) {
+                        send(List.of());
+                    }
+                    nextHeartbeat = System.nanoTime() + heartbeatNanos;
+                    continue;
+                }
+                // Let the rest of a write burst arrive, then send it all as one message
+                LockSupport.parkNanos(batchWindowNanos);
+                List<Invalidation> batch = new ArrayList<>();
+                batch.add(first);
+                pending.drainTo(batch, settings.getMaxBatchSize() - 1);
+                send(deduplicate(batch));
+                nextHeartbeat = System.nanoTime() + heartbeatNanos;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Cache invalidation flusher failed, continuing", ex);
+            }
+        }
+    }
+
+    // A region-wide invalidation covers the keyed ones for the same region
+    private static List<Invalidation> deduplicate(List<Invalidation> invalidations) {
+        Set<String> wholeRegions = new LinkedHashSet<>();
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.regionWide()) {
+                wholeRegions.add(invalidation.kind() + ":" + invalidation.region());
+            }
+        }
+        Set<Invalidation> unique = new LinkedHashSet<>();
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.regionWide() || !wholeRegions.contains(invalidation.kind() + ":" + invalidation.region())) {
+                unique.add(invalidation);
+            }
+        }
+        return List.copyOf(unique);
+    }
+
+    private void send(List<Invalidation> invalidations) {
+        boolean heartbeat = invalidations.isEmpty();
+        long batchSequence = heartbeat ? sequence : sequence + 1;
+        byte[] message = InvalidationCodec.encode(new InvalidationCodec.Batch(nodeId, batchSequence, invalidations));
+        if (message.length > transport.maxMessageBytes() && invalidations.size() > 1) {
+            int half = invalidations.size() / 2;
+            send(invalidations.subList(0, half));
+            send(invalidations.subList(half, invalidations.size()));
+            return;
+        }
+        // The sequence moves on even if the send fails, so peers notice the loss and resynchronize
+        sequence = batchSequence;
+        try {
+            transport.send(message);
+            if (!heartbeat) {
+                batchesSent.increment();
+            }
+        } catch (IOException | RuntimeException ex) {
+            sendFailures.increment();
+            log.warn("Could not send {} cache invalidations over {}: {}", invalidations.size(), transport.name(), ex.toString());
+        }
+    }
+
+    // Transports may call in from several threads; batches are small, so one at a time is plenty
+    synchronized void receive(byte[] message) {
+        InvalidationCodec.Batch batch;
+        try {
+            batch = InvalidationCodec.decode(message);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Ignoring undecodable cache invalidation message: {}", ex.toString());
+            return;
+        }
+        if (batch.origin().equals(nodeId)) {
+            return;
+        }
+
+        Long last = lastSequenceByOrigin.get(batch.origin());
+        long expected = last == null ? batch.sequence() : batch.heartbeat() ? last : last + 1;
+        if (batch.sequence() < expected) {
+            // Duplicate, or late after a gap that already made this node drop everything
+            return;
+        }
+        lastSequenceByOrigin.put(batch.origin(), batch.sequence());
+        if (batch.sequence() > expected) {
+            gapsDetected.increment();
+            log.warn("Missed cache invalidations from node {} (expected batch {}, got {}), dropping all cached data",
+                    batch.origin(), expected, batch.sequence());
+            apply(Invalidation.all());
+            return;
+        }
+        if (!batch.heartbeat()) {
+            batchesReceived.increment();
+            batch.invalidations().forEach(this::apply);
+        }
+    }
+
+    private void apply(Invalidation invalidation) {
+        try {
+            switch (invalidation.kind()) {
+                case CACHE -> {
+                    Cache cache = cacheManager.getCache(invalidation.region());
+                    if (cache != null) {
+                        if (invalidation.regionWide()) {
+                            cache.invalidate();
+                        } else {
+                            cache.evictIfPresent(invalidation.key());
+                        }
+                    }
+                }
+                case ALL -> cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+                default -> {
+                }
+            }
+            handlers.get(invalidation.kind()).forEach(handler -> handler.accept(invalidation));
+            invalidationsApplied.increment();
+        } catch (RuntimeException ex) {
+            log.warn("Could not apply {} from a peer: {}", invalidation, ex.toString());
+        }
+    }
+
+    public record ClusterStats(String nodeId, String transport, long published, long batchesSent, long sendFailures,
+                               long batchesReceived, long invalidationsApplied, long gapsDetected) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.assurant.cph.core.cache.cluster;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Keeps the Hibernate second-level caches of all nodes coherent. Committed updates and deletes of cached
+ * entities are published so peers drop their copy, and any committed write to a cached entity drops the
+ * peers' query results, since their update-timestamps region never saw it. Collections are published by
+ * {@link com.assurant.cph.core.cache.OwnedCollectionEvictor}.
+ */
+@RequiredArgsConstructor
+public class ClusterSecondLevelCacheInvalidator implements Integrator,
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final ClusterInvalidationBus clusterBus;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+
+        CacheImplementor cache = sessionFactory.getCache();
+        clusterBus.subscribe(Invalidation.Kind.ENTITY, invalidation -> {
+            if (invalidation.regionWide()) {
+                cache.evictEntityData(invalidation.region());
+            } else {
+                cache.evictEntityData(invalidation.region(), invalidation.key());
+            }
+        });
+        clusterBus.subscribe(Invalidation.Kind.COLLECTION, invalidation -> {
+            if (invalidation.regionWide()) {
+                cache.evictCollectionData(invalidation.region());
+            } else {
+                cache.evictCollectionData(invalidation.region(), invalidation.key());
+            }
+        });
+        clusterBus.subscribe(Invalidation.Kind.QUERY_RESULTS, invalidation -> cache.evictQueryRegions());
+        clusterBus.subscribe(Invalidation.Kind.ALL, invalidation -> cache.evictAllRegions());
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        clusterBus.publish(Invalidation.queryResults());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        clusterBus.publish(Invalidation.entity(event.getPersister().getEntityName(), event.getId()));
+        clusterBus.publish(Invalidation.queryResults());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        clusterBus.publish(Invalidation.entity(event.getPersister().getEntityName(), event.getId()));
+        clusterBus.publish(Invalidation.queryResults());
+    }
+
+    // A rolled-back write changed nothing a peer could have cached
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    // Cached queries only read cached entities, so writes to anything else concern no peer
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+}
@@ -0,0 +1,50 @@
+package com.assurant.cph.core.cache.cluster;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Delivers messages to the other application contexts of this JVM that joined the same channel.
+ * A stand-in for the network transports in tests and local multi-context runs.
+ */
+public class InJvmInvalidationTransport implements InvalidationTransport {
+
+    private static final Map<String, Set<InJvmInvalidationTransport>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private volatile Consumer<byte[]> receiver;
+
+    public InJvmInvalidationTransport(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        CHANNELS.computeIfAbsent(channel, name -> ConcurrentHashMap.newKeySet()).add(this);
+    }
+
+    @Override
+    public void send(byte[] message) {
+        for (InJvmInvalidationTransport member : CHANNELS.getOrDefault(channel, Set.of())) {
+            if (member != this) {
+                member.receiver.accept(message.clone());
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "in-jvm:" + channel;
+    }
+
+    @Override
+    public void close() {
+        Set<InJvmInvalidationTransport> members = CHANNELS.get(channel);
+        if (members != null) {
+            members.remove(this);
+        }
+    }
+}
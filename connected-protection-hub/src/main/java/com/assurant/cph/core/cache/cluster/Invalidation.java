@@ -0,0 +1,65 @@
+package com.assurant.cph.core.cache.cluster;
+
+/**
+ * One cache entry, or a whole region, that a write on this node made stale on its peers.
+ * A null key stands for every entry of the region.
+ */
+public record Invalidation(Kind kind, String region, Object key) {
+
+    public enum Kind {
+        // Spring cache region entry, see CacheConfig.CACHE_REGIONS
+        CACHE,
+        // Natural key -> id entry; peers also teach the key to their Bloom filter
+        NATURAL_KEY,
+        // Hibernate second-level cache: entity by id, inverse collection by owner id, and query results
+        ENTITY,
+        COLLECTION,
+        QUERY_RESULTS,
+        // Everything a node caches; applied locally when messages from a peer were lost
+        ALL,
+        // Version counter of a table read by cached repository queries, see TableVersions
+        TABLE,
+        // Not an invalidation: payment counter changes a committed write made, to apply on top, see PaymentCounters
+        COUNTERS
+    }
+
+    public static Invalidation cacheKey(String region, Object key) {
+        return new Invalidation(Kind.CACHE, region, key);
+    }
+
+    public static Invalidation cacheRegion(String region) {
+        return new Invalidation(Kind.CACHE, region, null);
+    }
+
+    public static Invalidation naturalKey(String region, String value) {
+        return new Invalidation(Kind.NATURAL_KEY, region, value);
+    }
+
+    public static Invalidation entity(String entityName, Object id) {
+        return new Invalidation(Kind.ENTITY, entityName, id);
+    }
+
+    public static Invalidation collection(String role, Object ownerId) {
+        return new Invalidation(Kind.COLLECTION, role, ownerId);
+    }
+
+    public static Invalidation queryResults() {
+        return new Invalidation(Kind.QUERY_RESULTS, null, null);
+    }
+
+    public static Invalidation table(String table) {
+        return new Invalidation(Kind.TABLE, table, null);
+    }
+
+    public static Invalidation counters(String deltas) {
+        return new Invalidation(Kind.COUNTERS, null, deltas);
+    }
+
+    static Invalidation all() {
+        return new Invalidation(Kind.ALL, null, null);
+    }
+
+    public boolean regionWide() {
+        return key == null;
+    }
+}
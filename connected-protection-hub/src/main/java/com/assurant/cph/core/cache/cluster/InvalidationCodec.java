@@ -0,0 +1,74 @@
+package com.assurant.cph.core.cache.cluster;
+
+import com.assurant.cph.core.cache.CacheWireCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary format of an invalidation batch: origin node, batch sequence, then one record per invalidation.
+ * Only the key types the services actually cache under are encodable; anything else is sent region-wide.
+ */
+final class InvalidationCodec {
+
+    private static final int MAGIC = 0x43504849; // "CPHI"
+    private static final short FORMAT_VERSION = 1;
+
+    private InvalidationCodec() {
+    }
+
+    record Batch(String origin, long sequence, List<Invalidation> invalidations) {
+
+        // Heartbeats carry the last sequence sent, so a peer that missed it notices the gap
+        boolean heartbeat() {
+            return invalidations.isEmpty();
+        }
+    }
+
+    static boolean encodable(Object key) {
+        return CacheWireCodec.encodableKey(key);
+    }
+
+    static byte[] encode(Batch batch) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + batch.invalidations().size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeUTF(batch.origin());
+            out.writeLong(batch.sequence());
+            out.writeInt(batch.invalidations().size());
+            for (Invalidation invalidation : batch.invalidations()) {
+                out.writeByte(invalidation.kind().ordinal());
+                out.writeUTF(invalidation.region() != null ? invalidation.region() : "");
+                CacheWireCodec.writeKey(out, invalidation.key());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Batch decode(byte[] message) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+        if (in.readInt() != MAGIC || in.readShort() != FORMAT_VERSION) {
+            throw new IOException("Not an invalidation batch of format version " + FORMAT_VERSION);
+        }
+        String origin = in.readUTF();
+        long sequence = in.readLong();
+        int count = in.readInt();
+        List<Invalidation> invalidations = new ArrayList<>(count);
+        Invalidation.Kind[] kinds = Invalidation.Kind.values();
+        for (int i = 0; i < count; i++) {
+            Invalidation.Kind kind = kinds[in.readUnsignedByte()];
+            String region = in.readUTF();
+            invalidations.add(new Invalidation(kind, region.isEmpty() ? null : region, CacheWireCodec.readKey(in)));
+        }
+        return new Batch(origin, sequence, invalidations);
+    }
+}
@@ -0,0 +1,34 @@
+package com.assurant.cph.core.cache.cluster;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries encoded invalidation batches between nodes. Delivery may be unordered or lossy; the bus
+ * numbers every batch and resynchronizes a node that notices a gap.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    /**
+     * Starts delivering messages from peers to the receiver. A transport may also hand back this
+     * node's own messages; the bus ignores them.
+     */
+    void start(Consumer<byte[]> receiver);
+
+    void send(byte[] message) throws IOException;
+
+    // Larger batches are split by the bus before sending
+    default int maxMessageBytes() {
+        return Integer.MAX_VALUE;
+    }
+
+    // Transports that can drop messages get periodic heartbeats, so a lost final batch is noticed
+    default boolean reliable() {
+        return true;
+    }
+
+    String name();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,116 @@
+package com.assurant.cph.core.cache.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Passes batches through a notification table in the shared database: senders insert a row, every node
+ * polls for rows newer than the last one it read. Works wherever the nodes share the database, with the
+ * poll interval as added latency. Old rows are deleted after the retention period by whichever node
+ * gets there first.
+ */
+@Slf4j
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+    static final String TABLE = "cache_invalidations";
+
+    // Rows are re-read this far behind the newest id seen, since a row with a lower id can commit later
+    private static final int LATE_COMMIT_WINDOW = 32;
+    private static final int CLEANUP_EVERY_POLLS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration pollInterval;
+    private final Duration retention;
+
+    private ScheduledExecutorService poller;
+    private long lastSeenId;
+    private long polls;
+    private final Set<Long> recentIds = new HashSet<>();
+    private final Deque<Long> recentOrder = new ArrayDeque<>();
+
+    public JdbcInvalidationTransport(JdbcTemplate jdbcTemplate, Duration pollInterval, Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "payload BYTEA NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL)");
+        // Only messages sent from now on concern this node; its caches are empty anyway
+        Long newest = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + TABLE, Long.class);
+        lastSeenId = newest != null ? newest : 0;
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(() -> poll(receiver), pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(Consumer<byte[]> receiver) {
+        try {
+            jdbcTemplate.query("SELECT id, payload FROM " + TABLE + " WHERE id > ? ORDER BY id",
+                    row -> {
+                        long id = row.getLong("id");
+                        if (remember(id)) {
+                            receiver.accept(row.getBytes("payload"));
+                        }
+                        lastSeenId = Math.max(lastSeenId, id);
+                    },
+                    Math.max(0, lastSeenId - LATE_COMMIT_WINDOW));
+            if (++polls % CLEANUP_EVERY_POLLS == 0) {
+                jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE created_at < ?", Timestamp.from(Instant.now().minus(retention)));
+            }
+        } catch (RuntimeException ex) {
+            // A missed poll only delays delivery; the rows are still there next time
+            log.warn("Polling {} failed: {}", TABLE, ex.toString());
+        }
+    }
+
+    // True the first time an id is seen; remembers enough ids to cover the re-read window
+    private boolean remember(long id) {
+        if (!recentIds.add(id)) {
+            return false;
+        }
+        recentOrder.addLast(id);
+        while (recentOrder.size() > LATE_COMMIT_WINDOW * 4) {
+            recentIds.remove(recentOrder.removeFirst());
+        }
+        return true;
+    }
+
+    @Override
+    public void send(byte[] message) {
+        jdbcTemplate.update("INSERT INTO " + TABLE + " (payload, created_at) VALUES (?, ?)",
+                message, Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public String name() {
+        return "jdbc:" + TABLE;
+    }
+
+    @Override
+    public void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+}
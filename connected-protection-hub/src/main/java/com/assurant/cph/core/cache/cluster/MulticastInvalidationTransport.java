@@ -0,0 +1,99 @@
+package com.assurant.cph.core.cache.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Sends each batch as one UDP multicast datagram to every node in the group. Cheap and serverless, but
+ * datagrams can be dropped, so the bus sends heartbeats and resynchronizes on gaps.
+ */
+@Slf4j
+public class MulticastInvalidationTransport implements InvalidationTransport {
+
+    // Under the 65,507-byte UDP payload limit with room to spare; the bus splits larger batches
+    private static final int MAX_DATAGRAM_BYTES = 60_000;
+
+    private final InetSocketAddress group;
+    private final String networkInterface;
+    private final int timeToLive;
+
+    private MulticastSocket socket;
+    private Thread listener;
+
+    public MulticastInvalidationTransport(String group, int port, String networkInterface, int timeToLive) {
+        this.group = new InetSocketAddress(group, port);
+        this.networkInterface = networkInterface;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        try {
+            socket = new MulticastSocket(group.getPort());
+            socket.setTimeToLive(timeToLive);
+            NetworkInterface nic = networkInterface != null ? NetworkInterface.getByName(networkInterface) : null;
+            if (nic != null) {
+                socket.setNetworkInterface(nic);
+            }
+            socket.joinGroup(group, nic);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot join multicast group " + group, ex);
+        }
+
+        listener = new Thread(() -> listen(receiver), "cache-invalidation-multicast");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    private void listen(Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[65_535];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                receiver.accept(Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength()));
+            } catch (IOException ex) {
+                if (!socket.isClosed()) {
+                    log.warn("Multicast receive failed: {}", ex.toString());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void send(byte[] message) throws IOException {
+        InetAddress address = group.getAddress();
+        socket.send(new DatagramPacket(message, message.length, address, group.getPort()));
+    }
+
+    @Override
+    public int maxMessageBytes() {
+        return MAX_DATAGRAM_BYTES;
+    }
+
+    @Override
+    public boolean reliable() {
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return "multicast:" + group.getHostString() + ":" + group.getPort();
+    }
+
+    @Override
+    public void close() {
+        if (socket != null) {
+            socket.close();
+        }
+    }
+}
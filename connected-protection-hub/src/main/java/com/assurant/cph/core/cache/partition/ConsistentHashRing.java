@@ -0,0 +1,116 @@
+package com.assurant.cph.core.cache.partition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable consistent-hash ring. Every member is placed at a number of virtual points, so keys spread
+ * evenly and a member joining or leaving only moves the keys between its points and their neighbours,
+ * about 1/N of the total, instead of reshuffling everything. Nodes built from the same member set agree
+ * on every owner without talking to each other.
+ */
+final class ConsistentHashRing {
+
+    private final SortedSet<String> members;
+    private final int virtualNodes;
+    private final long[] points;
+    private final String[] owners;
+
+    ConsistentHashRing(SortedSet<String> members, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("A hash ring needs at least one virtual node per member");
+        }
+        this.members = new TreeSet<>(members);
+        this.virtualNodes = virtualNodes;
+
+        long[][] placed = new long[members.size() * virtualNodes][];
+        String[] memberArray = this.members.toArray(String[]::new);
+        int next = 0;
+        for (int m = 0; m < memberArray.length; m++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                placed[next++] = new long[]{hash(bytes(memberArray[m] + "#" + v)), m};
+            }
+        }
+        // Ties between points are broken by member name, so every node orders them alike
+        Arrays.sort(placed, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[placed.length];
+        this.owners = new String[placed.length];
+        for (int i = 0; i < placed.length; i++) {
+            points[i] = placed[i][0];
+            owners[i] = memberArray[(int) placed[i][1]];
+        }
+    }
+
+    SortedSet<String> members() {
+        return members;
+    }
+
+    ConsistentHashRing with(String member) {
+        SortedSet<String> grown = new TreeSet<>(members);
+        grown.add(member);
+        return new ConsistentHashRing(grown, virtualNodes);
+    }
+
+    ConsistentHashRing without(String member) {
+        SortedSet<String> shrunk = new TreeSet<>(members);
+        shrunk.remove(member);
+        return new ConsistentHashRing(shrunk, virtualNodes);
+    }
+
+    // The member at the first point clockwise from the key's hash, wrapping past the end of the ring
+    String ownerOf(byte[] key) {
+        if (points.length == 0) {
+            throw new IllegalStateException("Hash ring has no members");
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    // Share of the hash space each member owns, for the admin endpoint
+    List<Share> shares() {
+        List<String> memberList = List.copyOf(members);
+        double[] owned = new double[memberList.size()];
+        if (points.length == virtualNodes) {
+            Arrays.fill(owned, 1.0);
+        } else {
+            for (int i = 0; i < points.length; i++) {
+                long previous = points[i == 0 ? points.length - 1 : i - 1];
+                // Wrapping subtraction read as unsigned is the clockwise distance, also across the end of the ring
+                owned[memberList.indexOf(owners[i])] += unsigned(points[i] - previous) / 0x1p64;
+            }
+        }
+        return IntStream.range(0, owned.length)
+                .mapToObj(m -> new Share(memberList.get(m), owned[m]))
+                .toList();
+    }
+
+    record Share(String member, double fraction) {
+    }
+
+    private static double unsigned(long value) {
+        return value >= 0 ? value : value + 0x1p64;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // FNV-1a finished with the SplitMix64 mixer, as in BloomFilter; stable across JVMs, unlike hashCode
+    static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,127 @@
+package com.assurant.cph.core.cache.partition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Sends requests to peer nodes over pooled TCP connections, one request per connection at a time.
+ * A connection that fails mid-exchange is closed rather than reused, since its stream position is lost.
+ */
+final class PartitionClient implements AutoCloseable {
+
+    // Idle connections kept per peer; busier moments open more and close the surplus afterwards
+    private static final int MAX_IDLE_PER_PEER = 8;
+
+    @FunctionalInterface
+    interface Request {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Response<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private final int timeoutMillis;
+    private final String secret;
+    private final Map<String, BlockingQueue<Connection>> idle = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    PartitionClient(Duration timeout, String secret) {
+        this.timeoutMillis = Math.toIntExact(timeout.toMillis());
+        this.secret = secret;
+    }
+
+    <T> T call(String member, Request request, Response<T> response) throws IOException {
+        if (closed) {
+            throw new IOException("Partition client is closed");
+        }
+        BlockingQueue<Connection> pool = idle.computeIfAbsent(member, m -> new LinkedBlockingQueue<>(MAX_IDLE_PER_PEER));
+        Connection connection = pool.poll();
+        if (connection == null) {
+            connection = open(member);
+        }
+        T result;
+        try {
+            request.write(connection.out);
+            connection.out.flush();
+            result = response.read(connection.in);
+        } catch (IOException | RuntimeException ex) {
+            connection.close();
+            throw ex;
+        }
+        if (closed || !pool.offer(connection)) {
+            connection.close();
+        }
+        return result;
+    }
+
+    // Drops pooled connections to a member that left or stopped answering
+    void forget(String member) {
+        BlockingQueue<Connection> pool = idle.remove(member);
+        if (pool != null) {
+            pool.forEach(Connection::close);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        idle.keySet().forEach(this::forget);
+    }
+
+    private Connection open(String member) throws IOException {
+        int colon = member.lastIndexOf(':');
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(timeoutMillis);
+            socket.connect(new InetSocketAddress(member.substring(0, colon), Integer.parseInt(member.substring(colon + 1))), timeoutMillis);
+            Connection connection = new Connection(socket);
+            connection.out.writeInt(PartitionProtocol.MAGIC);
+            connection.out.writeShort(PartitionProtocol.VERSION);
+            connection.out.flush();
+            byte[] challenge = new byte[PartitionProtocol.CHALLENGE_LENGTH];
+            connection.in.readFully(challenge);
+            connection.out.write(PartitionProtocol.proof(secret, challenge));
+            connection.out.flush();
+            if (!connection.in.readBoolean()) {
+                throw new IOException("Partition peer " + member + " refused the handshake");
+            }
+            return connection;
+        } catch (IOException | RuntimeException ex) {
+            socket.close();
+            throw ex;
+        }
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Nothing left to release
+            }
+        }
+    }
+}
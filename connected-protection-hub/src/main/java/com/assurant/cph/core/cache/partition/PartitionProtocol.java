@@ -0,0 +1,76 @@
+package com.assurant.cph.core.cache.partition;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Request/response exchange between partitioned cache nodes over a persistent TCP connection. Each
+ * request starts with an operation byte; the fields that follow, and the answer, depend on it. Keys go
+ * through CacheWireCodec, values travel as length-prefixed bytes already encoded by it.
+ *
+ * <p>A connection opens with the magic and version from the client, a random challenge from the server
+ * and the client's HMAC-SHA256 of it under {@code cph.cache.partitioning.secret}. The server acks a valid
+ * proof and closes the connection on anything else, so only nodes holding the secret can read or write
+ * the cache. The exchange proves the secret without sending it; the traffic itself is not encrypted.
+ */
+final class PartitionProtocol {
+
+    static final int MAGIC = 0x43504850; // "CPHP", sent once when a connection opens
+    static final short VERSION = 2;
+    static final int CHALLENGE_LENGTH = 16;
+    static final int PROOF_LENGTH = 32;
+
+    // member id -> member id of the responder
+    static final byte PING = 1;
+    // region, key -> found flag, value bytes if found
+    static final byte GET = 2;
+    // region, key, value bytes -> ack
+    static final byte PUT = 3;
+    // region, key -> evicted flag; drops the owned entry and any near-cache copy
+    static final byte EVICT = 4;
+    // region -> ack
+    static final byte CLEAR = 5;
+    // region, count, (key, value bytes) * count -> number of entries stored
+    static final byte TRANSFER = 6;
+    // member id -> ack; the sender is shutting down and has handed its entries over
+    static final byte LEAVE = 7;
+
+    private PartitionProtocol() {
+    }
+
+    static byte[] proof(String secret, byte[] challenge) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(challenge);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 is not available", ex);
+        }
+    }
+
+    // Constant time, so a peer cannot learn the proof byte by byte
+    static boolean verify(String secret, byte[] challenge, byte[] proof) {
+        return MessageDigest.isEqual(proof(secret, challenge), proof);
+    }
+
+    static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Negative value length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,140 @@
+package com.assurant.cph.core.cache.partition;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.SecureRandom;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts connections from peer nodes and answers their requests, one thread per connection. Peers keep
+ * a handful of pooled connections each, so the thread count stays proportional to the cluster size.
+ */
+@Slf4j
+final class PartitionServer implements AutoCloseable {
+
+    // A connection that has not proved the secret by then is dropped, so it cannot hold a thread
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+
+    @FunctionalInterface
+    interface Handler {
+        // Reads the request fields that follow the operation byte and writes the answer
+        void handle(byte operation, DataInputStream in, DataOutputStream out) throws IOException;
+    }
+
+    private final ServerSocket serverSocket;
+    private final Handler handler;
+    private final String secret;
+    private final SecureRandom random = new SecureRandom();
+    private final ExecutorService connections;
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+
+    PartitionServer(String bindAddress, int port, String secret, Handler handler) throws IOException {
+        this.handler = handler;
+        this.secret = secret;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(bindAddress, port));
+        AtomicInteger count = new AtomicInteger();
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "cache-partition-server-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread acceptor = new Thread(this::accept, "cache-partition-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                open.add(socket);
+                connections.execute(() -> serve(socket));
+            } catch (IOException ex) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Accepting a partition connection failed: {}", ex.toString());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (!authenticate(socket, in, out)) {
+                return;
+            }
+            while (true) {
+                handler.handle(in.readByte(), in, out);
+                out.flush();
+            }
+        } catch (EOFException | SocketException ex) {
+            // The peer closed its connection, or this server is shutting down
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Partition connection from {} failed: {}", socket.getRemoteSocketAddress(), ex.toString());
+        } finally {
+            open.remove(socket);
+        }
+    }
+
+    private boolean authenticate(Socket socket, DataInputStream in, DataOutputStream out) throws IOException {
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+        if (in.readInt() != PartitionProtocol.MAGIC || in.readShort() != PartitionProtocol.VERSION) {
+            log.warn("Closing partition connection from {}: not a peer speaking protocol version {}",
+                    socket.getRemoteSocketAddress(), PartitionProtocol.VERSION);
+            return false;
+        }
+        byte[] challenge = new byte[PartitionProtocol.CHALLENGE_LENGTH];
+        random.nextBytes(challenge);
+        out.write(challenge);
+        out.flush();
+        byte[] proof = new byte[PartitionProtocol.PROOF_LENGTH];
+        in.readFully(proof);
+        if (!PartitionProtocol.verify(secret, challenge, proof)) {
+            log.warn("Closing partition connection from {}: wrong cluster secret", socket.getRemoteSocketAddress());
+            return false;
+        }
+        out.writeBoolean(true);
+        out.flush();
+        socket.setSoTimeout(0);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // Already closed
+        }
+        open.forEach(socket -> {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        });
+        connections.shutdownNow();
+    }
+}
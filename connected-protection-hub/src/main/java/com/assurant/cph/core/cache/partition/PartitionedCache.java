@@ -0,0 +1,243 @@
+package com.assurant.cph.core.cache.partition;
+
+import com.assurant.cph.core.cache.CacheWireCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache region spread over the cluster: each key lives only on the node the hash ring assigns it to,
+ * so the cluster holds one copy instead of one per node. Reads of keys owned elsewhere go to the owner
+ * and are kept for a short while in an optional near-cache. Evictions reach every node, which drops its
+ * near-cache copy as well. The cache stays best-effort: an owner that cannot be reached is a miss, and
+ * the value is loaded from the database as on a single node.
+ */
+@Slf4j
+public class PartitionedCache implements Cache {
+
+    private final Cache owned;
+    private final Cache near;
+    private final PartitionedCacheCluster cluster;
+
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder remoteFailures = new LongAdder();
+    private final LongAdder transferredOut = new LongAdder();
+    private final LongAdder transferredIn = new LongAdder();
+    private volatile boolean unencodableReported;
+
+    PartitionedCache(Cache owned, Cache near, PartitionedCacheCluster cluster) {
+        this.owned = owned;
+        this.near = near;
+        this.cluster = cluster;
+    }
+
+    @Override
+    public String getName() {
+        return owned.getName();
+    }
+
+    // The entries this node owns; statistics and snapshots see only those
+    @Override
+    public Object getNativeCache() {
+        return owned.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String owner = ownerOf(key);
+        if (owner == null) {
+            return owned.get(key);
+        }
+        if (near != null) {
+            ValueWrapper nearValue = near.get(key);
+            if (nearValue != null) {
+                nearHits.increment();
+                return nearValue;
+            }
+        }
+        try {
+            byte[] bytes = cluster.remoteGet(owner, getName(), key);
+            if (bytes == null) {
+                remoteMisses.increment();
+                return null;
+            }
+            Object value = cluster.codec().decodeValue(bytes);
+            remoteHits.increment();
+            if (near != null) {
+                near.put(key, value);
+            }
+            return new SimpleValueWrapper(value);
+        } catch (IOException | RuntimeException ex) {
+            remoteFailure("read", owner, key, ex);
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    // Loads are coalesced per node by the CoalescingCache in front; nodes may still load the same key once each
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String owner = ownerOf(key);
+        if (owner == null) {
+            owned.put(key, value);
+            return;
+        }
+        if (near != null) {
+            near.put(key, value);
+        }
+        byte[] bytes = cluster.codec().encodeValue(value);
+        if (bytes == null) {
+            // Only the near-cache can hold it; worth fixing in the region configuration, so said once
+            if (!unencodableReported) {
+                unencodableReported = true;
+                log.warn("Partitioned cache region '{}' holds {} values, which cannot be sent to their owner",
+                        getName(), value.getClass().getSimpleName());
+            }
+            return;
+        }
+        try {
+            cluster.remotePut(owner, getName(), key, bytes);
+        } catch (IOException | RuntimeException ex) {
+            remoteFailure("write", owner, key, ex);
+        }
+    }
+
+    // Not atomic across nodes: two nodes can both see the key absent and both store their value
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        if (ownerOf(key) == null) {
+            return owned.putIfAbsent(key, value);
+        }
+        ValueWrapper existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = dropLocally(key);
+        // Every node, not only the owner, since any of them may hold a near-cache or transferred copy;
+        // that includes evictions on the owner itself
+        if (CacheWireCodec.encodableKey(key)) {
+            evicted |= cluster.broadcastEvict(getName(), key);
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        invalidate();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean hadEntries = dropAllLocally();
+        cluster.broadcastClear(getName());
+        return hadEntries;
+    }
+
+    // Null when the key never leaves this node: no wire encoding, or the ring assigns it here
+    private String ownerOf(Object key) {
+        if (!CacheWireCodec.encodableKey(key)) {
+            return null;
+        }
+        String owner = cluster.ownerOf(key);
+        return owner.equals(cluster.self()) ? null : owner;
+    }
+
+    private void remoteFailure(String operation, String owner, Object key, Exception ex) {
+        remoteFailures.increment();
+        log.debug("Partitioned cache {} of {}[{}] on {} failed: {}", operation, getName(), key, owner, ex.toString());
+    }
+
+    // Requests from peers
+
+    ValueWrapper ownedGet(Object key) {
+        return owned.get(key);
+    }
+
+    void ownedPut(Object key, Object value) {
+        owned.put(key, value);
+    }
+
+    void acceptTransfer(Object key, Object value) {
+        // A value this node loaded since the ring changed is at least as fresh as the transferred one
+        if (owned.putIfAbsent(key, value) == null) {
+            transferredIn.increment();
+        }
+    }
+
+    void transferredOut(int entries) {
+        transferredOut.add(entries);
+    }
+
+    boolean dropLocally(Object key) {
+        if (near != null) {
+            near.evict(key);
+        }
+        return owned.evictIfPresent(key);
+    }
+
+    boolean dropAllLocally() {
+        if (near != null) {
+            near.invalidate();
+        }
+        return owned.invalidate();
+    }
+
+    @SuppressWarnings("unchecked")
+    com.github.benmanes.caffeine.cache.Cache<Object, Object> ownedEntries() {
+        return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) owned.getNativeCache();
+    }
+
+    RegionStats stats() {
+        long nearEntries = near != null
+                ? ((com.github.benmanes.caffeine.cache.Cache<?, ?>) near.getNativeCache()).estimatedSize() : 0;
+        return new RegionStats(ownedEntries().estimatedSize(), nearEntries, nearHits.sum(), remoteHits.sum(),
+                remoteMisses.sum(), remoteFailures.sum(), transferredOut.sum(), transferredIn.sum());
+    }
+
+    public record RegionStats(long ownedEntries, long nearEntries, long nearHits, long remoteHits, long remoteMisses,
+                              long remoteFailures, long entriesTransferredOut, long entriesTransferredIn) {
+    }
+}
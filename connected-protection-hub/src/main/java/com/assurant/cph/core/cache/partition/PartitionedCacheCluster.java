@@ -0,0 +1,445 @@
+package com.assurant.cph.core.cache.partition;
+
+import com.assurant.cph.config.CacheProperties;
+import com.assurant.cph.core.cache.CacheWireCodec;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Membership and routing for the partitioned cache regions. Nodes ping the configured members, plus any
+ * node that pinged them, every heartbeat; the ones that answer form the hash ring. When the ring changes
+ * each node hands the entries it no longer owns to their new owners, and a node shutting down hands over
+ * everything before it leaves, so a rolling restart keeps the cluster warm. A node that crashes takes its
+ * entries with it; they are reloaded from the database on the next miss.
+ *
+ * <p>Members are identified by {@code host:port} as reachable by their peers.
+ */
+@Slf4j
+public class PartitionedCacheCluster implements SmartLifecycle {
+
+    private final CacheProperties.Partitioning settings;
+    private final String self;
+    private final CacheWireCodec codec = new CacheWireCodec();
+    private final PartitionClient client;
+    private final Map<String, PartitionedCache> regions = new ConcurrentHashMap<>();
+
+    // Peers to ping: the configured members plus those that introduced themselves by pinging this node
+    private final Set<String> knownMembers = ConcurrentHashMap.newKeySet();
+    private final Set<String> configuredMembers;
+    // Consecutive missed pings per member; touched by the membership thread only
+    private final Map<String, Integer> missedPings = new HashMap<>();
+    private final Set<String> misnamedMembers = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder rebalances = new LongAdder();
+    private volatile ConsistentHashRing ring;
+    private volatile boolean running;
+    private PartitionServer server;
+    private ScheduledExecutorService membership;
+
+    public PartitionedCacheCluster(CacheProperties.Partitioning settings) {
+        if (settings.getPort() <= 0) {
+            throw new IllegalStateException("Partitioned caching needs a fixed cph.cache.partitioning.port that peers can reach");
+        }
+        if (settings.getSecret() == null || settings.getSecret().isBlank()) {
+            throw new IllegalStateException("Partitioned caching needs a cph.cache.partitioning.secret shared by every node");
+        }
+        this.settings = settings;
+        this.self = settings.getAdvertisedHost() + ":" + settings.getPort();
+        this.client = new PartitionClient(settings.getRequestTimeout(), settings.getSecret());
+        this.configuredMembers = new LinkedHashSet<>(settings.getMembers());
+        configuredMembers.remove(self);
+        knownMembers.addAll(configuredMembers);
+        // Alone until the first heartbeat finds the peers, so startup never waits on the network
+        this.ring = new ConsistentHashRing(new TreeSet<>(Set.of(self)), settings.getVirtualNodes());
+    }
+
+    /**
+     * Spreads a region over the cluster. The given cache keeps the entries this node owns, bounded and
+     * expired as configured for the region.
+     */
+    public Cache partition(Cache owned) {
+        if (!(owned.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?>)) {
+            throw new IllegalStateException("Cache region '" + owned.getName() + "' needs a Caffeine cache to be partitioned");
+        }
+        Cache near = null;
+        if (settings.getNearCacheMaximumSize() > 0) {
+            near = new CaffeineCache(owned.getName(), Caffeine.newBuilder()
+                    .maximumSize(settings.getNearCacheMaximumSize())
+                    .expireAfterWrite(settings.getNearCacheExpireAfterWrite())
+                    .build());
+        }
+        PartitionedCache partitioned = new PartitionedCache(owned, near, this);
+        regions.put(owned.getName(), partitioned);
+        return partitioned;
+    }
+
+    String self() {
+        return self;
+    }
+
+    CacheWireCodec codec() {
+        return codec;
+    }
+
+    String ownerOf(Object key) {
+        return ring.ownerOf(keyBytes(key));
+    }
+
+    // Before the server is up, or while stopping, the rest of the cluster is out of reach
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    @Override
+    public void start() {
+        try {
+            String bindAddress = settings.getBindAddress() != null ? settings.getBindAddress() : settings.getAdvertisedHost();
+            server = new PartitionServer(bindAddress, settings.getPort(), settings.getSecret(), this::handle);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot listen for cache partition peers on port " + settings.getPort(), ex);
+        }
+        membership = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-partition-membership");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        long interval = settings.getHeartbeatInterval().toMillis();
+        membership.scheduleWithFixedDelay(this::heartbeat, 0, interval, TimeUnit.MILLISECONDS);
+        log.info("Partitioned cache node {} started for regions {}, peers {}", self, regions.keySet(), configuredMembers);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        membership.shutdownNow();
+        try {
+            membership.awaitTermination(settings.getRequestTimeout().toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        ConsistentHashRing remaining = ring.without(self);
+        if (!remaining.members().isEmpty()) {
+            int handedOver = handOver(remaining);
+            for (String member : remaining.members()) {
+                try {
+                    client.call(member, out -> {
+                        out.writeByte(PartitionProtocol.LEAVE);
+                        out.writeUTF(self);
+                    }, DataInputStream::readByte);
+                } catch (IOException ex) {
+                    log.debug("Could not tell {} that {} is leaving: {}", member, self, ex.toString());
+                }
+            }
+            log.info("Partitioned cache node {} left, handing {} entries to {}", self, handedOver, remaining.members());
+        }
+        // Whatever still reads the caches during shutdown stays on this node
+        ring = new ConsistentHashRing(new TreeSet<>(Set.of(self)), settings.getVirtualNodes());
+        client.close();
+        server.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public PartitionStats getStats() {
+        ConsistentHashRing current = ring;
+        Map<String, Double> ownership = new TreeMap<>();
+        current.shares().forEach(share -> ownership.put(share.member(), share.fraction()));
+        Map<String, PartitionedCache.RegionStats> regionStats = new TreeMap<>();
+        regions.forEach((name, region) -> regionStats.put(name, region.stats()));
+        return new PartitionStats(self, List.copyOf(current.members()), ownership, rebalances.sum(), regionStats);
+    }
+
+    public record PartitionStats(String self, List<String> members, Map<String, Double> ownership, long rebalances,
+                                 Map<String, PartitionedCache.RegionStats> regions) {
+    }
+
+    // Membership
+
+    private void heartbeat() {
+        try {
+            Set<String> alive = new TreeSet<>();
+            alive.add(self);
+            for (String member : List.copyOf(knownMembers)) {
+                if (ping(member)) {
+                    missedPings.remove(member);
+                    alive.add(member);
+                    continue;
+                }
+                int missed = missedPings.merge(member, 1, Integer::sum);
+                if (missed < settings.getFailureThreshold() && ring.members().contains(member)) {
+                    // A single slow answer is not enough to move its keys elsewhere
+                    alive.add(member);
+                } else if (missed >= settings.getFailureThreshold() && !configuredMembers.contains(member)) {
+                    knownMembers.remove(member);
+                }
+            }
+            changeRing(alive);
+        } catch (RuntimeException ex) {
+            log.error("Partition membership check failed, retrying on the next heartbeat", ex);
+        }
+    }
+
+    private boolean ping(String member) {
+        try {
+            String answer = client.call(member, out -> {
+                out.writeByte(PartitionProtocol.PING);
+                out.writeUTF(self);
+            }, in -> in.readUTF());
+            if (!member.equals(answer) && misnamedMembers.add(member)) {
+                // Ring positions derive from the names, so every node must know a peer by the same one
+                log.warn("Cache partition member {} calls itself {}; list it under that name", member, answer);
+            }
+            return member.equals(answer);
+        } catch (IOException ex) {
+            client.forget(member);
+            return false;
+        }
+    }
+
+    // Runs on the membership thread only
+    private void changeRing(Set<String> members) {
+        if (members.equals(ring.members())) {
+            return;
+        }
+        ConsistentHashRing previous = ring;
+        ring = new ConsistentHashRing(new TreeSet<>(members), settings.getVirtualNodes());
+        rebalances.increment();
+        int moved = handOver(ring);
+        log.info("Partitioned cache ring changed from {} to {}, moved {} entries to their new owners",
+                previous.members(), members, moved);
+    }
+
+    // Sends every owned entry that the given ring assigns to another node to that node
+    private int handOver(ConsistentHashRing target) {
+        int moved = 0;
+        for (PartitionedCache region : regions.values()) {
+            Map<String, Map<Object, Object>> byOwner = new HashMap<>();
+            region.ownedEntries().asMap().forEach((key, value) -> {
+                if (CacheWireCodec.encodableKey(key)) {
+                    String owner = target.ownerOf(keyBytes(key));
+                    if (!owner.equals(self)) {
+                        byOwner.computeIfAbsent(owner, o -> new LinkedHashMap<>()).put(key, value);
+                    }
+                }
+            });
+            for (Map.Entry<String, Map<Object, Object>> entry : byOwner.entrySet()) {
+                moved += transfer(region, entry.getKey(), entry.getValue());
+            }
+        }
+        return moved;
+    }
+
+    private int transfer(PartitionedCache region, String owner, Map<Object, Object> entries) {
+        int moved = 0;
+        List<Map.Entry<Object, byte[]>> batch = new ArrayList<>(settings.getTransferBatchSize());
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            byte[] bytes = codec.encodeValue(entry.getValue());
+            if (bytes != null) {
+                batch.add(Map.entry(entry.getKey(), bytes));
+            }
+            if (batch.size() == settings.getTransferBatchSize()) {
+                moved += sendTransfer(region, owner, batch, entries);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            moved += sendTransfer(region, owner, batch, entries);
+        }
+        // Whatever could not be sent is dropped too; keeping it would leave a copy no lookup routes to
+        entries.forEach((key, value) -> region.ownedEntries().asMap().remove(key, value));
+        region.transferredOut(moved);
+        return moved;
+    }
+
+    private int sendTransfer(PartitionedCache region, String owner, List<Map.Entry<Object, byte[]>> batch,
+                             Map<Object, Object> entries) {
+        try {
+            client.call(owner, out -> {
+                out.writeByte(PartitionProtocol.TRANSFER);
+                out.writeUTF(region.getName());
+                out.writeInt(batch.size());
+                for (Map.Entry<Object, byte[]> entry : batch) {
+                    CacheWireCodec.writeKey(out, entry.getKey());
+                    PartitionProtocol.writeBytes(out, entry.getValue());
+                }
+            }, DataInputStream::readInt);
+            return batch.size();
+        } catch (IOException ex) {
+            log.warn("Handing {} entries of {} to {} failed, dropping them: {}", batch.size(), region.getName(), owner, ex.toString());
+            return 0;
+        }
+    }
+
+    // Client side of the region operations
+
+    byte[] remoteGet(String owner, String region, Object key) throws IOException {
+        return client.call(owner, out -> {
+            out.writeByte(PartitionProtocol.GET);
+            out.writeUTF(region);
+            CacheWireCodec.writeKey(out, key);
+        }, in -> in.readBoolean() ? PartitionProtocol.readBytes(in) : null);
+    }
+
+    void remotePut(String owner, String region, Object key, byte[] value) throws IOException {
+        client.call(owner, out -> {
+            out.writeByte(PartitionProtocol.PUT);
+            out.writeUTF(region);
+            CacheWireCodec.writeKey(out, key);
+            PartitionProtocol.writeBytes(out, value);
+        }, DataInputStream::readByte);
+    }
+
+    boolean broadcastEvict(String region, Object key) {
+        boolean evicted = false;
+        for (String member : ring.members()) {
+            if (member.equals(self)) {
+                continue;
+            }
+            try {
+                evicted |= client.call(member, out -> {
+                    out.writeByte(PartitionProtocol.EVICT);
+                    out.writeUTF(region);
+                    CacheWireCodec.writeKey(out, key);
+                }, DataInputStream::readBoolean);
+            } catch (IOException ex) {
+                // A peer that cannot be told either is down or is about to be dropped from the ring
+                log.warn("Could not evict {}[{}] on {}: {}", region, key, member, ex.toString());
+            }
+        }
+        return evicted;
+    }
+
+    void broadcastClear(String region) {
+        for (String member : ring.members()) {
+            if (member.equals(self)) {
+                continue;
+            }
+            try {
+                client.call(member, out -> {
+                    out.writeByte(PartitionProtocol.CLEAR);
+                    out.writeUTF(region);
+                }, DataInputStream::readByte);
+            } catch (IOException ex) {
+                log.warn("Could not clear {} on {}: {}", region, member, ex.toString());
+            }
+        }
+    }
+
+    // Server side
+
+    private void handle(byte operation, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (operation) {
+            case PartitionProtocol.PING -> {
+                String member = in.readUTF();
+                out.writeUTF(self);
+                if (running && knownMembers.add(member)) {
+                    // A node that just started; take it into the ring now rather than at the next heartbeat
+                    membership.execute(this::heartbeat);
+                }
+            }
+            case PartitionProtocol.GET -> {
+                PartitionedCache region = regions.get(in.readUTF());
+                Object key = CacheWireCodec.readKey(in);
+                Cache.ValueWrapper found = region != null ? region.ownedGet(key) : null;
+                byte[] bytes = found != null ? codec.encodeValue(found.get()) : null;
+                out.writeBoolean(bytes != null);
+                if (bytes != null) {
+                    PartitionProtocol.writeBytes(out, bytes);
+                }
+            }
+            case PartitionProtocol.PUT -> {
+                PartitionedCache region = regions.get(in.readUTF());
+                Object key = CacheWireCodec.readKey(in);
+                byte[] bytes = PartitionProtocol.readBytes(in);
+                if (region != null) {
+                    region.ownedPut(key, codec.decodeValue(bytes));
+                }
+                out.writeByte(0);
+            }
+            case PartitionProtocol.EVICT -> {
+                PartitionedCache region = regions.get(in.readUTF());
+                Object key = CacheWireCodec.readKey(in);
+                out.writeBoolean(region != null && region.dropLocally(key));
+            }
+            case PartitionProtocol.CLEAR -> {
+                PartitionedCache region = regions.get(in.readUTF());
+                if (region != null) {
+                    region.dropAllLocally();
+                }
+                out.writeByte(0);
+            }
+            case PartitionProtocol.TRANSFER -> {
+                PartitionedCache region = regions.get(in.readUTF());
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    Object key = CacheWireCodec.readKey(in);
+                    byte[] bytes = PartitionProtocol.readBytes(in);
+                    if (region != null) {
+                        region.acceptTransfer(key, codec.decodeValue(bytes));
+                    }
+                }
+                out.writeInt(count);
+            }
+            case PartitionProtocol.LEAVE -> {
+                String member = in.readUTF();
+                out.writeByte(0);
+                if (running) {
+                    membership.execute(() -> leave(member));
+                }
+            }
+            default -> throw new IOException("Unknown partition operation " + operation);
+        }
+    }
+
+    private void leave(String member) {
+        knownMembers.remove(member);
+        missedPings.remove(member);
+        client.forget(member);
+        Set<String> members = new TreeSet<>(ring.members());
+        members.remove(member);
+        changeRing(members);
+        // Configured members come back through the heartbeat once they restart
+        if (configuredMembers.contains(member)) {
+            knownMembers.add(member);
+            missedPings.put(member, settings.getFailureThreshold());
+        }
+    }
+
+    private static byte[] keyBytes(Object key) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(24);
+        try {
+            CacheWireCodec.writeKey(new DataOutputStream(bytes), key);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,12 @@
+package com.assurant.cph.core.domain;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Entities listed in creation order; (createdAt, id) is unique and never changes once the row is written
+public interface Chronological {
+
+    UUID getId();
+
+    LocalDateTime getCreatedAt();
+}
@@ -2,18 +2,23 @@ package com.assurant.cph.core.domain;
 
 import lombok.*;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "claims")
+@Table(name = "claims", indexes = @Index(name = "idx_claims_created_at_id", columnList = "created_at, id"))
+@Cacheable
+// Cached so the plan's cached claim list resolves without a query per claim
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "claim")
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class Claim {
+public class Claim implements Chronological {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -66,9 +71,6 @@ public class Claim {
         if (status == null) {
             status = ClaimStatus.SUBMITTED;
         }
-        if (claimNumber == null) {
-            claimNumber = "CLM-" + System.currentTimeMillis();
-        }
     }
 
     @PreUpdate
@@ -0,0 +1,86 @@
+package com.assurant.cph.core.domain;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// A payment file uploaded for background processing. The counters advance in the same transaction as each
+// chunk of payments, so after a crash the job resumes right after the last committed chunk
+@Entity
+@Table(name = "payment_batch_jobs", indexes = @Index(name = "idx_payment_batch_jobs_status", columnList = "status"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentBatchJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status;
+
+    // Local to the node that received the upload, which is the only one able to run or resume the job
+    @Column(nullable = false)
+    private String uploadFile;
+
+    @Column(nullable = false)
+    private Long uploadBytes;
+
+    @Column(nullable = false)
+    private Long processedItems;
+
+    @Column(nullable = false)
+    private Long acceptedItems;
+
+    @Column(nullable = false)
+    private Long rejectedItems;
+
+    @Column(columnDefinition = "TEXT")
+    private String failureReason;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+
+        if (status == null) {
+            status = JobStatus.QUEUED;
+        }
+        if (processedItems == null) {
+            processedItems = 0L;
+        }
+        if (acceptedItems == null) {
+            acceptedItems = 0L;
+        }
+        if (rejectedItems == null) {
+            rejectedItems = 0L;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
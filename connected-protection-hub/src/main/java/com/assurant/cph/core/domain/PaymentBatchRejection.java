@@ -0,0 +1,32 @@
+package com.assurant.cph.core.domain;
+
+import lombok.*;
+import jakarta.persistence.*;
+import java.util.UUID;
+
+// One payment of a batch job that was not accepted, by its position in the uploaded file
+@Entity
+@Table(name = "payment_batch_rejections",
+        indexes = @Index(name = "idx_payment_batch_rejections_job_item", columnList = "job_id, item_index"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentBatchRejection {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "item_index", nullable = false)
+    private Integer itemIndex;
+
+    private String paymentReference;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String reason;
+}
@@ -7,13 +7,17 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "payment_records")
+@Table(name = "payment_records", indexes = {
+        @Index(name = "idx_payment_records_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_payment_records_payment_date_id", columnList = "payment_date, id"),
+        @Index(name = "idx_payment_records_status_payment_date", columnList = "status, payment_date")
+})
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class PaymentRecord {
+public class PaymentRecord implements Chronological {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -51,7 +55,8 @@ public class PaymentRecord {
     @JoinColumn(name = "protection_plan_id", nullable = false)
     private ProtectionPlan protectionPlan;
 
-    @OneToOne(mappedBy = "paymentRecord", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "claim_id")
     private Claim claim;
 
     @Column(nullable = false, updatable = false)
@@ -70,10 +75,6 @@ public class PaymentRecord {
             status = PaymentStatus.PENDING;
         }
 
-        if (paymentReference == null) {
-            paymentReference = "PAY-" + System.currentTimeMillis();
-        }
-
         if (paymentDate == null) {
             paymentDate = LocalDateTime.now();
         }
@@ -3,19 +3,24 @@ package com.assurant.cph.core.domain;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "protected_assets")
+@Table(name = "protected_assets", indexes = @Index(name = "idx_protected_assets_created_at_id", columnList = "created_at, id"))
 @Inheritance(strategy = InheritanceType.JOINED)
+@Cacheable
+// Covers ElectronicDevice and Vehicle; only the status ever changes, so a brief stale read is acceptable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "protected-asset")
 @Getter
 @Setter
 @SuperBuilder // Mude para @SuperBuilder
 @NoArgsConstructor
 @AllArgsConstructor
-public class ProtectedAsset {
+public class ProtectedAsset implements Chronological {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
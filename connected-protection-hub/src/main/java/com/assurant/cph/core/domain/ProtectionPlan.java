@@ -2,19 +2,23 @@ package com.assurant.cph.core.domain;
 
 import lombok.*;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "protection_plans")
+@Table(name = "protection_plans", indexes = @Index(name = "idx_protection_plans_created_at_id", columnList = "created_at, id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "protection-plan")
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class ProtectionPlan {
+public class ProtectionPlan implements Chronological {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -55,6 +59,7 @@ public class ProtectionPlan {
     private ProtectedAsset protectedAsset;
 
     @OneToMany(mappedBy = "protectionPlan", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "protection-plan-claims")
     private List<Claim> claims;
 
     @OneToMany(mappedBy = "protectionPlan", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -0,0 +1,77 @@
+package com.assurant.cph.core.domain;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.MergeContext;
+import org.hibernate.event.spi.MergeEvent;
+import org.hibernate.event.spi.MergeEventListener;
+import org.hibernate.event.spi.PersistContext;
+import org.hibernate.event.spi.PersistEvent;
+import org.hibernate.event.spi.PersistEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Numbers new payments, claims, repair orders and support interactions that arrive without one, from the
+ * node's {@link ReferenceSequence}. Registered ahead of Hibernate's own persist and merge listeners, so the
+ * number is in place before the entities' {@code @PrePersist} callbacks and validation run.
+ */
+@RequiredArgsConstructor
+public class ReferenceNumberAssigner implements Integrator, PersistEventListener, MergeEventListener {
+
+    private final ReferenceSequence referenceSequence;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.PERSIST, this);
+        registry.prependListeners(EventType.PERSIST_ONFLUSH, this);
+        registry.prependListeners(EventType.MERGE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPersist(PersistEvent event) {
+        assignNumber(event.getObject());
+    }
+
+    @Override
+    public void onPersist(PersistEvent event, PersistContext createdEntities) {
+        assignNumber(event.getObject());
+    }
+
+    // A transient entity merged is stored as a copy, which Hibernate persists without a persist event
+    @Override
+    public void onMerge(MergeEvent event) {
+        assignNumber(event.getOriginal());
+    }
+
+    @Override
+    public void onMerge(MergeEvent event, MergeContext copiedAlready) {
+        assignNumber(event.getOriginal());
+    }
+
+    // Proxies stand for rows that are already numbered
+    private void assignNumber(Object entity) {
+        if (entity instanceof HibernateProxy) {
+            return;
+        }
+        if (entity instanceof PaymentRecord payment && payment.getPaymentReference() == null) {
+            payment.setPaymentReference(referenceSequence.nextReference("PAY"));
+        } else if (entity instanceof Claim claim && claim.getClaimNumber() == null) {
+            claim.setClaimNumber(referenceSequence.nextReference("CLM"));
+        } else if (entity instanceof RepairOrder repairOrder && repairOrder.getRepairOrderNumber() == null) {
+            repairOrder.setRepairOrderNumber(referenceSequence.nextReference("RO"));
+        } else if (entity instanceof SupportInteraction interaction && interaction.getInteractionReference() == null) {
+            interaction.setInteractionReference(referenceSequence.nextReference("SUP"));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.assurant.cph.core.domain;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Business numbers for payments, claims, repair orders and support interactions: a prefix followed by a
+ * 64-bit id laid out Snowflake style, with 41 bits of milliseconds since 2024-01-01, 10 bits of node ID and
+ * 12 bits counting within the millisecond. Numbers from one node never repeat and sort in the order they
+ * were issued; numbers from different nodes cannot collide as long as each node runs with its own
+ * {@code cph.references.node-id}, which is why one instance per node is configured and shared by all its
+ * users, entities included through {@link ReferenceNumberAssigner}. The id is zero-padded to 19 digits so
+ * references also sort as text.
+ *
+ * <p>Lock-free: a caller that loses the race for the next value simply retries. More than 4096 numbers in
+ * one millisecond borrow the next one, and a clock stepping back keeps counting from the latest millisecond
+ * seen, so neither repeats a number.
+ */
+public final class ReferenceSequence {
+
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int DIGITS = 19;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final int nodeId;
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    // Timestamp and counter of the last id handed out, without the node bits
+    private final AtomicLong last = new AtomicLong();
+
+    public ReferenceSequence(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    ReferenceSequence(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public String nextReference(String prefix) {
+        String id = Long.toString(nextId());
+        return prefix + "-" + "0".repeat(DIGITS - id.length()) + id;
+    }
+
+    public long nextId() {
+        while (true) {
+            long previous = last.get();
+            long previousMillis = previous >>> SEQUENCE_BITS;
+            long millis = clock.getAsLong() - EPOCH;
+            long next;
+            if (millis > previousMillis) {
+                next = millis << SEQUENCE_BITS;
+            } else if ((previous & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = previous + 1;
+            } else {
+                next = (previousMillis + 1) << SEQUENCE_BITS;
+            }
+            if (last.compareAndSet(previous, next)) {
+                return (next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+}
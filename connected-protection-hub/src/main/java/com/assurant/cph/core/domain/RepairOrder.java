@@ -7,13 +7,13 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "repair_orders")
+@Table(name = "repair_orders", indexes = @Index(name = "idx_repair_orders_created_at_id", columnList = "created_at, id"))
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class RepairOrder {
+public class RepairOrder implements Chronological {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -80,9 +80,6 @@ public class RepairOrder {
         if (status == null) {
             status = RepairStatus.PENDING;
         }
-        if (repairOrderNumber == null) {
-            repairOrderNumber = "RO-" + System.currentTimeMillis();
-        }
     }
 
     @PreUpdate
@@ -163,10 +160,6 @@ public class RepairOrder {
                 repairOrder.setStatus(RepairStatus.PENDING);
             }
 
-            if (repairOrder.getRepairOrderNumber() == null) {
-                repairOrder.setRepairOrderNumber("RO-" + System.currentTimeMillis());
-            }
-
             return repairOrder;
         }
     }
@@ -65,9 +65,6 @@ public class SupportInteraction {
         if (status == null) {
             status = InteractionStatus.OPEN;
         }
-        if (interactionReference == null) {
-            interactionReference = "SUP-" + System.currentTimeMillis();
-        }
     }
 
     @PreUpdate
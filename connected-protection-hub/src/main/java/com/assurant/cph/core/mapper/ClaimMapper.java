@@ -1,6 +1,7 @@
 package com.assurant.cph.core.mapper;
 
 import com.assurant.cph.api.dto.ClaimDTO;
+import com.assurant.cph.api.dto.ClaimSnapshot;
 import com.assurant.cph.core.domain.Claim;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -16,6 +17,9 @@ public interface ClaimMapper {
     @Mapping(source = "protectionPlan.id", target = "protectionPlanId")
     ClaimDTO toDTO(Claim claim);
 
+    @Mapping(source = "protectionPlan.id", target = "protectionPlanId")
+    ClaimSnapshot toSnapshot(Claim claim);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "protectionPlan", ignore = true)
     @Mapping(target = "repairOrder", ignore = true)
@@ -1,6 +1,7 @@
 package com.assurant.cph.core.mapper;
 
 import com.assurant.cph.api.dto.CustomerDTO;
+import com.assurant.cph.api.dto.CustomerSnapshot;
 import com.assurant.cph.core.domain.Customer;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -17,6 +18,8 @@ public interface CustomerMapper {
 
     CustomerDTO toDTO(Customer customer);
 
+    CustomerSnapshot toSnapshot(Customer customer);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "protectedAssets", ignore = true)
     @Mapping(target = "protectionPlans", ignore = true)
@@ -51,4 +54,17 @@ public interface CustomerMapper {
                 .country(address.getCountry())
                 .build();
     }
+
+    default CustomerSnapshot.Address toAddressSnapshot(Customer.Address address) {
+        if (address == null) {
+            return null;
+        }
+
+        return new CustomerSnapshot.Address(
+                address.getStreet(),
+                address.getCity(),
+                address.getState(),
+                address.getPostalCode(),
+                address.getCountry());
+    }
 }
\ No newline at end of file
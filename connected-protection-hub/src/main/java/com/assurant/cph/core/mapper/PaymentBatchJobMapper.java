@@ -0,0 +1,11 @@
+package com.assurant.cph.core.mapper;
+
+import com.assurant.cph.api.dto.PaymentBatchJobSnapshot;
+import com.assurant.cph.core.domain.PaymentBatchJob;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface PaymentBatchJobMapper {
+
+    PaymentBatchJobSnapshot toSnapshot(PaymentBatchJob job);
+}
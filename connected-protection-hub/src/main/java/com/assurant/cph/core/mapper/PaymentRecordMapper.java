@@ -1,6 +1,7 @@
 package com.assurant.cph.core.mapper;
 
 import com.assurant.cph.api.dto.PaymentRecordDTO;
+import com.assurant.cph.api.dto.PaymentRecordSnapshot;
 import com.assurant.cph.core.domain.PaymentRecord;
 import com.assurant.cph.core.domain.ProtectionPlan;
 import org.mapstruct.Mapper;
@@ -19,6 +20,9 @@ public interface PaymentRecordMapper {
     @Mapping(source = "protectionPlan.id", target = "protectionPlanId")
     PaymentRecordDTO toDTO(PaymentRecord paymentRecord);
 
+    @Mapping(source = "protectionPlan.id", target = "protectionPlanId")
+    PaymentRecordSnapshot toSnapshot(PaymentRecord paymentRecord);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "protectionPlan", source = "protectionPlanId", qualifiedByName = "mapProtectionPlanIdToEntity")
     @Mapping(target = "claim", ignore = true)
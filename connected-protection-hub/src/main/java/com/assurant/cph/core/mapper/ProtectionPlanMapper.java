@@ -1,6 +1,7 @@
 package com.assurant.cph.core.mapper;
 
 import com.assurant.cph.api.dto.ProtectionPlanDTO;
+import com.assurant.cph.api.dto.ProtectionPlanSnapshot;
 import com.assurant.cph.core.domain.ProtectionPlan;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -18,6 +19,10 @@ public interface ProtectionPlanMapper {
     @Mapping(source = "protectedAsset.id", target = "assetId")
     ProtectionPlanDTO toDTO(ProtectionPlan protectionPlan);
 
+    @Mapping(source = "customer.id", target = "customerId")
+    @Mapping(source = "protectedAsset.id", target = "assetId")
+    ProtectionPlanSnapshot toSnapshot(ProtectionPlan protectionPlan);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "customer", ignore = true)
     @Mapping(target = "protectedAsset", ignore = true)
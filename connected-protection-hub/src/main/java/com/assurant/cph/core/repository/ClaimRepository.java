@@ -1,20 +1,37 @@
 package com.assurant.cph.core.repository;
 
+import com.assurant.cph.api.dto.ClaimSummary;
+import com.assurant.cph.core.cache.CachedQueries;
 import com.assurant.cph.core.domain.Claim;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ClaimRepository extends JpaRepository<Claim, UUID> {
+@CachedQueries
+public interface ClaimRepository extends JpaRepository<Claim, UUID>, KeysetRepository<Claim> {
 
     Optional<Claim> findByClaimNumber(String claimNumber);
+
+    @Query("SELECT c.id FROM Claim c WHERE c.claimNumber = :claimNumber")
+    Optional<UUID> findIdByClaimNumber(@Param("claimNumber") String claimNumber);
+
+    @Query("SELECT c.claimNumber FROM Claim c")
+    Stream<String> streamAllClaimNumbers();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Claim> findByProtectionPlanId(UUID protectionPlanId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Claim> findByProtectionPlanCustomerId(UUID customerId);
 
     @Query("SELECT c FROM Claim c WHERE c.status = :status")
@@ -22,4 +39,9 @@ public interface ClaimRepository extends JpaRepository<Claim, UUID> {
 
     @Query("SELECT COUNT(c) FROM Claim c WHERE c.protectionPlan.customer.id = :customerId")
     Long countByCustomerId(@Param("customerId") UUID customerId);
+
+    @Query("SELECT new com.assurant.cph.api.dto.ClaimSummary(c.status, c.claimType, COUNT(c), " +
+            "COALESCE(SUM(c.claimedAmount), 0.0), COALESCE(SUM(c.approvedAmount), 0.0)) " +
+            "FROM Claim c GROUP BY c.status, c.claimType ORDER BY c.status, c.claimType")
+    List<ClaimSummary> summarizeByStatusAndType();
 }
\ No newline at end of file
@@ -6,12 +6,14 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, UUID> {
+public interface CustomerRepository extends JpaRepository<Customer, UUID>, KeysetRepository<Customer> {
 
     Optional<Customer> findByEmail(String email);
     Optional<Customer> findByDocumentNumber(String documentNumber);
@@ -22,5 +24,20 @@ public interface CustomerRepository extends JpaRepository<Customer, UUID> {
 
     boolean existsByEmail(String email);
     boolean existsByDocumentNumber(String documentNumber);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.email = :email")
+    Optional<UUID> findIdByEmail(@Param("email") String email);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.documentNumber = :documentNumber")
+    Optional<UUID> findIdByDocumentNumber(@Param("documentNumber") String documentNumber);
+
+    @Query("SELECT c.email FROM Customer c")
+    Stream<String> streamAllEmails();
+
+    @Query("SELECT c.documentNumber FROM Customer c")
+    Stream<String> streamAllDocumentNumbers();
+
+    @Query("SELECT new com.assurant.cph.core.repository.EntityVersion(c.id, c.updatedAt) FROM Customer c WHERE c.id IN :ids")
+    List<EntityVersion> findVersionsByIdIn(@Param("ids") Collection<UUID> ids);
 }
 
@@ -11,7 +11,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ElectronicDeviceRepository extends JpaRepository<ElectronicDevice, UUID> {
+public interface ElectronicDeviceRepository extends JpaRepository<ElectronicDevice, UUID>, KeysetRepository<ElectronicDevice> {
 
     Optional<ElectronicDevice> findByImei(String imei);
     List<ElectronicDevice> findByBrand(String brand);
@@ -0,0 +1,8 @@
+package com.assurant.cph.core.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Row id and last modification time, used to tell whether a cached copy is still current
+public record EntityVersion(UUID id, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,43 @@
+package com.assurant.cph.core.repository;
+
+import com.assurant.cph.core.domain.Chronological;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lists an entity in (createdAt, id) order, one page at a time, resuming after the last row of the
+ * previous page rather than skipping an offset. The bound on createdAt alone is implied by the one
+ * after it, but it is what lets the database seek the (created_at, id) index instead of scanning it
+ * from the start, so every page costs the same however deep it is.
+ */
+@NoRepositoryBean
+public interface KeysetRepository<T extends Chronological> {
+
+    @Query("SELECT e FROM #{#entityName} e ORDER BY e.createdAt, e.id")
+    List<T> findOldestFirst(Limit limit);
+
+    @Query("SELECT e FROM #{#entityName} e WHERE e.createdAt >= :createdAt AND (e.createdAt > :createdAt OR e.id > :id) " +
+            "ORDER BY e.createdAt, e.id")
+    List<T> findOldestFirstAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Limit limit);
+
+    @Query("SELECT e FROM #{#entityName} e ORDER BY e.createdAt DESC, e.id DESC")
+    List<T> findNewestFirst(Limit limit);
+
+    @Query("SELECT e FROM #{#entityName} e WHERE e.createdAt <= :createdAt AND (e.createdAt < :createdAt OR e.id < :id) " +
+            "ORDER BY e.createdAt DESC, e.id DESC")
+    List<T> findNewestFirstAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Limit limit);
+
+    default List<T> findPage(Sort.Direction direction, PageCursor after, Limit limit) {
+        if (direction.isAscending()) {
+            return after == null ? findOldestFirst(limit) : findOldestFirstAfter(after.timestamp(), after.id(), limit);
+        }
+        return after == null ? findNewestFirst(limit) : findNewestFirstAfter(after.timestamp(), after.id(), limit);
+    }
+}
@@ -0,0 +1,46 @@
+package com.assurant.cph.core.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last row of a page in (timestamp, id) order, handed to clients as an opaque token.
+ * The timestamp is whichever one the listing is ordered by, its creation time for most of them.
+ * The token also records the direction the rows were listed in, so it cannot continue a listing in
+ * the opposite order.
+ */
+public record PageCursor(Sort.Direction direction, LocalDateTime timestamp, UUID id) {
+
+    private static final byte VERSION = 1;
+    private static final int LENGTH = 2 + Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+                .put(VERSION)
+                .put((byte) direction.ordinal())
+                .putLong(timestamp.toEpochSecond(ZoneOffset.UTC))
+                .putInt(timestamp.getNano())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() == LENGTH && buffer.get() == VERSION) {
+                Sort.Direction direction = Sort.Direction.values()[buffer.get()];
+                LocalDateTime timestamp = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+                return new PageCursor(direction, timestamp, new UUID(buffer.getLong(), buffer.getLong()));
+            }
+        } catch (RuntimeException e) {
+            // Not base64, or a direction or timestamp out of range
+        }
+        throw new IllegalArgumentException("Invalid page cursor: " + token);
+    }
+}
@@ -0,0 +1,38 @@
+package com.assurant.cph.core.repository;
+
+import com.assurant.cph.core.domain.PaymentBatchJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PaymentBatchJobRepository extends JpaRepository<PaymentBatchJob, UUID> {
+
+    List<PaymentBatchJob> findByStatusInOrderByCreatedAt(Collection<PaymentBatchJob.JobStatus> statuses);
+
+    @Modifying
+    @Query("UPDATE PaymentBatchJob j SET j.status = 'RUNNING', j.startedAt = COALESCE(j.startedAt, :now), " +
+            "j.updatedAt = :now WHERE j.id = :id")
+    int markRunning(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    // Runs in the transaction of the chunk it counts
+    @Modifying
+    @Query("UPDATE PaymentBatchJob j SET j.processedItems = j.processedItems + :processed, " +
+            "j.acceptedItems = j.acceptedItems + :accepted, j.rejectedItems = j.rejectedItems + :rejected, " +
+            "j.updatedAt = :now WHERE j.id = :id")
+    int recordProgress(@Param("id") UUID id, @Param("processed") long processed, @Param("accepted") long accepted,
+                       @Param("rejected") long rejected, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE PaymentBatchJob j SET j.status = :status, j.failureReason = :failureReason, j.finishedAt = :now, " +
+            "j.updatedAt = :now WHERE j.id = :id")
+    int finish(@Param("id") UUID id, @Param("status") PaymentBatchJob.JobStatus status,
+               @Param("failureReason") String failureReason, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,23 @@
+package com.assurant.cph.core.repository;
+
+import com.assurant.cph.core.domain.PaymentBatchRejection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PaymentBatchRejectionRepository extends JpaRepository<PaymentBatchRejection, UUID> {
+
+    // Pages through a job's rejections in file order over the (job_id, item_index) index
+    List<PaymentBatchRejection> findByJobIdAndItemIndexGreaterThanOrderByItemIndex(UUID jobId, int afterIndex, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM PaymentBatchRejection r WHERE r.jobId = :jobId")
+    int deleteByJobId(@Param("jobId") UUID jobId);
+}
@@ -1,20 +1,101 @@
 package com.assurant.cph.core.repository;
 
+import com.assurant.cph.api.dto.PaymentMethodRevenue;
+import com.assurant.cph.api.dto.PaymentRecordSnapshot;
+import com.assurant.cph.api.dto.PaymentStatistics;
+import com.assurant.cph.api.dto.PaymentStatusSummary;
+import com.assurant.cph.core.cache.CachedQueries;
 import com.assurant.cph.core.domain.PaymentRecord;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface PaymentRecordRepository extends JpaRepository<PaymentRecord, UUID> {
+@CachedQueries
+public interface PaymentRecordRepository extends JpaRepository<PaymentRecord, UUID>, KeysetRepository<PaymentRecord> {
 
     Optional<PaymentRecord> findByPaymentReference(String paymentReference);
     Optional<PaymentRecord> findByTransactionId(String transactionId);
+
+    @Query("SELECT pr.id FROM PaymentRecord pr WHERE pr.paymentReference = :paymentReference")
+    Optional<UUID> findIdByPaymentReference(@Param("paymentReference") String paymentReference);
+
+    @Query("SELECT pr.paymentReference FROM PaymentRecord pr")
+    Stream<String> streamAllPaymentReferences();
+
+    // The given references already taken, for checking a whole batch in one query
+    @Query("SELECT pr.paymentReference FROM PaymentRecord pr WHERE pr.paymentReference IN :references")
+    List<String> findExistingPaymentReferences(@Param("references") Collection<String> references);
+
+    @Query("SELECT pr.transactionId FROM PaymentRecord pr WHERE pr.transactionId IN :transactionIds")
+    List<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
+    String SELECT_SNAPSHOTS = "SELECT new com.assurant.cph.api.dto.PaymentRecordSnapshot(pr.id, pr.paymentReference, " +
+            "pr.amount, pr.paymentDate, pr.paymentMethod, pr.status, pr.transactionId, pr.payerInfo, pr.paymentDetails, " +
+            "pr.protectionPlan.id, pr.createdAt, pr.updatedAt) FROM PaymentRecord pr ";
+    String MATCHING_STATUS_AND_METHOD = "(:status IS NULL OR pr.status = :status) AND (:method IS NULL OR pr.paymentMethod = :method) ";
+
+    // Rows come straight off the cursor as snapshots, so nothing accumulates in the persistence context
+    @Query(SELECT_SNAPSHOTS + "WHERE " + MATCHING_STATUS_AND_METHOD +
+            "AND (:from IS NULL OR pr.paymentDate >= :from) AND (:to IS NULL OR pr.paymentDate <= :to) " +
+            "ORDER BY pr.createdAt, pr.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<PaymentRecordSnapshot> streamForExport(@Param("status") PaymentRecord.PaymentStatus status,
+                                                  @Param("method") PaymentRecord.PaymentMethod method,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to);
+
+    // Range scans of the (payment_date, id) index. Resuming a page, from or to is the cursor's payment date
+    // and the rows at that instant are split by id
+    @Query(SELECT_SNAPSHOTS + "WHERE pr.paymentDate >= :from AND pr.paymentDate <= :to " +
+            "AND (:afterId IS NULL OR pr.paymentDate > :from OR pr.id > :afterId) AND " + MATCHING_STATUS_AND_METHOD +
+            "ORDER BY pr.paymentDate, pr.id")
+    List<PaymentRecordSnapshot> findByPaymentDateAscending(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                           @Param("afterId") UUID afterId,
+                                                           @Param("status") PaymentRecord.PaymentStatus status,
+                                                           @Param("method") PaymentRecord.PaymentMethod method,
+                                                           Limit limit);
+
+    @Query(SELECT_SNAPSHOTS + "WHERE pr.paymentDate >= :from AND pr.paymentDate <= :to " +
+            "AND (:afterId IS NULL OR pr.paymentDate < :to OR pr.id < :afterId) AND " + MATCHING_STATUS_AND_METHOD +
+            "ORDER BY pr.paymentDate DESC, pr.id DESC")
+    List<PaymentRecordSnapshot> findByPaymentDateDescending(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                            @Param("afterId") UUID afterId,
+                                                            @Param("status") PaymentRecord.PaymentStatus status,
+                                                            @Param("method") PaymentRecord.PaymentMethod method,
+                                                            Limit limit);
+
+    // Oldest first over the (status, payment_date) index. The rows stay locked until the caller's
+    // transaction ends, so a payment completed meanwhile is either changed by the caller or not at all
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.assurant.cph.core.repository.PaymentRef(pr.id, pr.protectionPlan.id, " +
+            "pr.protectionPlan.customer.id, pr.paymentMethod, pr.amount) FROM PaymentRecord pr " +
+            "WHERE pr.status = :status AND pr.paymentDate < :before ORDER BY pr.paymentDate, pr.id")
+    List<PaymentRef> lockByStatusAndPaymentDateBefore(@Param("status") PaymentRecord.PaymentStatus status,
+                                                      @Param("before") LocalDateTime before,
+                                                      Limit limit);
+
+    @Modifying
+    @Query("UPDATE PaymentRecord pr SET pr.status = :status, pr.updatedAt = :updatedAt WHERE pr.id IN :ids")
+    int updateStatus(@Param("ids") Collection<UUID> ids,
+                     @Param("status") PaymentRecord.PaymentStatus status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
     List<PaymentRecord> findByStatus(PaymentRecord.PaymentStatus status);
     List<PaymentRecord> findByPaymentMethod(PaymentRecord.PaymentMethod paymentMethod);
 
@@ -26,4 +107,24 @@ public interface PaymentRecordRepository extends JpaRepository<PaymentRecord, UU
 
     @Query("SELECT SUM(pr.amount) FROM PaymentRecord pr WHERE pr.protectionPlan.customer.id = :customerId AND pr.status = 'COMPLETED'")
     Double getTotalPaidAmountByCustomer(@Param("customerId") UUID customerId);
+
+    // Reporting: grouped in the database, one row back per group
+    @Query("SELECT new com.assurant.cph.api.dto.PaymentStatusSummary(pr.status, COUNT(pr), COALESCE(SUM(pr.amount), 0.0)) " +
+            "FROM PaymentRecord pr GROUP BY pr.status ORDER BY pr.status")
+    List<PaymentStatusSummary> summarizeByStatus();
+
+    @Query("SELECT new com.assurant.cph.api.dto.PaymentMethodRevenue(pr.paymentMethod, COUNT(pr), COALESCE(SUM(pr.amount), 0.0)) " +
+            "FROM PaymentRecord pr WHERE pr.status = 'COMPLETED' GROUP BY pr.paymentMethod ORDER BY pr.paymentMethod")
+    List<PaymentMethodRevenue> summarizeRevenueByMethod();
+
+    // Empty when the customer has no payments at all
+    @Query("SELECT new com.assurant.cph.api.dto.PaymentStatistics(pr.protectionPlan.customer.id, " +
+            "COALESCE(SUM(CASE WHEN pr.status = 'COMPLETED' THEN pr.amount END), 0.0), " +
+            "SUM(CASE WHEN pr.status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN pr.status = 'PENDING' THEN 1 ELSE 0 END), " +
+            "COUNT(pr), " +
+            "COALESCE(AVG(CASE WHEN pr.status = 'COMPLETED' THEN pr.amount END), 0.0), " +
+            "MAX(CASE WHEN pr.status = 'COMPLETED' THEN pr.paymentDate END)) " +
+            "FROM PaymentRecord pr WHERE pr.protectionPlan.customer.id = :customerId GROUP BY pr.protectionPlan.customer.id")
+    Optional<PaymentStatistics> summarizeByCustomer(@Param("customerId") UUID customerId);
 }
@@ -0,0 +1,16 @@
+package com.assurant.cph.core.repository;
+
+import com.assurant.cph.core.domain.PaymentRecord;
+
+import java.util.UUID;
+
+// What a bulk update needs to know of each payment it changes: its owners for cache eviction, and its
+// method and amount for the payment counters
+public record PaymentRef(
+        UUID id,
+        UUID protectionPlanId,
+        UUID customerId,
+        PaymentRecord.PaymentMethod paymentMethod,
+        Double amount
+) {
+}
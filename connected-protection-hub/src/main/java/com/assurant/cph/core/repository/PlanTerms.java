@@ -0,0 +1,9 @@
+package com.assurant.cph.core.repository;
+
+import com.assurant.cph.core.domain.ProtectionPlan;
+
+import java.util.UUID;
+
+// The parts of a plan a payment is checked against, plus its owner for cache eviction
+public record PlanTerms(UUID id, ProtectionPlan.PlanStatus status, Double premiumAmount, UUID customerId) {
+}
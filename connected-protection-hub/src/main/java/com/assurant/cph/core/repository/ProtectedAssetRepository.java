@@ -1,24 +1,38 @@
 package com.assurant.cph.core.repository;
 
 import com.assurant.cph.core.domain.ProtectedAsset;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProtectedAssetRepository extends JpaRepository<ProtectedAsset, UUID> {
+public interface ProtectedAssetRepository extends JpaRepository<ProtectedAsset, UUID>, KeysetRepository<ProtectedAsset> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ProtectedAsset> findByCustomerId(UUID customerId);
+
     Optional<ProtectedAsset> findBySerialNumber(String serialNumber);
 
+    @Query("SELECT pa.id FROM ProtectedAsset pa WHERE pa.serialNumber = :serialNumber")
+    Optional<UUID> findIdBySerialNumber(@Param("serialNumber") String serialNumber);
+
+    @Query("SELECT pa.serialNumber FROM ProtectedAsset pa")
+    Stream<String> streamAllSerialNumbers();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT pa FROM ProtectedAsset pa WHERE pa.customer.id = :customerId AND pa.status = 'ACTIVE'")
     List<ProtectedAsset> findActiveAssetsByCustomerId(@Param("customerId") UUID customerId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(pa) FROM ProtectedAsset pa WHERE pa.customer.id = :customerId")
     Long countByCustomerId(@Param("customerId") UUID customerId);
 }
\ No newline at end of file
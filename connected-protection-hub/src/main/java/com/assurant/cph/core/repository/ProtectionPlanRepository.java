@@ -1,27 +1,44 @@
 package com.assurant.cph.core.repository;
 
 import com.assurant.cph.core.domain.ProtectionPlan;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface ProtectionPlanRepository extends JpaRepository<ProtectionPlan, UUID> {
+public interface ProtectionPlanRepository extends JpaRepository<ProtectionPlan, UUID>, KeysetRepository<ProtectionPlan> {
 
+    // Plan and asset tables are read-mostly, so their finders go through the Hibernate query cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ProtectionPlan> findByCustomerId(UUID customerId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ProtectionPlan> findByProtectedAssetId(UUID assetId);
 
     @Query("SELECT pp FROM ProtectionPlan pp WHERE pp.status = 'ACTIVE' AND pp.endDate < :currentDate")
     List<ProtectionPlan> findExpiredPlans(@Param("currentDate") LocalDateTime currentDate);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT pp FROM ProtectionPlan pp WHERE pp.customer.id = :customerId AND pp.status = 'ACTIVE'")
     List<ProtectionPlan> findActivePlansByCustomerId(@Param("customerId") UUID customerId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(pp) FROM ProtectionPlan pp WHERE pp.customer.id = :customerId AND pp.status = 'ACTIVE'")
     Long countActivePlansByCustomerId(@Param("customerId") UUID customerId);
+
+    @Query("SELECT new com.assurant.cph.core.repository.EntityVersion(pp.id, pp.updatedAt) FROM ProtectionPlan pp WHERE pp.id IN :ids")
+    List<EntityVersion> findVersionsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT new com.assurant.cph.core.repository.PlanTerms(pp.id, pp.status, pp.premiumAmount, pp.customer.id) " +
+            "FROM ProtectionPlan pp WHERE pp.id IN :ids")
+    List<PlanTerms> findTermsByIdIn(@Param("ids") Collection<UUID> ids);
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.assurant.cph.core.repository;
 
+import com.assurant.cph.api.dto.RepairProviderSummary;
+import com.assurant.cph.core.cache.CachedQueries;
 import com.assurant.cph.core.domain.RepairOrder;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -12,7 +14,8 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface RepairOrderRepository extends JpaRepository<RepairOrder, UUID> {
+@CachedQueries
+public interface RepairOrderRepository extends JpaRepository<RepairOrder, UUID>, KeysetRepository<RepairOrder> {
 
     // Find by repair order number
     Optional<RepairOrder> findByRepairOrderNumber(String repairOrderNumber);
@@ -61,6 +64,12 @@ public interface RepairOrderRepository extends JpaRepository<RepairOrder, UUID>
     @Query("SELECT AVG(ro.repairCost) FROM RepairOrder ro WHERE ro.repairProvider = :provider AND ro.status = 'COMPLETED'")
     Double findAverageRepairCostByProvider(@Param("provider") String provider);
 
+    // Every provider and status at once; AVG skips orders that have no final cost yet
+    @Query("SELECT new com.assurant.cph.api.dto.RepairProviderSummary(ro.repairProvider, ro.status, COUNT(ro), " +
+            "COALESCE(SUM(ro.repairCost), 0.0), AVG(ro.repairCost)) " +
+            "FROM RepairOrder ro GROUP BY ro.repairProvider, ro.status ORDER BY ro.repairProvider, ro.status")
+    List<RepairProviderSummary> summarizeByProviderAndStatus();
+
     // Find repair orders that need follow-up (completed more than 30 days ago without update)
     @Query("SELECT ro FROM RepairOrder ro WHERE ro.actualCompletion < :cutoffDate AND ro.updatedAt < :cutoffDate")
     List<RepairOrder> findRepairOrdersNeedingFollowUp(@Param("cutoffDate") LocalDateTime cutoffDate);
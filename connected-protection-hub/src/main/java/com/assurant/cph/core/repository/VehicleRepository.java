@@ -1,22 +1,34 @@
 package com.assurant.cph.core.repository;
 
 import com.assurant.cph.core.domain.Vehicle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface VehicleRepository extends JpaRepository<Vehicle, UUID> {
+public interface VehicleRepository extends JpaRepository<Vehicle, UUID>, KeysetRepository<Vehicle> {
 
     Optional<Vehicle> findByLicensePlate(String licensePlate);
+
+    @Query("SELECT v.id FROM Vehicle v WHERE v.licensePlate = :licensePlate")
+    Optional<UUID> findIdByLicensePlate(@Param("licensePlate") String licensePlate);
+
+    @Query("SELECT v.licensePlate FROM Vehicle v")
+    Stream<String> streamAllLicensePlates();
+
     List<Vehicle> findByMake(String make);
     List<Vehicle> findByMakeAndModel(String make, String model);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT v FROM Vehicle v WHERE v.customer.id = :customerId")
     List<Vehicle> findByCustomerId(@Param("customerId") UUID customerId);
 
@@ -1,5 +1,6 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.CursorPage;
 import com.assurant.cph.core.domain.ElectronicDevice;
 import com.assurant.cph.core.domain.ProtectedAsset;
 import com.assurant.cph.core.domain.Vehicle;
@@ -13,11 +14,14 @@ public interface AssetRegistrationService {
     ElectronicDevice registerElectronicDevice(ElectronicDevice electronicDevice);
     Vehicle registerVehicle(Vehicle vehicle);
     List<ProtectedAsset> getAllAssets();
+    CursorPage<ProtectedAsset> getAssetPage(PageQuery query);
     Optional<ProtectedAsset> getAssetById(UUID id);
     List<ProtectedAsset> getAssetsByCustomerId(UUID customerId);
     List<ProtectedAsset> getActiveAssetsByCustomerId(UUID customerId);
     List<ElectronicDevice> getAllElectronicDevices();
+    CursorPage<ElectronicDevice> getElectronicDevicePage(PageQuery query);
     List<Vehicle> getAllVehicles();
+    CursorPage<Vehicle> getVehiclePage(PageQuery query);
     ProtectedAsset updateAssetStatus(UUID id, ProtectedAsset.AssetStatus status);
     // void deleteAsset(UUID id);
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.core.cache.CacheEvictionEngine;
+import com.assurant.cph.core.cache.NaturalKey;
+import com.assurant.cph.core.cache.NaturalKeyIndex;
 import com.assurant.cph.core.domain.ElectronicDevice;
 import com.assurant.cph.core.domain.ProtectedAsset;
 import com.assurant.cph.core.domain.Vehicle;
@@ -8,15 +12,14 @@ import com.assurant.cph.core.repository.ProtectedAssetRepository;
 import com.assurant.cph.core.repository.VehicleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -28,13 +31,10 @@ public class AssetRegistrationServiceImpl implements AssetRegistrationService {
     private final ElectronicDeviceRepository electronicDeviceRepository;
     private final VehicleRepository vehicleRepository;
     private final CustomerService customerService;
+    private final CacheEvictionEngine cacheEvictionEngine;
+    private final NaturalKeyIndex naturalKeyIndex;
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "assets", allEntries = true),
-            @CacheEvict(value = "customerAssets", allEntries = true),
-            @CacheEvict(value = "electronicDevices", allEntries = true)
-    })
     public ElectronicDevice registerElectronicDevice(ElectronicDevice electronicDevice) {
         log.info("Registering electronic device: {}", electronicDevice.getSerialNumber());
 
@@ -44,19 +44,17 @@ public class AssetRegistrationServiceImpl implements AssetRegistrationService {
         }
 
         // Check if serial number already exists
-        if (protectedAssetRepository.findBySerialNumber(electronicDevice.getSerialNumber()).isPresent()) {
+        if (naturalKeyIndex.exists(NaturalKey.ASSET_SERIAL_NUMBER, electronicDevice.getSerialNumber())) {
             throw new IllegalArgumentException("Electronic device with serial number " + electronicDevice.getSerialNumber() + " already exists");
         }
 
-        return electronicDeviceRepository.save(electronicDevice);
+        ElectronicDevice savedDevice = electronicDeviceRepository.save(electronicDevice);
+        cacheEvictionEngine.assetChanged("registerElectronicDevice", savedDevice);
+        naturalKeyIndex.registered(NaturalKey.ASSET_SERIAL_NUMBER, savedDevice.getSerialNumber(), savedDevice.getId());
+        return savedDevice;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "assets", allEntries = true),
-            @CacheEvict(value = "customerAssets", allEntries = true),
-            @CacheEvict(value = "vehicles", allEntries = true)
-    })
     public Vehicle registerVehicle(Vehicle vehicle) {
         log.info("Registering vehicle: {}", vehicle.getLicensePlate());
 
@@ -66,15 +64,19 @@ public class AssetRegistrationServiceImpl implements AssetRegistrationService {
         }
 
         // Check if license plate already exists
-        if (vehicleRepository.findByLicensePlate(vehicle.getLicensePlate()).isPresent()) {
+        if (naturalKeyIndex.exists(NaturalKey.VEHICLE_LICENSE_PLATE, vehicle.getLicensePlate())) {
             throw new IllegalArgumentException("Vehicle with license plate " + vehicle.getLicensePlate() + " already exists");
         }
 
-        return vehicleRepository.save(vehicle);
+        Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        cacheEvictionEngine.assetChanged("registerVehicle", savedVehicle);
+        naturalKeyIndex.registered(NaturalKey.VEHICLE_LICENSE_PLATE, savedVehicle.getLicensePlate(), savedVehicle.getId());
+        naturalKeyIndex.registered(NaturalKey.ASSET_SERIAL_NUMBER, savedVehicle.getSerialNumber(), savedVehicle.getId());
+        return savedVehicle;
     }
 
     @Override
-    @Cacheable(value = "assets")
+    @Cacheable(value = "assets", sync = true)
     @Transactional(readOnly = true)
     public List<ProtectedAsset> getAllAssets() {
         log.info("Fetching all protected assets");
@@ -82,7 +84,14 @@ public class AssetRegistrationServiceImpl implements AssetRegistrationService {
     }
 
     @Override
-    @Cacheable(value = "asset", key = "#id")
+    @Transactional(readOnly = true)
+    public CursorPage<ProtectedAsset> getAssetPage(PageQuery query) {
+        log.info("Fetching page of protected assets: {}", query);
+        return query.fetch(protectedAssetRepository, Function.identity());
+    }
+
+    @Override
+    @Cacheable(value = "asset", key = "#id", sync = true)
     @Transactional(readOnly = true)
     public Optional<ProtectedAsset> getAssetById(UUID id) {
         log.info("Fetching asset by ID: {}", id);
@@ -90,7 +99,7 @@ public class AssetRegistrationServiceImpl implements AssetRegistrationService {
     }
 
     @Override
-    @Cacheable(value = "customerAssets", key = "#customerId")
+    @Cacheable(value = "customerAssets", key = "#customerId", sync = true)
     @Transactional(readOnly = true)
     public List<ProtectedAsset> getAssetsByCustomerId(UUID customerId) {
         log.info("Fetching assets for customer: {}", customerId);
@@ -105,7 +114,7 @@ public class AssetRegistrationServiceImpl implements AssetRegistrationService {
     }
 
     @Override
-    @Cacheable(value = "electronicDevices")
+    @Cacheable(value = "electronicDevices", sync = true)
     @Transactional(readOnly = true)
     public List<ElectronicDevice> getAllElectronicDevices() {
         log.info("Fetching all electronic devices");
@@ -113,7 +122,14 @@ public class AssetRegistrationServiceImpl implements AssetRegistrationService {
     }
 
     @Override
-    @Cacheable(value = "vehicles")
+    @Transactional(readOnly = true)
+    public CursorPage<ElectronicDevice> getElectronicDevicePage(PageQuery query) {
+        log.info("Fetching page of electronic devices: {}", query);
+        return query.fetch(electronicDeviceRepository, Function.identity());
+    }
+
+    @Override
+    @Cacheable(value = "vehicles", sync = true)
     @Transactional(readOnly = true)
     public List<Vehicle> getAllVehicles() {
         log.info("Fetching all vehicles");
@@ -121,11 +137,13 @@ public class AssetRegistrationServiceImpl implements AssetRegistrationService {
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "assets", allEntries = true),
-            @CacheEvict(value = "asset", key = "#id"),
-            @CacheEvict(value = "customerAssets", allEntries = true)
-    })
+    @Transactional(readOnly = true)
+    public CursorPage<Vehicle> getVehiclePage(PageQuery query) {
+        log.info("Fetching page of vehicles: {}", query);
+        return query.fetch(vehicleRepository, Function.identity());
+    }
+
+    @Override
     public ProtectedAsset updateAssetStatus(UUID id, ProtectedAsset.AssetStatus status) {
         log.info("Updating asset status for ID: {} to {}", id, status);
 
@@ -133,6 +151,8 @@ public class AssetRegistrationServiceImpl implements AssetRegistrationService {
                 .orElseThrow(() -> new IllegalArgumentException("Asset not found with ID: " + id));
 
         asset.setStatus(status);
-        return protectedAssetRepository.save(asset);
+        ProtectedAsset updatedAsset = protectedAssetRepository.save(asset);
+        cacheEvictionEngine.assetChanged("updateAssetStatus", updatedAsset);
+        return updatedAsset;
     }
 }
\ No newline at end of file
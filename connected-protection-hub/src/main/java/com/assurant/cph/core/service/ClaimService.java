@@ -1,5 +1,8 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.ClaimSnapshot;
+import com.assurant.cph.api.dto.ClaimSummary;
+import com.assurant.cph.api.dto.CursorPage;
 import com.assurant.cph.core.domain.Claim;
 import java.util.List;
 import java.util.Optional;
@@ -8,12 +11,14 @@ import java.util.UUID;
 public interface ClaimService {
 
     Claim createClaim(Claim claim);
-    Optional<Claim> getClaimById(UUID id);
-    Optional<Claim> getClaimByClaimNumber(String claimNumber);
-    List<Claim> getAllClaims();
-    List<Claim> getClaimsByCustomerId(UUID customerId);
+    Optional<ClaimSnapshot> getClaimById(UUID id);
+    Optional<ClaimSnapshot> getClaimByClaimNumber(String claimNumber);
+    List<ClaimSnapshot> getAllClaims();
+    CursorPage<ClaimSnapshot> getClaimPage(PageQuery query);
+    List<ClaimSnapshot> getClaimsByCustomerId(UUID customerId);
     List<Claim> getClaimsByProtectionPlanId(UUID protectionPlanId);
     Claim updateClaimStatus(UUID id, Claim.ClaimStatus status);
     Claim assignAssessment(UUID claimId, UUID assessmentId);
     List<Claim> getClaimsByStatus(Claim.ClaimStatus status);
+    List<ClaimSummary> getClaimSummary();
 }
\ No newline at end of file
@@ -1,15 +1,21 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.ClaimSnapshot;
+import com.assurant.cph.api.dto.ClaimSummary;
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.core.cache.CacheEvictionEngine;
+import com.assurant.cph.core.cache.NaturalKey;
+import com.assurant.cph.core.cache.NaturalKeyIndex;
 import com.assurant.cph.core.domain.Claim;
 import com.assurant.cph.core.domain.TechnicalAssessment;
+import com.assurant.cph.core.mapper.ClaimMapper;
 import com.assurant.cph.core.repository.ClaimRepository;
 import com.assurant.cph.core.repository.TechnicalAssessmentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -25,12 +31,11 @@ public class ClaimServiceImpl implements ClaimService {
     private final ClaimRepository claimRepository;
     private final TechnicalAssessmentRepository technicalAssessmentRepository;
     private final ProtectionPlanService protectionPlanService;
+    private final ClaimMapper claimMapper;
+    private final CacheEvictionEngine cacheEvictionEngine;
+    private final NaturalKeyIndex naturalKeyIndex;
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "claims", allEntries = true),
-            @CacheEvict(value = "customerClaims", allEntries = true)
-    })
     public Claim createClaim(Claim claim) {
         log.info("Creating new claim for protection plan: {}", claim.getProtectionPlan().getId());
 
@@ -38,7 +43,7 @@ public class ClaimServiceImpl implements ClaimService {
         var protectionPlan = protectionPlanService.getProtectionPlanById(claim.getProtectionPlan().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Protection plan not found"));
 
-        if (protectionPlan.getStatus() != com.assurant.cph.core.domain.ProtectionPlan.PlanStatus.ACTIVE) {
+        if (protectionPlan.status() != com.assurant.cph.core.domain.ProtectionPlan.PlanStatus.ACTIVE) {
             throw new IllegalStateException("Cannot create claim for inactive protection plan");
         }
 
@@ -47,38 +52,54 @@ public class ClaimServiceImpl implements ClaimService {
             throw new IllegalArgumentException("Incident date cannot be in the future");
         }
 
-        return claimRepository.save(claim);
+        Claim savedClaim = claimRepository.save(claim);
+        cacheEvictionEngine.claimChanged("createClaim", savedClaim);
+        naturalKeyIndex.registered(NaturalKey.CLAIM_NUMBER, savedClaim.getClaimNumber(), savedClaim.getId());
+        return savedClaim;
     }
 
     @Override
-    @Cacheable(value = "claim", key = "#id")
+    @Cacheable(value = "claim", key = "#id", sync = true)
     @Transactional(readOnly = true)
-    public Optional<Claim> getClaimById(UUID id) {
+    public Optional<ClaimSnapshot> getClaimById(UUID id) {
         log.info("Fetching claim by ID: {}", id);
-        return claimRepository.findById(id);
+        return claimRepository.findById(id).map(claimMapper::toSnapshot);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Optional<Claim> getClaimByClaimNumber(String claimNumber) {
+    // Joins no transaction of its own: hits are answered from the index and the claim region
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<ClaimSnapshot> getClaimByClaimNumber(String claimNumber) {
         log.info("Fetching claim by number: {}", claimNumber);
-        return claimRepository.findByClaimNumber(claimNumber);
+        return naturalKeyIndex.find(NaturalKey.CLAIM_NUMBER, claimNumber,
+                id -> claimRepository.findById(id).map(claimMapper::toSnapshot));
     }
 
     @Override
-    @Cacheable(value = "claims")
+    @Cacheable(value = "claims", sync = true)
     @Transactional(readOnly = true)
-    public List<Claim> getAllClaims() {
+    public List<ClaimSnapshot> getAllClaims() {
         log.info("Fetching all claims");
-        return claimRepository.findAll();
+        return claimRepository.findAll().stream()
+                .map(claimMapper::toSnapshot)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ClaimSnapshot> getClaimPage(PageQuery query) {
+        log.info("Fetching page of claims: {}", query);
+        return query.fetch(claimRepository, claimMapper::toSnapshot);
     }
 
     @Override
-    @Cacheable(value = "customerClaims", key = "#customerId")
+    @Cacheable(value = "customerClaims", key = "#customerId", sync = true)
     @Transactional(readOnly = true)
-    public List<Claim> getClaimsByCustomerId(UUID customerId) {
+    public List<ClaimSnapshot> getClaimsByCustomerId(UUID customerId) {
         log.info("Fetching claims for customer: {}", customerId);
-        return claimRepository.findByProtectionPlanCustomerId(customerId);
+        return claimRepository.findByProtectionPlanCustomerId(customerId).stream()
+                .map(claimMapper::toSnapshot)
+                .toList();
     }
 
     @Override
@@ -89,11 +110,6 @@ public class ClaimServiceImpl implements ClaimService {
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "claims", allEntries = true),
-            @CacheEvict(value = "claim", key = "#id"),
-            @CacheEvict(value = "customerClaims", allEntries = true)
-    })
     public Claim updateClaimStatus(UUID id, Claim.ClaimStatus status) {
         log.info("Updating claim status for ID: {} to {}", id, status);
 
@@ -104,15 +120,12 @@ public class ClaimServiceImpl implements ClaimService {
         validateStatusTransition(claim.getStatus(), status);
 
         claim.setStatus(status);
-        return claimRepository.save(claim);
+        Claim updatedClaim = claimRepository.save(claim);
+        cacheEvictionEngine.claimChanged("updateClaimStatus", updatedClaim);
+        return updatedClaim;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "claims", allEntries = true),
-            @CacheEvict(value = "claim", key = "#claimId"),
-            @CacheEvict(value = "customerClaims", allEntries = true)
-    })
     public Claim assignAssessment(UUID claimId, UUID assessmentId) {
         log.info("Assigning assessment {} to claim {}", assessmentId, claimId);
 
@@ -123,7 +136,9 @@ public class ClaimServiceImpl implements ClaimService {
                 .orElseThrow(() -> new IllegalArgumentException("Technical assessment not found with ID: " + assessmentId));
 
         claim.setTechnicalAssessment(assessment);
-        return claimRepository.save(claim);
+        Claim updatedClaim = claimRepository.save(claim);
+        cacheEvictionEngine.claimChanged("assignAssessment", updatedClaim);
+        return updatedClaim;
     }
 
     @Override
@@ -133,6 +148,13 @@ public class ClaimServiceImpl implements ClaimService {
         return claimRepository.findByStatus(status);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ClaimSummary> getClaimSummary() {
+        log.info("Generating claim summary by status and type");
+        return claimRepository.summarizeByStatusAndType();
+    }
+
     private void validateStatusTransition(Claim.ClaimStatus currentStatus, Claim.ClaimStatus newStatus) {
         // Implement status transition validation logic
         // For example, you can't move from COMPLETED back to UNDER_REVIEW
@@ -1,5 +1,7 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.CustomerSnapshot;
 import com.assurant.cph.core.domain.Customer;
 import java.util.List;
 import java.util.Optional;
@@ -8,11 +10,12 @@ import java.util.UUID;
 public interface CustomerService {
 
     Customer createCustomer(Customer customer);
-    Optional<Customer> getCustomerById(UUID id);
-    List<Customer> getAllCustomers();
+    Optional<CustomerSnapshot> getCustomerById(UUID id);
+    List<CustomerSnapshot> getAllCustomers();
+    CursorPage<CustomerSnapshot> getCustomerPage(PageQuery query);
     Customer updateCustomer(UUID id, Customer customerDetails);
     // void deleteCustomer(UUID id);
-    Optional<Customer> getCustomerByEmail(String email);
+    Optional<CustomerSnapshot> getCustomerByEmail(String email);
     List<Customer> searchCustomersByName(String name);
     List<Customer> getCustomersByCity(String city);
     boolean customerExists(UUID id);
@@ -1,13 +1,18 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.CustomerSnapshot;
+import com.assurant.cph.core.cache.CacheEvictionEngine;
+import com.assurant.cph.core.cache.NaturalKey;
+import com.assurant.cph.core.cache.NaturalKeyIndex;
 import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.mapper.CustomerMapper;
 import com.assurant.cph.core.repository.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -21,47 +26,55 @@ import java.util.UUID;
 public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final CustomerMapper customerMapper;
+    private final CacheEvictionEngine cacheEvictionEngine;
+    private final NaturalKeyIndex naturalKeyIndex;
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "customers", allEntries = true),
-            @CacheEvict(value = "customer", key = "#result.id")
-    })
     public Customer createCustomer(Customer customer) {
         log.info("Creating new customer: {}", customer.getEmail());
 
-        if (customerRepository.existsByEmail(customer.getEmail())) {
+        if (naturalKeyIndex.exists(NaturalKey.CUSTOMER_EMAIL, customer.getEmail())) {
             throw new IllegalArgumentException("Customer with email " + customer.getEmail() + " already exists");
         }
 
-        if (customerRepository.existsByDocumentNumber(customer.getDocumentNumber())) {
+        if (naturalKeyIndex.exists(NaturalKey.CUSTOMER_DOCUMENT_NUMBER, customer.getDocumentNumber())) {
             throw new IllegalArgumentException("Customer with document number " + customer.getDocumentNumber() + " already exists");
         }
 
-        return customerRepository.save(customer);
+        Customer savedCustomer = customerRepository.save(customer);
+        cacheEvictionEngine.customerChanged("createCustomer", savedCustomer);
+        naturalKeyIndex.registered(NaturalKey.CUSTOMER_EMAIL, savedCustomer.getEmail(), savedCustomer.getId());
+        naturalKeyIndex.registered(NaturalKey.CUSTOMER_DOCUMENT_NUMBER, savedCustomer.getDocumentNumber(), savedCustomer.getId());
+        return savedCustomer;
     }
 
     @Override
-    @Cacheable(value = "customer", key = "#id")
+    @Cacheable(value = "customer", key = "#id", sync = true)
     @Transactional(readOnly = true)
-    public Optional<Customer> getCustomerById(UUID id) {
+    public Optional<CustomerSnapshot> getCustomerById(UUID id) {
         log.info("Fetching customer by ID: {}", id);
-        return customerRepository.findById(id);
+        return customerRepository.findById(id).map(customerMapper::toSnapshot);
     }
 
     @Override
-    @Cacheable(value = "customers")
+    @Cacheable(value = "customers", sync = true)
     @Transactional(readOnly = true)
-    public List<Customer> getAllCustomers() {
+    public List<CustomerSnapshot> getAllCustomers() {
         log.info("Fetching all customers");
-        return customerRepository.findAll();
+        return customerRepository.findAll().stream()
+                .map(customerMapper::toSnapshot)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<CustomerSnapshot> getCustomerPage(PageQuery query) {
+        log.info("Fetching page of customers: {}", query);
+        return query.fetch(customerRepository, customerMapper::toSnapshot);
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "customers", allEntries = true),
-            @CacheEvict(value = "customer", key = "#id")
-    })
     public Customer updateCustomer(UUID id, Customer customerDetails) {
         log.info("Updating customer with ID: {}", id);
 
@@ -70,16 +83,19 @@ public class CustomerServiceImpl implements CustomerService {
 
         // Check email uniqueness if changed
         if (!existingCustomer.getEmail().equals(customerDetails.getEmail()) &&
-                customerRepository.existsByEmail(customerDetails.getEmail())) {
+                naturalKeyIndex.exists(NaturalKey.CUSTOMER_EMAIL, customerDetails.getEmail())) {
             throw new IllegalArgumentException("Email " + customerDetails.getEmail() + " already exists");
         }
 
         // Check document number uniqueness if changed
         if (!existingCustomer.getDocumentNumber().equals(customerDetails.getDocumentNumber()) &&
-                customerRepository.existsByDocumentNumber(customerDetails.getDocumentNumber())) {
+                naturalKeyIndex.exists(NaturalKey.CUSTOMER_DOCUMENT_NUMBER, customerDetails.getDocumentNumber())) {
             throw new IllegalArgumentException("Document number " + customerDetails.getDocumentNumber() + " already exists");
         }
 
+        String previousEmail = existingCustomer.getEmail();
+        String previousDocumentNumber = existingCustomer.getDocumentNumber();
+
         existingCustomer.setFullName(customerDetails.getFullName());
         existingCustomer.setEmail(customerDetails.getEmail());
         existingCustomer.setPhoneNumber(customerDetails.getPhoneNumber());
@@ -87,14 +103,20 @@ public class CustomerServiceImpl implements CustomerService {
         existingCustomer.setDocumentType(customerDetails.getDocumentType());
         existingCustomer.setAddress(customerDetails.getAddress());
 
-        return customerRepository.save(existingCustomer);
+        Customer updatedCustomer = customerRepository.save(existingCustomer);
+        cacheEvictionEngine.customerChanged("updateCustomer", updatedCustomer);
+        naturalKeyIndex.changed(NaturalKey.CUSTOMER_EMAIL, previousEmail, updatedCustomer.getEmail(), id);
+        naturalKeyIndex.changed(NaturalKey.CUSTOMER_DOCUMENT_NUMBER, previousDocumentNumber, updatedCustomer.getDocumentNumber(), id);
+        return updatedCustomer;
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Optional<Customer> getCustomerByEmail(String email) {
+    // Joins no transaction of its own: hits are answered from the index and the customer region
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<CustomerSnapshot> getCustomerByEmail(String email) {
         log.info("Fetching customer by email: {}", email);
-        return customerRepository.findByEmail(email);
+        return naturalKeyIndex.find(NaturalKey.CUSTOMER_EMAIL, email,
+                id -> customerRepository.findById(id).map(customerMapper::toSnapshot));
     }
 
     @Override
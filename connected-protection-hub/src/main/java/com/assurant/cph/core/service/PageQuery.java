@@ -0,0 +1,52 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.core.domain.Chronological;
+import com.assurant.cph.core.repository.KeysetRepository;
+import com.assurant.cph.core.repository.PageCursor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+// A page request of a list endpoint: where to resume, in which order, and how many items
+public record PageQuery(PageCursor after, Sort.Direction direction, int limit) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    // Without an explicit direction, a cursor continues in the order it was issued for
+    public static PageQuery of(String cursor, Integer limit, String direction) {
+        PageCursor after = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+        Sort.Direction order = direction != null ? Sort.Direction.fromString(direction)
+                : after != null ? after.direction() : Sort.Direction.ASC;
+        if (after != null && after.direction() != order) {
+            throw new IllegalArgumentException("Cursor was issued for " + after.direction() + " order, not " + order);
+        }
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + MAX_LIMIT);
+        }
+        return new PageQuery(after, order, size);
+    }
+
+    public <T extends Chronological, R> CursorPage<R> fetch(KeysetRepository<T> repository, Function<? super T, R> mapper) {
+        return fetch(rows -> repository.findPage(direction, after, rows), T::getCreatedAt, T::getId, mapper);
+    }
+
+    // One row past the page tells whether there is another page without counting the table
+    public <T, R> CursorPage<R> fetch(Function<Limit, List<T>> query, Function<? super T, LocalDateTime> timestamp,
+                                      Function<? super T, UUID> id, Function<? super T, R> mapper) {
+        List<T> rows = query.apply(Limit.of(limit + 1));
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows.stream().<R>map(mapper).toList(), null, limit);
+        }
+        List<T> page = rows.subList(0, limit);
+        T last = page.get(limit - 1);
+        String next = new PageCursor(direction, timestamp.apply(last), id.apply(last)).encode();
+        return new CursorPage<>(page.stream().<R>map(mapper).toList(), next, limit);
+    }
+}
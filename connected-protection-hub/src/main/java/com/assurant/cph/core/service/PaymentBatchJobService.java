@@ -0,0 +1,21 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.api.dto.PaymentBatchJobSnapshot;
+import com.assurant.cph.api.dto.PaymentBatchResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface PaymentBatchJobService {
+
+    // Stores the upload, a JSON array of payments, and queues it; returns before any payment is processed
+    PaymentBatchJobSnapshot submit(InputStream upload) throws IOException;
+
+    Optional<PaymentBatchJobSnapshot> getJob(UUID id);
+
+    // Rejected payments in file order, starting after the given index
+    List<PaymentBatchResult.Item> getRejections(UUID jobId, Integer afterIndex, Integer limit);
+}
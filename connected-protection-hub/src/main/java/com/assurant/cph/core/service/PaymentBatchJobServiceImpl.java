@@ -0,0 +1,298 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.api.dto.PaymentBatchJobSnapshot;
+import com.assurant.cph.api.dto.PaymentBatchResult;
+import com.assurant.cph.config.PaymentProperties;
+import com.assurant.cph.core.domain.PaymentBatchJob;
+import com.assurant.cph.core.domain.PaymentBatchRejection;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.mapper.PaymentBatchJobMapper;
+import com.assurant.cph.core.repository.PaymentBatchJobRepository;
+import com.assurant.cph.core.repository.PaymentBatchRejectionRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs uploaded payment files through {@link PaymentRecordService#processBatchPayments} in the background.
+ * Uploads are copied to disk as they arrive and read back with the Jackson streaming parser a chunk at a
+ * time, so neither the request nor the job ever holds the whole file. At most
+ * {@code cph.payments.jobs.concurrency} jobs run at once; the rest wait their turn.
+ *
+ * <p>Each chunk's payments, rejections and job counters commit together, so a chunk is stored on the job's
+ * thread rather than spread over the plan lanes. Jobs left queued or running by a
+ * crash or shutdown are picked up again once the application is ready, skipping the items already counted.
+ */
+@Slf4j
+@Service
+public class PaymentBatchJobServiceImpl implements PaymentBatchJobService, SmartLifecycle {
+
+    private static final int DEFAULT_REJECTIONS_LIMIT = 100;
+    private static final int MAX_REJECTIONS_LIMIT = 1000;
+
+    private final PaymentRecordService paymentRecordService;
+    private final PaymentBatchJobRepository jobRepository;
+    private final PaymentBatchRejectionRepository rejectionRepository;
+    private final PaymentBatchJobMapper jobMapper;
+    private final ObjectMapper objectMapper;
+    private final PaymentProperties.Jobs settings;
+    private final TransactionTemplate transaction;
+
+    private ThreadPoolExecutor workers;
+    private volatile boolean running;
+
+    public PaymentBatchJobServiceImpl(PaymentRecordService paymentRecordService,
+                                      PaymentBatchJobRepository jobRepository,
+                                      PaymentBatchRejectionRepository rejectionRepository,
+                                      PaymentBatchJobMapper jobMapper,
+                                      ObjectMapper objectMapper,
+                                      PaymentProperties paymentProperties,
+                                      PlatformTransactionManager transactionManager) {
+        this.paymentRecordService = paymentRecordService;
+        this.jobRepository = jobRepository;
+        this.rejectionRepository = rejectionRepository;
+        this.jobMapper = jobMapper;
+        this.objectMapper = objectMapper;
+        this.settings = paymentProperties.getJobs();
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public PaymentBatchJobSnapshot submit(InputStream upload) throws IOException {
+        Files.createDirectories(settings.getDirectory());
+        Path file = settings.getDirectory().resolve("payments-" + UUID.randomUUID() + ".json");
+        long bytes;
+        PaymentBatchJob job;
+        try {
+            bytes = Files.copy(upload, file);
+            job = jobRepository.save(PaymentBatchJob.builder()
+                    .status(PaymentBatchJob.JobStatus.QUEUED)
+                    .uploadFile(file.toString())
+                    .uploadBytes(bytes)
+                    .build());
+        } catch (IOException | RuntimeException ex) {
+            // An aborted upload, or one no job refers to, would otherwise stay in the spool directory for good
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException cleanup) {
+                ex.addSuppressed(cleanup);
+            }
+            throw ex;
+        }
+        log.info("Queued payment batch job {} for {} bytes", job.getId(), bytes);
+        workers.execute(() -> run(job.getId()));
+        return jobMapper.toSnapshot(job);
+    }
+
+    @Override
+    public Optional<PaymentBatchJobSnapshot> getJob(UUID id) {
+        return jobRepository.findById(id).map(jobMapper::toSnapshot);
+    }
+
+    @Override
+    public List<PaymentBatchResult.Item> getRejections(UUID jobId, Integer afterIndex, Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_REJECTIONS_LIMIT;
+        if (pageSize < 1 || pageSize > MAX_REJECTIONS_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_REJECTIONS_LIMIT);
+        }
+        return rejectionRepository.findByJobIdAndItemIndexGreaterThanOrderByItemIndex(
+                        jobId, afterIndex != null ? afterIndex : -1, Limit.of(pageSize)).stream()
+                .map(rejection -> PaymentBatchResult.Item.rejected(rejection.getItemIndex(),
+                        rejection.getPaymentReference(), rejection.getReason()))
+                .toList();
+    }
+
+    // Only this node has the uploads in its directory, so only jobs whose file is here are resumed
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        jobRepository.findByStatusInOrderByCreatedAt(EnumSet.of(PaymentBatchJob.JobStatus.QUEUED, PaymentBatchJob.JobStatus.RUNNING))
+                .stream()
+                .filter(job -> Files.exists(Path.of(job.getUploadFile())))
+                .forEach(job -> {
+                    log.info("Resuming payment batch job {} after {} processed payments", job.getId(), job.getProcessedItems());
+                    workers.execute(() -> run(job.getId()));
+                });
+    }
+
+    @Override
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        workers = new ThreadPoolExecutor(settings.getConcurrency(), settings.getConcurrency(), 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> new Thread(runnable, "payment-batch-job-" + threads.incrementAndGet()));
+        running = true;
+    }
+
+    // Running jobs finish their current chunk and stay RUNNING, to be resumed on the next start
+    @Override
+    public void stop() {
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run(UUID jobId) {
+        PaymentBatchJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || !running) {
+            return;
+        }
+        transaction.executeWithoutResult(status -> jobRepository.markRunning(jobId, LocalDateTime.now()));
+        long started = System.nanoTime();
+        Path upload = Path.of(job.getUploadFile());
+        try (JsonParser parser = objectMapper.getFactory().createParser(upload.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Upload is not a JSON array of payments");
+            }
+            int index = skip(parser, job.getProcessedItems());
+            Chunk chunk;
+            while ((chunk = readChunk(parser, jobId, index)).size() > 0) {
+                if (!running) {
+                    log.info("Payment batch job {} interrupted by shutdown after {} payments", jobId, index);
+                    return;
+                }
+                commit(jobId, chunk);
+                index += chunk.size();
+            }
+            finish(jobId, PaymentBatchJob.JobStatus.COMPLETED, null, upload);
+            log.info("Completed payment batch job {}: {} payments in {} ms", jobId, index, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException ex) {
+            if (!running) {
+                log.info("Payment batch job {} interrupted by shutdown: {}", jobId, ex.getMessage());
+                return;
+            }
+            log.error("Payment batch job {} failed", jobId, ex);
+            finish(jobId, PaymentBatchJob.JobStatus.FAILED, ex.getMessage(), upload);
+        }
+    }
+
+    // Items already counted by an earlier run are parsed past without being bound. Whatever their type: readChunk
+    // counts numbers, nulls and strings in the array as rejected items too
+    private static int skip(JsonParser parser, long items) throws IOException {
+        int skipped = 0;
+        while (skipped < items) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                break;
+            }
+            parser.skipChildren();
+            skipped++;
+        }
+        return skipped;
+    }
+
+    // Each item is read as a tree first, so one that does not bind is rejected without losing our place
+    private Chunk readChunk(JsonParser parser, UUID jobId, int firstIndex) throws IOException {
+        Chunk chunk = new Chunk(jobId);
+        while (chunk.size() < settings.getChunkSize()) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                break;
+            }
+            JsonNode node = parser.readValueAsTree();
+            int index = firstIndex + chunk.size();
+            // A null would bind to no payment at all, and a number or string to nothing useful
+            if (node == null || !node.isObject()) {
+                chunk.unreadable(index, null, "Unreadable payment: expected a JSON object but found " + token);
+                continue;
+            }
+            try {
+                chunk.add(index, objectMapper.treeToValue(node, PaymentRecord.class));
+            } catch (JsonProcessingException ex) {
+                chunk.unreadable(index, node.path("paymentReference").asText(null), "Unreadable payment: " + ex.getOriginalMessage());
+            }
+        }
+        return chunk;
+    }
+
+    private void commit(UUID jobId, Chunk chunk) {
+        transaction.executeWithoutResult(status -> {
+            PaymentBatchResult result = paymentRecordService.processBatchPayments(chunk.payments);
+            result.items().stream()
+                    .filter(item -> item.outcome() == PaymentBatchResult.Outcome.REJECTED)
+                    .forEach(item -> chunk.reject(chunk.indexes.get(item.index()), item.paymentReference(), item.reason()));
+            rejectionRepository.saveAll(chunk.rejections);
+            jobRepository.recordProgress(jobId, chunk.size(), result.accepted(), chunk.rejections.size(), LocalDateTime.now());
+        });
+    }
+
+    private void finish(UUID jobId, PaymentBatchJob.JobStatus status, String failureReason, Path upload) {
+        transaction.executeWithoutResult(tx -> jobRepository.finish(jobId, status, failureReason, LocalDateTime.now()));
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException ex) {
+            log.warn("Could not delete upload {} of payment batch job {}", upload, jobId, ex);
+        }
+    }
+
+    // Payments to submit together with their positions in the file, and the rejections to store with them
+    private static final class Chunk {
+        private final UUID jobId;
+        private final List<PaymentRecord> payments = new ArrayList<>();
+        private final List<Integer> indexes = new ArrayList<>();
+        private final List<PaymentBatchRejection> rejections = new ArrayList<>();
+        private int unreadable;
+
+        Chunk(UUID jobId) {
+            this.jobId = jobId;
+        }
+
+        void add(int index, PaymentRecord payment) {
+            payments.add(payment);
+            indexes.add(index);
+        }
+
+        void unreadable(int index, String paymentReference, String reason) {
+            reject(index, paymentReference, reason);
+            unreadable++;
+        }
+
+        void reject(int index, String paymentReference, String reason) {
+            rejections.add(PaymentBatchRejection.builder()
+                    .jobId(jobId)
+                    .itemIndex(index)
+                    .paymentReference(paymentReference)
+                    .reason(reason)
+                    .build());
+        }
+
+        int size() {
+            return payments.size() + unreadable;
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.api.dto.PaymentMethodRevenue;
+import com.assurant.cph.api.dto.PaymentStatusSummary;
+import com.assurant.cph.config.PaymentProperties;
+import com.assurant.cph.core.cache.AfterCommit;
+import com.assurant.cph.core.cache.cluster.ClusterInvalidationBus;
+import com.assurant.cph.core.cache.cluster.Invalidation;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.repository.PaymentRef;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Number and total amount of the payments in every status and payment method, kept in memory so the
+ * dashboard endpoints never reach the database. Each cell is a {@link LongAdder} and {@link DoubleAdder}
+ * pair indexed by the status and method ordinals; committed writes move a payment from one cell to another.
+ *
+ * <p>The cells are loaded from the database once the application is ready and compared with it on a fixed
+ * interval. A transaction committing while the check runs can make the two differ for a moment, so only a
+ * difference found twice in a row is corrected. Payments written by anything that bypasses the payment
+ * service only reach the counters through that check.
+ *
+ * <p>Every committed change is also published on the cluster bus as the per-cell differences it made, and
+ * the other nodes add them to their own cells, so no node queries the database for another's writes. When
+ * a node learns it missed messages from a peer it reloads once; a difference lost any other way is left to
+ * the check.
+ */
+@Slf4j
+public class PaymentCounters implements SmartLifecycle {
+
+    private static final PaymentRecord.PaymentStatus[] STATUSES = PaymentRecord.PaymentStatus.values();
+    private static final PaymentRecord.PaymentMethod[] METHODS = PaymentRecord.PaymentMethod.values();
+    private static final int CELLS = STATUSES.length * METHODS.length;
+
+    // Listed in name order, as the GROUP BY queries return them
+    private static final List<PaymentRecord.PaymentStatus> STATUSES_BY_NAME = Arrays.stream(STATUSES)
+            .sorted(Comparator.comparing(Enum::name)).toList();
+    private static final List<PaymentRecord.PaymentMethod> METHODS_BY_NAME = Arrays.stream(METHODS)
+            .sorted(Comparator.comparing(Enum::name)).toList();
+
+    private static final String TOTALS_QUERY = "SELECT pr.status, pr.paymentMethod, COUNT(pr), COALESCE(SUM(pr.amount), 0.0) " +
+            "FROM PaymentRecord pr GROUP BY pr.status, pr.paymentMethod";
+    // Summing doubles in a different order than the database may differ in the last bits
+    private static final double AMOUNT_TOLERANCE = 0.005;
+
+    private final PaymentProperties.Counters settings;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final LongAdder[] counts = new LongAdder[CELLS];
+    private final DoubleAdder[] amounts = new DoubleAdder[CELLS];
+    // Deltas share the read side; a reload takes the write side across its query and refill, so every delta
+    // lands either before the query or after the refill
+    private final ReadWriteLock reloading = new ReentrantReadWriteLock();
+    private final ClusterInvalidationBus clusterBus;
+    private final LongAdder peerUpdates = new LongAdder();
+
+    private volatile boolean loaded;
+    // Guarded by this
+    private List<String> previousDrift = List.of();
+    private ScheduledExecutorService checker;
+    private volatile boolean running;
+
+    public PaymentCounters(PaymentProperties.Counters settings, EntityManager entityManager,
+                           PlatformTransactionManager transactionManager, ClusterInvalidationBus clusterBus) {
+        this.settings = settings;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.clusterBus = clusterBus;
+        for (int i = 0; i < CELLS; i++) {
+            counts[i] = new LongAdder();
+            amounts[i] = new DoubleAdder();
+        }
+        clusterBus.subscribe(Invalidation.Kind.COUNTERS, invalidation -> applyPeerDeltas((String) invalidation.key()));
+        clusterBus.subscribe(Invalidation.Kind.ALL, invalidation -> resynchronize());
+    }
+
+    public void added(PaymentRecord payment) {
+        Delta delta = new Delta().add(Cell.of(payment.getStatus(), payment));
+        AfterCommit.run(() -> commit(delta));
+    }
+
+    public void added(Collection<PaymentRecord> payments) {
+        Delta delta = new Delta();
+        payments.forEach(payment -> delta.add(Cell.of(payment.getStatus(), payment)));
+        AfterCommit.run(() -> commit(delta));
+    }
+
+    public void removed(PaymentRecord payment) {
+        Delta delta = new Delta().remove(Cell.of(payment.getStatus(), payment));
+        AfterCommit.run(() -> commit(delta));
+    }
+
+    public void statusChanged(PaymentRecord payment, PaymentRecord.PaymentStatus previous) {
+        if (previous == payment.getStatus()) {
+            return;
+        }
+        Delta delta = new Delta().remove(Cell.of(previous, payment)).add(Cell.of(payment.getStatus(), payment));
+        AfterCommit.run(() -> commit(delta));
+    }
+
+    public void statusChanged(Collection<PaymentRef> payments, PaymentRecord.PaymentStatus previous,
+                              PaymentRecord.PaymentStatus status) {
+        Delta delta = new Delta();
+        payments.forEach(payment -> delta.remove(Cell.of(previous, payment.paymentMethod(), payment.amount()))
+                .add(Cell.of(status, payment.paymentMethod(), payment.amount())));
+        AfterCommit.run(() -> commit(delta));
+    }
+
+    // Empty until the first load
+    public Optional<List<PaymentStatusSummary>> byStatus() {
+        if (!available()) {
+            return Optional.empty();
+        }
+        List<PaymentStatusSummary> summaries = new ArrayList<>();
+        for (PaymentRecord.PaymentStatus status : STATUSES_BY_NAME) {
+            long payments = 0;
+            double amount = 0;
+            for (PaymentRecord.PaymentMethod method : METHODS) {
+                payments += counts[index(status, method)].sum();
+                amount += amounts[index(status, method)].sum();
+            }
+            if (payments > 0) {
+                summaries.add(new PaymentStatusSummary(status, payments, amount));
+            }
+        }
+        return Optional.of(summaries);
+    }
+
+    public Optional<List<PaymentMethodRevenue>> completedByMethod() {
+        if (!available()) {
+            return Optional.empty();
+        }
+        List<PaymentMethodRevenue> revenue = new ArrayList<>();
+        for (PaymentRecord.PaymentMethod method : METHODS_BY_NAME) {
+            int cell = index(PaymentRecord.PaymentStatus.COMPLETED, method);
+            long payments = counts[cell].sum();
+            if (payments > 0) {
+                revenue.add(new PaymentMethodRevenue(method, payments, amounts[cell].sum()));
+            }
+        }
+        return Optional.of(revenue);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long started = System.nanoTime();
+        Totals totals = readOnlyTransaction.execute(status -> {
+            // Taken inside the transaction, which already holds its connection: committing transactions
+            // wait for the lock while holding theirs, and could otherwise leave none for the query
+            reloading.writeLock().lock();
+            try {
+                Totals selected = selectTotals();
+                reload(selected);
+                return selected;
+            } finally {
+                reloading.writeLock().unlock();
+            }
+        });
+        loaded = true;
+        previousDrift = List.of();
+        log.info("Loaded payment counters for {} payments in {} ms", totals.payments(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Compares the counters with the database and corrects them when they still differ the same way as on
+     * the previous check. Returns the differences found, empty when the two agree.
+     */
+    public synchronized List<String> check() {
+        if (!loaded) {
+            load();
+            return List.of();
+        }
+        List<String> drift = queryTotals().differencesFrom(currentTotals());
+        if (drift.isEmpty()) {
+            previousDrift = List.of();
+        } else if (drift.equals(previousDrift)) {
+            log.warn("Payment counters drifted from the database, reloading: {}", drift);
+            load();
+        } else {
+            log.debug("Payment counters differ from the database, rechecking before correcting: {}", drift);
+            previousDrift = drift;
+        }
+        return drift;
+    }
+
+    public long getPeerUpdates() {
+        return peerUpdates.sum();
+    }
+
+    // Called from the bus with what a peer published in commit
+    void applyPeerDeltas(String deltas) {
+        if (!loaded) {
+            return;
+        }
+        Delta.decode(deltas).apply(this);
+        peerUpdates.increment();
+    }
+
+    // Lost peer deltas are rare enough to be worth one reload, run on the checker thread so the bus never
+    // waits on the database
+    private void resynchronize() {
+        ScheduledExecutorService executor = checker;
+        if (!loaded || executor == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    load();
+                } catch (RuntimeException ex) {
+                    log.warn("Reloading payment counters after missed peer messages failed; the next check will retry", ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Stopping; nothing left to serve
+        }
+    }
+
+    @Override
+    public void start() {
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-counters-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = settings.getConsistencyCheckInterval().toMillis();
+        checker.scheduleWithFixedDelay(() -> {
+            try {
+                check();
+            } catch (RuntimeException ex) {
+                log.warn("Payment counter consistency check failed", ex);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        checker.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private boolean available() {
+        return loaded;
+    }
+
+    private void commit(Delta delta) {
+        delta.apply(this);
+        clusterBus.publish(Invalidation.counters(delta.encode()));
+    }
+
+    // Caller holds the write lock
+    private void reload(Totals totals) {
+        for (int i = 0; i < CELLS; i++) {
+            counts[i].reset();
+            counts[i].add(totals.counts[i]);
+            amounts[i].reset();
+            amounts[i].add(totals.amounts[i]);
+        }
+    }
+
+    private Totals currentTotals() {
+        Totals totals = new Totals();
+        for (int i = 0; i < CELLS; i++) {
+            totals.counts[i] = counts[i].sum();
+            totals.amounts[i] = amounts[i].sum();
+        }
+        return totals;
+    }
+
+    // Through the entity manager rather than the repository, whose cached results would hide exactly the
+    // writes this check is meant to catch
+    private Totals queryTotals() {
+        return readOnlyTransaction.execute(status -> selectTotals());
+    }
+
+    private Totals selectTotals() {
+        Totals totals = new Totals();
+        for (Tuple row : entityManager.createQuery(TOTALS_QUERY, Tuple.class).getResultList()) {
+            int cell = index(row.get(0, PaymentRecord.PaymentStatus.class), row.get(1, PaymentRecord.PaymentMethod.class));
+            totals.counts[cell] = row.get(2, Long.class);
+            totals.amounts[cell] = row.get(3, Double.class);
+        }
+        return totals;
+    }
+
+    private static int index(PaymentRecord.PaymentStatus status, PaymentRecord.PaymentMethod method) {
+        return status.ordinal() * METHODS.length + method.ordinal();
+    }
+
+    // Captured when the change is made; the entity may change again before the transaction commits
+    private record Cell(int index, double amount) {
+
+        static Cell of(PaymentRecord.PaymentStatus status, PaymentRecord payment) {
+            return of(status, payment.getPaymentMethod(), payment.getAmount());
+        }
+
+        static Cell of(PaymentRecord.PaymentStatus status, PaymentRecord.PaymentMethod method, Double amount) {
+            return new Cell(PaymentCounters.index(status, method), amount != null ? amount : 0.0);
+        }
+    }
+
+    // What one transaction did to the cells, applied here and on the peers
+    private static final class Delta {
+        private final long[] counts = new long[CELLS];
+        private final double[] amounts = new double[CELLS];
+
+        Delta add(Cell cell) {
+            counts[cell.index]++;
+            amounts[cell.index] += cell.amount;
+            return this;
+        }
+
+        Delta remove(Cell cell) {
+            counts[cell.index]--;
+            amounts[cell.index] -= cell.amount;
+            return this;
+        }
+
+        void apply(PaymentCounters target) {
+            target.reloading.readLock().lock();
+            try {
+                for (int i = 0; i < CELLS; i++) {
+                    if (counts[i] != 0 || amounts[i] != 0) {
+                        target.counts[i].add(counts[i]);
+                        target.amounts[i].add(amounts[i]);
+                    }
+                }
+            } finally {
+                target.reloading.readLock().unlock();
+            }
+        }
+
+        // Cells by ordinal index, as "index:count:amount" separated by ";"; only the changed ones
+        String encode() {
+            StringJoiner cells = new StringJoiner(";");
+            for (int i = 0; i < CELLS; i++) {
+                if (counts[i] != 0 || amounts[i] != 0) {
+                    cells.add(i + ":" + counts[i] + ":" + amounts[i]);
+                }
+            }
+            return cells.toString();
+        }
+
+        static Delta decode(String encoded) {
+            Delta delta = new Delta();
+            if (encoded == null || encoded.isEmpty()) {
+                return delta;
+            }
+            for (String cell : encoded.split(";")) {
+                String[] parts = cell.split(":");
+                int index = Integer.parseInt(parts[0]);
+                delta.counts[index] = Long.parseLong(parts[1]);
+                delta.amounts[index] = Double.parseDouble(parts[2]);
+            }
+            return delta;
+        }
+    }
+
+    private static final class Totals {
+        private final long[] counts = new long[CELLS];
+        private final double[] amounts = new double[CELLS];
+
+        long payments() {
+            return Arrays.stream(counts).sum();
+        }
+
+        List<String> differencesFrom(Totals counted) {
+            List<String> differences = new ArrayList<>();
+            for (int i = 0; i < CELLS; i++) {
+                if (counts[i] != counted.counts[i] || Math.abs(amounts[i] - counted.amounts[i]) > AMOUNT_TOLERANCE) {
+                    differences.add(STATUSES[i / METHODS.length] + "/" + METHODS[i % METHODS.length] + ": database "
+                            + counts[i] + " (" + amounts[i] + "), counted " + counted.counts[i] + " (" + counted.amounts[i] + ")");
+                }
+            }
+            return differences;
+        }
+    }
+}
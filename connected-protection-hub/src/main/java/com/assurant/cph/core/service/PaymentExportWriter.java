@@ -0,0 +1,105 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.api.dto.PaymentRecordSnapshot;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+// One payment per line. Nothing is flushed per row: the client receives a chunk whenever the buffer fills
+abstract class PaymentExportWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static PaymentExportWriter open(PaymentExportFormat format, ObjectMapper objectMapper, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return switch (format) {
+            case NDJSON -> new Ndjson(objectMapper, writer);
+            case CSV -> new Csv(writer);
+        };
+    }
+
+    abstract void write(PaymentRecordSnapshot payment) throws IOException;
+
+    // Pushes out the last partial buffer; the response stream itself stays open for the container to complete
+    abstract void finish() throws IOException;
+
+    private static final class Ndjson extends PaymentExportWriter {
+
+        private final ObjectWriter objectWriter;
+        private final JsonGenerator generator;
+
+        Ndjson(ObjectMapper objectMapper, Writer writer) throws IOException {
+            this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = objectMapper.getFactory().createGenerator(writer).setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(PaymentRecordSnapshot payment) throws IOException {
+            objectWriter.writeValue(generator, payment);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class Csv extends PaymentExportWriter {
+
+        private static final String HEADER = "id,paymentReference,amount,paymentDate,paymentMethod,status,transactionId," +
+                "payerInfo,paymentDetails,protectionPlanId,createdAt,updatedAt";
+
+        private final Writer writer;
+
+        Csv(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(PaymentRecordSnapshot payment) throws IOException {
+            field(payment.id(), ',');
+            field(payment.paymentReference(), ',');
+            field(payment.amount(), ',');
+            field(payment.paymentDate(), ',');
+            field(payment.paymentMethod(), ',');
+            field(payment.status(), ',');
+            field(payment.transactionId(), ',');
+            field(payment.payerInfo(), ',');
+            field(payment.paymentDetails(), ',');
+            field(payment.protectionPlanId(), ',');
+            field(payment.createdAt(), ',');
+            field(payment.updatedAt(), '\r');
+            writer.write('\n');
+        }
+
+        // RFC 4180: quote fields holding a separator, quote or line break, doubling embedded quotes
+        private void field(Object value, char terminator) throws IOException {
+            String text = Objects.toString(value, "");
+            if (text.chars().anyMatch(c -> c == ',' || c == '"' || c == '\r' || c == '\n')) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+            writer.write(terminator);
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
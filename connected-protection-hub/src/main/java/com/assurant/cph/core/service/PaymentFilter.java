@@ -0,0 +1,17 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.core.domain.PaymentRecord;
+
+import java.time.LocalDateTime;
+
+// Which payments a search or export covers; null criteria match everything. Dates are inclusive
+public record PaymentFilter(PaymentRecord.PaymentStatus status, PaymentRecord.PaymentMethod paymentMethod,
+                            LocalDateTime startDate, LocalDateTime endDate) {
+
+    // Checked when the request is bound, before an export has written anything, so it can still answer 400
+    public PaymentFilter {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.config.PaymentProperties;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group commit for single payment requests. Callers queue their payment and wait; a flusher thread
+ * collects whatever arrives within {@code cph.payments.group-commit.window} of the first one, up to
+ * {@code max-items}, and stores the group through {@link PaymentRecordService#processPaymentGroup} in one
+ * transaction and one JDBC batch. Each caller then gets its own stored payment, or the exception
+ * processPayment would have thrown for it.
+ *
+ * <p>When the group itself fails, typically at commit on a unique key another node took after the checks
+ * ran, its payments are retried one transaction each so only the offending one fails. Disabled, full or
+ * stopped, the committer processes the payment on the caller's thread. So does a caller whose payment no
+ * group has taken up within {@code caller-timeout}, and whatever goes wrong in the flusher fails the
+ * group's callers rather than leaving them waiting.
+ */
+@Slf4j
+@Component
+public class PaymentGroupCommitter implements SmartLifecycle {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final PaymentRecordService paymentRecordService;
+    private final PaymentProperties.GroupCommit settings;
+    private final BlockingQueue<Pending> pending;
+
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder grouped = new LongAdder();
+    private final LongAdder groupFailures = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    public PaymentGroupCommitter(PaymentRecordService paymentRecordService, PaymentProperties paymentProperties) {
+        this.paymentRecordService = paymentRecordService;
+        this.settings = paymentProperties.getGroupCommit();
+        this.pending = new LinkedBlockingQueue<>(settings.getQueueCapacity());
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * Stores the payment with whichever others arrive in the same window and returns it once their
+     * transaction has committed. Throws what {@link PaymentRecordService#processPayment} would have.
+     */
+    public PaymentRecord process(PaymentRecord payment) {
+        if (!settings.isEnabled() || !running) {
+            return paymentRecordService.processPayment(payment);
+        }
+        Pending entry = new Pending(payment, payment.getProtectionPlan(), new CompletableFuture<>(), new AtomicBoolean());
+        if (!pending.offer(entry)) {
+            bypassed.increment();
+            return paymentRecordService.processPayment(payment);
+        }
+        // Queued just as the committer stopped and drained its queue for the last time
+        if (!running && entry.take()) {
+            pending.remove(entry);
+            return paymentRecordService.processPayment(payment);
+        }
+        try {
+            return await(entry);
+        } catch (TimeoutException ex) {
+            timedOut.increment();
+            // Still queued: no group will store it now, so it is stored here instead
+            if (entry.take()) {
+                pending.remove(entry);
+                log.warn("Payment group commit did not take up payment {} within {}, processing it directly",
+                        payment.getPaymentReference(), settings.getCallerTimeout());
+                return paymentRecordService.processPayment(payment);
+            }
+        }
+        // Already in a group that is committing; storing it again here could store it twice
+        try {
+            return await(entry);
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Payment group commit did not complete within " + settings.getCallerTimeout() +
+                    " for payment " + payment.getPaymentReference());
+        }
+    }
+
+    public GroupCommitStats getStats() {
+        return new GroupCommitStats(groups.sum(), grouped.sum(), groupFailures.sum(), bypassed.sum(), timedOut.sum());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!settings.isEnabled()) {
+            return;
+        }
+        flusher = new Thread(this::flushLoop, "payment-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Payment group commit started with a {} window and up to {} payments per group",
+                settings.getWindow(), settings.getMaxItems());
+    }
+
+    // Not interrupted: an interrupt in the middle of a commit could take the JDBC connection with it
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // Callers still waiting are answered before the database goes away
+        List<Pending> remaining = new ArrayList<>();
+        pending.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            commit(remaining);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private PaymentRecord await(Pending entry) throws TimeoutException {
+        try {
+            return entry.result().get(settings.getCallerTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Payment group commit failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for payment group commit", ex);
+        }
+    }
+
+    // Nothing may end this thread or skip answering a group: its callers would wait on it in vain
+    private void flushLoop() {
+        while (running) {
+            List<Pending> group = new ArrayList<>(settings.getMaxItems());
+            try {
+                Pending first = pending.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    gather(first, group);
+                    commit(group);
+                }
+            } catch (InterruptedException ex) {
+                fail(group, ex);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable ex) {
+                log.error("Payment group commit failed, continuing", ex);
+                fail(group, ex);
+            }
+        }
+    }
+
+    // A full group leaves at once; otherwise the window, counted from the first payment, bounds the wait
+    private void gather(Pending first, List<Pending> group) throws InterruptedException {
+        int maxItems = settings.getMaxItems();
+        long deadline = System.nanoTime() + settings.getWindow().toNanos();
+        group.add(first);
+        while (group.size() < maxItems) {
+            if (pending.drainTo(group, maxItems - group.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            Pending next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+    }
+
+    private void commit(List<Pending> gathered) {
+        // Callers that timed out waiting have taken their payment back
+        List<Pending> group = gathered.stream().filter(Pending::take).toList();
+        if (group.isEmpty()) {
+            return;
+        }
+        groups.increment();
+        grouped.add(group.size());
+        Map<Integer, RuntimeException> rejections;
+        try {
+            rejections = paymentRecordService.processPaymentGroup(group.stream().map(Pending::payment).toList());
+        } catch (RuntimeException ex) {
+            groupFailures.increment();
+            log.warn("Group of {} payments failed, committing them one by one: {}", group.size(), ex.toString());
+            group.forEach(this::commitAlone);
+            return;
+        }
+        for (int index = 0; index < group.size(); index++) {
+            Pending entry = group.get(index);
+            RuntimeException rejection = rejections.get(index);
+            if (rejection != null) {
+                entry.result().completeExceptionally(rejection);
+            } else {
+                entry.restorePlan();
+                entry.result().complete(entry.payment());
+            }
+        }
+    }
+
+    private void commitAlone(Pending entry) {
+        // Whatever the failed group assigned was rolled back with it
+        entry.payment().setId(null);
+        entry.restorePlan();
+        try {
+            entry.result().complete(paymentRecordService.processPayment(entry.payment()));
+        } catch (Throwable ex) {
+            entry.result().completeExceptionally(ex);
+        }
+    }
+
+    // Callers already answered keep their answer
+    private static void fail(List<Pending> group, Throwable cause) {
+        group.forEach(entry -> entry.result().completeExceptionally(cause));
+    }
+
+    // The plan as the caller sent it; the group swaps in a lazy reference that cannot be read once detached.
+    // Taken by whichever goes first: a group about to commit it, or its caller giving up on waiting
+    private record Pending(PaymentRecord payment, ProtectionPlan plan, CompletableFuture<PaymentRecord> result,
+                           AtomicBoolean taken) {
+
+        boolean take() {
+            return taken.compareAndSet(false, true);
+        }
+
+        void restorePlan() {
+            payment.setProtectionPlan(plan);
+        }
+    }
+
+    public record GroupCommitStats(long groups, long payments, long groupFailures, long bypassed, long timedOut) {
+    }
+}
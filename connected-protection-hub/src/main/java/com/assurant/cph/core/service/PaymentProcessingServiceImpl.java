@@ -1,24 +1,60 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.PaymentBatchResult;
+import com.assurant.cph.api.dto.PaymentMethodRevenue;
+import com.assurant.cph.api.dto.PaymentRecordSnapshot;
+import com.assurant.cph.api.dto.PaymentStatistics;
+import com.assurant.cph.api.dto.PaymentStatusSummary;
+import com.assurant.cph.api.dto.ProtectionPlanSnapshot;
+import com.assurant.cph.config.PaymentProperties;
+import com.assurant.cph.core.cache.CacheEvictionEngine;
+import com.assurant.cph.core.cache.NaturalKey;
+import com.assurant.cph.core.cache.NaturalKeyIndex;
 import com.assurant.cph.core.domain.PaymentRecord;
 import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.domain.ReferenceSequence;
+import com.assurant.cph.core.mapper.PaymentRecordMapper;
+import com.assurant.cph.core.repository.PageCursor;
 import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.PaymentRef;
+import com.assurant.cph.core.repository.PlanTerms;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -26,90 +62,84 @@ import java.util.stream.Collectors;
 @Transactional
 public class PaymentProcessingServiceImpl implements PaymentRecordService {
 
+    private static final int IN_LIST_LIMIT = 1000;
+
     private final PaymentRecordRepository paymentRecordRepository;
+    private final ProtectionPlanRepository protectionPlanRepository;
     private final ProtectionPlanService protectionPlanService;
     private final CustomerService customerService;
+    private final PaymentRecordMapper paymentRecordMapper;
+    private final CacheEvictionEngine cacheEvictionEngine;
+    private final NaturalKeyIndex naturalKeyIndex;
+    private final ObjectMapper objectMapper;
+    private final PaymentCounters paymentCounters;
+    private final PaymentProperties paymentProperties;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final PlanLaneExecutor planLaneExecutor;
+    private final ReferenceSequence referenceSequence;
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "payments", allEntries = true),
-            @CacheEvict(value = "customerPayments", allEntries = true),
-            @CacheEvict(value = "planPayments", allEntries = true),
-            @CacheEvict(value = "paymentStats", allEntries = true)
-    })
     public PaymentRecord processPayment(PaymentRecord paymentRecord) {
         log.info("Processing payment for protection plan: {}", paymentRecord.getProtectionPlan().getId());
 
         // Validate protection plan exists and is active
-        ProtectionPlan protectionPlan = protectionPlanService.getProtectionPlanById(paymentRecord.getProtectionPlan().getId())
+        ProtectionPlanSnapshot protectionPlan = protectionPlanService.getProtectionPlanById(paymentRecord.getProtectionPlan().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Protection plan not found with ID: " + paymentRecord.getProtectionPlan().getId()));
 
-        if (protectionPlan.getStatus() != ProtectionPlan.PlanStatus.ACTIVE &&
-                protectionPlan.getStatus() != ProtectionPlan.PlanStatus.EXPIRED) {
-            throw new IllegalStateException("Cannot process payment for protection plan with status: " + protectionPlan.getStatus());
+        if (protectionPlan.status() != ProtectionPlan.PlanStatus.ACTIVE &&
+                protectionPlan.status() != ProtectionPlan.PlanStatus.EXPIRED) {
+            throw new IllegalStateException("Cannot process payment for protection plan with status: " + protectionPlan.status());
         }
 
         // Validate payment amount matches plan premium (with tolerance for fees)
-        double expectedAmount = protectionPlan.getPremiumAmount();
-        double paymentAmount = paymentRecord.getAmount();
-        double tolerance = 0.01; // 1% tolerance
-
-        if (Math.abs(paymentAmount - expectedAmount) > (expectedAmount * tolerance)) {
-            throw new IllegalArgumentException(
-                    String.format("Payment amount %.2f does not match protection plan premium %.2f",
-                            paymentAmount, expectedAmount)
-            );
+        if (!matchesPremium(paymentRecord.getAmount(), protectionPlan.premiumAmount())) {
+            throw new IllegalArgumentException(premiumMismatch(paymentRecord.getAmount(), protectionPlan.premiumAmount()));
         }
 
         // Set default values if not provided
-        if (paymentRecord.getPaymentDate() == null) {
-            paymentRecord.setPaymentDate(LocalDateTime.now());
-        }
-
-        if (paymentRecord.getStatus() == null) {
-            paymentRecord.setStatus(PaymentRecord.PaymentStatus.PENDING);
-        }
-
-        // Generate payment reference if not provided
-        if (paymentRecord.getPaymentReference() == null) {
-            paymentRecord.setPaymentReference(generatePaymentReference());
-        }
+        applyDefaults(paymentRecord);
 
-        // Validate unique payment reference
-        if (paymentRecordRepository.findByPaymentReference(paymentRecord.getPaymentReference()).isPresent()) {
+        // Validate unique payment reference, generated ones included in case two nodes share a node ID
+        if (naturalKeyIndex.exists(NaturalKey.PAYMENT_REFERENCE, paymentRecord.getPaymentReference())) {
             throw new IllegalArgumentException("Payment reference already exists: " + paymentRecord.getPaymentReference());
         }
 
         PaymentRecord savedPayment = paymentRecordRepository.save(paymentRecord);
+        cacheEvictionEngine.paymentChanged("processPayment", savedPayment);
+        paymentCounters.added(savedPayment);
+        naturalKeyIndex.registered(NaturalKey.PAYMENT_REFERENCE, savedPayment.getPaymentReference(), savedPayment.getId());
         log.info("Payment processed successfully with reference: {}", savedPayment.getPaymentReference());
 
         return savedPayment;
     }
 
     @Override
-    @Cacheable(value = "payments")
+    @Cacheable(value = "payments", sync = true)
     @Transactional(readOnly = true)
-    public List<PaymentRecord> getAllPayments() {
+    public List<PaymentRecordSnapshot> getAllPayments() {
         log.info("Fetching all payment records");
-        return paymentRecordRepository.findAll();
+        return paymentRecordRepository.findAll().stream()
+                .map(paymentRecordMapper::toSnapshot)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentRecordSnapshot> getPaymentPage(PageQuery query) {
+        log.info("Fetching page of payment records: {}", query);
+        return query.fetch(paymentRecordRepository, paymentRecordMapper::toSnapshot);
     }
 
     @Override
-    @Cacheable(value = "payment", key = "#id")
+    @Cacheable(value = "payment", key = "#id", sync = true)
     @Transactional(readOnly = true)
-    public Optional<PaymentRecord> getPaymentById(UUID id) {
+    public Optional<PaymentRecordSnapshot> getPaymentById(UUID id) {
         log.info("Fetching payment by ID: {}", id);
-        return paymentRecordRepository.findById(id);
+        return paymentRecordRepository.findById(id).map(paymentRecordMapper::toSnapshot);
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "payments", allEntries = true),
-            @CacheEvict(value = "payment", key = "#id"),
-            @CacheEvict(value = "customerPayments", allEntries = true),
-            @CacheEvict(value = "planPayments", allEntries = true),
-            @CacheEvict(value = "paymentStats", allEntries = true)
-    })
     public PaymentRecord updatePayment(UUID id, PaymentRecord paymentDetails) {
         log.info("Updating payment with ID: {}", id);
 
@@ -134,17 +164,12 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
             existingPayment.setTransactionId(paymentDetails.getTransactionId());
         }
 
-        return paymentRecordRepository.save(existingPayment);
+        PaymentRecord updatedPayment = paymentRecordRepository.save(existingPayment);
+        cacheEvictionEngine.paymentChanged("updatePayment", updatedPayment);
+        return updatedPayment;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "payments", allEntries = true),
-            @CacheEvict(value = "payment", key = "#id"),
-            @CacheEvict(value = "customerPayments", allEntries = true),
-            @CacheEvict(value = "planPayments", allEntries = true),
-            @CacheEvict(value = "paymentStats", allEntries = true)
-    })
     public void deletePayment(UUID id) {
         log.info("Deleting payment with ID: {}", id);
 
@@ -158,6 +183,9 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
         }
 
         paymentRecordRepository.delete(payment);
+        cacheEvictionEngine.paymentChanged("deletePayment", payment);
+        paymentCounters.removed(payment);
+        naturalKeyIndex.removed(NaturalKey.PAYMENT_REFERENCE, payment.getPaymentReference());
         log.info("Payment deleted successfully: {}", id);
     }
 
@@ -176,17 +204,19 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
     }
 
     @Override
-    @Cacheable(value = "planPayments", key = "#protectionPlanId")
+    @Cacheable(value = "planPayments", key = "#protectionPlanId", sync = true)
     @Transactional(readOnly = true)
-    public List<PaymentRecord> getPaymentsByProtectionPlanId(UUID protectionPlanId) {
+    public List<PaymentRecordSnapshot> getPaymentsByProtectionPlanId(UUID protectionPlanId) {
         log.info("Fetching payments for protection plan: {}", protectionPlanId);
-        return paymentRecordRepository.findByProtectionPlanId(protectionPlanId);
+        return paymentRecordRepository.findByProtectionPlanId(protectionPlanId).stream()
+                .map(paymentRecordMapper::toSnapshot)
+                .toList();
     }
 
     @Override
-    @Cacheable(value = "customerPayments", key = "#customerId")
+    @Cacheable(value = "customerPayments", key = "#customerId", sync = true)
     @Transactional(readOnly = true)
-    public List<PaymentRecord> getPaymentsByCustomerId(UUID customerId) {
+    public List<PaymentRecordSnapshot> getPaymentsByCustomerId(UUID customerId) {
         log.info("Fetching payments for customer: {}", customerId);
 
         // Validate customer exists
@@ -194,7 +224,9 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
             throw new IllegalArgumentException("Customer not found with ID: " + customerId);
         }
 
-        return paymentRecordRepository.findByCustomerId(customerId);
+        return paymentRecordRepository.findByCustomerId(customerId).stream()
+                .map(paymentRecordMapper::toSnapshot)
+                .toList();
     }
 
     @Override
@@ -213,27 +245,56 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<PaymentRecord> getPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        log.info("Fetching payments between {} and {}", startDate, endDate);
+    public CursorPage<PaymentRecordSnapshot> getPaymentsByDateRange(PaymentFilter filter, PageQuery query) {
+        log.info("Fetching payments between {} and {}", filter.startDate(), filter.endDate());
 
-        if (startDate.isAfter(endDate)) {
-            throw new IllegalArgumentException("Start date cannot be after end date");
+        if (filter.startDate() == null || filter.endDate() == null) {
+            throw new IllegalArgumentException("Start and end dates are required");
         }
 
-        return paymentRecordRepository.findAll().stream()
-                .filter(payment -> !payment.getPaymentDate().isBefore(startDate) &&
-                        !payment.getPaymentDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        // A cursor narrows the range to its own payment date; one from before the range leaves it whole
+        LocalDateTime from = filter.startDate();
+        LocalDateTime to = filter.endDate();
+        UUID afterId = null;
+        PageCursor after = query.after();
+        if (after != null && query.direction().isAscending() && !after.timestamp().isBefore(from)) {
+            from = after.timestamp();
+            afterId = after.id();
+        } else if (after != null && query.direction().isDescending() && !after.timestamp().isAfter(to)) {
+            to = after.timestamp();
+            afterId = after.id();
+        }
+
+        LocalDateTime start = from;
+        LocalDateTime end = to;
+        UUID resumeAfter = afterId;
+        return query.fetch(limit -> query.direction().isAscending()
+                        ? paymentRecordRepository.findByPaymentDateAscending(start, end, resumeAfter, filter.status(), filter.paymentMethod(), limit)
+                        : paymentRecordRepository.findByPaymentDateDescending(start, end, resumeAfter, filter.status(), filter.paymentMethod(), limit),
+                PaymentRecordSnapshot::paymentDate, PaymentRecordSnapshot::id, Function.identity());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportPayments(PaymentFilter filter, PaymentExportFormat format, OutputStream out) throws IOException {
+        log.info("Exporting payments as {}: {}", format, filter);
+
+        PaymentExportWriter writer = PaymentExportWriter.open(format, objectMapper, out);
+        long exported = 0;
+        try (Stream<PaymentRecordSnapshot> payments = paymentRecordRepository.streamForExport(
+                filter.status(), filter.paymentMethod(), filter.startDate(), filter.endDate())) {
+            Iterator<PaymentRecordSnapshot> rows = payments.iterator();
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+                exported++;
+            }
+        }
+        writer.finish();
+        log.info("Exported {} payments", exported);
+        return exported;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "payments", allEntries = true),
-            @CacheEvict(value = "payment", key = "#id"),
-            @CacheEvict(value = "customerPayments", allEntries = true),
-            @CacheEvict(value = "planPayments", allEntries = true),
-            @CacheEvict(value = "paymentStats", allEntries = true)
-    })
     public PaymentRecord updatePaymentStatus(UUID id, PaymentRecord.PaymentStatus status) {
         log.info("Updating payment status for ID: {} to {}", id, status);
 
@@ -241,7 +302,8 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
                 .orElseThrow(() -> new IllegalArgumentException("Payment record not found with ID: " + id));
 
         // Validate status transition
-        validatePaymentStatusTransition(payment.getStatus(), status);
+        PaymentRecord.PaymentStatus previousStatus = payment.getStatus();
+        validatePaymentStatusTransition(previousStatus, status);
 
         payment.setStatus(status);
 
@@ -251,19 +313,14 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
         }
 
         PaymentRecord updatedPayment = paymentRecordRepository.save(payment);
+        cacheEvictionEngine.paymentChanged("updatePaymentStatus", updatedPayment);
+        paymentCounters.statusChanged(updatedPayment, previousStatus);
         log.info("Payment status updated successfully: {} -> {}", id, status);
 
         return updatedPayment;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "payments", allEntries = true),
-            @CacheEvict(value = "payment", key = "#id"),
-            @CacheEvict(value = "customerPayments", allEntries = true),
-            @CacheEvict(value = "planPayments", allEntries = true),
-            @CacheEvict(value = "paymentStats", allEntries = true)
-    })
     public PaymentRecord processRefund(UUID id) {
         log.info("Processing refund for payment: {}", id);
 
@@ -276,57 +333,52 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
                     ", Payment Date: " + payment.getPaymentDate());
         }
 
+        PaymentRecord.PaymentStatus previousStatus = payment.getStatus();
         payment.setStatus(PaymentRecord.PaymentStatus.REFUNDED);
 
         // Update protection plan status if needed
         handleProtectionPlanAfterRefund(payment.getProtectionPlan());
 
         PaymentRecord refundedPayment = paymentRecordRepository.save(payment);
+        cacheEvictionEngine.paymentChanged("processRefund", refundedPayment);
+        paymentCounters.statusChanged(refundedPayment, previousStatus);
         log.info("Payment refunded successfully: {}", refundedPayment.getPaymentReference());
 
         return refundedPayment;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "payments", allEntries = true),
-            @CacheEvict(value = "payment", key = "#id"),
-            @CacheEvict(value = "customerPayments", allEntries = true),
-            @CacheEvict(value = "planPayments", allEntries = true),
-            @CacheEvict(value = "paymentStats", allEntries = true)
-    })
     public PaymentRecord markAsCompleted(UUID id, String transactionId) {
         log.info("Marking payment as completed: {} with transaction ID: {}", id, transactionId);
 
         PaymentRecord payment = paymentRecordRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Payment record not found with ID: " + id));
 
+        PaymentRecord.PaymentStatus previousStatus = payment.getStatus();
         payment.markAsCompleted(transactionId);
         updateProtectionPlanAfterPayment(payment.getProtectionPlan());
 
         PaymentRecord completedPayment = paymentRecordRepository.save(payment);
+        cacheEvictionEngine.paymentChanged("markAsCompleted", completedPayment);
+        paymentCounters.statusChanged(completedPayment, previousStatus);
         log.info("Payment marked as completed: {}", id);
 
         return completedPayment;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "payments", allEntries = true),
-            @CacheEvict(value = "payment", key = "#id"),
-            @CacheEvict(value = "customerPayments", allEntries = true),
-            @CacheEvict(value = "planPayments", allEntries = true),
-            @CacheEvict(value = "paymentStats", allEntries = true)
-    })
     public PaymentRecord markAsFailed(UUID id, String failureReason) {
         log.info("Marking payment as failed: {} - Reason: {}", id, failureReason);
 
         PaymentRecord payment = paymentRecordRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Payment record not found with ID: " + id));
 
+        PaymentRecord.PaymentStatus previousStatus = payment.getStatus();
         payment.markAsFailed(failureReason);
 
         PaymentRecord failedPayment = paymentRecordRepository.save(payment);
+        cacheEvictionEngine.paymentChanged("markAsFailed", failedPayment);
+        paymentCounters.statusChanged(failedPayment, previousStatus);
         log.info("Payment marked as failed: {}", id);
 
         return failedPayment;
@@ -347,65 +399,33 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
     }
 
     @Override
-    @Cacheable(value = "paymentStats", key = "#customerId")
+    @Cacheable(value = "paymentStats", key = "#customerId", sync = true)
     @Transactional(readOnly = true)
-    public Map<String, Object> getPaymentStatistics(UUID customerId) {
+    public PaymentStatistics getPaymentStatistics(UUID customerId) {
         log.info("Generating payment statistics for customer: {}", customerId);
 
-        List<PaymentRecord> customerPayments = getPaymentsByCustomerId(customerId);
-
-        double totalPaid = customerPayments.stream()
-                .filter(p -> p.getStatus() == PaymentRecord.PaymentStatus.COMPLETED)
-                .mapToDouble(PaymentRecord::getAmount)
-                .sum();
-
-        long completedPayments = customerPayments.stream()
-                .filter(p -> p.getStatus() == PaymentRecord.PaymentStatus.COMPLETED)
-                .count();
-
-        long pendingPayments = customerPayments.stream()
-                .filter(p -> p.getStatus() == PaymentRecord.PaymentStatus.PENDING)
-                .count();
-
-        double averagePayment = completedPayments > 0 ? totalPaid / completedPayments : 0.0;
-
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("customerId", customerId);
-        stats.put("totalPaid", totalPaid);
-        stats.put("completedPayments", completedPayments);
-        stats.put("pendingPayments", pendingPayments);
-        stats.put("totalTransactions", customerPayments.size());
-        stats.put("averagePayment", averagePayment);
-        stats.put("lastPaymentDate", getLastPaymentDate(customerPayments));
+        if (!customerService.customerExists(customerId)) {
+            throw new IllegalArgumentException("Customer not found with ID: " + customerId);
+        }
 
-        return stats;
+        return paymentRecordRepository.summarizeByCustomer(customerId)
+                .orElseGet(() -> PaymentStatistics.none(customerId));
     }
 
+    // Answered from the live counters, joining no transaction of its own; the queries only run until the
+    // counters are first loaded
     @Override
-    @Cacheable(value = "paymentStats", key = "'countByStatus'")
-    @Transactional(readOnly = true)
-    public Map<String, Long> getPaymentCountByStatus() {
-        log.info("Generating payment count by status");
-
-        return paymentRecordRepository.findAll().stream()
-                .collect(Collectors.groupingBy(
-                        payment -> payment.getStatus().name(),
-                        Collectors.counting()
-                ));
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<PaymentStatusSummary> getPaymentCountByStatus() {
+        log.debug("Generating payment count by status");
+        return paymentCounters.byStatus().orElseGet(paymentRecordRepository::summarizeByStatus);
     }
 
     @Override
-    @Cacheable(value = "paymentStats", key = "'revenueByMethod'")
-    @Transactional(readOnly = true)
-    public Map<String, Double> getRevenueByPaymentMethod() {
-        log.info("Generating revenue by payment method");
-
-        return paymentRecordRepository.findAll().stream()
-                .filter(payment -> payment.getStatus() == PaymentRecord.PaymentStatus.COMPLETED)
-                .collect(Collectors.groupingBy(
-                        payment -> payment.getPaymentMethod().name(),
-                        Collectors.summingDouble(PaymentRecord::getAmount)
-                ));
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<PaymentMethodRevenue> getRevenueByPaymentMethod() {
+        log.debug("Generating revenue by payment method");
+        return paymentCounters.completedByMethod().orElseGet(paymentRecordRepository::summarizeRevenueByMethod);
     }
 
     @Override
@@ -417,63 +437,273 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
     @Override
     @Transactional(readOnly = true)
     public boolean isPaymentRefundable(UUID id) {
-        Optional<PaymentRecord> payment = getPaymentById(id);
-        return payment.map(PaymentRecord::isRefundable).orElse(false);
+        Optional<PaymentRecordSnapshot> payment = getPaymentById(id);
+        return payment.map(PaymentRecordSnapshot::isRefundable).orElse(false);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean canRetryPayment(UUID id) {
-        Optional<PaymentRecord> payment = getPaymentById(id);
-        return payment.map(PaymentRecord::canRetry).orElse(false);
+        Optional<PaymentRecordSnapshot> payment = getPaymentById(id);
+        return payment.map(PaymentRecordSnapshot::canRetry).orElse(false);
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "payments", allEntries = true),
-            @CacheEvict(value = "customerPayments", allEntries = true),
-            @CacheEvict(value = "planPayments", allEntries = true),
-            @CacheEvict(value = "paymentStats", allEntries = true)
-    })
-    public List<PaymentRecord> processBatchPayments(List<PaymentRecord> payments) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PaymentBatchResult processBatchPayments(List<PaymentRecord> payments) {
         log.info("Processing batch of {} payments", payments.size());
+        long started = System.nanoTime();
+
+        // Inside a caller's transaction, such as a batch job's chunk, the batch commits with it on the caller's
+        // thread; only a batch on its own, as the batch endpoint sends, is spread over the plan lanes
+        Map<Integer, RuntimeException> rejections = TransactionSynchronizationManager.isActualTransactionActive()
+                ? insertAll(payments, "processBatchPayments")
+                : insertAcrossLanes(payments);
+        List<PaymentBatchResult.Item> items = new ArrayList<>(payments.size());
+        for (int index = 0; index < payments.size(); index++) {
+            PaymentRecord payment = payments.get(index);
+            RuntimeException rejection = rejections.get(index);
+            items.add(rejection == null
+                    ? PaymentBatchResult.Item.accepted(index, payment.getPaymentReference(), payment.getId())
+                    : PaymentBatchResult.Item.rejected(index, payment.getPaymentReference(), rejection.getMessage()));
+        }
+
+        PaymentBatchResult result = PaymentBatchResult.of(items);
+        log.info("Processed batch of {} payments: {} accepted, {} rejected in {} ms", payments.size(),
+                result.accepted(), result.rejected(), (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    @Override
+    public Map<Integer, RuntimeException> processPaymentGroup(List<PaymentRecord> payments) {
+        long started = System.nanoTime();
+        Map<Integer, RuntimeException> rejections = insertAll(payments, "processPaymentGroup");
+        log.debug("Processed group of {} payments: {} rejected in {} ms", payments.size(), rejections.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return rejections;
+    }
+
+    // Each lane stores the payments of its plans in a transaction of its own, so a lane that fails rolls back
+    // only its share
+    private Map<Integer, RuntimeException> insertAcrossLanes(List<PaymentRecord> payments) {
+        payments.forEach(this::applyDefaults);
+
+        // Two lanes would both accept a reference or transaction ID repeated across plans, so repeats are
+        // turned away here, before the lanes check against the table
+        Map<Integer, RuntimeException> rejections = new HashMap<>();
+        Set<String> references = new HashSet<>();
+        Set<String> transactionIds = new HashSet<>();
+        Map<Integer, List<Integer>> indexesByLane = new TreeMap<>();
+        for (int index = 0; index < payments.size(); index++) {
+            PaymentRecord payment = payments.get(index);
+            if (!references.add(payment.getPaymentReference())) {
+                rejections.put(index, new IllegalArgumentException("Payment reference already exists: " + payment.getPaymentReference()));
+            } else if (payment.getTransactionId() != null && !transactionIds.add(payment.getTransactionId())) {
+                rejections.put(index, new IllegalArgumentException("Transaction ID already exists: " + payment.getTransactionId()));
+            } else {
+                UUID planId = payment.getProtectionPlan() != null ? payment.getProtectionPlan().getId() : null;
+                indexesByLane.computeIfAbsent(planLaneExecutor.laneOf(planId), lane -> new ArrayList<>()).add(index);
+            }
+        }
 
-        return payments.stream()
-                .map(this::processPayment)
-                .collect(Collectors.toList());
+        TransactionTemplate laneTransaction = new TransactionTemplate(transactionManager);
+        Map<List<Integer>, CompletableFuture<Map<Integer, RuntimeException>>> results = new LinkedHashMap<>();
+        indexesByLane.forEach((lane, indexes) -> {
+            List<PaymentRecord> share = indexes.stream().map(payments::get).toList();
+            Supplier<Map<Integer, RuntimeException>> work =
+                    () -> laneTransaction.execute(status -> insertAll(share, "processBatchPayments"));
+            // A single lane's share gains nothing from the hand-off
+            results.put(indexes, indexesByLane.size() > 1 && planLaneExecutor.isRunning()
+                    ? planLaneExecutor.submitToLane(lane, work)
+                    : CompletableFuture.completedFuture(work.get()));
+        });
+        results.forEach((indexes, result) -> {
+            try {
+                result.join().forEach((shareIndex, rejection) -> rejections.put(indexes.get(shareIndex), rejection));
+            } catch (CompletionException ex) {
+                log.warn("Plan lane failed to store {} payments of the batch: {}", indexes.size(), ex.getCause().toString());
+                RuntimeException failure = new IllegalStateException("Payment could not be stored: " + ex.getCause().getMessage());
+                indexes.forEach(index -> rejections.put(index, failure));
+            }
+        });
+        return rejections;
+    }
+
+    // Inserts the acceptable payments as JDBC batches in the current transaction; the rest are returned by
+    // position with the exception processPayment would have thrown for them
+    private Map<Integer, RuntimeException> insertAll(List<PaymentRecord> payments, String operation) {
+        // Defaults first, so generated references are checked like supplied ones
+        payments.forEach(this::applyDefaults);
+
+        // Everything the checks need comes from one query per kind, whatever the batch size
+        Map<UUID, PlanTerms> plans = inChunks(payments.stream()
+                .map(PaymentRecord::getProtectionPlan)
+                .filter(Objects::nonNull)
+                .map(ProtectionPlan::getId), protectionPlanRepository::findTermsByIdIn).stream()
+                .collect(Collectors.toMap(PlanTerms::id, Function.identity()));
+        Set<String> takenReferences = new HashSet<>(inChunks(payments.stream()
+                .map(PaymentRecord::getPaymentReference), paymentRecordRepository::findExistingPaymentReferences));
+        Set<String> takenTransactionIds = new HashSet<>(inChunks(payments.stream()
+                .map(PaymentRecord::getTransactionId), paymentRecordRepository::findExistingTransactionIds));
+
+        int flushSize = paymentProperties.getBatch().getFlushSize();
+        Map<Integer, RuntimeException> rejections = new HashMap<>();
+        List<PaymentRecord> unflushed = new ArrayList<>(flushSize);
+        List<PaymentRef> accepted = new ArrayList<>();
+        for (int index = 0; index < payments.size(); index++) {
+            PaymentRecord payment = payments.get(index);
+            RuntimeException rejection = rejection(payment, plans, takenReferences, takenTransactionIds);
+            if (rejection != null) {
+                rejections.put(index, rejection);
+                continue;
+            }
+            // Later payments in the same batch must not reuse these either
+            takenReferences.add(payment.getPaymentReference());
+            if (payment.getTransactionId() != null) {
+                takenTransactionIds.add(payment.getTransactionId());
+            }
+
+            PlanTerms plan = plans.get(payment.getProtectionPlan().getId());
+            // Straight from the entity manager: the repository proxy around getReferenceById costs more than the insert
+            payment.setProtectionPlan(entityManager.getReference(ProtectionPlan.class, plan.id()));
+            entityManager.persist(payment);
+            accepted.add(new PaymentRef(payment.getId(), plan.id(), plan.customerId(), payment.getPaymentMethod(), payment.getAmount()));
+            unflushed.add(payment);
+            if (unflushed.size() == flushSize) {
+                flushBatch(unflushed);
+            }
+        }
+        flushBatch(unflushed);
+        if (!accepted.isEmpty()) {
+            cacheEvictionEngine.paymentsChanged(operation, accepted);
+        }
+        return rejections;
     }
 
     @Override
     @Scheduled(cron = "0 0 2 * * ?") // Run daily at 2 AM
-    @Caching(evict = {
-            @CacheEvict(value = "payments", allEntries = true),
-            @CacheEvict(value = "customerPayments", allEntries = true),
-            @CacheEvict(value = "planPayments", allEntries = true),
-            @CacheEvict(value = "paymentStats", allEntries = true)
-    })
-    public void cancelExpiredPendingPayments() {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int cancelExpiredPendingPayments() {
         log.info("Canceling expired pending payments");
 
         LocalDateTime expirationThreshold = LocalDateTime.now().minusHours(24);
+        int chunkSize = paymentProperties.getExpiry().getChunkSize();
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        long started = System.nanoTime();
+
+        // Every chunk commits on its own, so a failure keeps the chunks before it and the next run resumes
+        int total = 0;
+        for (int chunk = 1; ; chunk++) {
+            long chunkStarted = System.nanoTime();
+            int expired = chunkTransaction.execute(status -> expireChunk(expirationThreshold, chunkSize));
+            total += expired;
+            log.info("Expired chunk {}: {} payments in {} ms", chunk, expired, (System.nanoTime() - chunkStarted) / 1_000_000);
+            if (expired < chunkSize) {
+                break;
+            }
+        }
 
-        List<PaymentRecord> expiredPayments = paymentRecordRepository.findAll().stream()
-                .filter(payment -> payment.getStatus() == PaymentRecord.PaymentStatus.PENDING)
-                .filter(payment -> payment.getPaymentDate().isBefore(expirationThreshold))
-                .collect(Collectors.toList());
+        log.info("Canceled {} expired pending payments in {} ms", total, (System.nanoTime() - started) / 1_000_000);
+        return total;
+    }
 
-        expiredPayments.forEach(payment -> {
-            payment.setStatus(PaymentRecord.PaymentStatus.EXPIRED);
-            paymentRecordRepository.save(payment);
-            log.info("Canceled expired payment: {}", payment.getPaymentReference());
-        });
+    // Private helper methods
 
-        log.info("Canceled {} expired pending payments", expiredPayments.size());
+    private void applyDefaults(PaymentRecord payment) {
+        if (payment.getPaymentDate() == null) {
+            payment.setPaymentDate(LocalDateTime.now());
+        }
+        if (payment.getStatus() == null) {
+            payment.setStatus(PaymentRecord.PaymentStatus.PENDING);
+        }
+        if (payment.getPaymentReference() == null) {
+            payment.setPaymentReference(referenceSequence.nextReference("PAY"));
+        }
     }
 
-    // Private helper methods
+    // The checks processPayment makes, failing the same way, plus the column constraints that would otherwise
+    // only fail at flush and take every other payment down with them
+    private RuntimeException rejection(PaymentRecord payment, Map<UUID, PlanTerms> plans,
+                                       Set<String> takenReferences, Set<String> takenTransactionIds) {
+        // persist() refuses an entity that already has an id, and would fail the whole batch doing so
+        if (payment.getId() != null) {
+            return new IllegalArgumentException("Payment ID is assigned on insert and must not be supplied: " + payment.getId());
+        }
+        if (payment.getProtectionPlan() == null || payment.getProtectionPlan().getId() == null) {
+            return new IllegalArgumentException("Protection plan is required");
+        }
+        PlanTerms plan = plans.get(payment.getProtectionPlan().getId());
+        if (plan == null) {
+            return new IllegalArgumentException("Protection plan not found with ID: " + payment.getProtectionPlan().getId());
+        }
+        if (plan.status() != ProtectionPlan.PlanStatus.ACTIVE && plan.status() != ProtectionPlan.PlanStatus.EXPIRED) {
+            return new IllegalStateException("Cannot process payment for protection plan with status: " + plan.status());
+        }
+        if (payment.getAmount() == null || payment.getAmount() <= 0) {
+            return new IllegalArgumentException("Payment amount must be positive");
+        }
+        if (!matchesPremium(payment.getAmount(), plan.premiumAmount())) {
+            return new IllegalArgumentException(premiumMismatch(payment.getAmount(), plan.premiumAmount()));
+        }
+        if (payment.getPaymentMethod() == null) {
+            return new IllegalArgumentException("Payment method is required");
+        }
+        if (payment.getPaymentReference().isBlank()) {
+            return new IllegalArgumentException("Payment reference is required");
+        }
+        if (takenReferences.contains(payment.getPaymentReference())) {
+            return new IllegalArgumentException("Payment reference already exists: " + payment.getPaymentReference());
+        }
+        if (payment.getTransactionId() != null && takenTransactionIds.contains(payment.getTransactionId())) {
+            return new IllegalArgumentException("Transaction ID already exists: " + payment.getTransactionId());
+        }
+        return null;
+    }
+
+    // Inserts what has been persisted so far as one JDBC batch, then detaches it. Only these payments are
+    // detached: entities the caller's transaction loaded stay managed
+    private void flushBatch(List<PaymentRecord> unflushed) {
+        if (unflushed.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        paymentCounters.added(unflushed);
+        unflushed.forEach(payment ->
+                naturalKeyIndex.registered(NaturalKey.PAYMENT_REFERENCE, payment.getPaymentReference(), payment.getId()));
+        unflushed.forEach(entityManager::detach);
+        unflushed.clear();
+    }
+
+    // IN lists are capped by the database, so large batches look their keys up a chunk at a time
+    private static <K, R> List<R> inChunks(Stream<K> keys, Function<List<K>, List<R>> query) {
+        List<K> distinct = keys.filter(Objects::nonNull).distinct().toList();
+        List<R> results = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += IN_LIST_LIMIT) {
+            results.addAll(query.apply(distinct.subList(from, Math.min(from + IN_LIST_LIMIT, distinct.size()))));
+        }
+        return results;
+    }
+
+    // 1% tolerance for fees
+    private static boolean matchesPremium(double amount, double premium) {
+        return Math.abs(amount - premium) <= premium * 0.01;
+    }
 
-    private String generatePaymentReference() {
-        return "PAY-" + System.currentTimeMillis() + "-" + (int)(Math.random() * 1000);
+    private static String premiumMismatch(double amount, double premium) {
+        return String.format("Payment amount %.2f does not match protection plan premium %.2f", amount, premium);
+    }
+
+    private int expireChunk(LocalDateTime expirationThreshold, int chunkSize) {
+        List<PaymentRef> payments = paymentRecordRepository.lockByStatusAndPaymentDateBefore(
+                PaymentRecord.PaymentStatus.PENDING, expirationThreshold, Limit.of(chunkSize));
+        if (payments.isEmpty()) {
+            return 0;
+        }
+        paymentRecordRepository.updateStatus(payments.stream().map(PaymentRef::id).toList(),
+                PaymentRecord.PaymentStatus.EXPIRED, LocalDateTime.now());
+        cacheEvictionEngine.paymentsChanged("cancelExpiredPendingPayments", payments);
+        paymentCounters.statusChanged(payments, PaymentRecord.PaymentStatus.PENDING, PaymentRecord.PaymentStatus.EXPIRED);
+        return payments.size();
     }
 
     private void validatePaymentStatusTransition(PaymentRecord.PaymentStatus current, PaymentRecord.PaymentStatus next) {
@@ -514,6 +744,7 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
 
             // Extend end date by plan duration (assuming monthly plans)
             protectionPlan.setEndDate(protectionPlan.getEndDate().plusMonths(1));
+            cacheEvictionEngine.protectionPlanChanged("activatePlanAfterPayment", protectionPlan);
 
             log.info("Protection plan activated and extended after payment: {}", protectionPlan.getId());
         }
@@ -523,15 +754,8 @@ public class PaymentProcessingServiceImpl implements PaymentRecordService {
         // Logic to handle protection plan after refund
         if (protectionPlan.getStatus() == ProtectionPlan.PlanStatus.ACTIVE) {
             protectionPlan.setStatus(ProtectionPlan.PlanStatus.SUSPENDED);
+            cacheEvictionEngine.protectionPlanChanged("suspendPlanAfterRefund", protectionPlan);
             log.info("Protection plan suspended after refund: {}", protectionPlan.getId());
         }
     }
-
-    private LocalDateTime getLastPaymentDate(List<PaymentRecord> payments) {
-        return payments.stream()
-                .filter(p -> p.getStatus() == PaymentRecord.PaymentStatus.COMPLETED)
-                .map(PaymentRecord::getPaymentDate)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
-    }
 }
\ No newline at end of file
@@ -1,7 +1,15 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.PaymentBatchResult;
+import com.assurant.cph.api.dto.PaymentMethodRevenue;
+import com.assurant.cph.api.dto.PaymentRecordSnapshot;
+import com.assurant.cph.api.dto.PaymentStatistics;
+import com.assurant.cph.api.dto.PaymentStatusSummary;
 import com.assurant.cph.core.domain.PaymentRecord;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -12,19 +20,21 @@ public interface PaymentRecordService {
 
     // Basic CRUD operations
     PaymentRecord processPayment(PaymentRecord paymentRecord);
-    List<PaymentRecord> getAllPayments();
-    Optional<PaymentRecord> getPaymentById(UUID id);
+    List<PaymentRecordSnapshot> getAllPayments();
+    CursorPage<PaymentRecordSnapshot> getPaymentPage(PageQuery query);
+    Optional<PaymentRecordSnapshot> getPaymentById(UUID id);
     PaymentRecord updatePayment(UUID id, PaymentRecord paymentDetails);
     void deletePayment(UUID id);
 
     // Search and filter operations
     Optional<PaymentRecord> getPaymentByReference(String paymentReference);
     Optional<PaymentRecord> getPaymentByTransactionId(String transactionId);
-    List<PaymentRecord> getPaymentsByProtectionPlanId(UUID protectionPlanId);
-    List<PaymentRecord> getPaymentsByCustomerId(UUID customerId);
+    List<PaymentRecordSnapshot> getPaymentsByProtectionPlanId(UUID protectionPlanId);
+    List<PaymentRecordSnapshot> getPaymentsByCustomerId(UUID customerId);
     List<PaymentRecord> getPaymentsByStatus(PaymentRecord.PaymentStatus status);
     List<PaymentRecord> getPaymentsByMethod(PaymentRecord.PaymentMethod paymentMethod);
-    List<PaymentRecord> getPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate);
+    CursorPage<PaymentRecordSnapshot> getPaymentsByDateRange(PaymentFilter filter, PageQuery query);
+    long exportPayments(PaymentFilter filter, PaymentExportFormat format, OutputStream out) throws IOException;
 
     // Business operations
     PaymentRecord updatePaymentStatus(UUID id, PaymentRecord.PaymentStatus status);
@@ -34,9 +44,9 @@ public interface PaymentRecordService {
 
     // Analytics and reporting
     Double getTotalPaidAmountByCustomer(UUID customerId);
-    Map<String, Object> getPaymentStatistics(UUID customerId);
-    Map<String, Long> getPaymentCountByStatus();
-    Map<String, Double> getRevenueByPaymentMethod();
+    PaymentStatistics getPaymentStatistics(UUID customerId);
+    List<PaymentStatusSummary> getPaymentCountByStatus();
+    List<PaymentMethodRevenue> getRevenueByPaymentMethod();
 
     // Validation operations
     boolean paymentExists(UUID id);
@@ -44,6 +54,12 @@ public interface PaymentRecordService {
     boolean canRetryPayment(UUID id);
 
     // Batch operations
-    List<PaymentRecord> processBatchPayments(List<PaymentRecord> payments);
-    void cancelExpiredPendingPayments();
+    // Every payment is accepted or rejected on its own; one rejection does not fail the batch. Called outside
+    // a transaction, the batch is spread over the plan lanes; inside one, it runs on the caller's thread
+    PaymentBatchResult processBatchPayments(List<PaymentRecord> payments);
+    // One transaction for all of them; returns, by position, the exception processPayment would have thrown
+    // for each payment that was not stored
+    Map<Integer, RuntimeException> processPaymentGroup(List<PaymentRecord> payments);
+    // Returns the number of payments expired
+    int cancelExpiredPendingPayments();
 }
\ No newline at end of file
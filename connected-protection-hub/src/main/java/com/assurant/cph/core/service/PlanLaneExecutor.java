@@ -0,0 +1,186 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.config.PaymentProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs work keyed by protection plan on {@code cph.payments.lanes.count} single-threaded lanes. A plan
+ * always hashes to the same lane, so work on one plan runs one piece at a time in submission order, while
+ * different plans proceed in parallel. Each lane queues at most {@code capacity} pieces of work; beyond
+ * that, submitting blocks until the lane catches up.
+ *
+ * <p>Its only user is {@link PaymentRecordService#processBatchPayments} called outside a transaction, as the
+ * batch endpoint does. Background batch jobs call it inside the transaction of each chunk and stay on their
+ * own thread, and neither the expiry of pending payments nor claim updates go through the lanes.
+ *
+ * <p>A lane holds a database connection while it works, so there are never as many lanes as the Hikari
+ * pool has connections: a larger count, including the processor count it defaults to, is cut down to
+ * one less than {@code maximum-pool-size} to leave requests a connection.
+ *
+ * <p>Work must not submit to the executor itself: a full lane waiting on its own thread never drains.
+ */
+@Slf4j
+@Component
+public class PlanLaneExecutor implements SmartLifecycle {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final PaymentProperties.Lanes settings;
+    private final List<BlockingQueue<Runnable>> lanes = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder blockedSubmits = new LongAdder();
+
+    private volatile boolean running;
+
+    @Autowired
+    public PlanLaneExecutor(PaymentProperties paymentProperties, DataSource dataSource) {
+        this(paymentProperties, maximumPoolSize(dataSource));
+    }
+
+    PlanLaneExecutor(PaymentProperties paymentProperties, int maximumPoolSize) {
+        this.settings = paymentProperties.getLanes();
+        if (settings.getCount() < 1) {
+            throw new IllegalArgumentException("cph.payments.lanes.count must be at least 1: " + settings.getCount());
+        }
+        int count = Math.min(settings.getCount(), Math.max(1, maximumPoolSize - 1));
+        if (count < settings.getCount()) {
+            log.warn("Limiting plan lanes to {} instead of {}, below the {} connections of the database pool",
+                    count, settings.getCount(), maximumPoolSize);
+        }
+        for (int i = 0; i < count; i++) {
+            lanes.add(new ArrayBlockingQueue<>(settings.getCapacity()));
+        }
+    }
+
+    public int lanes() {
+        return lanes.size();
+    }
+
+    // Payments without a plan still need a lane; they all share the first one
+    public int laneOf(UUID planId) {
+        return planId == null ? 0 : Math.floorMod(planId.hashCode(), lanes.size());
+    }
+
+    public <T> CompletableFuture<T> submit(UUID planId, Supplier<T> work) {
+        return submitToLane(laneOf(planId), work);
+    }
+
+    /**
+     * Queues work on a lane picked with {@link #laneOf}, for callers that group their plans by lane first.
+     * Blocks while the lane is full.
+     */
+    public <T> CompletableFuture<T> submitToLane(int lane, Supplier<T> work) {
+        if (!running) {
+            throw new IllegalStateException("Plan lanes are not running");
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                result.complete(work.get());
+            } catch (RuntimeException | Error ex) {
+                result.completeExceptionally(ex);
+            }
+        };
+        BlockingQueue<Runnable> queue = lanes.get(lane);
+        if (!queue.offer(task)) {
+            blockedSubmits.increment();
+            try {
+                queue.put(task);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for plan lane " + lane, ex);
+            }
+        }
+        // Queued just as the lane drained for the last time
+        if (!running && queue.remove(task)) {
+            throw new IllegalStateException("Plan lanes are not running");
+        }
+        return result;
+    }
+
+    public LaneStats getStats() {
+        return new LaneStats(lanes.size(), lanes.stream().mapToInt(BlockingQueue::size).sum(),
+                completed.sum(), blockedSubmits.sum());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < lanes.size(); i++) {
+            BlockingQueue<Runnable> lane = lanes.get(i);
+            Thread thread = new Thread(() -> drain(lane), "plan-lane-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log.info("Started {} plan lanes holding up to {} queued tasks each", lanes.size(), settings.getCapacity());
+    }
+
+    // Lanes finish what is already queued before they stop
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain(BlockingQueue<Runnable> lane) {
+        while (running || !lane.isEmpty()) {
+            try {
+                Runnable task = lane.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    task.run();
+                    completed.increment();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Pools other than Hikari are not sized by us, and leave the count as configured
+    private static int maximumPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException ex) {
+            log.warn("Could not read the database pool size, leaving plan lanes as configured", ex);
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    public record LaneStats(int lanes, int queued, long completed, long blockedSubmits) {
+    }
+}
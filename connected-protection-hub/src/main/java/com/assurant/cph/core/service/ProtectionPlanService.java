@@ -1,5 +1,7 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.ProtectionPlanSnapshot;
 import com.assurant.cph.core.domain.ProtectionPlan;
 import java.util.List;
 import java.util.Optional;
@@ -8,9 +10,10 @@ import java.util.UUID;
 public interface ProtectionPlanService {
 
     ProtectionPlan createProtectionPlan(ProtectionPlan protectionPlan);
-    Optional<ProtectionPlan> getProtectionPlanById(UUID id);
-    List<ProtectionPlan> getAllProtectionPlans();
-    List<ProtectionPlan> getProtectionPlansByCustomerId(UUID customerId);
+    Optional<ProtectionPlanSnapshot> getProtectionPlanById(UUID id);
+    List<ProtectionPlanSnapshot> getAllProtectionPlans();
+    CursorPage<ProtectionPlanSnapshot> getProtectionPlanPage(PageQuery query);
+    List<ProtectionPlanSnapshot> getProtectionPlansByCustomerId(UUID customerId);
     List<ProtectionPlan> getActiveProtectionPlansByCustomerId(UUID customerId);
     ProtectionPlan updateProtectionPlan(UUID id, ProtectionPlan planDetails);
     void cancelProtectionPlan(UUID id);
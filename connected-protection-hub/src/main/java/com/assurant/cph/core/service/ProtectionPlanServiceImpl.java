@@ -1,12 +1,14 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.ProtectionPlanSnapshot;
+import com.assurant.cph.core.cache.CacheEvictionEngine;
 import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.mapper.ProtectionPlanMapper;
 import com.assurant.cph.core.repository.ProtectionPlanRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,12 +25,10 @@ public class ProtectionPlanServiceImpl implements ProtectionPlanService {
 
     private final ProtectionPlanRepository protectionPlanRepository;
     private final CustomerService customerService;
+    private final ProtectionPlanMapper protectionPlanMapper;
+    private final CacheEvictionEngine cacheEvictionEngine;
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "protectionPlans", allEntries = true),
-            @CacheEvict(value = "customerPlans", key = "#protectionPlan.customer.id")
-    })
     public ProtectionPlan createProtectionPlan(ProtectionPlan protectionPlan) {
         log.info("Creating protection plan for customer: {}", protectionPlan.getCustomer().getId());
 
@@ -46,31 +46,44 @@ public class ProtectionPlanServiceImpl implements ProtectionPlanService {
             throw new IllegalArgumentException("Start date cannot be in the past");
         }
 
-        return protectionPlanRepository.save(protectionPlan);
+        ProtectionPlan savedPlan = protectionPlanRepository.save(protectionPlan);
+        cacheEvictionEngine.protectionPlanChanged("createProtectionPlan", savedPlan);
+        return savedPlan;
     }
 
     @Override
-    @Cacheable(value = "protectionPlan", key = "#id")
+    @Cacheable(value = "protectionPlan", key = "#id", sync = true)
     @Transactional(readOnly = true)
-    public Optional<ProtectionPlan> getProtectionPlanById(UUID id) {
+    public Optional<ProtectionPlanSnapshot> getProtectionPlanById(UUID id) {
         log.info("Fetching protection plan by ID: {}", id);
-        return protectionPlanRepository.findById(id);
+        return protectionPlanRepository.findById(id).map(protectionPlanMapper::toSnapshot);
     }
 
     @Override
-    @Cacheable(value = "protectionPlans")
+    @Cacheable(value = "protectionPlans", sync = true)
     @Transactional(readOnly = true)
-    public List<ProtectionPlan> getAllProtectionPlans() {
+    public List<ProtectionPlanSnapshot> getAllProtectionPlans() {
         log.info("Fetching all protection plans");
-        return protectionPlanRepository.findAll();
+        return protectionPlanRepository.findAll().stream()
+                .map(protectionPlanMapper::toSnapshot)
+                .toList();
     }
 
     @Override
-    @Cacheable(value = "customerPlans", key = "#customerId")
     @Transactional(readOnly = true)
-    public List<ProtectionPlan> getProtectionPlansByCustomerId(UUID customerId) {
+    public CursorPage<ProtectionPlanSnapshot> getProtectionPlanPage(PageQuery query) {
+        log.info("Fetching page of protection plans: {}", query);
+        return query.fetch(protectionPlanRepository, protectionPlanMapper::toSnapshot);
+    }
+
+    @Override
+    @Cacheable(value = "customerPlans", key = "#customerId", sync = true)
+    @Transactional(readOnly = true)
+    public List<ProtectionPlanSnapshot> getProtectionPlansByCustomerId(UUID customerId) {
         log.info("Fetching protection plans for customer: {}", customerId);
-        return protectionPlanRepository.findByCustomerId(customerId);
+        return protectionPlanRepository.findByCustomerId(customerId).stream()
+                .map(protectionPlanMapper::toSnapshot)
+                .toList();
     }
 
     @Override
@@ -81,11 +94,6 @@ public class ProtectionPlanServiceImpl implements ProtectionPlanService {
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "protectionPlans", allEntries = true),
-            @CacheEvict(value = "protectionPlan", key = "#id"),
-            @CacheEvict(value = "customerPlans", allEntries = true)
-    })
     public ProtectionPlan updateProtectionPlan(UUID id, ProtectionPlan planDetails) {
         log.info("Updating protection plan with ID: {}", id);
 
@@ -99,15 +107,12 @@ public class ProtectionPlanServiceImpl implements ProtectionPlanService {
         existingPlan.setCoverageLimit(planDetails.getCoverageLimit());
         existingPlan.setDeductible(planDetails.getDeductible());
 
-        return protectionPlanRepository.save(existingPlan);
+        ProtectionPlan updatedPlan = protectionPlanRepository.save(existingPlan);
+        cacheEvictionEngine.protectionPlanChanged("updateProtectionPlan", updatedPlan);
+        return updatedPlan;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "protectionPlans", allEntries = true),
-            @CacheEvict(value = "protectionPlan", key = "#id"),
-            @CacheEvict(value = "customerPlans", allEntries = true)
-    })
     public void cancelProtectionPlan(UUID id) {
         log.info("Cancelling protection plan with ID: {}", id);
 
@@ -120,14 +125,10 @@ public class ProtectionPlanServiceImpl implements ProtectionPlanService {
 
         plan.setStatus(ProtectionPlan.PlanStatus.CANCELLED);
         protectionPlanRepository.save(plan);
+        cacheEvictionEngine.protectionPlanChanged("cancelProtectionPlan", plan);
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "protectionPlans", allEntries = true),
-            @CacheEvict(value = "protectionPlan", key = "#id"),
-            @CacheEvict(value = "customerPlans", allEntries = true)
-    })
     public void renewProtectionPlan(UUID id, int months) {
         log.info("Renewing protection plan with ID: {} for {} months", id, months);
 
@@ -144,6 +145,7 @@ public class ProtectionPlanServiceImpl implements ProtectionPlanService {
         plan.setStatus(ProtectionPlan.PlanStatus.ACTIVE);
 
         protectionPlanRepository.save(plan);
+        cacheEvictionEngine.protectionPlanChanged("renewProtectionPlan", plan);
     }
 
     @Override
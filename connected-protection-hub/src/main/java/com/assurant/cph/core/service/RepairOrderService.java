@@ -1,5 +1,7 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.RepairProviderSummary;
 import com.assurant.cph.core.domain.RepairOrder;
 
 import java.time.LocalDateTime;
@@ -12,6 +14,7 @@ public interface RepairOrderService {
     // Basic CRUD operations
     RepairOrder createRepairOrder(RepairOrder repairOrder);
     List<RepairOrder> getAllRepairOrders();
+    CursorPage<RepairOrder> getRepairOrderPage(PageQuery query);
     Optional<RepairOrder> getRepairOrderById(UUID id);
     RepairOrder updateRepairOrder(UUID id, RepairOrder repairOrderDetails);
     void deleteRepairOrder(UUID id);
@@ -33,6 +36,7 @@ public interface RepairOrderService {
     // Analytics
     Long getRepairOrderCountByStatus(RepairOrder.RepairStatus status);
     Double getAverageRepairCostByProvider(String provider);
+    List<RepairProviderSummary> getProviderSummary();
     List<RepairOrder> getRepairOrdersNeedingFollowUp();
 
     // Validation
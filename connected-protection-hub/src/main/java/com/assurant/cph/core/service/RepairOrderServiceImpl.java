@@ -1,20 +1,23 @@
 package com.assurant.cph.core.service;
 
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.RepairProviderSummary;
+import com.assurant.cph.core.cache.CacheEvictionEngine;
 import com.assurant.cph.core.domain.RepairOrder;
 import com.assurant.cph.core.repository.RepairOrderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -24,13 +27,9 @@ public class RepairOrderServiceImpl implements RepairOrderService {
 
     private final RepairOrderRepository repairOrderRepository;
     private final ClaimService claimService;
+    private final CacheEvictionEngine cacheEvictionEngine;
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "repairOrders", allEntries = true),
-            @CacheEvict(value = "claimRepairOrders", allEntries = true),
-            @CacheEvict(value = "customerRepairOrders", allEntries = true)
-    })
     public RepairOrder createRepairOrder(RepairOrder repairOrder) {
         log.info("Creating repair order for claim: {}", repairOrder.getClaim().getId());
 
@@ -50,13 +49,14 @@ public class RepairOrderServiceImpl implements RepairOrderService {
         }
 
         RepairOrder savedOrder = repairOrderRepository.save(repairOrder);
+        cacheEvictionEngine.repairOrderChanged("createRepairOrder", savedOrder);
         log.info("Repair order created successfully: {}", savedOrder.getRepairOrderNumber());
 
         return savedOrder;
     }
 
     @Override
-    @Cacheable(value = "repairOrders")
+    @Cacheable(value = "repairOrders", sync = true)
     @Transactional(readOnly = true)
     public List<RepairOrder> getAllRepairOrders() {
         log.info("Fetching all repair orders");
@@ -64,7 +64,14 @@ public class RepairOrderServiceImpl implements RepairOrderService {
     }
 
     @Override
-    @Cacheable(value = "repairOrder", key = "#id")
+    @Transactional(readOnly = true)
+    public CursorPage<RepairOrder> getRepairOrderPage(PageQuery query) {
+        log.info("Fetching page of repair orders: {}", query);
+        return query.fetch(repairOrderRepository, Function.identity());
+    }
+
+    @Override
+    @Cacheable(value = "repairOrder", key = "#id", sync = true)
     @Transactional(readOnly = true)
     public Optional<RepairOrder> getRepairOrderById(UUID id) {
         log.info("Fetching repair order by ID: {}", id);
@@ -72,12 +79,6 @@ public class RepairOrderServiceImpl implements RepairOrderService {
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "repairOrders", allEntries = true),
-            @CacheEvict(value = "repairOrder", key = "#id"),
-            @CacheEvict(value = "claimRepairOrders", allEntries = true),
-            @CacheEvict(value = "customerRepairOrders", allEntries = true)
-    })
     public RepairOrder updateRepairOrder(UUID id, RepairOrder repairOrderDetails) {
         log.info("Updating repair order with ID: {}", id);
 
@@ -120,16 +121,12 @@ public class RepairOrderServiceImpl implements RepairOrderService {
             existingOrder.setTechnicianNotes(repairOrderDetails.getTechnicianNotes());
         }
 
-        return repairOrderRepository.save(existingOrder);
+        RepairOrder updatedOrder = repairOrderRepository.save(existingOrder);
+        cacheEvictionEngine.repairOrderChanged("updateRepairOrder", updatedOrder);
+        return updatedOrder;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "repairOrders", allEntries = true),
-            @CacheEvict(value = "repairOrder", key = "#id"),
-            @CacheEvict(value = "claimRepairOrders", allEntries = true),
-            @CacheEvict(value = "customerRepairOrders", allEntries = true)
-    })
     public void deleteRepairOrder(UUID id) {
         log.info("Deleting repair order with ID: {}", id);
 
@@ -143,6 +140,7 @@ public class RepairOrderServiceImpl implements RepairOrderService {
         }
 
         repairOrderRepository.delete(repairOrder);
+        cacheEvictionEngine.repairOrderChanged("deleteRepairOrder", repairOrder);
         log.info("Repair order deleted successfully: {}", id);
     }
 
@@ -154,7 +152,7 @@ public class RepairOrderServiceImpl implements RepairOrderService {
     }
 
     @Override
-    @Cacheable(value = "claimRepairOrder", key = "#claimId")
+    @Cacheable(value = "claimRepairOrder", key = "#claimId", sync = true)
     @Transactional(readOnly = true)
     public Optional<RepairOrder> getRepairOrderByClaimId(UUID claimId) {
         log.info("Fetching repair order for claim: {}", claimId);
@@ -176,7 +174,7 @@ public class RepairOrderServiceImpl implements RepairOrderService {
     }
 
     @Override
-    @Cacheable(value = "customerRepairOrders", key = "#customerId")
+    @Cacheable(value = "customerRepairOrders", key = "#customerId", sync = true)
     @Transactional(readOnly = true)
     public List<RepairOrder> getRepairOrdersByCustomerId(UUID customerId) {
         log.info("Fetching repair orders for customer: {}", customerId);
@@ -187,16 +185,11 @@ public class RepairOrderServiceImpl implements RepairOrderService {
     @Transactional(readOnly = true)
     public List<RepairOrder> getOverdueRepairOrders() {
         log.info("Fetching overdue repair orders");
-        return repairOrderRepository.findOverdueRepairOrders(LocalDateTime.now());
+        // Whole minutes, so calls within the same minute share one cached query result
+        return repairOrderRepository.findOverdueRepairOrders(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES));
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "repairOrders", allEntries = true),
-            @CacheEvict(value = "repairOrder", key = "#id"),
-            @CacheEvict(value = "claimRepairOrders", allEntries = true),
-            @CacheEvict(value = "customerRepairOrders", allEntries = true)
-    })
     public RepairOrder updateRepairOrderStatus(UUID id, RepairOrder.RepairStatus status) {
         log.info("Updating repair order status for ID: {} to {}", id, status);
 
@@ -214,18 +207,13 @@ public class RepairOrderServiceImpl implements RepairOrderService {
         }
 
         RepairOrder updatedOrder = repairOrderRepository.save(repairOrder);
+        cacheEvictionEngine.repairOrderChanged("updateRepairOrderStatus", updatedOrder);
         log.info("Repair order status updated successfully: {} -> {}", id, status);
 
         return updatedOrder;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "repairOrders", allEntries = true),
-            @CacheEvict(value = "repairOrder", key = "#id"),
-            @CacheEvict(value = "claimRepairOrders", allEntries = true),
-            @CacheEvict(value = "customerRepairOrders", allEntries = true)
-    })
     public RepairOrder completeRepairOrder(UUID id, Double repairCost, String partsReplaced) {
         log.info("Completing repair order with ID: {}", id);
 
@@ -239,18 +227,13 @@ public class RepairOrderServiceImpl implements RepairOrderService {
         repairOrder.completeRepair(repairCost, partsReplaced);
 
         RepairOrder completedOrder = repairOrderRepository.save(repairOrder);
+        cacheEvictionEngine.repairOrderChanged("completeRepairOrder", completedOrder);
         log.info("Repair order completed successfully: {}", id);
 
         return completedOrder;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "repairOrders", allEntries = true),
-            @CacheEvict(value = "repairOrder", key = "#id"),
-            @CacheEvict(value = "claimRepairOrders", allEntries = true),
-            @CacheEvict(value = "customerRepairOrders", allEntries = true)
-    })
     public RepairOrder cancelRepairOrder(UUID id, String reason) {
         log.info("Canceling repair order with ID: {}", id);
 
@@ -260,18 +243,13 @@ public class RepairOrderServiceImpl implements RepairOrderService {
         repairOrder.cancelRepair(reason);
 
         RepairOrder cancelledOrder = repairOrderRepository.save(repairOrder);
+        cacheEvictionEngine.repairOrderChanged("cancelRepairOrder", cancelledOrder);
         log.info("Repair order cancelled successfully: {}", id);
 
         return cancelledOrder;
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "repairOrders", allEntries = true),
-            @CacheEvict(value = "repairOrder", key = "#id"),
-            @CacheEvict(value = "claimRepairOrders", allEntries = true),
-            @CacheEvict(value = "customerRepairOrders", allEntries = true)
-    })
     public RepairOrder assignTechnician(UUID id, String technicianNotes) {
         log.info("Assigning technician to repair order: {}", id);
 
@@ -281,6 +259,7 @@ public class RepairOrderServiceImpl implements RepairOrderService {
         repairOrder.setTechnicianNotes(technicianNotes);
 
         RepairOrder updatedOrder = repairOrderRepository.save(repairOrder);
+        cacheEvictionEngine.repairOrderChanged("assignTechnician", updatedOrder);
         log.info("Technician assigned to repair order: {}", id);
 
         return updatedOrder;
@@ -301,6 +280,13 @@ public class RepairOrderServiceImpl implements RepairOrderService {
         return average != null ? average : 0.0;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<RepairProviderSummary> getProviderSummary() {
+        log.info("Generating repair order summary by provider and status");
+        return repairOrderRepository.summarizeByProviderAndStatus();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<RepairOrder> getRepairOrdersNeedingFollowUp() {
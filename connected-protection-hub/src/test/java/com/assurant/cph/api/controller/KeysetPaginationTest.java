@@ -0,0 +1,107 @@
+package com.assurant.cph.api.controller;
+
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class KeysetPaginationTest {
+
+    private static final int CUSTOMERS = 7;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void createCustomers() {
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerRepository.save(Customer.builder()
+                    .fullName("Paged " + i)
+                    .email("paged-" + i + "@example.com")
+                    .documentNumber("PG-" + i)
+                    .documentType(Customer.DocumentType.CPF)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void cursorsWalkEveryRowOnceInEitherDirection() throws Exception {
+        List<JsonNode> ascending = walk("asc", 3);
+        List<JsonNode> descending = walk("desc", 3);
+
+        assertThat(values(ascending, "id")).doesNotHaveDuplicates().hasSize(CUSTOMERS);
+        assertThat(values(ascending, "createdAt")).isSorted();
+        List<String> reversed = new ArrayList<>(values(ascending, "id"));
+        Collections.reverse(reversed);
+        assertThat(values(descending, "id")).isEqualTo(reversed);
+    }
+
+    @Test
+    void rejectsBadPageRequests() throws Exception {
+        String cursor = page(get("/api/v1/customers").param("limit", "2")).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/customers").param("cursor", cursor).param("direction", "desc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/customers").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/customers").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/customers").param("direction", "sideways"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<JsonNode> walk(String direction, int limit) throws Exception {
+        List<JsonNode> items = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/v1/customers").param("limit", String.valueOf(limit));
+            // Continuation pages carry only the cursor, which remembers the direction
+            request = cursor == null ? request.param("direction", direction) : request.param("cursor", cursor);
+            JsonNode page = page(request);
+            page.get("items").forEach(items::add);
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+        assertThat(pages).isEqualTo((CUSTOMERS + limit - 1) / limit);
+        return items;
+    }
+
+    private static List<String> values(List<JsonNode> items, String field) {
+        return items.stream().map(node -> node.get(field).asText()).toList();
+    }
+
+    private JsonNode page(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,139 @@
+package com.assurant.cph.config;
+
+import com.assurant.cph.core.cache.partition.PartitionedCacheCluster;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheRegionBoundsTest {
+
+    private final ObjectProvider<PartitionedCacheCluster> noCluster =
+            new DefaultListableBeanFactory().getBeanProvider(PartitionedCacheCluster.class);
+    private final CacheConfig cacheConfig = new CacheConfig();
+
+    @AfterEach
+    void shutDown() {
+        cacheConfig.destroy();
+    }
+
+    @Test
+    void applyTheConfiguredSizeAndWeightBounds() {
+        CacheProperties properties = bounded();
+        properties.getRegions().put("customer", region(spec -> spec.setMaximumSize(5L)));
+        properties.getRegions().put("payments", region(spec -> spec.setMaximumWeight(50L)));
+
+        SimpleCacheManager cacheManager = (SimpleCacheManager) cacheConfig.cacheManager(properties, noCluster);
+        cacheManager.initializeCaches();
+
+        assertThat(eviction(cacheManager, "customer").getMaximum()).isEqualTo(5);
+        assertThat(eviction(cacheManager, "customer").isWeighted()).isFalse();
+        assertThat(eviction(cacheManager, "payments").getMaximum()).isEqualTo(50);
+        assertThat(eviction(cacheManager, "payments").isWeighted()).isTrue();
+        // Regions without an override keep the defaults
+        assertThat(eviction(cacheManager, "claim").getMaximum()).isEqualTo(100);
+    }
+
+    @Test
+    void failOnARegionWithoutABound() {
+        CacheProperties properties = new CacheProperties();
+        properties.getDefaults().setExpireAfterWrite(Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> cacheConfig.cacheManager(properties, noCluster))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("has no maximum-size or maximum-weight bound");
+    }
+
+    @Test
+    void failOnARegionWithBothBounds() {
+        CacheProperties properties = bounded();
+        properties.getRegions().put("claim", region(spec -> {
+            spec.setMaximumSize(10L);
+            spec.setMaximumWeight(10L);
+        }));
+
+        assertThatThrownBy(() -> cacheConfig.cacheManager(properties, noCluster))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Cache region 'claim' sets both maximum-size and maximum-weight");
+    }
+
+    @Test
+    void failOnAConfiguredRegionThatIsNotDeclared() {
+        CacheProperties properties = bounded();
+        properties.getRegions().put("custmers", region(spec -> spec.setMaximumSize(5L)));
+
+        assertThatThrownBy(() -> cacheConfig.cacheManager(properties, noCluster))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Cache configuration refers to undeclared regions: [custmers]");
+    }
+
+    @Test
+    void failStartupOnAnAnnotationNamingAnUndeclaredRegion() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(MisspelledRegion.class)
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure()
+                        .hasMessageContaining("undeclared cache regions")
+                        .hasMessageContaining("custmer=[Lookups.find]"));
+    }
+
+    private static CacheProperties bounded() {
+        CacheProperties properties = new CacheProperties();
+        properties.getDefaults().setMaximumSize(100L);
+        return properties;
+    }
+
+    private static CacheProperties.RegionSpec region(Consumer<CacheProperties.RegionSpec> settings) {
+        CacheProperties.RegionSpec spec = new CacheProperties.RegionSpec();
+        settings.accept(spec);
+        return spec;
+    }
+
+    private static Policy.Eviction<?, ?> eviction(CacheManager cacheManager, String region) {
+        Cache<?, ?> cache = (Cache<?, ?>) cacheManager.getCache(region).getNativeCache();
+        return cache.policy().eviction().orElseThrow();
+    }
+
+    @Configuration
+    @EnableCaching
+    @AutoConfigurationPackage
+    @Import(CacheRegionValidator.class)
+    static class MisspelledRegion {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("customer");
+        }
+
+        @Bean
+        Lookups lookups() {
+            return new Lookups();
+        }
+    }
+
+    static class Lookups {
+
+        @Cacheable("custmer")
+        public String find(String id) {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.assurant.cph.config;
+
+import com.assurant.cph.core.domain.ReferenceSequence;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(ReferenceConfig.class);
+
+    @Test
+    void defaultToNodeZeroOnASingleNode() {
+        runner.run(context -> assertThat(context.getBean(ReferenceSequence.class).getNodeId()).isZero());
+    }
+
+    @Test
+    void refuseToStartAlongsideOtherNodesWithoutANodeId() {
+        runner.withPropertyValues("cph.cache.cluster.transport=jdbc")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure()
+                        .hasMessageContaining("cph.references.node-id must be set"));
+        runner.withPropertyValues("cph.cache.partitioning.enabled=true")
+                .run(context -> assertThat(context).hasFailed());
+
+        runner.withPropertyValues("cph.cache.cluster.transport=jdbc", "cph.references.node-id=7")
+                .run(context -> assertThat(context.getBean(ReferenceSequence.class).getNodeId()).isEqualTo(7));
+    }
+}
@@ -0,0 +1,129 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.core.cache.cluster.ClusterInvalidationBus;
+import com.assurant.cph.core.domain.Claim;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.ClaimRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheEvictionEngineTest {
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(
+            "payment", "payments", "planPayments", "customerPayments", "paymentStats",
+            "claim", "claimResponse", "claims", "customerClaims");
+    private final ProtectionPlanRepository protectionPlanRepository = mock(ProtectionPlanRepository.class);
+    private final CacheEvictionEngine engine = new CacheEvictionEngine(cacheManager, mock(ClusterInvalidationBus.class),
+            protectionPlanRepository, mock(ClaimRepository.class));
+
+    private final Customer owner = Customer.builder().id(UUID.randomUUID()).build();
+    private final Customer other = Customer.builder().id(UUID.randomUUID()).build();
+    private final ProtectionPlan ownerPlan = ProtectionPlan.builder().id(UUID.randomUUID()).customer(owner).build();
+    private final ProtectionPlan otherPlan = ProtectionPlan.builder().id(UUID.randomUUID()).customer(other).build();
+
+    @BeforeEach
+    void fillCaches() {
+        cacheManager.getCache("payments").put(SimpleKey.EMPTY, "all payments");
+        cacheManager.getCache("claims").put(SimpleKey.EMPTY, "all claims");
+        for (ProtectionPlan plan : new ProtectionPlan[]{ownerPlan, otherPlan}) {
+            UUID customerId = plan.getCustomer().getId();
+            cacheManager.getCache("planPayments").put(plan.getId(), "payments of plan");
+            cacheManager.getCache("customerPayments").put(customerId, "payments of customer");
+            cacheManager.getCache("paymentStats").put(customerId, "stats of customer");
+            cacheManager.getCache("customerClaims").put(customerId, "claims of customer");
+        }
+    }
+
+    @Test
+    void evictOnlyTheOwningPlanAndCustomerOnAPaymentWrite() {
+        PaymentRecord payment = PaymentRecord.builder().id(UUID.randomUUID()).protectionPlan(ownerPlan).build();
+        cacheManager.getCache("payment").put(payment.getId(), "payment");
+
+        engine.paymentChanged("processPayment", payment);
+
+        assertEvicted("payment", payment.getId());
+        assertEvicted("payments", SimpleKey.EMPTY);
+        assertEvicted("planPayments", ownerPlan.getId());
+        assertEvicted("customerPayments", owner.getId());
+        assertEvicted("paymentStats", owner.getId());
+        assertKept("planPayments", otherPlan.getId());
+        assertKept("customerPayments", other.getId());
+        assertKept("paymentStats", other.getId());
+        assertKept("customerClaims", owner.getId());
+        // The plan arrived with its customer, so nothing had to be loaded
+        verify(protectionPlanRepository, never()).findById(any());
+        assertThat(engine.getEvictionStats().get("processPayment"))
+                .isEqualTo(new CacheEvictionEngine.EvictionStats(1, 5, 5, 0));
+    }
+
+    @Test
+    void resolveAClaimsPlanStubToEvictOnlyItsCustomer() {
+        when(protectionPlanRepository.findById(ownerPlan.getId())).thenReturn(Optional.of(ownerPlan));
+        Claim claim = Claim.builder().id(UUID.randomUUID())
+                .protectionPlan(ProtectionPlan.builder().id(ownerPlan.getId()).build()).build();
+        cacheManager.getCache("claim").put(claim.getId(), "claim");
+
+        engine.claimChanged("updateClaimStatus", claim);
+
+        assertEvicted("claim", claim.getId());
+        assertEvicted("claims", SimpleKey.EMPTY);
+        assertEvicted("customerClaims", owner.getId());
+        assertKept("customerClaims", other.getId());
+        assertKept("customerPayments", owner.getId());
+        assertThat(engine.getEvictionStats().get("updateClaimStatus").regionWideClears()).isZero();
+    }
+
+    @Test
+    void clearOwnerRegionsOnlyWhenTheOwnerCannotBeResolved() {
+        UUID unknownPlanId = UUID.randomUUID();
+        when(protectionPlanRepository.findById(unknownPlanId)).thenReturn(Optional.empty());
+        PaymentRecord payment = PaymentRecord.builder().id(UUID.randomUUID())
+                .protectionPlan(ProtectionPlan.builder().id(unknownPlanId).build()).build();
+
+        engine.paymentChanged("processPayment", payment);
+
+        // The plan id is known, so its own entry is still evicted by key; the customer regions are not
+        assertKept("planPayments", ownerPlan.getId());
+        assertKept("planPayments", otherPlan.getId());
+        assertEvicted("customerPayments", owner.getId());
+        assertEvicted("customerPayments", other.getId());
+        assertEvicted("paymentStats", owner.getId());
+        assertEvicted("paymentStats", other.getId());
+        assertKept("customerClaims", owner.getId());
+        assertThat(engine.getEvictionStats().get("processPayment").regionWideClears()).isEqualTo(2);
+    }
+
+    @Test
+    void clearCustomerClaimsForAClaimWithoutAPlan() {
+        engine.claimChanged("createClaim", Claim.builder().id(UUID.randomUUID()).build());
+
+        assertEvicted("customerClaims", owner.getId());
+        assertEvicted("customerClaims", other.getId());
+        assertKept("customerPayments", owner.getId());
+        assertThat(engine.getEvictionStats().get("createClaim").regionWideClears()).isEqualTo(1);
+    }
+
+    private void assertEvicted(String region, Object key) {
+        assertThat(cacheManager.getCache(region).get(key)).as("%s[%s]", region, key).isNull();
+    }
+
+    private void assertKept(String region, Object key) {
+        assertThat(cacheManager.getCache(region).get(key)).as("%s[%s]", region, key).isNotNull();
+    }
+}
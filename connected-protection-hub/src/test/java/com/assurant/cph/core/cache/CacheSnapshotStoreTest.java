@@ -0,0 +1,74 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.api.dto.CustomerSnapshot;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.service.CustomerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "cph.cache.persistence.file=target/cache-snapshot-test.bin")
+class CacheSnapshotStoreTest {
+
+    @Autowired
+    private CacheSnapshotStore cacheSnapshotStore;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    @AfterEach
+    void reset() {
+        customerRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+    }
+
+    @Test
+    void restoresUnchangedEntriesAndDropsModifiedOnes() {
+        Customer unchanged = customerRepository.save(customer("unchanged"));
+        Customer modified = customerRepository.save(customer("modified"));
+        CustomerSnapshot cachedUnchanged = customerService.getCustomerById(unchanged.getId()).orElseThrow();
+        customerService.getCustomerById(modified.getId());
+
+        cacheSnapshotStore.writeSnapshot();
+
+        // Changed while the node was down
+        Customer changes = customer("modified");
+        changes.setFullName("Renamed Customer");
+        customerService.updateCustomer(modified.getId(), changes);
+        cacheManager.getCache("customer").invalidate();
+
+        cacheSnapshotStore.restoreSnapshot();
+
+        Cache customers = cacheManager.getCache("customer");
+        assertThat(customers.get(unchanged.getId(), CustomerSnapshot.class)).isEqualTo(cachedUnchanged);
+        assertThat(customers.get(modified.getId())).isNull();
+
+        CacheSnapshotStore.WarmupStats stats = cacheSnapshotStore.getWarmupStats().get("customer");
+        assertThat(stats.restoredEntries()).isEqualTo(1);
+        assertThat(stats.discardedEntries()).isEqualTo(1);
+    }
+
+    private static Customer customer(String name) {
+        return Customer.builder()
+                .fullName("Snapshot " + name)
+                .email(name + "@example.com")
+                .documentNumber("SNAP-" + name)
+                .documentType(Customer.DocumentType.CPF)
+                .address(Customer.Address.builder().street("1 Main St").city("Boston").country("USA").build())
+                .build();
+    }
+}
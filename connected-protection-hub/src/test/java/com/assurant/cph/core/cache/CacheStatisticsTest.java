@@ -0,0 +1,86 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.service.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CacheStatisticsTest {
+
+    @Autowired
+    private CacheStatistics cacheStatistics;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void emptyCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void countsLookupsEvictionsAndHotKeys() {
+        CacheRegionStats before = cacheStatistics.statsFor("customer").orElseThrow();
+        Customer hot = customerService.createCustomer(customer("hot"));
+        Customer cold = customerService.createCustomer(customer("cold"));
+
+        for (int i = 0; i < 20; i++) {
+            customerService.getCustomerById(hot.getId());
+        }
+        customerService.getCustomerById(cold.getId());
+        customerService.updateCustomer(hot.getId(), customer("hot"));
+
+        CacheRegionStats stats = cacheStatistics.statsFor("customer").orElseThrow();
+        assertThat(stats.misses() - before.misses()).isEqualTo(2);
+        assertThat(stats.hits() - before.hits()).isEqualTo(19);
+        assertThat(stats.loads() - before.loads()).isEqualTo(2);
+        assertThat(stats.evictions().get("explicit") - before.evictions().get("explicit")).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(1);
+        assertThat(stats.estimatedRetainedBytes()).isPositive();
+        assertThat(stats.hotKeys().get(0).key()).isEqualTo(hot.getId().toString());
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "customer").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(stats.hits());
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "customer").tag("cause", "explicit")
+                .functionCounter().count()).isEqualTo(stats.evictions().get("explicit").doubleValue());
+    }
+
+    @Test
+    void unknownRegionHasNoStatistics() {
+        assertThat(cacheStatistics.statsFor("region-" + UUID.randomUUID())).isEmpty();
+    }
+
+    private static Customer customer(String name) {
+        return Customer.builder()
+                .fullName("Statistics " + name)
+                .email(name + ".stats@example.com")
+                .documentNumber("STATS-" + name)
+                .documentType(Customer.DocumentType.CPF)
+                .build();
+    }
+}
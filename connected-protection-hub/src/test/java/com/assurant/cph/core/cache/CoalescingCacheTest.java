@@ -0,0 +1,142 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.api.dto.CustomerSnapshot;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.service.CustomerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class CoalescingCacheTest {
+
+    private static final int CALLERS = 16;
+
+    @MockitoSpyBean
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final CountDownLatch loaderEntered = new CountDownLatch(1);
+    private final CountDownLatch releaseLoader = new CountDownLatch(1);
+
+    @BeforeEach
+    void emptyCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        releaseLoader.countDown();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void parallelMissesRunOneRepositoryQuery() throws Exception {
+        blockFindAll();
+
+        List<Thread> callers = new ArrayList<>();
+        List<CompletableFuture<List<CustomerSnapshot>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            CompletableFuture<List<CustomerSnapshot>> result = new CompletableFuture<>();
+            results.add(result);
+            Thread caller = new Thread(() -> result.complete(customerService.getAllCustomers()));
+            caller.start();
+            callers.add(caller);
+        }
+
+        assertThat(loaderEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitParked(callers);
+        releaseLoader.countDown();
+
+        List<CustomerSnapshot> first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<List<CustomerSnapshot>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        }
+        verify(customerRepository, times(1)).findAll();
+    }
+
+    @Test
+    void loadStartedBeforeAPutDoesNotOverwriteIt() throws Exception {
+        Cache cache = cacheManager.getCache("customers");
+        CompletableFuture<Object> loaded = CompletableFuture.supplyAsync(() -> cache.get("key", () -> {
+            loaderEntered.countDown();
+            releaseLoader.await();
+            return "read before the write";
+        }));
+        assertThat(loaderEntered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        cache.put("key", "written after commit");
+        releaseLoader.countDown();
+
+        assertThat(loaded.get(5, TimeUnit.SECONDS)).isEqualTo("read before the write");
+        assertThat(cache.get("key").get()).isEqualTo("written after commit");
+    }
+
+    @Test
+    void callersDuringReloadGetThePreviousList() throws Exception {
+        List<CustomerSnapshot> before = customerService.getAllCustomers();
+
+        // The write evicts the whole-table list after commit
+        customerService.createCustomer(Customer.builder()
+                .fullName("Stale Reader")
+                .email("stale.reader@example.com")
+                .documentNumber("STALE-1")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+
+        blockFindAll();
+        CompletableFuture<List<CustomerSnapshot>> reload = CompletableFuture.supplyAsync(customerService::getAllCustomers);
+        assertThat(loaderEntered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(customerService.getAllCustomers()).isSameAs(before);
+
+        releaseLoader.countDown();
+        List<CustomerSnapshot> after = reload.get(5, TimeUnit.SECONDS);
+        assertThat(after).hasSize(before.size() + 1);
+        assertThat(customerService.getAllCustomers()).isSameAs(after);
+        verify(customerRepository, times(2)).findAll();
+    }
+
+    // Holds findAll() open until the test releases it, then runs the real query
+    private void blockFindAll() {
+        // The repository is an interface proxy, so the spy reaches the real query through its default answer
+        Answer<?> realQuery = mockingDetails(customerRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            loaderEntered.countDown();
+            assertThat(releaseLoader.await(5, TimeUnit.SECONDS)).isTrue();
+            return realQuery.answer(invocation);
+        }).when(customerRepository).findAll();
+    }
+
+    private static void awaitParked(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (threads.stream().anyMatch(t -> t.getState() != Thread.State.WAITING && t.getState() != Thread.State.TIMED_WAITING)) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
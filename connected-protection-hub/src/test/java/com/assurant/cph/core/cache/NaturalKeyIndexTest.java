@@ -0,0 +1,108 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.api.dto.CustomerSnapshot;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.service.CustomerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class NaturalKeyIndexTest {
+
+    @MockitoSpyBean
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private NaturalKeyIndex naturalKeyIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void emptyCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+        clearInvocations(customerRepository);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void uniquenessChecksForNewKeysSkipTheDatabase() {
+        for (int i = 0; i < 50; i++) {
+            customerService.createCustomer(customer("onboarding" + i));
+        }
+
+        // Every key was new, so the Bloom filters answered each check on their own
+        verify(customerRepository, never()).findIdByEmail(anyString());
+        verify(customerRepository, never()).findIdByDocumentNumber(anyString());
+        assertThat(naturalKeyIndex.exists(NaturalKey.CUSTOMER_EMAIL, "onboarding7@example.com")).isTrue();
+        verify(customerRepository, never()).findIdByEmail(anyString());
+
+        assertThatThrownBy(() -> customerService.createCustomer(customer("onboarding7")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("already exists");
+    }
+
+    @Test
+    void missingKeysAreCachedAfterOneLookup() {
+        Customer saved = customerService.createCustomer(customer("negative"));
+        // Drop the positive entry: the filter still knows the key, so lookups must reach the region
+        cacheManager.getCache(NaturalKey.CUSTOMER_EMAIL.region()).invalidate();
+        customerRepository.deleteById(saved.getId());
+
+        assertThat(naturalKeyIndex.exists(NaturalKey.CUSTOMER_EMAIL, "negative@example.com")).isFalse();
+        assertThat(naturalKeyIndex.exists(NaturalKey.CUSTOMER_EMAIL, "negative@example.com")).isFalse();
+        verify(customerRepository, times(1)).findIdByEmail("negative@example.com");
+    }
+
+    @Test
+    void emailChangeMovesTheKey() {
+        Customer saved = customerService.createCustomer(customer("before"));
+        Customer changes = customer("before");
+        changes.setEmail("after@example.com");
+        customerService.updateCustomer(saved.getId(), changes);
+
+        assertThat(customerService.getCustomerByEmail("before@example.com")).isEmpty();
+        CustomerSnapshot found = customerService.getCustomerByEmail("after@example.com").orElseThrow();
+        assertThat(found.id()).isEqualTo(saved.getId());
+        assertThat(found.email()).isEqualTo("after@example.com");
+        verify(customerRepository, never()).findIdByEmail(anyString());
+
+        // The old address is free again
+        customerService.createCustomer(Customer.builder()
+                .fullName("Reuses Address")
+                .email("before@example.com")
+                .documentNumber("NK-reuse")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+    }
+
+    private static Customer customer(String name) {
+        return Customer.builder()
+                .fullName("Natural Key " + name)
+                .email(name + "@example.com")
+                .documentNumber("NK-" + name)
+                .documentType(Customer.DocumentType.CPF)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.core.domain.Claim;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.ClaimRepository;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import com.assurant.cph.core.service.ClaimService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class QueryResultCacheTest {
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    @Autowired
+    private ClaimService claimService;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+
+    @Autowired
+    private ProtectedAssetRepository protectedAssetRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Claim claim;
+
+    @BeforeEach
+    void createClaim() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+        Customer customer = customerRepository.save(Customer.builder()
+                .fullName("Query Cache")
+                .email("query-cache@example.com")
+                .documentNumber("QC-1")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = protectedAssetRepository.save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("QC-SN-1")
+                .purchaseDate(LocalDateTime.now().minusMonths(6))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        ProtectionPlan plan = protectionPlanRepository.save(ProtectionPlan.builder()
+                .name("Plan")
+                .startDate(LocalDateTime.now().minusMonths(1))
+                .endDate(LocalDateTime.now().plusYears(1))
+                .premiumAmount(19.9)
+                .status(ProtectionPlan.PlanStatus.ACTIVE)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+        claim = claimRepository.save(Claim.builder()
+                .claimNumber("CLM-QC-1")
+                .incidentDate(LocalDateTime.now().minusDays(1))
+                .description("Screen damage")
+                .claimType(Claim.ClaimType.DAMAGE)
+                .protectionPlan(plan)
+                .build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        claimRepository.deleteAll();
+        protectionPlanRepository.deleteAll();
+        protectedAssetRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedQueriesAreServedUntilATableTheyReadChanges() {
+        QueryResultCache.QueryCacheStats before = queryResultCache.getStats();
+
+        List<Claim> first = claimRepository.findByStatus(Claim.ClaimStatus.SUBMITTED);
+        List<Claim> second = claimRepository.findByStatus(Claim.ClaimStatus.SUBMITTED);
+        assertThat(numbers(first)).containsExactly(claim.getClaimNumber());
+        assertThat(numbers(second)).containsExactly(claim.getClaimNumber());
+        // Only the ids are cached: every caller gets instances of its own
+        assertThat(second.get(0)).isNotSameAs(first.get(0));
+        QueryResultCache.QueryCacheStats cached = queryResultCache.getStats();
+        assertThat(cached.misses() - before.misses()).isEqualTo(1);
+        assertThat(cached.hits() - before.hits()).isEqualTo(1);
+        assertThat(cached.tablesReadByMethod().get("ClaimRepository.findByStatus")).contains("claims", "protection_plans", "customers");
+
+        // No eviction is declared anywhere: the committed write advances the claims table's version
+        claimService.updateClaimStatus(claim.getId(), Claim.ClaimStatus.UNDER_REVIEW);
+
+        assertThat(claimService.getClaimsByStatus(Claim.ClaimStatus.SUBMITTED)).isEmpty();
+        assertThat(numbers(claimService.getClaimsByStatus(Claim.ClaimStatus.UNDER_REVIEW))).containsExactly(claim.getClaimNumber());
+        assertThat(queryResultCache.getStats().staleEntries() - before.staleEntries()).isEqualTo(1);
+    }
+
+    @Test
+    void readWriteTransactionsBypassTheCache() {
+        claimService.getClaimsByStatus(Claim.ClaimStatus.SUBMITTED);
+        QueryResultCache.QueryCacheStats before = queryResultCache.getStats();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                assertThat(claimRepository.findByStatus(Claim.ClaimStatus.SUBMITTED)).hasSize(1));
+
+        QueryResultCache.QueryCacheStats after = queryResultCache.getStats();
+        assertThat(after.bypassed() - before.bypassed()).isEqualTo(1);
+        assertThat(after.hits()).isEqualTo(before.hits());
+    }
+
+    private static List<String> numbers(List<Claim> claims) {
+        return claims.stream().map(Claim::getClaimNumber).toList();
+    }
+}
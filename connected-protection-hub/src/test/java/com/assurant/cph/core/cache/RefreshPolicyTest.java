@@ -0,0 +1,130 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.config.StaleResponseAdvice;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RefreshPolicyTest {
+
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+    private static final Duration STALE_WHILE_REVALIDATE = Duration.ofMinutes(5);
+
+    private final AtomicLong now = new AtomicLong();
+    private final Queue<Runnable> backgroundReloads = new ArrayDeque<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    private CacheRegionMetrics metrics;
+    private CoalescingCache cache;
+
+    @BeforeEach
+    void createRegion() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        metrics = new CacheRegionMetrics(10);
+        Cache caffeine = new CaffeineCache("plans", Caffeine.newBuilder()
+                .ticker(now::get)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE.plus(STALE_WHILE_REVALIDATE))
+                .build());
+        cache = new CoalescingCache(caffeine, false, metrics,
+                new RefreshPolicy(Duration.ofMinutes(8), EXPIRE_AFTER_WRITE, backgroundReloads::add));
+        cache.put("plan", "v1");
+    }
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void ageingEntriesReloadInTheBackground() {
+        advance(Duration.ofMinutes(7));
+        assertThat(cache.get("plan", loader("v2"))).isEqualTo("v1");
+        assertThat(backgroundReloads).isEmpty();
+
+        advance(Duration.ofMinutes(2));
+        assertThat(cache.get("plan", loader("v2"))).isEqualTo("v1");
+        assertThat(cache.get("plan", loader("v2"))).isEqualTo("v1");
+        // One reload per key, however many reads find it ageing
+        assertThat(backgroundReloads).hasSize(1);
+
+        backgroundReloads.poll().run();
+        assertThat(cache.get("plan", loader("v3"))).isEqualTo("v2");
+        assertThat(loads).hasValue(1);
+        assertThat(metrics.refreshes()).isEqualTo(1);
+        assertThat(StaleReads.ageNanos()).isEmpty();
+    }
+
+    @Test
+    void staleEntriesAreServedWhileReloadsFail() throws Exception {
+        advance(Duration.ofMinutes(11));
+        assertThat(cache.get("plan", failingLoader())).isEqualTo("v1");
+        backgroundReloads.poll().run();
+        assertThat(metrics.refreshFailures()).isEqualTo(1);
+
+        // Still within the staleness bound, so the last known value keeps being served
+        advance(Duration.ofMinutes(3));
+        assertThat(cache.get("plan", failingLoader())).isEqualTo("v1");
+        assertThat(metrics.staleHits()).isEqualTo(2);
+        assertThat(StaleReads.ageNanos()).hasValue(Duration.ofMinutes(14).toNanos());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+        new StaleResponseAdvice().beforeBodyWrite("v1", (MethodParameter) null, null, null,
+                new ServletServerHttpRequest(request), serverResponse);
+        serverResponse.flush();
+        assertThat(response.getHeader(HttpHeaders.WARNING)).startsWith("110");
+        assertThat(response.getHeader(HttpHeaders.AGE)).isEqualTo("840");
+
+        // Past the bound the entry is gone and the failure reaches the caller
+        advance(Duration.ofMinutes(2));
+        assertThatThrownBy(() -> cache.get("plan", failingLoader())).isInstanceOf(Cache.ValueRetrievalException.class);
+    }
+
+    @Test
+    void freshReadsAreNotMarkedStale() {
+        advance(Duration.ofMinutes(9));
+        cache.get("plan", loader("v2"));
+        assertThat(StaleReads.ageNanos()).isEmpty();
+        assertThat(metrics.hits()).isEqualTo(1);
+        assertThat(metrics.staleHits()).isZero();
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private Callable<String> loader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    private static Callable<String> failingLoader() {
+        return () -> {
+            throw new IllegalStateException("database unavailable");
+        };
+    }
+}
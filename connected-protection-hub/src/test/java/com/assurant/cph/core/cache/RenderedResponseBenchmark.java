@@ -0,0 +1,161 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.ConnectedProtectionHubApplication;
+import com.assurant.cph.core.domain.Claim;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.ClaimRepository;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Throughput of the single-entity GET endpoints with every entity already in its cache region, once
+ * serializing the cached snapshot on each request (responses disabled, the behaviour before the
+ * response cache) and once writing the stored bytes. Requests go through the full MVC stack in process,
+ * so the numbers leave out the network but include routing, argument resolution and the servlet writes.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.assurant.cph.core.cache.RenderedResponseBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RenderedResponseBenchmark {
+
+    @Param({"customers", "protection-plans", "claims"})
+    private String endpoint;
+
+    @Param({"false", "true"})
+    private boolean responseCache;
+
+    @Param("500")
+    private int entities;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String[] paths;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(ConnectedProtectionHubApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:rendered-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.assurant.cph=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--cph.cache.persistence.enabled=false",
+                "--cph.cache.responses.enabled=" + responseCache);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        paths = new String[entities];
+        for (int i = 0; i < entities; i++) {
+            UUID[] ids = createClaim(i);
+            UUID id = switch (endpoint) {
+                case "customers" -> ids[0];
+                case "protection-plans" -> ids[1];
+                default -> ids[2];
+            };
+            paths[i] = "/api/v1/" + endpoint + "/" + id;
+            // Warms the entity region, and the response region when enabled
+            mockMvc.perform(get(paths[i]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getById() throws Exception {
+        return mockMvc.perform(get(paths[ThreadLocalRandom.current().nextInt(entities)]))
+                .andReturn().getResponse().getContentLength();
+    }
+
+    // Customer, plan and claim ids, in that order
+    private UUID[] createClaim(int number) {
+        Customer customer = context.getBean(CustomerRepository.class).save(Customer.builder()
+                .fullName("Benchmark Customer " + number)
+                .email("benchmark" + number + "@example.com")
+                .phoneNumber("+1-555-0100")
+                .documentNumber("BENCH-" + number)
+                .documentType(Customer.DocumentType.CPF)
+                .address(new Customer.Address("1 Main St", "Boston", "MA", "02101", "USA"))
+                .build());
+        ProtectedAsset asset = context.getBean(ProtectedAssetRepository.class).save(ElectronicDevice.builder()
+                .name("Device " + number)
+                .serialNumber("BENCH-SN-" + number)
+                .purchaseDate(LocalDateTime.now().minusMonths(6))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        ProtectionPlan plan = context.getBean(ProtectionPlanRepository.class).save(ProtectionPlan.builder()
+                .name("Plan " + number)
+                .startDate(LocalDateTime.now().minusMonths(1))
+                .endDate(LocalDateTime.now().plusYears(1))
+                .premiumAmount(19.9)
+                .status(ProtectionPlan.PlanStatus.ACTIVE)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+        Claim claim = context.getBean(ClaimRepository.class).save(Claim.builder()
+                .claimNumber("CLM-BENCH-" + number)
+                .incidentDate(LocalDateTime.now().minusDays(1))
+                .description("Screen damage after a fall")
+                .claimType(Claim.ClaimType.DAMAGE)
+                .claimedAmount(350.0)
+                .protectionPlan(plan)
+                .build());
+        return new UUID[]{customer.getId(), plan.getId(), claim.getId()};
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(RenderedResponseBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,124 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.service.CustomerService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = "cph.cache.responses.gzip-min-size=0")
+@AutoConfigureMockMvc
+class RenderedResponseCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void emptyCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void servesTheStoredBodyWithEtagAndGzipVariant() throws Exception {
+        Customer saved = customerService.createCustomer(customer("rendered"));
+
+        MockHttpServletResponse first = fetch(saved.getId(), null, null);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getContentType()).isEqualTo("application/json");
+        assertThat(json(first.getContentAsByteArray()).get("email").asText()).isEqualTo("rendered@example.com");
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        assertThat(cacheManager.getCache("customerResponse").get(saved.getId())).isNotNull();
+
+        MockHttpServletResponse notModified = fetch(saved.getId(), etag, null);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+
+        MockHttpServletResponse compressed = fetch(saved.getId(), null, "br, gzip;q=0.8");
+        assertThat(compressed.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(compressed.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(gunzip(compressed.getContentAsByteArray())).isEqualTo(first.getContentAsByteArray());
+    }
+
+    @Test
+    void writesReplaceTheStoredBody() throws Exception {
+        Customer saved = customerService.createCustomer(customer("before"));
+        String etag = fetch(saved.getId(), null, null).getHeader(HttpHeaders.ETAG);
+
+        Customer changed = customer("before");
+        changed.setFullName("Rendered After");
+        customerService.updateCustomer(saved.getId(), changed);
+
+        MockHttpServletResponse afterWrite = fetch(saved.getId(), etag, null);
+        assertThat(afterWrite.getStatus()).isEqualTo(200);
+        assertThat(afterWrite.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(json(afterWrite.getContentAsByteArray()).get("fullName").asText()).isEqualTo("Rendered After");
+
+        assertThat(fetch(UUID.randomUUID(), null, null).getStatus()).isEqualTo(404);
+    }
+
+    private MockHttpServletResponse fetch(UUID id, String ifNoneMatch, String acceptEncoding) throws Exception {
+        var request = get("/api/v1/customers/{id}", id);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private JsonNode json(byte[] body) throws IOException {
+        return objectMapper.readTree(body);
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static Customer customer(String name) {
+        return Customer.builder()
+                .fullName("Rendered " + name)
+                .email(name + "@example.com")
+                .documentNumber("RR-" + name)
+                .documentType(Customer.DocumentType.CPF)
+                .build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.core.domain.Claim;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.ClaimRepository;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements a typical customer view (customer, assets, plans, the claims of each plan) sends
+ * to the database with and without the second-level cache, and times both.
+ */
+@Slf4j
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SecondLevelCacheRoundTripTest {
+
+    private static final int ASSETS = 3;
+    private static final int CLAIMS_PER_PLAN = 2;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProtectedAssetRepository protectedAssetRepository;
+
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private UUID customerId;
+
+    @BeforeEach
+    void createCustomerView() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        customerId = transaction.execute(status -> {
+            Customer customer = customerRepository.save(Customer.builder()
+                    .fullName("Second Level " + suffix)
+                    .email("l2-" + suffix + "@example.com")
+                    .documentNumber("L2-" + suffix)
+                    .documentType(Customer.DocumentType.CPF)
+                    .build());
+            for (int a = 0; a < ASSETS; a++) {
+                ProtectedAsset asset = protectedAssetRepository.save(ElectronicDevice.builder()
+                        .name("Device " + a)
+                        .serialNumber("L2-" + suffix + "-" + a)
+                        .purchaseDate(LocalDateTime.now().minusMonths(6))
+                        .customer(customer)
+                        .deviceType("SMARTPHONE")
+                        .brand("Brand")
+                        .model("Model " + a)
+                        .build());
+                ProtectionPlan plan = protectionPlanRepository.save(ProtectionPlan.builder()
+                        .name("Plan " + a)
+                        .startDate(LocalDateTime.now().minusMonths(1))
+                        .endDate(LocalDateTime.now().plusYears(1))
+                        .premiumAmount(19.9)
+                        .status(ProtectionPlan.PlanStatus.ACTIVE)
+                        .customer(customer)
+                        .protectedAsset(asset)
+                        .build());
+                for (int c = 0; c < CLAIMS_PER_PLAN; c++) {
+                    claimRepository.save(Claim.builder()
+                            .claimNumber("CLM-L2-" + suffix + "-" + a + "-" + c)
+                            .incidentDate(LocalDateTime.now().minusDays(c + 1))
+                            .description("Screen damage")
+                            .claimType(Claim.ClaimType.DAMAGE)
+                            .protectionPlan(plan)
+                            .build());
+                }
+            }
+            return customer.getId();
+        });
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        claimRepository.deleteAll();
+        protectionPlanRepository.deleteAll();
+        protectedAssetRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void customerViewIsServedFromTheSecondLevelCache() {
+        long uncached = statementsFor(CacheMode.IGNORE);
+        // The first cached view loads from the database and fills the regions; later views read them back
+        statementsFor(CacheMode.NORMAL);
+        long cached = statementsFor(CacheMode.NORMAL);
+
+        long uncachedNanos = timeViews(CacheMode.IGNORE);
+        long cachedNanos = timeViews(CacheMode.NORMAL);
+        log.info("Customer view: {} statements uncached, {} with the second-level cache; {} us vs {} us per view",
+                uncached, cached, uncachedNanos / ITERATIONS / 1_000, cachedNanos / ITERATIONS / 1_000);
+
+        assertThat(cached).isLessThan(uncached);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void writesInvalidateTheCachedCollections() {
+        statementsFor(CacheMode.NORMAL);
+
+        // Children saved directly, with their owners only referenced, as the services do
+        transaction.executeWithoutResult(status -> {
+            ProtectionPlan plan = protectionPlanRepository.findByCustomerId(customerId).get(0);
+            claimRepository.save(Claim.builder()
+                    .claimNumber("CLM-L2-" + UUID.randomUUID())
+                    .incidentDate(LocalDateTime.now())
+                    .description("Theft")
+                    .claimType(Claim.ClaimType.THEFT)
+                    .protectionPlan(entityManager.getReference(ProtectionPlan.class, plan.getId()))
+                    .build());
+            protectedAssetRepository.save(ElectronicDevice.builder()
+                    .name("Tablet")
+                    .serialNumber("L2-" + UUID.randomUUID())
+                    .purchaseDate(LocalDateTime.now())
+                    .customer(entityManager.getReference(Customer.class, customerId))
+                    .deviceType("TABLET")
+                    .brand("Brand")
+                    .model("Tab")
+                    .build());
+        });
+
+        int claims = transaction.execute(status -> view(CacheMode.NORMAL));
+        assertThat(claims).isEqualTo(ASSETS * CLAIMS_PER_PLAN + 1);
+        int assets = transaction.execute(status -> entityManager.find(Customer.class, customerId).getProtectedAssets().size());
+        assertThat(assets).isEqualTo(ASSETS + 1);
+    }
+
+    private long statementsFor(CacheMode cacheMode) {
+        long before = statistics.getPrepareStatementCount();
+        transaction.execute(status -> view(cacheMode));
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private long timeViews(CacheMode cacheMode) {
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            transaction.execute(status -> view(cacheMode));
+        }
+        return System.nanoTime() - started;
+    }
+
+    // Walks the aggregate the way the customer page does, touching every lazy association once
+    private int view(CacheMode cacheMode) {
+        entityManager.unwrap(Session.class).setCacheMode(cacheMode);
+        Customer customer = entityManager.find(Customer.class, customerId);
+        customer.getProtectedAssets().forEach(ProtectedAsset::getName);
+        int claims = 0;
+        for (ProtectionPlan plan : customer.getProtectionPlans()) {
+            plan.getProtectedAsset().getSerialNumber();
+            claims += plan.getClaims().size();
+            plan.getClaims().forEach(Claim::getClaimNumber);
+        }
+        return claims;
+    }
+}
@@ -0,0 +1,209 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.core.domain.Claim;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.mapper.ClaimMapper;
+import com.assurant.cph.core.mapper.CustomerMapper;
+import com.assurant.cph.core.mapper.PaymentRecordMapper;
+import com.assurant.cph.core.mapper.ProtectionPlanMapper;
+import com.assurant.cph.core.repository.ClaimRepository;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.ElectronicDeviceRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.metamodel.Attribute;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.AvailableHints;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the retained heap of what the caches used to hold (detached entities with their Hibernate
+ * proxies and collection wrappers) against the snapshot records they hold now.
+ */
+@Slf4j
+@SpringBootTest
+class SnapshotFootprintTest {
+
+    private static final int ROWS = 200;
+
+    static {
+        // Unsafe refuses field offsets on record classes; let JOL derive them instead
+        System.setProperty("jol.magicFieldOffset", "true");
+    }
+
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ElectronicDeviceRepository electronicDeviceRepository;
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+    @Autowired
+    private ClaimRepository claimRepository;
+    @Autowired
+    private PaymentRecordRepository paymentRecordRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CustomerMapper customerMapper;
+    @Autowired
+    private ProtectionPlanMapper protectionPlanMapper;
+    @Autowired
+    private ClaimMapper claimMapper;
+    @Autowired
+    private PaymentRecordMapper paymentRecordMapper;
+
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void seed() {
+        transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            Customer customer = customerRepository.save(Customer.builder()
+                    .fullName("Footprint Customer " + i)
+                    .email("footprint" + i + "@example.com")
+                    .phoneNumber("+1-555-010-" + String.format("%04d", i))
+                    .documentNumber("FP-" + i)
+                    .documentType(Customer.DocumentType.CPF)
+                    .address(Customer.Address.builder()
+                            .street(i + " Main St").city("New York").state("NY").postalCode("10001").country("USA")
+                            .build())
+                    .build());
+
+            ElectronicDevice device = electronicDeviceRepository.save(ElectronicDevice.builder()
+                    .name("Phone " + i)
+                    .serialNumber("FP-SN-" + i)
+                    .purchaseDate(now.minusMonths(2))
+                    .purchaseValue(999.0)
+                    .customer(customer)
+                    .status(ProtectedAsset.AssetStatus.ACTIVE)
+                    .deviceType("SMARTPHONE")
+                    .brand("Brand")
+                    .model("Model " + i)
+                    .build());
+
+            ProtectionPlan plan = protectionPlanRepository.save(ProtectionPlan.builder()
+                    .name("Plan " + i)
+                    .description("Accidental damage and theft")
+                    .startDate(now.minusMonths(1))
+                    .endDate(now.plusMonths(11))
+                    .premiumAmount(19.99)
+                    .coverageLimit(1500.0)
+                    .deductible(50.0)
+                    .status(ProtectionPlan.PlanStatus.ACTIVE)
+                    .customer(customer)
+                    .protectedAsset(device)
+                    .build());
+
+            claimRepository.save(Claim.builder()
+                    .claimNumber("FP-CLM-" + i)
+                    .incidentDate(now.minusDays(3))
+                    .description("Cracked screen after a fall")
+                    .claimType(Claim.ClaimType.DAMAGE)
+                    .claimedAmount(250.0)
+                    .protectionPlan(plan)
+                    .build());
+
+            paymentRecordRepository.save(PaymentRecord.builder()
+                    .paymentReference("FP-PAY-" + i)
+                    .amount(19.99)
+                    .paymentDate(now.minusDays(1))
+                    .paymentMethod(PaymentRecord.PaymentMethod.CREDIT_CARD)
+                    .status(PaymentRecord.PaymentStatus.COMPLETED)
+                    .transactionId("FP-TXN-" + i)
+                    .payerInfo("Footprint Customer " + i)
+                    .protectionPlan(plan)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        paymentRecordRepository.deleteAll();
+        claimRepository.deleteAll();
+        protectionPlanRepository.deleteAll();
+        electronicDeviceRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void snapshotsRetainLessHeapThanDetachedEntities() {
+        assertSmaller("customer", detached(Customer.class), customerMapper::toSnapshot);
+        assertSmaller("protectionPlan", detached(ProtectionPlan.class), protectionPlanMapper::toSnapshot);
+        assertSmaller("claim", detached(Claim.class), claimMapper::toSnapshot);
+        assertSmaller("payment", detached(PaymentRecord.class), paymentRecordMapper::toSnapshot);
+    }
+
+    // The shape the @Cacheable methods used to hand to the cache, made the same whatever ran before: read
+    // from the database into an empty persistence context, bypassing the second-level cache, then
+    // detached with every lazy association still an uninitialized proxy or collection
+    private <E> List<E> detached(Class<E> type) {
+        List<E> entities = transaction.execute(status -> {
+            entityManager.clear();
+            List<E> loaded = entityManager.createQuery("select e from " + type.getSimpleName() + " e", type)
+                    .setHint(AvailableHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS)
+                    .setHint(AvailableHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS)
+                    .getResultList();
+            entityManager.clear();
+            return loaded;
+        });
+        PersistenceUnitUtil persistenceUnit = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        for (E entity : entities) {
+            for (Attribute<? super E, ?> attribute : entityManager.getMetamodel().entity(type).getAttributes()) {
+                // The inverse side of a one-to-one is always resolved, to null here as no claim has a repair order
+                if (attribute.isAssociation() && attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.ONE_TO_ONE) {
+                    assertThat(persistenceUnit.isLoaded(entity, attribute.getName()))
+                            .as("%s.%s left lazy", type.getSimpleName(), attribute.getName())
+                            .isFalse();
+                }
+            }
+        }
+        return entities;
+    }
+
+    private <E> void assertSmaller(String region, List<E> entities, Function<E, ?> toSnapshot) {
+        assertThat(entities).hasSize(ROWS);
+        List<?> snapshots = entities.stream().map(toSnapshot).toList();
+
+        long entityBytes = bytesPerItem(entities);
+        long snapshotBytes = bytesPerItem(snapshots);
+        log.info("{}: {} bytes per cached entity, {} bytes per cached snapshot ({}% less)",
+                region, entityBytes, snapshotBytes, 100 - snapshotBytes * 100 / entityBytes);
+
+        assertThat(snapshotBytes).isLessThan(entityBytes);
+    }
+
+    // Walking N and N/2 items and taking the difference cancels out objects every item shares,
+    // such as enum constants and the proxy factory's metadata
+    private static long bytesPerItem(List<?> items) {
+        int half = items.size() / 2;
+        long all = GraphLayout.parseInstance(items.toArray()).totalSize();
+        long firstHalf = GraphLayout.parseInstance(items.subList(0, half).toArray()).totalSize();
+        return (all - firstHalf) / (items.size() - half);
+    }
+}
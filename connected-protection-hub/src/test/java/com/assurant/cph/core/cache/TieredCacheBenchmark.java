@@ -0,0 +1,118 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.api.dto.CustomerSnapshot;
+import com.assurant.cph.core.domain.Customer;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap-only region against a tiered one (5% of the entries on the heap, the rest off-heap) holding the
+ * same customer snapshots. The GC profiler reports collection counts and time per iteration; the setup
+ * prints the heap each layout retains after a full GC.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.assurant.cph.core.cache.TieredCacheBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:+UseG1GC"})
+public class TieredCacheBenchmark {
+
+    @Param({"heap", "tiered"})
+    private String layout;
+
+    @Param("200000")
+    private int entries;
+
+    private Cache cache;
+    private UUID[] keys;
+    private CustomerSnapshot[] values;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        keys = new UUID[entries];
+        values = new CustomerSnapshot[entries];
+        for (int i = 0; i < entries; i++) {
+            keys[i] = UUID.randomUUID();
+            values[i] = customer(keys[i], i);
+        }
+
+        if ("heap".equals(layout)) {
+            cache = new CaffeineCache("customer", Caffeine.newBuilder().maximumSize(entries).build());
+        } else {
+            CaffeineCache heap = new CaffeineCache("customer", Caffeine.newBuilder().maximumSize(entries / 20).build());
+            cache = new TieredCache(heap, 512L * 1024 * 1024, Duration.ofHours(1));
+        }
+        for (int i = 0; i < entries; i++) {
+            cache.put(keys[i], values[i]);
+        }
+
+        // Only the cache keeps the values reachable from here on
+        values = null;
+        System.gc();
+        long retained = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        System.out.printf("%n[%s] heap used after filling %d entries: %d MB%n", layout, entries, retained >> 20);
+    }
+
+    @Benchmark
+    public Object get() {
+        return cache.get(keys[ThreadLocalRandom.current().nextInt(entries)]);
+    }
+
+    @Benchmark
+    public void put() {
+        int index = ThreadLocalRandom.current().nextInt(entries);
+        cache.put(keys[index], customer(keys[index], index));
+    }
+
+    private static CustomerSnapshot customer(UUID id, int number) {
+        return new CustomerSnapshot(
+                id,
+                "Benchmark Customer " + number,
+                "benchmark" + number + "@example.com",
+                "+1-555-0100",
+                "BENCH-" + number,
+                Customer.DocumentType.CPF,
+                new CustomerSnapshot.Address("1 Main St", "Boston", "MA", "02101", "USA"),
+                LocalDateTime.now(),
+                LocalDateTime.now());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(TieredCacheBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.assurant.cph.core.cache;
+
+import com.assurant.cph.api.dto.CustomerSnapshot;
+import com.assurant.cph.core.domain.Customer;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredCacheTest {
+
+    @Test
+    void entriesEvictedFromTheHeapAreServedOffHeap() {
+        TieredCache cache = tieredCache(2, 1024 * 1024);
+        List<CustomerSnapshot> customers = IntStream.range(0, 50).mapToObj(TieredCacheTest::customer).toList();
+        customers.forEach(customer -> cache.put(customer.id(), customer));
+
+        for (CustomerSnapshot customer : customers) {
+            assertThat(cache.get(customer.id(), CustomerSnapshot.class)).isEqualTo(customer);
+        }
+        assertThat(cache.getOffHeapStats().hits()).isGreaterThanOrEqualTo(48);
+
+        cache.put("all", customers);
+        assertThat(cache.get("all").get()).isEqualTo(customers);
+    }
+
+    @Test
+    void evictionRemovesBothTiers() {
+        TieredCache cache = tieredCache(2, 1024 * 1024);
+        CustomerSnapshot customer = customer(1);
+        cache.put(customer.id(), customer);
+        cache.put(UUID.randomUUID(), customer(2));
+        cache.put(UUID.randomUUID(), customer(3));
+
+        assertThat(cache.evictIfPresent(customer.id())).isTrue();
+        assertThat(cache.get(customer.id())).isNull();
+    }
+
+    @Test
+    void cachedNullSurvivesTheRoundTrip() {
+        TieredCache cache = tieredCache(1, 1024 * 1024);
+        cache.put("missing", null);
+        cache.put("other", customer(1));
+
+        assertThat(cache.get("missing")).isNotNull();
+        assertThat(cache.get("missing").get()).isNull();
+    }
+
+    @Test
+    void valuesWithoutAnEncodingStayOnTheHeap() {
+        TieredCache cache = tieredCache(10, 1024 * 1024);
+        cache.put("entity", Customer.builder().fullName("Entity").build());
+
+        assertThat(cache.get("entity")).isNotNull();
+        assertThat(cache.getOffHeapStats().heapOnlyWrites()).isEqualTo(1);
+        assertThat(cache.getOffHeapStats().entries()).isZero();
+    }
+
+    @Test
+    void fullStoreDropsTheOldestEntries() {
+        // 16 segments of 1 KB, roughly four customers each
+        TieredCache cache = tieredCache(1, 16 * 1024);
+        List<CustomerSnapshot> customers = IntStream.range(0, 500).mapToObj(TieredCacheTest::customer).toList();
+        customers.forEach(customer -> cache.put(customer.id(), customer));
+
+        assertThat(cache.get(customers.get(0).id())).isNull();
+        CustomerSnapshot newest = customers.get(customers.size() - 2);
+        assertThat(cache.get(newest.id(), CustomerSnapshot.class)).isEqualTo(newest);
+        assertThat(cache.getOffHeapStats().entries()).isLessThan(100);
+    }
+
+    private static TieredCache tieredCache(int heapEntries, long offHeapBytes) {
+        CaffeineCache heap = new CaffeineCache("customer", Caffeine.newBuilder()
+                .maximumSize(heapEntries)
+                .executor(Runnable::run)
+                .build());
+        return new TieredCache(heap, offHeapBytes, Duration.ofMinutes(5));
+    }
+
+    private static CustomerSnapshot customer(int number) {
+        return new CustomerSnapshot(
+                UUID.randomUUID(),
+                "Tiered Customer " + number,
+                "tiered" + number + "@example.com",
+                "+1-555-0100",
+                "TIER-" + number,
+                Customer.DocumentType.CPF,
+                new CustomerSnapshot.Address("1 Main St", "Boston", "MA", "02101", "USA"),
+                LocalDateTime.now(),
+                LocalDateTime.now());
+    }
+}
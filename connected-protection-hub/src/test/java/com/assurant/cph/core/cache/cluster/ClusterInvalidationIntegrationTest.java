@@ -0,0 +1,138 @@
+package com.assurant.cph.core.cache.cluster;
+
+import com.assurant.cph.ConnectedProtectionHubApplication;
+import com.assurant.cph.api.dto.ClaimSnapshot;
+import com.assurant.cph.core.domain.Claim;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.ClaimRepository;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import com.assurant.cph.core.service.ClaimService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts two application contexts on one database, as two nodes behind a load balancer would run, and
+ * checks that a write on one node reaches the caches of the other: the Spring cache region and the
+ * Hibernate second-level cache both held the old claim on the second node.
+ */
+class ClusterInvalidationIntegrationTest {
+
+    private static final long DELIVERY_TIMEOUT_MILLIS = 10_000;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"in-jvm", "jdbc"})
+    void claimUpdatedOnOneNodeIsNotServedStaleByTheOther(String transport) throws InterruptedException {
+        String cluster = UUID.randomUUID().toString().substring(0, 8);
+        ConfigurableApplicationContext node1 = startNode(transport, cluster);
+        ConfigurableApplicationContext node2 = startNode(transport, cluster);
+
+        UUID claimId = createClaim(node1, cluster);
+        assertThat(node1.getBean(ClaimService.class).getClaimById(claimId)).map(ClaimSnapshot::status).contains(Claim.ClaimStatus.SUBMITTED);
+        assertThat(node2.getBean(ClaimService.class).getClaimById(claimId)).map(ClaimSnapshot::status).contains(Claim.ClaimStatus.SUBMITTED);
+
+        node1.getBean(ClaimService.class).updateClaimStatus(claimId, Claim.ClaimStatus.UNDER_REVIEW);
+
+        Claim.ClaimStatus seenByNode2 = awaitStatus(node2, claimId, Claim.ClaimStatus.UNDER_REVIEW);
+        assertThat(seenByNode2).isEqualTo(Claim.ClaimStatus.UNDER_REVIEW);
+
+        ClusterInvalidationBus.ClusterStats stats = node2.getBean(ClusterInvalidationBus.class).getStats();
+        assertThat(stats.batchesReceived()).isPositive();
+        assertThat(stats.gapsDetected()).isZero();
+    }
+
+    private ConfigurableApplicationContext startNode(String transport, String cluster) {
+        // Arguments rather than default properties, which application.yml would override
+        ConfigurableApplicationContext node = new SpringApplicationBuilder(ConnectedProtectionHubApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:cluster-" + cluster + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--cph.cache.persistence.enabled=false",
+                        "--cph.cache.cluster.transport=" + transport,
+                        "--cph.cache.cluster.in-jvm-channel=" + cluster,
+                        "--cph.cache.cluster.jdbc-poll-interval=50ms",
+                        "--cph.references.node-id=" + nodes.size());
+        nodes.add(node);
+        return node;
+    }
+
+    private static UUID createClaim(ConfigurableApplicationContext node, String suffix) {
+        TransactionTemplate transaction = new TransactionTemplate(node.getBean(PlatformTransactionManager.class));
+        return transaction.execute(status -> {
+            Customer customer = node.getBean(CustomerRepository.class).save(Customer.builder()
+                    .fullName("Cluster " + suffix)
+                    .email("cluster-" + suffix + "@example.com")
+                    .documentNumber("CL-" + suffix)
+                    .documentType(Customer.DocumentType.CPF)
+                    .build());
+            ProtectedAsset asset = node.getBean(ProtectedAssetRepository.class).save(ElectronicDevice.builder()
+                    .name("Device")
+                    .serialNumber("CL-" + suffix)
+                    .purchaseDate(LocalDateTime.now().minusMonths(6))
+                    .customer(customer)
+                    .deviceType("SMARTPHONE")
+                    .brand("Brand")
+                    .model("Model")
+                    .build());
+            ProtectionPlan plan = node.getBean(ProtectionPlanRepository.class).save(ProtectionPlan.builder()
+                    .name("Plan")
+                    .startDate(LocalDateTime.now().minusMonths(1))
+                    .endDate(LocalDateTime.now().plusYears(1))
+                    .premiumAmount(19.9)
+                    .status(ProtectionPlan.PlanStatus.ACTIVE)
+                    .customer(customer)
+                    .protectedAsset(asset)
+                    .build());
+            return node.getBean(ClaimRepository.class).save(Claim.builder()
+                    .claimNumber("CLM-CL-" + suffix)
+                    .incidentDate(LocalDateTime.now().minusDays(1))
+                    .description("Screen damage")
+                    .claimType(Claim.ClaimType.DAMAGE)
+                    .protectionPlan(plan)
+                    .build()).getId();
+        });
+    }
+
+    // Delivery is asynchronous: the batch window, plus the poll interval for the jdbc transport
+    private static Claim.ClaimStatus awaitStatus(ConfigurableApplicationContext node, UUID claimId,
+                                                 Claim.ClaimStatus expected) throws InterruptedException {
+        ClaimService claimService = node.getBean(ClaimService.class);
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MILLIS;
+        Claim.ClaimStatus seen;
+        do {
+            seen = claimService.getClaimById(claimId).map(ClaimSnapshot::status).orElse(null);
+            if (seen == expected) {
+                break;
+            }
+            Thread.sleep(20);
+        } while (System.currentTimeMillis() < deadline);
+        return seen;
+    }
+}
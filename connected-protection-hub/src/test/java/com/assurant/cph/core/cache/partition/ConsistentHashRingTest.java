@@ -0,0 +1,80 @@
+package com.assurant.cph.core.cache.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+    private static final int VIRTUAL_NODES = 160;
+
+    @Test
+    void keysSpreadEvenlyOverTheMembers() {
+        ConsistentHashRing ring = ring("10.0.0.1:7450", "10.0.0.2:7450", "10.0.0.3:7450");
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (byte[] key : keys()) {
+            owned.merge(ring.ownerOf(key), 1, Integer::sum);
+        }
+
+        assertThat(owned).hasSize(3);
+        // 160 points per member keep each share within a few percent of a third
+        owned.values().forEach(count -> assertThat(count).isBetween(KEYS * 28 / 100, KEYS * 39 / 100));
+        assertThat(ring.shares().stream().mapToDouble(ConsistentHashRing.Share::fraction).sum()).isCloseTo(1.0, offset(1e-9));
+    }
+
+    @Test
+    void joiningMemberTakesKeysOnlyFromTheOthersAndOnlyItsShare() {
+        ConsistentHashRing before = ring("10.0.0.1:7450", "10.0.0.2:7450", "10.0.0.3:7450");
+        ConsistentHashRing after = before.with("10.0.0.4:7450");
+
+        int moved = 0;
+        for (byte[] key : keys()) {
+            String previousOwner = before.ownerOf(key);
+            String owner = after.ownerOf(key);
+            if (!owner.equals(previousOwner)) {
+                moved++;
+                assertThat(owner).isEqualTo("10.0.0.4:7450");
+            }
+        }
+        assertThat(moved).isBetween(KEYS * 20 / 100, KEYS * 30 / 100);
+        // Leaving reverses the join exactly
+        for (byte[] key : keys().subList(0, 1000)) {
+            assertThat(after.without("10.0.0.4:7450").ownerOf(key)).isEqualTo(before.ownerOf(key));
+        }
+    }
+
+    @Test
+    void nodesBuildingTheSameMemberSetAgreeOnEveryOwner() {
+        ConsistentHashRing one = ring("b:1", "a:1", "c:1");
+        ConsistentHashRing other = ring("c:1", "b:1").with("a:1");
+        for (byte[] key : keys().subList(0, 1000)) {
+            assertThat(one.ownerOf(key)).isEqualTo(other.ownerOf(key));
+        }
+    }
+
+    private static ConsistentHashRing ring(String... members) {
+        return new ConsistentHashRing(new TreeSet<>(List.of(members)), VIRTUAL_NODES);
+    }
+
+    private static List<byte[]> keys() {
+        Random random = new Random(42);
+        return IntStream.range(0, KEYS)
+                .mapToObj(i -> {
+                    UUID id = new UUID(random.nextLong(), random.nextLong());
+                    return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+                })
+                .toList();
+    }
+}
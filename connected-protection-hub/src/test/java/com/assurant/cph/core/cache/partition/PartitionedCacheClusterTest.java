@@ -0,0 +1,178 @@
+package com.assurant.cph.core.cache.partition;
+
+import com.assurant.cph.config.CacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs several nodes in one JVM, talking over local TCP as separate processes would, and checks that
+ * each key is held once in the cluster, readable from every node, and kept when nodes join or leave.
+ */
+class PartitionedCacheClusterTest {
+
+    private static final String REGION = "customerPlans";
+    private static final int KEYS = 300;
+    private static final String SECRET = "partition-test-secret";
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() {
+        nodes.stream().filter(node -> node.cluster.isRunning()).forEach(node -> node.cluster.stop());
+    }
+
+    @Test
+    void eachKeyIsHeldOnceAndReadableFromEveryNode() throws Exception {
+        List<Integer> ports = freePorts(3);
+        Node a = start(ports.get(0), ports);
+        Node b = start(ports.get(1), ports);
+        Node c = start(ports.get(2), ports);
+        awaitRing(3);
+
+        List<UUID> keys = keys();
+        keys.forEach(key -> a.cache.put(key, "plans of " + key));
+
+        assertThat(ownedEntries()).isEqualTo(KEYS);
+        for (Node node : nodes) {
+            assertThat(node.owned()).isBetween((long) KEYS / 6, (long) KEYS / 2);
+        }
+        for (UUID key : keys) {
+            assertThat(c.cache.get(key)).isNotNull().extracting(Cache.ValueWrapper::get).isEqualTo("plans of " + key);
+        }
+
+        // An eviction from any node drops the owner's entry and every near-cache copy
+        UUID evicted = keys.get(0);
+        assertThat(b.cache.get(evicted)).isNotNull();
+        c.cache.evict(evicted);
+        assertThat(a.cache.get(evicted)).isNull();
+        assertThat(b.cache.get(evicted)).isNull();
+        assertThat(ownedEntries()).isEqualTo(KEYS - 1);
+    }
+
+    @Test
+    void joiningAndLeavingNodesTakeOverKeysWithoutLosingThem() throws Exception {
+        List<Integer> ports = freePorts(3);
+        Node a = start(ports.get(0), ports);
+        Node b = start(ports.get(1), ports);
+        awaitRing(2);
+        List<UUID> keys = keys();
+        keys.forEach(key -> a.cache.put(key, "plans of " + key));
+
+        // The third node is listed by the others, so it is found by the next heartbeat
+        Node c = start(ports.get(2), ports);
+        awaitRing(3);
+        await(() -> c.owned() > 0 && ownedEntries() == KEYS);
+        assertThat(c.owned()).isBetween((long) KEYS / 6, (long) KEYS / 2);
+
+        // A graceful shutdown hands the node's entries to the remaining owners
+        long handedOver = a.owned();
+        a.cluster.stop();
+        nodes.remove(a);
+        await(() -> b.cluster.getStats().members().size() == 2 && c.cluster.getStats().members().size() == 2);
+        assertThat(handedOver).isPositive();
+        assertThat(ownedEntries()).isEqualTo(KEYS);
+        for (UUID key : keys) {
+            assertThat(b.cache.get(key)).isNotNull();
+        }
+        assertThat(b.cluster.getStats().regions().get(REGION).remoteFailures()).isZero();
+    }
+
+    @Test
+    void refusePeersWithoutTheSharedSecret() throws Exception {
+        List<Integer> ports = freePorts(2);
+        Node a = start(ports.get(0), ports);
+        Node intruder = start(ports.get(1), ports, "guessed-secret");
+        UUID key = UUID.randomUUID();
+        a.cache.put(key, "plans of " + key);
+
+        try (PartitionClient client = new PartitionClient(Duration.ofSeconds(2), "guessed-secret")) {
+            assertThatThrownBy(() -> client.call("127.0.0.1:" + ports.get(0),
+                    out -> out.writeByte(PartitionProtocol.CLEAR), in -> in.readBoolean()))
+                    .isInstanceOf(IOException.class);
+        }
+        // Several heartbeats later neither node has let the other into its ring
+        Thread.sleep(500);
+        assertThat(a.cluster.getStats().members()).hasSize(1);
+        assertThat(intruder.cluster.getStats().members()).hasSize(1);
+        assertThat(a.owned()).isEqualTo(1);
+    }
+
+    private Node start(int port, List<Integer> ports) {
+        return start(port, ports, SECRET);
+    }
+
+    private Node start(int port, List<Integer> ports, String secret) {
+        CacheProperties.Partitioning settings = new CacheProperties.Partitioning();
+        settings.setPort(port);
+        settings.setSecret(secret);
+        settings.setMembers(ports.stream().map(p -> "127.0.0.1:" + p).toList());
+        settings.setHeartbeatInterval(Duration.ofMillis(100));
+        settings.setRequestTimeout(Duration.ofSeconds(2));
+        PartitionedCacheCluster cluster = new PartitionedCacheCluster(settings);
+        Cache owned = new CaffeineCache(REGION, Caffeine.newBuilder().maximumSize(10_000).build());
+        Node node = new Node(cluster, cluster.partition(owned), owned);
+        cluster.start();
+        nodes.add(node);
+        return node;
+    }
+
+    private long ownedEntries() {
+        return nodes.stream().mapToLong(Node::owned).sum();
+    }
+
+    private void awaitRing(int members) throws InterruptedException {
+        await(() -> nodes.stream().allMatch(node -> node.cluster.getStats().members().size() == members));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition met within 10s").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static List<UUID> keys() {
+        List<UUID> keys = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            keys.add(UUID.randomUUID());
+        }
+        return keys;
+    }
+
+    private static List<Integer> freePorts(int count) throws IOException {
+        List<ServerSocket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                sockets.add(new ServerSocket(0));
+            }
+            return sockets.stream().map(ServerSocket::getLocalPort).toList();
+        } finally {
+            for (ServerSocket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    private record Node(PartitionedCacheCluster cluster, Cache cache, Cache ownedStore) {
+        long owned() {
+            var entries = (com.github.benmanes.caffeine.cache.Cache<?, ?>) ownedStore.getNativeCache();
+            entries.cleanUp();
+            return entries.estimatedSize();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.assurant.cph.core.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * References per microsecond from one shared sequence, next to the millisecond-plus-random references it
+ * replaced, which cost about the same but repeat under load. Run with {@code -t 1} and then {@code -t} set
+ * to the core count to see what contention on the sequence costs.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.assurant.cph.core.domain.ReferenceSequenceBenchmark -t 4
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReferenceSequenceBenchmark {
+
+    private final ReferenceSequence sequence = new ReferenceSequence(1, System::currentTimeMillis);
+
+    @Benchmark
+    public long nextId() {
+        return sequence.nextId();
+    }
+
+    @Benchmark
+    public String nextReference() {
+        return sequence.nextReference("PAY");
+    }
+
+    @Benchmark
+    public String timestampAndRandom() {
+        return "PAY-" + System.currentTimeMillis() + "-" + (int) (Math.random() * 1000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(ReferenceSequenceBenchmark.class.getName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,97 @@
+package com.assurant.cph.core.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReferenceSequenceTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 250_000;
+
+    @Test
+    void neverRepeatAcrossThreadsAndNodes() throws Exception {
+        // Two nodes on one clock, each hammered by several threads at once
+        ReferenceSequence first = new ReferenceSequence(1, System::currentTimeMillis);
+        ReferenceSequence second = new ReferenceSequence(2, System::currentTimeMillis);
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                ReferenceSequence sequence = t % 2 == 0 ? first : second;
+                results.add(threads.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    long[] ids = new long[PER_THREAD];
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        ids[i] = sequence.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> seen = new HashSet<>(THREADS * PER_THREAD);
+            for (Future<long[]> result : results) {
+                long[] ids = result.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertThat(seen.add(ids[i])).as("repeated id %d", ids[i]).isTrue();
+                    if (i > 0) {
+                        assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                    }
+                }
+            }
+            assertThat(seen).hasSize(THREADS * PER_THREAD);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void keepIncreasingThroughBurstsAndAClockSteppingBack() {
+        // Stuck for 10000 ids, longer than one millisecond's counter, then set back by a second
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        AtomicLong calls = new AtomicLong();
+        ReferenceSequence sequence = new ReferenceSequence(7, () -> calls.incrementAndGet() == 10_000
+                ? now.addAndGet(-1000) : now.get());
+
+        long previous = sequence.nextId();
+        for (int i = 0; i < 20_000; i++) {
+            long next = sequence.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void sortReferencesAsTextInTheOrderIssued() {
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        ReferenceSequence sequence = new ReferenceSequence(3, () -> now.addAndGet(997));
+
+        List<String> issued = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            issued.add(sequence.nextReference("PAY"));
+        }
+
+        assertThat(issued).isSorted().allMatch(reference -> reference.matches("PAY-\\d{19}"));
+    }
+
+    @Test
+    void rejectNodeIdsThatDoNotFit() {
+        assertThatThrownBy(() -> new ReferenceSequence(ReferenceSequence.MAX_NODE_ID + 1, System::currentTimeMillis))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ReferenceSequence(-1, System::currentTimeMillis))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,185 @@
+package com.assurant.cph.core.repository;
+
+import com.assurant.cph.api.dto.ClaimSummary;
+import com.assurant.cph.api.dto.PaymentMethodRevenue;
+import com.assurant.cph.api.dto.PaymentStatistics;
+import com.assurant.cph.api.dto.PaymentStatusSummary;
+import com.assurant.cph.api.dto.RepairProviderSummary;
+import com.assurant.cph.core.domain.Claim;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.domain.RepairOrder;
+import com.assurant.cph.core.service.PaymentRecordService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+// The grouped queries must agree with grouping every row in memory, which is what they replaced
+@SpringBootTest
+class ReportingQueriesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Autowired
+    private PaymentRecordRepository paymentRecordRepository;
+
+    @Autowired
+    private ClaimRepository claimRepository;
+
+    @Autowired
+    private RepairOrderRepository repairOrderRepository;
+
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+
+    @Autowired
+    private ProtectedAssetRepository protectedAssetRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PaymentRecordService paymentRecordService;
+
+    private Customer customer;
+
+    @BeforeEach
+    void createData() {
+        String suffix = UUID.randomUUID().toString();
+        customer = customerRepository.save(Customer.builder()
+                .fullName("Reporting")
+                .email("reporting-" + suffix + "@example.com")
+                .documentNumber("RPT-" + suffix)
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = protectedAssetRepository.save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("RPT-SN-" + suffix)
+                .purchaseDate(NOW.minusMonths(6))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        ProtectionPlan plan = protectionPlanRepository.save(ProtectionPlan.builder()
+                .name("Plan")
+                .startDate(NOW.minusMonths(1))
+                .endDate(NOW.plusYears(1))
+                .premiumAmount(19.9)
+                .status(ProtectionPlan.PlanStatus.ACTIVE)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+
+        PaymentRecord.PaymentStatus[] statuses = {PaymentRecord.PaymentStatus.COMPLETED,
+                PaymentRecord.PaymentStatus.COMPLETED, PaymentRecord.PaymentStatus.PENDING, PaymentRecord.PaymentStatus.FAILED};
+        PaymentRecord.PaymentMethod[] methods = PaymentRecord.PaymentMethod.values();
+        for (int i = 0; i < 12; i++) {
+            paymentRecordRepository.save(PaymentRecord.builder()
+                    .paymentReference("RPT-" + suffix + "-" + i)
+                    .amount(10.0 + i)
+                    .paymentDate(NOW.minusDays(i))
+                    .paymentMethod(methods[i % methods.length])
+                    .status(statuses[i % statuses.length])
+                    .protectionPlan(plan)
+                    .build());
+        }
+
+        Claim.ClaimType[] types = {Claim.ClaimType.DAMAGE, Claim.ClaimType.THEFT};
+        for (int i = 0; i < 6; i++) {
+            Claim claim = claimRepository.save(Claim.builder()
+                    .claimNumber("CLM-RPT-" + suffix + "-" + i)
+                    .incidentDate(NOW.minusDays(i))
+                    .description("Reporting claim")
+                    .claimType(types[i % types.length])
+                    .claimedAmount(100.0 * (i + 1))
+                    .approvedAmount(i % 3 == 0 ? 50.0 * (i + 1) : null)
+                    .protectionPlan(plan)
+                    .build());
+            repairOrderRepository.save(RepairOrder.builder()
+                    .repairOrderNumber("RO-RPT-" + suffix + "-" + i)
+                    .repairProvider(i < 3 ? "Reporting Fix-It" : "Reporting Repair Co")
+                    .status(i % 2 == 0 ? RepairOrder.RepairStatus.COMPLETED : RepairOrder.RepairStatus.PENDING)
+                    .providerAddress("1 Main St")
+                    .repairDescription("Screen replacement")
+                    .estimatedCompletion(LocalDateTime.now().plusDays(7))
+                    .repairCost(i % 2 == 0 ? 80.0 + i : null)
+                    .claim(claim)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        repairOrderRepository.deleteAllInBatch();
+        claimRepository.deleteAllInBatch();
+        paymentRecordRepository.deleteAllInBatch();
+        protectionPlanRepository.deleteAll();
+        protectedAssetRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void paymentAggregatesMatchInMemoryGrouping() {
+        List<PaymentRecord> payments = paymentRecordRepository.findAll();
+
+        List<PaymentStatusSummary> byStatus = paymentRecordRepository.summarizeByStatus();
+        assertThat(byStatus).extracting(row -> row.status().name()).isSorted();
+        assertThat(byStatus.stream().collect(Collectors.toMap(PaymentStatusSummary::status, PaymentStatusSummary::payments)))
+                .isEqualTo(payments.stream().collect(Collectors.groupingBy(PaymentRecord::getStatus, Collectors.counting())));
+
+        Map<PaymentRecord.PaymentMethod, Double> revenueByMethod = payments.stream()
+                .filter(payment -> payment.getStatus() == PaymentRecord.PaymentStatus.COMPLETED)
+                .collect(Collectors.groupingBy(PaymentRecord::getPaymentMethod, Collectors.summingDouble(PaymentRecord::getAmount)));
+        assertThat(paymentRecordRepository.summarizeRevenueByMethod())
+                .extracting(PaymentMethodRevenue::paymentMethod)
+                .containsExactlyInAnyOrderElementsOf(revenueByMethod.keySet());
+        assertThat(paymentRecordRepository.summarizeRevenueByMethod()).allSatisfy(row ->
+                assertThat(row.revenue()).isCloseTo(revenueByMethod.get(row.paymentMethod()), within(1e-6)));
+
+        // Payments 0, 1, 4, 5, 8 and 9 are completed, 2, 6 and 10 pending
+        PaymentStatistics statistics = paymentRecordService.getPaymentStatistics(customer.getId());
+        assertThat(statistics.totalTransactions()).isEqualTo(12);
+        assertThat(statistics.completedPayments()).isEqualTo(6);
+        assertThat(statistics.pendingPayments()).isEqualTo(3);
+        assertThat(statistics.totalPaid()).isCloseTo(87.0, within(1e-6));
+        assertThat(statistics.averagePayment()).isCloseTo(14.5, within(1e-6));
+        assertThat(statistics.lastPaymentDate()).isEqualTo(NOW);
+    }
+
+    @Test
+    void claimAndRepairAggregatesMatchInMemoryGrouping() {
+        assertThat(claimRepository.summarizeByStatusAndType().stream()
+                .collect(Collectors.toMap(row -> row.status() + "/" + row.claimType(), ClaimSummary::claims)))
+                .isEqualTo(claimRepository.findAll().stream()
+                        .collect(Collectors.groupingBy(claim -> claim.getStatus() + "/" + claim.getClaimType(), Collectors.counting())));
+
+        List<RepairProviderSummary> byProvider = repairOrderRepository.summarizeByProviderAndStatus();
+        assertThat(byProvider.stream()
+                .collect(Collectors.toMap(row -> row.repairProvider() + "/" + row.status(), RepairProviderSummary::repairOrders)))
+                .isEqualTo(repairOrderRepository.findAll().stream()
+                        .collect(Collectors.groupingBy(order -> order.getRepairProvider() + "/" + order.getStatus(), Collectors.counting())));
+
+        // Orders 0 and 2 completed at 80 and 82; order 1 is pending without a cost and leaves the average alone
+        assertThat(byProvider).filteredOn(row -> row.repairProvider().equals("Reporting Fix-It")
+                        && row.status() == RepairOrder.RepairStatus.COMPLETED)
+                .singleElement()
+                .satisfies(row -> assertThat(row.averageRepairCost())
+                        .isEqualTo(repairOrderRepository.findAverageRepairCostByProvider("Reporting Fix-It"))
+                        .isCloseTo(81.0, within(1e-6)));
+    }
+}
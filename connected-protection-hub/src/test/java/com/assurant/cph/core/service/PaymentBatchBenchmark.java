@@ -0,0 +1,165 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.ConnectedProtectionHubApplication;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to process one partner batch of 1k, 10k and 100k payments spread over 100 plans, once calling
+ * processPayment for every payment in a single transaction without JDBC batching (the behaviour before
+ * the batch engine) and once through processBatchPayments. Divide the batch size by the time per batch
+ * for the throughput. Every invocation inserts into an emptied payments table.
+ *
+ * <p>The database is H2 reached over loopback TCP, so each statement pays a real round trip; in-process
+ * H2 has none and hides what batching saves.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.assurant.cph.core.service.PaymentBatchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class PaymentBatchBenchmark {
+
+    private static final int PLANS = 100;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"perItem", "batched"})
+    private String approach;
+
+    @Param({"1000", "10000", "100000"})
+    private int items;
+
+    private Server database;
+    private ConfigurableApplicationContext context;
+    private PaymentRecordService paymentRecordService;
+    private PaymentRecordRepository paymentRecordRepository;
+    private TransactionTemplate transaction;
+    private final List<UUID> planIds = new ArrayList<>();
+    private List<PaymentRecord> batch;
+
+    @Setup(Level.Trial)
+    public void start() throws SQLException {
+        database = Server.createTcpServer("-tcpPort", "0", "-tcpAllowOthers", "-ifNotExists").start();
+        context = new SpringApplicationBuilder(ConnectedProtectionHubApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort() + "/mem:payment-batch-"
+                        + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + (approach.equals("perItem") ? 1 : 500),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.assurant.cph=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--cph.cache.persistence.enabled=false");
+        paymentRecordService = context.getBean(PaymentRecordService.class);
+        paymentRecordRepository = context.getBean(PaymentRecordRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        createPlans();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        database.stop();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareBatch() {
+        paymentRecordRepository.deleteAllInBatch();
+        String prefix = UUID.randomUUID().toString();
+        batch = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            batch.add(PaymentRecord.builder()
+                    .paymentReference(prefix + "-" + i)
+                    .amount(19.9)
+                    .paymentMethod(PaymentRecord.PaymentMethod.PIX)
+                    .protectionPlan(ProtectionPlan.builder().id(planIds.get(i % PLANS)).build())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public int processBatch() {
+        if (approach.equals("perItem")) {
+            return transaction.execute(status -> batch.stream().map(paymentRecordService::processPayment).toList().size());
+        }
+        return paymentRecordService.processBatchPayments(batch).accepted();
+    }
+
+    private void createPlans() {
+        Customer customer = context.getBean(CustomerRepository.class).save(Customer.builder()
+                .fullName("Benchmark Customer")
+                .email("payment-batch@example.com")
+                .documentNumber("BENCH-PB")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = context.getBean(ProtectedAssetRepository.class).save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("BENCH-PB-SN")
+                .purchaseDate(START.minusMonths(6))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        ProtectionPlanRepository protectionPlanRepository = context.getBean(ProtectionPlanRepository.class);
+        for (int i = 0; i < PLANS; i++) {
+            planIds.add(protectionPlanRepository.save(ProtectionPlan.builder()
+                    .name("Plan " + i)
+                    .startDate(START.minusMonths(1))
+                    .endDate(START.plusYears(5))
+                    .premiumAmount(19.9)
+                    .status(ProtectionPlan.PlanStatus.ACTIVE)
+                    .customer(customer)
+                    .protectedAsset(asset)
+                    .build()).getId());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(PaymentBatchBenchmark.class.getName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,226 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.api.dto.PaymentBatchJobSnapshot;
+import com.assurant.cph.api.dto.PaymentBatchResult;
+import com.assurant.cph.config.PaymentProperties;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentBatchJob;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.PaymentBatchJobRepository;
+import com.assurant.cph.core.repository.PaymentBatchRejectionRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A small chunk size so every upload spans several chunks
+@SpringBootTest(properties = {
+        "cph.payments.jobs.chunk-size=300",
+        "cph.payments.jobs.directory=target/payment-batch-jobs",
+        "cph.payments.counters.consistency-check-interval=1h"
+})
+@AutoConfigureMockMvc
+class PaymentBatchJobTest {
+
+    private static final int PAYMENTS = 2500;
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentBatchJobServiceImpl paymentBatchJobService;
+
+    @Autowired
+    private PaymentProperties paymentProperties;
+
+    @Autowired
+    private PaymentBatchJobRepository jobRepository;
+
+    @Autowired
+    private PaymentBatchRejectionRepository rejectionRepository;
+
+    @Autowired
+    private PaymentRecordRepository paymentRecordRepository;
+
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+
+    @Autowired
+    private ProtectedAssetRepository protectedAssetRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private ProtectionPlan plan;
+
+    @BeforeEach
+    void createPlan() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .fullName("Batch Job")
+                .email("batch-job@example.com")
+                .documentNumber("BJ-1")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = protectedAssetRepository.save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("BJ-SN-1")
+                .purchaseDate(NOW.minusYears(1))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        plan = protectionPlanRepository.save(ProtectionPlan.builder()
+                .name("Plan")
+                .startDate(NOW.minusMonths(1))
+                .endDate(NOW.plusYears(1))
+                .premiumAmount(19.9)
+                .status(ProtectionPlan.PlanStatus.ACTIVE)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        rejectionRepository.deleteAllInBatch();
+        jobRepository.deleteAllInBatch();
+        paymentRecordRepository.deleteAllInBatch();
+        protectionPlanRepository.deleteAll();
+        protectedAssetRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void acceptUploadAtOnceAndProcessItInTheBackground() throws Exception {
+        StringJoiner upload = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < PAYMENTS; i++) {
+            if (i == 700) {
+                upload.add("{\"paymentReference\":\"BJ-UNREADABLE\",\"paymentMethod\":\"BARTER\"}");
+            } else if (i == 1500) {
+                upload.add(payment("BJ-WRONG-AMOUNT", 25.0));
+            } else if (i == 2400) {
+                upload.add(payment("BJ-0", 19.9));
+            } else {
+                upload.add(payment("BJ-" + i, 19.9));
+            }
+        }
+
+        MvcResult accepted = mockMvc.perform(post("/api/v1/payments/batch-jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(upload.toString()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn();
+        UUID jobId = objectMapper.readValue(accepted.getResponse().getContentAsString(), PaymentBatchJobSnapshot.class).id();
+
+        PaymentBatchJobSnapshot job = awaitFinished(jobId);
+        assertThat(job.status()).isEqualTo(PaymentBatchJob.JobStatus.COMPLETED);
+        assertThat(job.processedItems()).isEqualTo((long) PAYMENTS);
+        assertThat(job.acceptedItems()).isEqualTo(PAYMENTS - 3L);
+        assertThat(job.rejectedItems()).isEqualTo(3L);
+        assertThat(paymentRecordRepository.count()).isEqualTo(PAYMENTS - 3);
+
+        MvcResult rejections = mockMvc.perform(get("/api/v1/payments/batch-jobs/{id}/rejections", jobId))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<PaymentBatchResult.Item> items = List.of(objectMapper.readValue(
+                rejections.getResponse().getContentAsString(), PaymentBatchResult.Item[].class));
+        assertThat(items).extracting(PaymentBatchResult.Item::index, PaymentBatchResult.Item::paymentReference)
+                .containsExactly(tuple(700, "BJ-UNREADABLE"), tuple(1500, "BJ-WRONG-AMOUNT"), tuple(2400, "BJ-0"));
+        assertThat(items.get(0).reason()).startsWith("Unreadable payment");
+        assertThat(paymentBatchJobService.getRejections(jobId, 700, 10)).hasSize(2);
+
+        mockMvc.perform(get("/api/v1/payments/batch-jobs/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void resumeInterruptedJobAfterTheItemsAlreadyProcessed() throws Exception {
+        // Items that are not objects count as rejected items too, before the checkpoint and after it
+        StringJoiner upload = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < 1000; i++) {
+            switch (i) {
+                case 100 -> upload.add("42");
+                case 200 -> upload.add("null");
+                case 300 -> upload.add("\"BJ-NOT-AN-OBJECT\"");
+                case 400 -> upload.add("[1, {\"nested\": true}]");
+                case 800 -> upload.add("null");
+                default -> upload.add(payment("BJ-RESUMED-" + i, 19.9));
+            }
+        }
+        Path directory = paymentProperties.getJobs().getDirectory();
+        Files.createDirectories(directory);
+        Path file = Files.writeString(directory.resolve("interrupted-" + UUID.randomUUID() + ".json"), upload.toString());
+
+        // As left by a node that committed two chunks before it went down
+        UUID jobId = jobRepository.save(PaymentBatchJob.builder()
+                .status(PaymentBatchJob.JobStatus.RUNNING)
+                .uploadFile(file.toString())
+                .uploadBytes(Files.size(file))
+                .processedItems(600L)
+                .acceptedItems(596L)
+                .rejectedItems(4L)
+                .startedAt(NOW)
+                .build()).getId();
+
+        paymentBatchJobService.resumeUnfinished();
+
+        PaymentBatchJobSnapshot job = awaitFinished(jobId);
+        assertThat(job.status()).isEqualTo(PaymentBatchJob.JobStatus.COMPLETED);
+        assertThat(job.processedItems()).isEqualTo(1000L);
+        assertThat(job.acceptedItems()).isEqualTo(995L);
+        assertThat(job.rejectedItems()).isEqualTo(5L);
+        assertThat(paymentRecordRepository.count()).isEqualTo(399);
+        assertThat(paymentRecordRepository.findExistingPaymentReferences(List.of("BJ-RESUMED-599", "BJ-RESUMED-600")))
+                .containsExactly("BJ-RESUMED-600");
+        assertThat(file).doesNotExist();
+    }
+
+    private PaymentBatchJobSnapshot awaitFinished(UUID jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (System.currentTimeMillis() < deadline) {
+            PaymentBatchJobSnapshot job = paymentBatchJobService.getJob(jobId).orElseThrow();
+            if (job.status() == PaymentBatchJob.JobStatus.COMPLETED || job.status() == PaymentBatchJob.JobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish");
+    }
+
+    private String payment(String reference, double amount) {
+        return "{\"paymentReference\":\"" + reference + "\",\"amount\":" + amount +
+                ",\"paymentMethod\":\"PIX\",\"protectionPlan\":{\"id\":\"" + plan.getId() + "\"}}";
+    }
+}
@@ -0,0 +1,192 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.api.dto.PaymentBatchResult;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// A small flush size so the batch spans several flushes, and several lanes so it is split between them
+@SpringBootTest(properties = {
+        "cph.payments.batch.flush-size=7",
+        "cph.payments.lanes.count=4",
+        "cph.payments.counters.consistency-check-interval=1h"
+})
+class PaymentBatchTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Autowired
+    private PaymentRecordService paymentRecordService;
+
+    @Autowired
+    private PaymentCounters paymentCounters;
+
+    @Autowired
+    private PlanLaneExecutor planLaneExecutor;
+
+    @Autowired
+    private PaymentRecordRepository paymentRecordRepository;
+
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+
+    @Autowired
+    private ProtectedAssetRepository protectedAssetRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProtectionPlan active;
+    private ProtectionPlan activeOnOtherLane;
+    private ProtectionPlan cancelled;
+
+    @BeforeEach
+    void createPlans() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .fullName("Batch")
+                .email("batch@example.com")
+                .documentNumber("BAT-1")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = protectedAssetRepository.save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("BAT-SN-1")
+                .purchaseDate(NOW.minusYears(1))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        active = plan(customer, asset, ProtectionPlan.PlanStatus.ACTIVE);
+        do {
+            activeOnOtherLane = plan(customer, asset, ProtectionPlan.PlanStatus.ACTIVE);
+        } while (planLaneExecutor.laneOf(activeOnOtherLane.getId()) == planLaneExecutor.laneOf(active.getId()));
+        cancelled = plan(customer, asset, ProtectionPlan.PlanStatus.CANCELLED);
+        paymentCounters.load();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        paymentRecordRepository.deleteAllInBatch();
+        protectionPlanRepository.deleteAll();
+        protectedAssetRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void acceptOrRejectEachPaymentOnItsOwn() {
+        paymentRecordService.processPayment(payment("BAT-EXISTING", active.getId(), 19.9));
+
+        long lanesCompleted = planLaneExecutor.getStats().completed();
+
+        List<PaymentRecord> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(payment("BAT-" + i, (i % 2 == 0 ? active : activeOnOtherLane).getId(), 19.9));
+        }
+        batch.add(payment("BAT-EXISTING", active.getId(), 19.9));
+        batch.add(payment("BAT-0", active.getId(), 19.9));
+        batch.add(payment("BAT-UNKNOWN-PLAN", UUID.randomUUID(), 19.9));
+        batch.add(payment("BAT-CANCELLED", cancelled.getId(), 19.9));
+        batch.add(payment("BAT-WRONG-AMOUNT", active.getId(), 25.0));
+        batch.add(payment("BAT-LAST", active.getId(), 19.9));
+
+        PaymentBatchResult result = paymentRecordService.processBatchPayments(batch);
+
+        assertThat(result.accepted()).isEqualTo(21);
+        assertThat(result.rejected()).isEqualTo(5);
+        assertThat(result.items()).extracting(PaymentBatchResult.Item::index).containsExactlyElementsOf(
+                IntStream.range(0, batch.size()).boxed().toList());
+        assertThat(result.items()).filteredOn(item -> item.outcome() == PaymentBatchResult.Outcome.REJECTED)
+                .extracting(PaymentBatchResult.Item::paymentReference, PaymentBatchResult.Item::reason)
+                .containsExactly(
+                        tuple("BAT-EXISTING", "Payment reference already exists: BAT-EXISTING"),
+                        tuple("BAT-0", "Payment reference already exists: BAT-0"),
+                        tuple("BAT-UNKNOWN-PLAN", "Protection plan not found with ID: " + batch.get(22).getProtectionPlan().getId()),
+                        tuple("BAT-CANCELLED", "Cannot process payment for protection plan with status: CANCELLED"),
+                        tuple("BAT-WRONG-AMOUNT", "Payment amount 25.00 does not match protection plan premium 19.90"));
+
+        assertThat(paymentRecordRepository.count()).isEqualTo(22);
+        assertThat(result.items()).filteredOn(item -> item.outcome() == PaymentBatchResult.Outcome.ACCEPTED)
+                .allSatisfy(item -> assertThat(paymentRecordRepository.findById(item.paymentId())).get()
+                        .extracting(PaymentRecord::getPaymentReference).isEqualTo(item.paymentReference()));
+        assertThat(paymentRecordService.paymentExists(result.items().get(25).paymentId())).isTrue();
+        assertThat(paymentCounters.check()).isEmpty();
+        assertThat(planLaneExecutor.getStats().completed() - lanesCompleted).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void rejectSuppliedIdsAndLeaveTheCallersEntitiesManaged() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        UUID suppliedId = UUID.randomUUID();
+
+        PaymentBatchResult result = transaction.execute(status -> {
+            ProtectionPlan loaded = entityManager.find(ProtectionPlan.class, active.getId());
+            List<PaymentRecord> batch = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                batch.add(payment("BAT-TX-" + i, active.getId(), 19.9));
+            }
+            batch.get(3).setId(suppliedId);
+
+            PaymentBatchResult inside = paymentRecordService.processBatchPayments(batch);
+            assertThat(entityManager.contains(loaded)).isTrue();
+            return inside;
+        });
+
+        assertThat(result.accepted()).isEqualTo(19);
+        assertThat(result.items()).filteredOn(item -> item.outcome() == PaymentBatchResult.Outcome.REJECTED)
+                .extracting(PaymentBatchResult.Item::index, PaymentBatchResult.Item::reason)
+                .containsExactly(tuple(3, "Payment ID is assigned on insert and must not be supplied: " + suppliedId));
+        assertThat(paymentRecordRepository.count()).isEqualTo(19);
+        assertThat(paymentRecordRepository.existsById(suppliedId)).isFalse();
+    }
+
+    private ProtectionPlan plan(Customer customer, ProtectedAsset asset, ProtectionPlan.PlanStatus status) {
+        return protectionPlanRepository.save(ProtectionPlan.builder()
+                .name("Plan " + status)
+                .startDate(NOW.minusMonths(1))
+                .endDate(NOW.plusYears(1))
+                .premiumAmount(19.9)
+                .status(status)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+    }
+
+    private static PaymentRecord payment(String reference, UUID planId, double amount) {
+        return PaymentRecord.builder()
+                .paymentReference(reference)
+                .amount(amount)
+                .paymentMethod(PaymentRecord.PaymentMethod.PIX)
+                .protectionPlan(ProtectionPlan.builder().id(planId).build())
+                .build();
+    }
+}
@@ -0,0 +1,197 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.api.dto.PaymentMethodRevenue;
+import com.assurant.cph.api.dto.PaymentStatusSummary;
+import com.assurant.cph.config.PaymentProperties;
+import com.assurant.cph.core.cache.cluster.ClusterInvalidationBus;
+import com.assurant.cph.core.cache.cluster.Invalidation;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// The scheduled check is pushed out of the way so only the checks made here run
+@SpringBootTest(properties = "cph.payments.counters.consistency-check-interval=1h")
+class PaymentCountersTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().minusMonths(1);
+
+    @Autowired
+    private PaymentRecordService paymentRecordService;
+
+    @Autowired
+    private PaymentCounters paymentCounters;
+
+    @Autowired
+    private PaymentRecordRepository paymentRecordRepository;
+
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+
+    @Autowired
+    private ProtectedAssetRepository protectedAssetRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProtectionPlan plan;
+
+    @BeforeEach
+    void createPlan() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .fullName("Counters")
+                .email("counters@example.com")
+                .documentNumber("CNT-1")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = protectedAssetRepository.save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("CNT-SN-1")
+                .purchaseDate(START)
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        plan = protectionPlanRepository.save(ProtectionPlan.builder()
+                .name("Plan")
+                .startDate(START)
+                .endDate(START.plusYears(1))
+                .premiumAmount(19.9)
+                .status(ProtectionPlan.PlanStatus.ACTIVE)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+        // Other test classes write payments with plain JDBC, which the counters only learn about on a check
+        paymentCounters.load();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        paymentRecordRepository.deleteAllInBatch();
+        protectionPlanRepository.deleteAll();
+        protectedAssetRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void followEveryStatusChangeMadeThroughTheService() {
+        PaymentRecord pix = pay(PaymentRecord.PaymentMethod.PIX);
+        PaymentRecord card = pay(PaymentRecord.PaymentMethod.CREDIT_CARD);
+        PaymentRecord failed = pay(PaymentRecord.PaymentMethod.CREDIT_CARD);
+        PaymentRecord deleted = pay(PaymentRecord.PaymentMethod.BANK_SLIP);
+
+        paymentRecordService.markAsCompleted(pix.getId(), "TX-PIX");
+        paymentRecordService.markAsCompleted(card.getId(), "TX-CARD");
+        paymentRecordService.processRefund(card.getId());
+        paymentRecordService.markAsFailed(failed.getId(), "Declined");
+        paymentRecordService.deletePayment(deleted.getId());
+
+        assertMatchesDatabase();
+        assertThat(paymentCounters.check()).isEmpty();
+    }
+
+    @Test
+    void correctWritesThatBypassedTheServiceOnTheSecondCheck() {
+        pay(PaymentRecord.PaymentMethod.PIX);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO payment_records (id, payment_reference, amount, payment_date, payment_method, " +
+                        "status, protection_plan_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), "CNT-JDBC", 19.9, now, "PIX", "COMPLETED", plan.getId(), now, now);
+
+        List<PaymentMethodRevenue> before = paymentRecordService.getRevenueByPaymentMethod();
+        assertThat(paymentCounters.check()).hasSize(1);
+        assertThat(paymentRecordService.getRevenueByPaymentMethod()).isEqualTo(before);
+
+        assertThat(paymentCounters.check()).hasSize(1);
+        assertMatchesDatabase();
+        assertThat(paymentCounters.check()).isEmpty();
+    }
+
+    @Test
+    void applyTheChangesAPeerPublishesWithoutQuerying() {
+        pay(PaymentRecord.PaymentMethod.PIX);
+        long updates = paymentCounters.getPeerUpdates();
+
+        // Another node storing two payments and publishing what they changed as it commits each
+        ClusterInvalidationBus peerBus = mock(ClusterInvalidationBus.class);
+        PaymentCounters peer = new PaymentCounters(new PaymentProperties.Counters(), entityManager, transactionManager, peerBus);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < 2; i++) {
+            jdbcTemplate.update("INSERT INTO payment_records (id, payment_reference, amount, payment_date, payment_method, " +
+                            "status, protection_plan_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    UUID.randomUUID(), "CNT-PEER-" + i, 19.9, now, "PIX", "COMPLETED", plan.getId(), now, now);
+            peer.added(PaymentRecord.builder()
+                    .amount(19.9)
+                    .paymentMethod(PaymentRecord.PaymentMethod.PIX)
+                    .status(PaymentRecord.PaymentStatus.COMPLETED)
+                    .build());
+        }
+        ArgumentCaptor<Invalidation> published = ArgumentCaptor.forClass(Invalidation.class);
+        verify(peerBus, times(2)).publish(published.capture());
+        published.getAllValues().forEach(invalidation -> paymentCounters.applyPeerDeltas((String) invalidation.key()));
+
+        assertThat(paymentCounters.getPeerUpdates()).isEqualTo(updates + 2);
+        assertMatchesDatabase();
+        assertThat(paymentCounters.check()).isEmpty();
+    }
+
+    private PaymentRecord pay(PaymentRecord.PaymentMethod method) {
+        return paymentRecordService.processPayment(PaymentRecord.builder()
+                .amount(19.9)
+                .paymentMethod(method)
+                .protectionPlan(plan)
+                .build());
+    }
+
+    private void assertMatchesDatabase() {
+        List<PaymentStatusSummary> counted = paymentRecordService.getPaymentCountByStatus();
+        List<PaymentStatusSummary> queried = paymentRecordRepository.summarizeByStatus();
+        assertThat(counted).extracting(PaymentStatusSummary::status, PaymentStatusSummary::payments)
+                .isEqualTo(queried.stream().map(row -> tuple(row.status(), row.payments())).toList());
+        for (int i = 0; i < counted.size(); i++) {
+            assertThat(counted.get(i).totalAmount()).isCloseTo(queried.get(i).totalAmount(), within(1e-6));
+        }
+
+        List<PaymentMethodRevenue> revenue = paymentRecordService.getRevenueByPaymentMethod();
+        List<PaymentMethodRevenue> queriedRevenue = paymentRecordRepository.summarizeRevenueByMethod();
+        assertThat(revenue).extracting(PaymentMethodRevenue::paymentMethod, PaymentMethodRevenue::completedPayments)
+                .isEqualTo(queriedRevenue.stream()
+                        .map(row -> tuple(row.paymentMethod(), row.completedPayments())).toList());
+    }
+}
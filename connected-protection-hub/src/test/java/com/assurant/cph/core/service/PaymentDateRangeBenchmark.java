@@ -0,0 +1,164 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.ConnectedProtectionHubApplication;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one page of a date-range search over a large payments table, once loading every payment
+ * and filtering in memory (the behaviour before the indexed query) and once through the
+ * (payment_date, id) index. Payment dates average one a minute and each search covers a random day,
+ * around 1440 matches of which the first page of 50 is returned.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.assurant.cph.core.service.PaymentDateRangeBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class PaymentDateRangeBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"findAll", "indexed"})
+    private String approach;
+
+    @Param("1000000")
+    private int payments;
+
+    private ConfigurableApplicationContext context;
+    private PaymentRecordRepository paymentRecordRepository;
+    private PaymentRecordService paymentRecordService;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ConnectedProtectionHubApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:date-range-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.assurant.cph=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--cph.cache.persistence.enabled=false");
+        paymentRecordRepository = context.getBean(PaymentRecordRepository.class);
+        paymentRecordService = context.getBean(PaymentRecordService.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        insertPayments(createPlan());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int firstPageOfDay() {
+        LocalDateTime from = START.plusDays(ThreadLocalRandom.current().nextInt(payments / 1440));
+        LocalDateTime to = from.plusDays(1);
+        if (approach.equals("findAll")) {
+            return readOnly.execute(status -> paymentRecordRepository.findAll().stream()
+                    .filter(payment -> !payment.getPaymentDate().isBefore(from) && !payment.getPaymentDate().isAfter(to))
+                    .limit(PageQuery.DEFAULT_LIMIT)
+                    .toList()
+                    .size());
+        }
+        return paymentRecordService.getPaymentsByDateRange(new PaymentFilter(null, null, from, to),
+                PageQuery.of(null, null, null)).items().size();
+    }
+
+    private ProtectionPlan createPlan() {
+        Customer customer = context.getBean(CustomerRepository.class).save(Customer.builder()
+                .fullName("Benchmark Customer")
+                .email("date-range@example.com")
+                .documentNumber("BENCH-DR")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = context.getBean(ProtectedAssetRepository.class).save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("BENCH-DR-SN")
+                .purchaseDate(START.minusMonths(6))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        return context.getBean(ProtectionPlanRepository.class).save(ProtectionPlan.builder()
+                .name("Plan")
+                .startDate(START.minusMonths(1))
+                .endDate(START.plusYears(5))
+                .premiumAmount(19.9)
+                .status(ProtectionPlan.PlanStatus.ACTIVE)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+    }
+
+    // Inserted in id order rather than date order so the table is not clustered on payment_date already
+    private void insertPayments(ProtectionPlan plan) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < payments; i++) {
+            Timestamp at = Timestamp.valueOf(START.plusMinutes(ThreadLocalRandom.current().nextInt(payments)));
+            rows.add(new Object[]{UUID.randomUUID(), "BENCH-" + i, 19.9, at, PaymentRecord.PaymentMethod.PIX.name(),
+                    PaymentRecord.PaymentStatus.COMPLETED.name(), plan.getId(), at, at});
+            if (rows.size() == BATCH_SIZE || i == payments - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO payment_records (id, payment_reference, amount, payment_date, " +
+                        "payment_method, status, protection_plan_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(PaymentDateRangeBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
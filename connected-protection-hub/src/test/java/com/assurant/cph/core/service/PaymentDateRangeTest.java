@@ -0,0 +1,141 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.api.dto.CursorPage;
+import com.assurant.cph.api.dto.PaymentRecordSnapshot;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class PaymentDateRangeTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @Autowired
+    private PaymentRecordService paymentRecordService;
+
+    @Autowired
+    private PaymentRecordRepository paymentRecordRepository;
+
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+
+    @Autowired
+    private ProtectedAssetRepository protectedAssetRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @BeforeEach
+    void createPayments() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .fullName("Date Range")
+                .email("date-range@example.com")
+                .documentNumber("DR-1")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = protectedAssetRepository.save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("DR-SN-1")
+                .purchaseDate(START.minusMonths(6))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        ProtectionPlan plan = protectionPlanRepository.save(ProtectionPlan.builder()
+                .name("Plan")
+                .startDate(START.minusMonths(1))
+                .endDate(START.plusYears(1))
+                .premiumAmount(19.9)
+                .status(ProtectionPlan.PlanStatus.ACTIVE)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+        // Two payments per day for ten days, the same instant for both so pages must split ties by id
+        for (int day = 0; day < 10; day++) {
+            for (int i = 0; i < 2; i++) {
+                paymentRecordRepository.save(PaymentRecord.builder()
+                        .paymentReference("DR-" + day + "-" + i)
+                        .amount(19.9)
+                        .paymentDate(START.plusDays(day))
+                        .paymentMethod(i == 0 ? PaymentRecord.PaymentMethod.PIX : PaymentRecord.PaymentMethod.CREDIT_CARD)
+                        .status(PaymentRecord.PaymentStatus.COMPLETED)
+                        .protectionPlan(plan)
+                        .build());
+            }
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        paymentRecordRepository.deleteAllInBatch();
+        protectionPlanRepository.deleteAll();
+        protectedAssetRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void pagesThroughTheRangeInPaymentDateOrder() {
+        PaymentFilter days2To6 = new PaymentFilter(null, null, START.plusDays(2), START.plusDays(6));
+
+        List<PaymentRecordSnapshot> ascending = walk(days2To6, "asc", 3);
+        assertThat(ascending).hasSize(10).extracting(PaymentRecordSnapshot::paymentDate).isSorted()
+                .allMatch(date -> !date.isBefore(START.plusDays(2)) && !date.isAfter(START.plusDays(6)));
+        assertThat(ascending).extracting(PaymentRecordSnapshot::id).doesNotHaveDuplicates();
+
+        List<PaymentRecordSnapshot> descending = walk(days2To6, "desc", 4);
+        assertThat(descending).extracting(PaymentRecordSnapshot::id)
+                .containsExactlyElementsOf(reversedIds(ascending));
+
+        PaymentFilter pixOnly = new PaymentFilter(PaymentRecord.PaymentStatus.COMPLETED, PaymentRecord.PaymentMethod.PIX,
+                START, START.plusDays(9));
+        assertThat(walk(pixOnly, "asc", 3)).hasSize(10)
+                .allMatch(payment -> payment.paymentMethod() == PaymentRecord.PaymentMethod.PIX);
+    }
+
+    @Test
+    void requiresBothDates() {
+        assertThatThrownBy(() -> paymentRecordService.getPaymentsByDateRange(
+                new PaymentFilter(null, null, START, null), PageQuery.of(null, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<UUID> reversedIds(List<PaymentRecordSnapshot> payments) {
+        List<UUID> ids = new ArrayList<>(payments.stream().map(PaymentRecordSnapshot::id).toList());
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private List<PaymentRecordSnapshot> walk(PaymentFilter filter, String direction, int limit) {
+        List<PaymentRecordSnapshot> payments = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<PaymentRecordSnapshot> page = paymentRecordService.getPaymentsByDateRange(
+                    filter, PageQuery.of(cursor, limit, direction));
+            payments.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return payments;
+    }
+}
@@ -0,0 +1,143 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.api.dto.PaymentRecordSnapshot;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "cph.payments.expiry.chunk-size=500",
+        "cph.payments.counters.consistency-check-interval=1h"
+})
+class PaymentExpiryTest {
+
+    private static final int EXPIRED = 1250;
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Autowired
+    private PaymentRecordService paymentRecordService;
+
+    @Autowired
+    private PaymentCounters paymentCounters;
+
+    @Autowired
+    private PaymentRecordRepository paymentRecordRepository;
+
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+
+    @Autowired
+    private ProtectedAssetRepository protectedAssetRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Customer customer;
+    private UUID recentPending;
+    private UUID oldCompleted;
+
+    @BeforeEach
+    void createPayments() {
+        customer = customerRepository.save(Customer.builder()
+                .fullName("Expiry")
+                .email("expiry@example.com")
+                .documentNumber("EXP-1")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = protectedAssetRepository.save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("EXP-SN-1")
+                .purchaseDate(NOW.minusYears(1))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        ProtectionPlan plan = protectionPlanRepository.save(ProtectionPlan.builder()
+                .name("Plan")
+                .startDate(NOW.minusMonths(6))
+                .endDate(NOW.plusMonths(6))
+                .premiumAmount(19.9)
+                .status(ProtectionPlan.PlanStatus.ACTIVE)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < EXPIRED; i++) {
+            rows.add(row("EXP-OLD-" + i, NOW.minusDays(2).minusMinutes(i), "PENDING", plan));
+        }
+        Object[] recent = row("EXP-RECENT", NOW.minusHours(1), "PENDING", plan);
+        Object[] completed = row("EXP-COMPLETED", NOW.minusDays(3), "COMPLETED", plan);
+        rows.add(recent);
+        rows.add(completed);
+        recentPending = (UUID) recent[0];
+        oldCompleted = (UUID) completed[0];
+        jdbcTemplate.batchUpdate("INSERT INTO payment_records (id, payment_reference, amount, payment_date, payment_method, " +
+                "status, protection_plan_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+
+        paymentCounters.load();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        paymentRecordRepository.deleteAllInBatch();
+        protectionPlanRepository.deleteAll();
+        protectedAssetRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void expireOnlyStalePendingPaymentsAcrossChunks() {
+        // Cached before the run, so the assertion below also covers the eviction
+        assertThat(paymentRecordService.getPaymentsByCustomerId(customer.getId()))
+                .filteredOn(payment -> payment.status() == PaymentRecord.PaymentStatus.PENDING)
+                .hasSize(EXPIRED + 1);
+
+        assertThat(paymentRecordService.cancelExpiredPendingPayments()).isEqualTo(EXPIRED);
+
+        Map<PaymentRecord.PaymentStatus, Long> byStatus = paymentRecordService.getPaymentsByCustomerId(customer.getId()).stream()
+                .collect(Collectors.groupingBy(PaymentRecordSnapshot::status, Collectors.counting()));
+        assertThat(byStatus).containsOnly(
+                Map.entry(PaymentRecord.PaymentStatus.EXPIRED, (long) EXPIRED),
+                Map.entry(PaymentRecord.PaymentStatus.PENDING, 1L),
+                Map.entry(PaymentRecord.PaymentStatus.COMPLETED, 1L));
+        assertThat(paymentRecordRepository.findById(recentPending)).get()
+                .extracting(PaymentRecord::getStatus).isEqualTo(PaymentRecord.PaymentStatus.PENDING);
+        assertThat(paymentRecordRepository.findById(oldCompleted)).get()
+                .extracting(PaymentRecord::getStatus).isEqualTo(PaymentRecord.PaymentStatus.COMPLETED);
+        assertThat(paymentCounters.check()).isEmpty();
+
+        assertThat(paymentRecordService.cancelExpiredPendingPayments()).isZero();
+    }
+
+    private static Object[] row(String reference, LocalDateTime paymentDate, String status, ProtectionPlan plan) {
+        Timestamp created = Timestamp.valueOf(paymentDate);
+        return new Object[]{UUID.randomUUID(), reference, 19.9, created, "PIX", status, plan.getId(), created, created};
+    }
+}
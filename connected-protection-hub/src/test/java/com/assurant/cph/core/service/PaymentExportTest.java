@@ -0,0 +1,191 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PaymentExportTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private PaymentRecordService paymentRecordService;
+
+    @Autowired
+    private PaymentRecordRepository paymentRecordRepository;
+
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+
+    @Autowired
+    private ProtectedAssetRepository protectedAssetRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private ProtectionPlan plan;
+    private int inserted;
+
+    @BeforeEach
+    void createPlan() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .fullName("Export")
+                .email("export@example.com")
+                .documentNumber("EX-1")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = protectedAssetRepository.save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("EX-SN-1")
+                .purchaseDate(START)
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        plan = protectionPlanRepository.save(ProtectionPlan.builder()
+                .name("Plan")
+                .startDate(START)
+                .endDate(START.plusYears(1))
+                .premiumAmount(19.9)
+                .status(ProtectionPlan.PlanStatus.ACTIVE)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        paymentRecordRepository.deleteAllInBatch();
+        protectionPlanRepository.deleteAll();
+        protectedAssetRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void streamsFilteredPaymentsAsCsvAndNdjson() throws Exception {
+        insertPayments(4);
+
+        String csv = mockMvc.perform(get("/api/v1/payments/export").param("format", "csv")
+                        .param("status", "COMPLETED").param("endDate", "2024-01-01 00:01:00"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"payments.csv\""))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = csv.split("\r\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("id,paymentReference,amount");
+        assertThat(lines[1]).contains("EXP-0,").contains(",COMPLETED,");
+
+        String ndjson = mockMvc.perform(get("/api/v1/payments/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(ndjson.lines()).hasSize(4).allMatch(line -> line.startsWith("{\"id\":"));
+
+        mockMvc.perform(get("/api/v1/payments/export")
+                        .param("startDate", "2024-02-01 00:00:00").param("endDate", "2024-01-01 00:00:00"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/payments/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void heapStaysFlatWhateverTheNumberOfRows() throws Exception {
+        insertPayments(5_000);
+        long small = heapGrowthDuringExport(5_000);
+
+        // Five times the rows: held anywhere along the way, their snapshots alone would take over 7 MB
+        insertPayments(20_000);
+        long large = heapGrowthDuringExport(25_000);
+
+        assertThat(small).isLessThan(2 * 1024 * 1024);
+        assertThat(large).isLessThan(2 * 1024 * 1024);
+    }
+
+    private long heapGrowthDuringExport(long expectedRows) throws Exception {
+        HeapSampler sampler = new HeapSampler();
+        long exported = paymentRecordService.exportPayments(
+                new PaymentFilter(null, null, null, null), PaymentExportFormat.NDJSON, sampler);
+        assertThat(exported).isEqualTo(expectedRows);
+        assertThat(sampler.samples).hasSizeGreaterThan(2);
+        // From the lowest sample to the last: rows kept until the end would show as a climb, whatever was
+        // still being collected when the export started
+        return sampler.samples.get(sampler.samples.size() - 1)
+                - sampler.samples.stream().mapToLong(Long::longValue).min().orElseThrow();
+    }
+
+    private void insertPayments(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = inserted; i < inserted + count; i++) {
+            Timestamp at = Timestamp.valueOf(START.plusMinutes(i));
+            rows.add(new Object[]{UUID.randomUUID(), "EXP-" + i, 19.9, at, PaymentRecord.PaymentMethod.PIX.name(),
+                    (i % 2 == 0 ? PaymentRecord.PaymentStatus.COMPLETED : PaymentRecord.PaymentStatus.PENDING).name(),
+                    plan.getId(), at, at});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO payment_records (id, payment_reference, amount, payment_date, payment_method, " +
+                "status, protection_plan_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        inserted += count;
+    }
+
+    private static long retainedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Discards the export, measuring what is still reachable every 512 KB of output
+    private static final class HeapSampler extends OutputStream {
+
+        private static final long SAMPLE_EVERY = 512 * 1024;
+
+        private final List<Long> samples = new ArrayList<>();
+        private long written;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if ((written + len) / SAMPLE_EVERY > written / SAMPLE_EVERY) {
+                samples.add(retainedHeap());
+            }
+            written += len;
+        }
+    }
+}
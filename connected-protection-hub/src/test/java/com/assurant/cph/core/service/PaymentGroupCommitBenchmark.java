@@ -0,0 +1,154 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.ConnectedProtectionHubApplication;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 64 concurrent callers each storing one payment at a time, as the single-payment endpoint sees them at
+ * peak, once with group commit off and once per window size. Throughput mode gives payments per millisecond;
+ * sample mode gives each caller's latency distribution, so the two together show what a longer window
+ * buys in throughput and costs in latency. The average group size is printed per trial.
+ *
+ * <p>The database is H2 reached over loopback TCP, so every statement and commit pays a round trip.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.assurant.cph.core.service.PaymentGroupCommitBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PaymentGroupCommitBenchmark {
+
+    private static final int PLANS = 100;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"off", "500us", "2ms", "5ms"})
+    private String window;
+
+    private Server database;
+    private ConfigurableApplicationContext context;
+    private PaymentGroupCommitter paymentGroupCommitter;
+    private final List<UUID> planIds = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final String prefix = UUID.randomUUID().toString();
+
+    @Setup(Level.Trial)
+    public void start() throws SQLException {
+        database = Server.createTcpServer("-tcpPort", "0", "-tcpAllowOthers", "-ifNotExists").start();
+        context = new SpringApplicationBuilder(ConnectedProtectionHubApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort() + "/mem:group-commit-"
+                        + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.hikari.maximum-pool-size=64",
+                "--cph.payments.group-commit.enabled=" + !window.equals("off"),
+                "--cph.payments.group-commit.window=" + (window.equals("off") ? "0ms" : window),
+                "--cph.payments.group-commit.max-items=64",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.assurant.cph=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--cph.cache.persistence.enabled=false");
+        paymentGroupCommitter = context.getBean(PaymentGroupCommitter.class);
+        createPlans();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        PaymentGroupCommitter.GroupCommitStats stats = paymentGroupCommitter.getStats();
+        if (stats.groups() > 0) {
+            System.out.printf("%nWindow %s: %d payments in %d groups, %.1f per group%n",
+                    window, stats.payments(), stats.groups(), (double) stats.payments() / stats.groups());
+        }
+        context.close();
+        database.stop();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PaymentRecord processPayment() {
+        long n = sequence.incrementAndGet();
+        return paymentGroupCommitter.process(PaymentRecord.builder()
+                .paymentReference(prefix + "-" + n)
+                .amount(19.9)
+                .paymentMethod(PaymentRecord.PaymentMethod.PIX)
+                .protectionPlan(ProtectionPlan.builder().id(planIds.get((int) (n % PLANS))).build())
+                .build());
+    }
+
+    private void createPlans() {
+        Customer customer = context.getBean(CustomerRepository.class).save(Customer.builder()
+                .fullName("Benchmark Customer")
+                .email("group-commit@example.com")
+                .documentNumber("BENCH-GC")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = context.getBean(ProtectedAssetRepository.class).save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("BENCH-GC-SN")
+                .purchaseDate(START.minusMonths(6))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        ProtectionPlanRepository protectionPlanRepository = context.getBean(ProtectionPlanRepository.class);
+        for (int i = 0; i < PLANS; i++) {
+            planIds.add(protectionPlanRepository.save(ProtectionPlan.builder()
+                    .name("Plan " + i)
+                    .startDate(START.minusMonths(1))
+                    .endDate(START.plusYears(5))
+                    .premiumAmount(19.9)
+                    .status(ProtectionPlan.PlanStatus.ACTIVE)
+                    .customer(customer)
+                    .protectedAsset(asset)
+                    .build()).getId());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(PaymentGroupCommitBenchmark.class.getName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,260 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.config.PaymentProperties;
+import com.assurant.cph.core.domain.Customer;
+import com.assurant.cph.core.domain.ElectronicDevice;
+import com.assurant.cph.core.domain.PaymentRecord;
+import com.assurant.cph.core.domain.ProtectedAsset;
+import com.assurant.cph.core.domain.ProtectionPlan;
+import com.assurant.cph.core.repository.CustomerRepository;
+import com.assurant.cph.core.repository.PaymentRecordRepository;
+import com.assurant.cph.core.repository.ProtectedAssetRepository;
+import com.assurant.cph.core.repository.ProtectionPlanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A long window so the concurrent callers below always share groups
+@SpringBootTest(properties = {
+        "cph.payments.group-commit.enabled=true",
+        "cph.payments.group-commit.window=200ms",
+        "cph.payments.group-commit.max-items=16",
+        "cph.payments.counters.consistency-check-interval=1h"
+})
+@AutoConfigureMockMvc
+class PaymentGroupCommitTest {
+
+    private static final int CALLERS = 40;
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Autowired
+    private PaymentGroupCommitter paymentGroupCommitter;
+
+    @Autowired
+    private PaymentCounters paymentCounters;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentRecordRepository paymentRecordRepository;
+
+    @Autowired
+    private ProtectionPlanRepository protectionPlanRepository;
+
+    @Autowired
+    private ProtectedAssetRepository protectedAssetRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private ProtectionPlan active;
+    private ProtectionPlan cancelled;
+
+    @BeforeEach
+    void createPlans() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .fullName("Group Commit")
+                .email("group-commit@example.com")
+                .documentNumber("GC-1")
+                .documentType(Customer.DocumentType.CPF)
+                .build());
+        ProtectedAsset asset = protectedAssetRepository.save(ElectronicDevice.builder()
+                .name("Device")
+                .serialNumber("GC-SN-1")
+                .purchaseDate(NOW.minusYears(1))
+                .customer(customer)
+                .deviceType("SMARTPHONE")
+                .brand("Brand")
+                .model("Model")
+                .build());
+        active = plan(customer, asset, ProtectionPlan.PlanStatus.ACTIVE);
+        cancelled = plan(customer, asset, ProtectionPlan.PlanStatus.CANCELLED);
+        paymentCounters.load();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        paymentRecordRepository.deleteAllInBatch();
+        protectionPlanRepository.deleteAll();
+        protectedAssetRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void answerEachCallerOfASharedGroupOnItsOwn() throws Exception {
+        paymentGroupCommitter.process(payment("GC-EXISTING", active));
+        PaymentGroupCommitter.GroupCommitStats before = paymentGroupCommitter.getStats();
+
+        List<PaymentRecord> payments = new ArrayList<>();
+        for (int i = 0; i < CALLERS - 2; i++) {
+            payments.add(payment("GC-" + i, active));
+        }
+        payments.add(payment("GC-EXISTING", active));
+        payments.add(payment("GC-CANCELLED", cancelled));
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch ready = new CountDownLatch(CALLERS);
+        List<Future<PaymentRecord>> results = new ArrayList<>();
+        try {
+            for (PaymentRecord payment : payments) {
+                results.add(callers.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return paymentGroupCommitter.process(payment);
+                }));
+            }
+            for (int i = 0; i < CALLERS - 2; i++) {
+                PaymentRecord stored = results.get(i).get();
+                assertThat(stored.getId()).isNotNull();
+                assertThat(stored.getPaymentReference()).isEqualTo("GC-" + i);
+                assertThat(stored.getProtectionPlan().getId()).isEqualTo(active.getId());
+            }
+            assertThatThrownBy(() -> results.get(CALLERS - 2).get())
+                    .cause().isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Payment reference already exists: GC-EXISTING");
+            assertThatThrownBy(() -> results.get(CALLERS - 1).get())
+                    .cause().isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Cannot process payment for protection plan with status: CANCELLED");
+        } finally {
+            callers.shutdownNow();
+        }
+
+        PaymentGroupCommitter.GroupCommitStats stats = paymentGroupCommitter.getStats();
+        assertThat(stats.payments() - before.payments()).isEqualTo(CALLERS);
+        assertThat(stats.groups() - before.groups()).isLessThan(CALLERS / 2);
+        assertThat(paymentRecordRepository.count()).isEqualTo(CALLERS - 1);
+        assertThat(paymentCounters.check()).isEmpty();
+    }
+
+    @Test
+    void keepTheSingleRequestResponsesOfTheEndpoint() throws Exception {
+        String body = "{\"paymentReference\":\"GC-HTTP\",\"amount\":19.9,\"paymentMethod\":\"PIX\"," +
+                "\"paymentDate\":\"" + NOW + "\",\"protectionPlan\":{\"id\":\"%s\"}}";
+
+        mockMvc.perform(post("/api/v1/payments").contentType(MediaType.APPLICATION_JSON)
+                        .content(body.formatted(active.getId())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.paymentReference").value("GC-HTTP"))
+                .andExpect(jsonPath("$.id").isNotEmpty());
+        mockMvc.perform(post("/api/v1/payments").contentType(MediaType.APPLICATION_JSON)
+                        .content(body.formatted(active.getId())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Payment reference already exists: GC-HTTP"));
+        mockMvc.perform(post("/api/v1/payments").contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("GC-HTTP", "GC-HTTP-2").formatted(cancelled.getId())))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void failTheWholeGroupWhenTheFlusherHitsAnError() {
+        PaymentRecordService service = mock(PaymentRecordService.class);
+        when(service.processPaymentGroup(anyList())).thenThrow(new AssertionError("flusher broke"));
+        PaymentGroupCommitter committer = committer(service);
+        committer.start();
+        try {
+            assertThatThrownBy(() -> committer.process(payment("GC-ERROR", active)))
+                    .isInstanceOf(AssertionError.class)
+                    .hasMessage("flusher broke");
+            // The flusher carries on with the next group
+            assertThatThrownBy(() -> committer.process(payment("GC-ERROR-2", active)))
+                    .isInstanceOf(AssertionError.class);
+            assertThat(committer.getStats().timedOut()).isZero();
+        } finally {
+            committer.stop();
+        }
+    }
+
+    @Test
+    void processDirectlyWhenNoGroupTakesThePaymentInTime() throws Exception {
+        PaymentRecordService service = mock(PaymentRecordService.class);
+        CountDownLatch stuck = new CountDownLatch(1);
+        when(service.processPaymentGroup(anyList())).thenAnswer(invocation -> {
+            stuck.await();
+            return Map.of();
+        });
+        when(service.processPayment(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        PaymentGroupCommitter committer = committer(service);
+        committer.start();
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            // The first payment's group hangs in its commit, holding up the flusher
+            Future<PaymentRecord> first = callers.submit(() -> committer.process(payment("GC-STUCK", active)));
+            Thread.sleep(100);
+
+            PaymentRecord second = payment("GC-QUEUED", active);
+            assertThat(committer.process(second)).isSameAs(second);
+            // Both callers gave up once, but the one whose group was committing went on waiting for it
+            verify(service).processPayment(any());
+            verify(service).processPayment(second);
+            assertThat(committer.getStats().timedOut()).isEqualTo(2);
+
+            stuck.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS).getPaymentReference()).isEqualTo("GC-STUCK");
+            // Taken back by its caller, so the group after the stuck one does not store it again
+            Thread.sleep(100);
+            verify(service, never()).processPaymentGroup(List.of(second));
+        } finally {
+            stuck.countDown();
+            callers.shutdownNow();
+            committer.stop();
+        }
+    }
+
+    private static PaymentGroupCommitter committer(PaymentRecordService service) {
+        PaymentProperties properties = new PaymentProperties();
+        properties.getGroupCommit().setEnabled(true);
+        properties.getGroupCommit().setMaxItems(1);
+        properties.getGroupCommit().setCallerTimeout(Duration.ofMillis(300));
+        return new PaymentGroupCommitter(service, properties);
+    }
+
+    private ProtectionPlan plan(Customer customer, ProtectedAsset asset, ProtectionPlan.PlanStatus status) {
+        return protectionPlanRepository.save(ProtectionPlan.builder()
+                .name("Plan " + status)
+                .startDate(NOW.minusMonths(1))
+                .endDate(NOW.plusYears(1))
+                .premiumAmount(19.9)
+                .status(status)
+                .customer(customer)
+                .protectedAsset(asset)
+                .build());
+    }
+
+    private static PaymentRecord payment(String reference, ProtectionPlan plan) {
+        return PaymentRecord.builder()
+                .paymentReference(reference)
+                .amount(19.9)
+                .paymentMethod(PaymentRecord.PaymentMethod.PIX)
+                .protectionPlan(ProtectionPlan.builder().id(plan.getId()).build())
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.assurant.cph.core.service;
+
+import com.assurant.cph.config.PaymentProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanLaneExecutorTest {
+
+    private PlanLaneExecutor executor;
+
+    @AfterEach
+    void stop() {
+        executor.stop();
+    }
+
+    @Test
+    void keepEachPlansWorkInOrderWhilePlansRunInParallel() {
+        executor = start(4, 100);
+        List<UUID> plans = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            plans.add(UUID.randomUUID());
+        }
+
+        Map<UUID, List<Integer>> seen = new ConcurrentHashMap<>();
+        Map<UUID, String> threadByPlan = new ConcurrentHashMap<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int step = 0; step < 200; step++) {
+            for (UUID plan : plans) {
+                int current = step;
+                results.add(executor.submit(plan, () -> {
+                    // Unsynchronized on purpose: only the plan's own lane ever touches its list
+                    seen.computeIfAbsent(plan, key -> new ArrayList<>()).add(current);
+                    threadByPlan.merge(plan, Thread.currentThread().getName(), (a, b) -> a.equals(b) ? a : "moved");
+                    return current;
+                }));
+            }
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+        List<Integer> steps = new ArrayList<>();
+        for (int step = 0; step < 200; step++) {
+            steps.add(step);
+        }
+        plans.forEach(plan -> assertThat(seen.get(plan)).isEqualTo(steps));
+        assertThat(threadByPlan.values()).doesNotContain("moved");
+        assertThat(Set.copyOf(threadByPlan.values())).hasSize(4);
+        assertThat(executor.getStats().completed()).isEqualTo(200L * 50);
+    }
+
+    @Test
+    void blockSubmittersWhileTheLaneIsFull() throws Exception {
+        executor = start(1, 2);
+        UUID plan = UUID.randomUUID();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(plan, () -> {
+            running.countDown();
+            return await(release);
+        });
+        running.await();
+        executor.submit(plan, () -> 1);
+        executor.submit(plan, () -> 2);
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread submitter = new Thread(() -> {
+            executor.submit(plan, () -> 3);
+            submitted.countDown();
+        });
+        submitter.start();
+
+        assertThat(submitted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        release.countDown();
+        assertThat(submitted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getStats().blockedSubmits()).isEqualTo(1);
+    }
+
+    @Test
+    void failOnlyTheWorkThatThrew() {
+        executor = start(2, 10);
+        UUID plan = UUID.randomUUID();
+
+        CompletableFuture<Integer> failed = executor.submit(plan, () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Integer> next = executor.submit(plan, () -> 42);
+
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalStateException.class).hasRootCauseMessage("boom");
+        assertThat(next.join()).isEqualTo(42);
+    }
+
+    @Test
+    void refuseWorkOnceStopped() {
+        executor = start(2, 10);
+        executor.stop();
+
+        assertThatThrownBy(() -> executor.submit(UUID.randomUUID(), () -> 1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void keepLanesBelowTheConnectionPoolSize() {
+        PaymentProperties properties = new PaymentProperties();
+        properties.getLanes().setCount(64);
+        assertThat(new PlanLaneExecutor(properties, 10).lanes()).isEqualTo(9);
+        assertThat(new PlanLaneExecutor(properties, 1).lanes()).isEqualTo(1);
+
+        properties.getLanes().setCount(4);
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(3);
+        assertThat(new PlanLaneExecutor(properties, dataSource).lanes()).isEqualTo(2);
+        dataSource.setMaximumPoolSize(10);
+        executor = new PlanLaneExecutor(properties, dataSource);
+        executor.start();
+        assertThat(executor.getStats().lanes()).isEqualTo(4);
+    }
+
+    private static PlanLaneExecutor start(int lanes, int capacity) {
+        PaymentProperties properties = new PaymentProperties();
+        properties.getLanes().setCount(lanes);
+        properties.getLanes().setCapacity(capacity);
+        PlanLaneExecutor executor = new PlanLaneExecutor(properties, Integer.MAX_VALUE);
+        executor.start();
+        return executor;
+    }
+
+    private static int await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}